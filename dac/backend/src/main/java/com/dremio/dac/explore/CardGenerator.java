@@ -74,25 +74,23 @@ public class CardGenerator {
     JobUI datasetPreviewJob = DatasetsUtil.getDatasetPreviewJob(executor, datasetSql, datasetPath, version);
     String previewDataTable = datasetPreviewJob.getData().getJobResultsTable();
 
-    // Generate a query to count the number of matches for each rule and total number of rows. Input here is from
-    // preview data of the dataset with version.
-    String countQuery = generateMatchCountQuery(colName, previewDataTable, transformRuleWrappers);
+    // Generate a single query counting the number of matches for each rule and the total number of rows, and
+    // generating the examples. Input here is from preview data of the dataset with version.
+    String cardQuery = generateCardQuery(colName, previewDataTable, transformRuleWrappers);
 
-    JobUI countJob = executor.runQuery(datasetSql.cloneWithNewSql(countQuery), QueryType.UI_INTERNAL_RUN, datasetPath, version);
-    JobDataFragment countJobData = countJob.getData().truncate(1);
+    JobUI cardJob = executor.runQuery(datasetSql.cloneWithNewSql(cardQuery), QueryType.UI_INTERNAL_RUN, datasetPath, version);
+    JobDataFragment cardJobData = cardJob.getData().truncate(Card.EXAMPLES_TO_SHOW);
+    final boolean hasRows = cardJobData.getReturnedRowCount() > 0;
 
     // Get the total number of records
-    final int totalCount = toIntOrZero(countJobData.extractValue("total", 0));
+    final int totalCount = hasRows ? toIntOrZero(cardJobData.extractValue("total", 0)) : 0;
 
-    String exGenQuery = generateCardGenQuery(colName, previewDataTable, transformRuleWrappers);
-
-    JobUI exGenQueryJob = executor.runQuery(datasetSql.cloneWithNewSql(exGenQuery), QueryType.UI_INTERNAL_RUN, datasetPath, version);
-    List<List<CardExample>> cardsExamples = getExamples(exGenQueryJob, transformRuleWrappers);
+    List<List<CardExample>> cardsExamples = getExamples(cardJobData, transformRuleWrappers);
 
     List<Card<T>> cards = Lists.newArrayList();
     for(int i = 0; i < transformRuleWrappers.size() ; i++) {
       // Get match count for current rule
-      final int matchedCount = toIntOrZero(countJobData.extractValue("matched_count_" + i, 0));
+      final int matchedCount = hasRows ? toIntOrZero(cardJobData.extractValue("matched_count_" + i, 0)) : 0;
 
       Recommender.TransformRuleWrapper<T> evaluator = transformRuleWrappers.get(i);
 
@@ -117,9 +115,7 @@ public class CardGenerator {
     return 0;
   }
 
-  <T> List<List<CardExample>> getExamples(JobUI exGenQueryJob, List<TransformRuleWrapper<T>> transformRuleWrappers) {
-
-    JobDataFragment data = exGenQueryJob.getData().truncate(Card.EXAMPLES_TO_SHOW);
+  <T> List<List<CardExample>> getExamples(JobDataFragment data, List<TransformRuleWrapper<T>> transformRuleWrappers) {
 
     final List<List<CardExample>> examples = Lists.newArrayList();
     for(int ruleIndex = 0; ruleIndex < transformRuleWrappers.size(); ruleIndex++) {
@@ -128,6 +124,10 @@ public class CardGenerator {
 
     for (int row = 0; row < data.getReturnedRowCount(); row++) {
       final String input = data.extractString("inputCol", row);
+      if (input == null) {
+        // rows with no input only come last, when there are not enough examples.
+        continue;
+      }
       for (int ruleIndex = 0; ruleIndex < transformRuleWrappers.size(); ruleIndex++) {
         if (!transformRuleWrappers.get(ruleIndex).canGenerateExamples()) {
           continue;
@@ -161,61 +161,69 @@ public class CardGenerator {
     return examples;
   }
 
-  <T> String generateCardGenQuery(String inputColName, String datasetPreviewTable, List<TransformRuleWrapper<T>> evaluators) {
-
-    StringBuilder queryBuilder = new StringBuilder();
+  /**
+   * Generate the query computing a card for each rule in a single pass over the preview data.
+   *
+   * The match counts and the total number of rows are window aggregates over all the rows, returned on every row, so
+   * that the first rows, non null inputs first, also carry the examples. The input column is projected as
+   * dremio_value so that it doesn't clash with the names of the counts.
+   */
+  <T> String generateCardQuery(String inputColName, String datasetPreviewTable, List<TransformRuleWrapper<T>> evaluators) {
 
     String inputExpr = String.format("%s.%s", quoteIdentifier("dremio_preview_data"), quoteIdentifier(inputColName));
+    String valueExpr = String.format("%s.%s", quoteIdentifier("dremio_preview_data"), quoteIdentifier("dremio_value"));
+
+    // match counts and total, over all the rows.
+    List<String> countExprs = Lists.newArrayList();
+    countExprs.add(String.format("%s AS %s", inputExpr, quoteIdentifier("dremio_value")));
+    for(int i=0; i<evaluators.size(); i++) {
+      final String expr = evaluators.get(i).getMatchFunctionExpr(inputExpr);
+
+      final String outputColAlias = "matched_count_" + i;
+
+      // Add sum over the true or false expression
+      countExprs.add(String.format("sum(CASE WHEN %s THEN 1 ELSE 0 END) OVER () AS %s", expr, outputColAlias));
+    }
+
+    // Add an count(*) to count the total number of rows in job output.
+    // This was changed for a previous use of sum(1), as this produces null for an empty input set
+    // which we can have if our sample fails all filters and in other cases
+    countExprs.add("COUNT(1) OVER () as total");
+
+    // examples, only computed on the rows returned.
     List<String> exprs = Lists.newArrayList();
     for(int i=0; i<evaluators.size(); i++) {
       if (evaluators.get(i).canGenerateExamples()) {
-        final String expr = evaluators.get(i).getExampleFunctionExpr(inputExpr);
+        final String expr = evaluators.get(i).getExampleFunctionExpr(valueExpr);
         final String outputColAlias = "example_" + i;
 
         exprs.add(String.format("%s AS %s", expr, outputColAlias));
       }
     }
 
-    exprs.add(String.format("%s AS inputCol", inputExpr));
+    exprs.add(String.format("%s AS inputCol", valueExpr));
+    for(int i=0; i<evaluators.size(); i++) {
+      exprs.add("matched_count_" + i);
+    }
+    exprs.add("total");
+
+    StringBuilder queryBuilder = new StringBuilder();
 
     queryBuilder.append("SELECT\n");
 
     queryBuilder.append(Joiner.on(",\n").join(exprs));
 
-    queryBuilder.append(format("\nFROM %s as dremio_preview_data", datasetPreviewTable));
-
-    queryBuilder.append(format("\nWHERE %s IS NOT NULL", quoteIdentifier(inputColName)));
-
-    queryBuilder.append(format("\nLIMIT %d", Card.EXAMPLES_TO_SHOW));
-
-    return queryBuilder.toString();
-  }
-
-  <T> String generateMatchCountQuery(String inputColName, String datasetPreviewTable, List<TransformRuleWrapper<T>> evaluators) {
-
-    StringBuilder queryBuilder = new StringBuilder();
-
-    String inputExpr = String.format("%s.%s", quoteIdentifier("dremio_preview_data"), quoteIdentifier(inputColName));
-    List<String> exprs = Lists.newArrayList();
-    for(int i=0; i<evaluators.size(); i++) {
-      final String expr = evaluators.get(i).getMatchFunctionExpr(inputExpr);
-
-      final String outputColAlias = "matched_count_" + i;
+    queryBuilder.append("\nFROM (\nSELECT\n");
 
-      // Add sum over the true or false expression
-      exprs.add(String.format("sum(CASE WHEN %s THEN 1 ELSE 0 END) AS %s", expr, outputColAlias));
-    }
+    queryBuilder.append(Joiner.on(",\n").join(countExprs));
 
-    // Add an count(*) to count the total number of rows in job output.
-    // This was changed for a previous use of sum(1), as this produces null for an empty input set
-    // which we can have if our sample fails all filters and in other cases
-    exprs.add("COUNT(1) as total");
+    queryBuilder.append(format("\nFROM %s as dremio_preview_data", datasetPreviewTable));
 
-    queryBuilder.append("SELECT\n");
+    queryBuilder.append(format("\nORDER BY CASE WHEN %s IS NULL THEN 1 ELSE 0 END", inputExpr));
 
-    queryBuilder.append(Joiner.on(",\n").join(exprs));
+    queryBuilder.append(format("\nLIMIT %d", Card.EXAMPLES_TO_SHOW));
 
-    queryBuilder.append(format("\nFROM %s as dremio_preview_data", datasetPreviewTable));
+    queryBuilder.append("\n) as dremio_preview_data");
 
     return queryBuilder.toString();
   }
@@ -66,6 +66,7 @@ import com.dremio.service.job.proto.JobState;
 import com.dremio.service.job.proto.ParentDatasetInfo;
 import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.jobs.Job;
+import com.dremio.service.jobs.JobStatusListener;
 import com.dremio.service.jobs.JobsService;
 import com.dremio.service.jobs.SqlQuery;
 import com.dremio.service.jobs.metadata.QueryMetadata;
@@ -115,7 +116,8 @@ public class DatasetTool {
       ) throws DatasetVersionNotFoundException, NamespaceException {
 
     SqlQuery query = new SqlQuery(newDataset.getSql(), newDataset.getState().getContextList(), username());
-    JobUI job = executor.runQuery(query, QueryType.UI_PREVIEW, datasetPath, newDataset.getVersion());
+    JobUI job = executor.runPreviewWithListener(newDataset.getState(), query, datasetPath, newDataset.getVersion(),
+        JobStatusListener.NONE);
 
     return createPreviewResponse(newDataset, job, tipVersion, INITIAL_RESULTSET_SIZE, true);
   }
@@ -222,7 +224,9 @@ public class DatasetTool {
 
     try {
       final MetadataCollectingJobStatusListener listener = new MetadataCollectingJobStatusListener();
-      final JobUI job = executor.runQueryWithListener(query, prepare ? QueryType.PREPARE_INTERNAL : QueryType.UI_PREVIEW, TMP_DATASET_PATH, newDataset.getVersion(), listener);
+      final JobUI job = prepare ?
+          executor.runQueryWithListener(query, QueryType.PREPARE_INTERNAL, TMP_DATASET_PATH, newDataset.getVersion(), listener) :
+          executor.runPreviewWithListener(newDataset.getState(), query, TMP_DATASET_PATH, newDataset.getVersion(), listener);
 
       final QueryMetadata queryMetadata = listener.getMetadata();
       applyQueryMetaToDatasetAndSave(queryMetadata, newDataset, query, from);
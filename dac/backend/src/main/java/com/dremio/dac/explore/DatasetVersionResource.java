@@ -25,6 +25,7 @@ import static java.util.Collections.unmodifiableList;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -44,8 +45,12 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.calcite.sql.type.SqlTypeName;
 import org.slf4j.Logger;
@@ -99,6 +104,7 @@ import com.dremio.dac.proto.model.dataset.Transform;
 import com.dremio.dac.proto.model.dataset.VirtualDatasetUI;
 import com.dremio.dac.resource.JobResource;
 import com.dremio.dac.service.datasets.DatasetVersionMutator;
+import com.dremio.dac.service.datasets.StreamingDownload;
 import com.dremio.dac.service.errors.ClientErrorException;
 import com.dremio.dac.service.errors.DatasetNotFoundException;
 import com.dremio.dac.service.errors.DatasetVersionNotFoundException;
@@ -589,7 +595,10 @@ public class DatasetVersionResource {
     DataType colType = getColType(selection.getColName());
     Histogram<HistogramValue> histo = histograms.getHistogram(datasetPath, version, selection, colType, query);
 
-    long selectedCount = histograms.getSelectionCount(datasetPath, version, query, colType, selection.getColName(), selectedSet);
+    // distinct values already carry their counts.
+    long selectedCount = histo.isBinned()
+        ? histograms.getSelectionCount(datasetPath, version, query, colType, selection.getColName(), selectedSet)
+        : HistogramGenerator.getSelectionCount(histo, colType, selectedSet);
     return new ReplaceValuesCard(histo.getValues(), selectedCount, histo.getAvailableValues() - selectedCount, histo.getAvailableValues());
   }
 
@@ -701,7 +710,7 @@ public class DatasetVersionResource {
     String colName = col.getColName();
     SqlQuery query = new SqlQuery(sql, virtualDatasetUI.getState().getContextList(), securityContext);
     Histogram<CleanDataHistogramValue> histogram = histograms.getCleanDataHistogram(datasetPath, version, colName, query);
-    Map<DataType, Long> typeHistogram = histograms.getTypeHistogram(datasetPath, version, colName, query);
+    Map<DataType, Long> typeHistogram = histograms.getTypeHistogram(histogram);
     Set<DataType> foundTypes = new TreeSet<>(typeHistogram.keySet());
     List<SplitByDataType> split = new ArrayList<>();
     List<ConvertToSingleType> convertToSingles = new ArrayList<>();
@@ -761,6 +770,24 @@ public class DatasetVersionResource {
     return new InitialDownloadResponse(job.getJobId(), JobResource.getDownloadURL(job));
   }
 
+  @GET
+  @Path("download/stream")
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public Response streamDataset(@QueryParam("downloadFormat") @DefaultValue("JSON") DownloadFormat downloadFormat,
+                                @QueryParam("limit") @DefaultValue("1000000") int limit,
+                                @QueryParam("compress") @DefaultValue("false") boolean compress) throws IOException, DatasetVersionNotFoundException {
+    final StreamingDownload download = datasetService.streamDownload(datasetPath, version, downloadFormat, limit, compress,
+        securityContext.getUserPrincipal().getName());
+    final StreamingOutput streamingOutput = new StreamingOutput() {
+      @Override
+      public void write(OutputStream output) throws IOException, WebApplicationException {
+        download.writeTo(output);
+      }
+    };
+    return Response.ok(streamingOutput, MediaType.APPLICATION_OCTET_STREAM)
+        .header("Content-Disposition", "attachment; filename=\"" + download.getFileName() + "\"").build();
+  }
+
   @GET
   @Path("parents")
   @Produces(APPLICATION_JSON)
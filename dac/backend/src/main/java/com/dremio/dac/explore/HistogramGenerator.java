@@ -54,6 +54,7 @@ import com.dremio.service.namespace.dataset.DatasetVersion;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
 
 /**
@@ -80,10 +81,15 @@ class HistogramGenerator {
 
     private List<V> values;
     private long availableValues;
+    private boolean binned;
     public Histogram(List<V> values, long availableValues) {
+      this(values, availableValues, false);
+    }
+    public Histogram(List<V> values, long availableValues, boolean binned) {
       super();
       this.values = values;
       this.availableValues = availableValues;
+      this.binned = binned;
     }
     public List<V> getValues() {
       return values;
@@ -91,6 +97,12 @@ class HistogramGenerator {
     public long getAvailableValues() {
       return availableValues;
     }
+    /**
+     * @return whether values are ranges rather than distinct values.
+     */
+    public boolean isBinned() {
+      return binned;
+    }
   }
 
   public Histogram<HistogramValue> getHistogram(final DatasetPath datasetPath, DatasetVersion version, Selection selection,
@@ -337,7 +349,7 @@ class HistogramGenerator {
       hgValue.setPercent((hgValue.getCount()*100d)/total);
     }
 
-    return new Histogram<>(values, total);
+    return new Histogram<>(values, total, isBinned);
   }
 
   @VisibleForTesting
@@ -494,15 +506,17 @@ class HistogramGenerator {
    */
   public class CleanDataHistogramValue {
     private final DataType type;
+    private final DataType valueType;
     private final String value;
     private final long count;
     private final Map<String, Boolean> isCleanMap;
 
     private double percent;
 
-    public CleanDataHistogramValue(DataType type, String value, double percent, long count, Map<String, Boolean> isCleanMap) {
+    public CleanDataHistogramValue(DataType type, DataType valueType, String value, double percent, long count, Map<String, Boolean> isCleanMap) {
       super();
       this.type = type;
+      this.valueType = valueType;
       this.value = value;
       this.percent = percent;
       this.count = count;
@@ -512,6 +526,13 @@ class HistogramGenerator {
     public DataType getType() {
       return type;
     }
+
+    /**
+     * @return the type of the value as returned by typeOf.
+     */
+    public DataType getValueType() {
+      return valueType;
+    }
     public String getValue() {
       return value;
     }
@@ -610,12 +631,13 @@ class HistogramGenerator {
         if (type == null) {
           type = selected.getType();
         }
+        DataType valueType = DataTypeUtil.getDataType(MinorType.valueOf(data.extractString("dremio_value_type", i)));
         long countValue = (long) data.extractValue(colCount, i);
 
         total += countValue;
 
         // Set the percent later once all the rows are examined.
-        values.add(new CleanDataHistogramValue(type, data.extractString(selected.getName(), i), /*percent=*/0.0d, countValue, isCleanMap));
+        values.add(new CleanDataHistogramValue(type, valueType, data.extractString(selected.getName(), i), /*percent=*/0.0d, countValue, isCleanMap));
       }
 
       // Move onto next set of records
@@ -631,37 +653,18 @@ class HistogramGenerator {
     return new Histogram<>(values, total);
   }
 
-  public Map<DataType, Long> getTypeHistogram(final DatasetPath datasetPath, DatasetVersion version, String colName, SqlQuery datasetQuery) {
-    JobUI datasetPreviewJob = DatasetsUtil.getDatasetPreviewJob(executor, datasetQuery, datasetPath, version);
-
-    String quotedColName = quoteIdentifier(colName);
-    String newSql = format("SELECT typeOf(dremio_values_table.%s) AS dremio_value_type, COUNT(*) as dremio_type_count FROM %s AS dremio_values_table GROUP BY typeOf(dremio_values_table.%s)",
-        quotedColName, datasetPreviewJob.getData().getJobResultsTable(), quotedColName);
-
-    JobData completeJobData = executor.runQuery(datasetQuery.cloneWithNewSql(newSql), QueryType.UI_INTERNAL_RUN, datasetPath, version).getData();
-
+  /**
+   * Count the values of each type, from the clean data histogram which is also grouped by type.
+   */
+  public Map<DataType, Long> getTypeHistogram(Histogram<CleanDataHistogramValue> cleanDataHistogram) {
     final Map<DataType, Long> values = new LinkedHashMap<>();
-
-    int offset = 0;
-    JobDataFragment data = completeJobData.range(offset, BATCH_SIZE);
-
-    // Read the values in batches
-    while(data.getReturnedRowCount() > 0) {
-      for (int i = 0; i < data.getReturnedRowCount(); i++) {
-        String typeName = data.extractString("dremio_value_type", i);
-        DataType dataType = DataTypeUtil.getDataType(MinorType.valueOf(typeName));
-        Long existing = values.get(dataType);
-        if (existing == null) {
-          existing = Long.valueOf(0);
-        }
-        Long newValue = (Long) data.extractValue("dremio_type_count", i);
-        // there are fewer DataTypes than MinorTypes
-        values.put(dataType, existing + newValue);
+    for (CleanDataHistogramValue value : cleanDataHistogram.getValues()) {
+      Long existing = values.get(value.getValueType());
+      if (existing == null) {
+        existing = Long.valueOf(0);
       }
-
-      // Move onto next set of records
-      offset += data.getReturnedRowCount();
-      data = completeJobData.range(offset, BATCH_SIZE);
+      // there are fewer DataTypes than MinorTypes
+      values.put(value.getValueType(), existing + value.getCount());
     }
     return values;
   }
@@ -762,6 +765,25 @@ class HistogramGenerator {
     return (Long)dataFragment.extractValue("dremio_selection_count", 0);
   }
 
+  /**
+   * Count the selected values from a histogram of the distinct values of the column, instead of querying them again.
+   */
+  public static long getSelectionCount(Histogram<HistogramValue> histogram, DataType dataType, Set<String> selectedValues) {
+    Preconditions.checkArgument(!histogram.isBinned(), "histogram values must be distinct values");
+    long count = 0;
+    for (HistogramValue value : histogram.getValues()) {
+      final String selectedValue = value.getValue();
+      if (selectedValue != null && selectedValue.isEmpty() && dataType != TEXT) {
+        // empty values are only selected for text types.
+        continue;
+      }
+      if (selectedValues.contains(selectedValue)) {
+        count += value.getCount();
+      }
+    }
+    return count;
+  }
+
   private String quoteLiteral(String value, DataType type) {
     if (type == DataType.TEXT) {
       return stringLiteral(value);
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.explore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.calcite.rel.RelNode;
+
+import com.dremio.common.utils.ProtostuffUtil;
+import com.dremio.dac.daemon.DACDaemonModule;
+import com.dremio.dac.explore.model.DatasetPath;
+import com.dremio.dac.proto.model.dataset.From;
+import com.dremio.dac.proto.model.dataset.FromSQL;
+import com.dremio.dac.proto.model.dataset.FromType;
+import com.dremio.dac.proto.model.dataset.VirtualDatasetState;
+import com.dremio.exec.planner.PlannerPhase;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.ParentDatasetInfo;
+import com.dremio.service.jobs.Job;
+import com.dremio.service.jobs.JobStatusListener;
+import com.dremio.service.jobs.JobsService;
+import com.dremio.service.jobs.metadata.QueryMetadata;
+import com.dremio.service.namespace.dataset.proto.FieldOrigin;
+import com.dremio.service.namespace.dataset.proto.Origin;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The stored sample of the physical dataset a dataset state reads. Previews of the state read the sample instead of
+ * the dataset, so that previewing a chain of transformations reads the source once.
+ *
+ * The metadata of a preview reading the sample is mapped back to the dataset, so that the versions created by the
+ * transformations have the lineage they would have reading the dataset.
+ */
+class PreviewSample {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PreviewSample.class);
+
+  private final List<String> datasetPath;
+  private final List<String> samplePath;
+  private final String sampleTable;
+  private final List<ParentDatasetInfo> datasetParents;
+
+  private PreviewSample(List<String> datasetPath, Job sampleJob) {
+    this.datasetPath = datasetPath;
+    this.samplePath = ImmutableList.of(DACDaemonModule.JOBS_STORAGEPLUGIN_NAME, sampleJob.getJobId().getId());
+    this.sampleTable = sampleJob.getData().getJobResultsTable();
+    this.datasetParents = sampleJob.getJobAttempt().getInfo().getParentsList();
+  }
+
+  /**
+   * Get the sample to preview a dataset state over.
+   *
+   * @return the sample, or null if the state doesn't read a physical dataset or there is no sample of it.
+   */
+  static PreviewSample of(JobsService jobsService, VirtualDatasetState state, String username) {
+    final From from = state.getFrom();
+    if (from == null || from.getType() != FromType.Table) {
+      return null;
+    }
+
+    final DatasetPath path = new DatasetPath(from.getTable().getDatasetPath());
+    try {
+      final Job sampleJob = jobsService.getPreviewSample(path.toNamespaceKey(), username);
+      if (sampleJob == null || sampleJob.getJobAttempt().getInfo().getParentsList() == null) {
+        return null;
+      }
+      return new PreviewSample(path.toPathList(), sampleJob);
+    } catch (RuntimeException e) {
+      // previews read the dataset when it can't be sampled.
+      logger.debug("Failed to get the preview sample of {}", path, e);
+      return null;
+    }
+  }
+
+  /**
+   * @return whether the job read a preview sample.
+   */
+  static boolean readsSample(Job job) {
+    final List<ParentDatasetInfo> parents = job.getJobAttempt().getInfo().getParentsList();
+    if (parents == null) {
+      return false;
+    }
+    for (ParentDatasetInfo parent : parents) {
+      final List<String> path = parent.getDatasetPathList();
+      if (path != null && !path.isEmpty() && DACDaemonModule.JOBS_STORAGEPLUGIN_NAME.equals(path.get(0))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the sql previewing the state over the sample.
+   */
+  String getSql(VirtualDatasetState state) {
+    final String alias = SQLGenerator.getTableAlias(state.getFrom());
+    final VirtualDatasetState sampled = ProtostuffUtil.copy(state)
+        .setFrom(new FromSQL("SELECT * FROM " + sampleTable).setAlias(alias).wrap());
+    return SQLGenerator.generateSQL(sampled);
+  }
+
+  /**
+   * Wrap a listener of the preview job so that it gets the metadata of the preview as if it read the dataset.
+   */
+  JobStatusListener wrap(final JobStatusListener listener) {
+    return new JobStatusListener() {
+      @Override
+      public void jobSubmitted(JobId jobId) {
+        listener.jobSubmitted(jobId);
+      }
+
+      @Override
+      public void planRelTansform(PlannerPhase phase, RelNode before, RelNode after, long millisTaken) {
+        listener.planRelTansform(phase, before, after, millisTaken);
+      }
+
+      @Override
+      public void metadataCollected(QueryMetadata metadata) {
+        listener.metadataCollected(toDatasetMetadata(metadata));
+      }
+
+      @Override
+      public void jobFailed(Exception e) {
+        listener.jobFailed(e);
+      }
+
+      @Override
+      public void jobCompleted() {
+        listener.jobCompleted();
+      }
+
+      @Override
+      public void jobCancelled() {
+        listener.jobCancelled();
+      }
+    };
+  }
+
+  /**
+   * Replace the sample with the dataset in the parents and field origins of the metadata of a preview.
+   */
+  QueryMetadata toDatasetMetadata(QueryMetadata metadata) {
+    List<ParentDatasetInfo> parents = null;
+    if (metadata.getParents().isPresent()) {
+      parents = new ArrayList<>();
+      for (ParentDatasetInfo parent : metadata.getParents().get()) {
+        if (samplePath.equals(parent.getDatasetPathList())) {
+          parents.addAll(datasetParents);
+        } else {
+          parents.add(parent);
+        }
+      }
+    }
+
+    List<FieldOrigin> fieldOrigins = null;
+    if (metadata.getFieldOrigins().isPresent()) {
+      fieldOrigins = new ArrayList<>();
+      for (FieldOrigin fieldOrigin : metadata.getFieldOrigins().get()) {
+        final List<Origin> origins = new ArrayList<>();
+        if (fieldOrigin.getOriginsList() != null) {
+          for (Origin origin : fieldOrigin.getOriginsList()) {
+            origins.add(samplePath.equals(origin.getTableList())
+                ? new Origin(origin.getColumnName(), origin.getDerived()).setTableList(datasetPath)
+                : origin);
+          }
+        }
+        fieldOrigins.add(new FieldOrigin(fieldOrigin.getName()).setOriginsList(origins));
+      }
+    }
+
+    return new QueryMetadata(
+        metadata.getAncestors().orNull(),
+        fieldOrigins,
+        metadata.getJoins().orNull(),
+        parents,
+        metadata.getSqlNode().orNull(),
+        metadata.getRowType(),
+        metadata.getGrandParents().orNull(),
+        metadata.getCost().orNull(),
+        metadata.getPlanningSet().orNull(),
+        metadata.getSerializableLogicalPlan().orNull(),
+        metadata.getBatchSchema());
+  }
+}
@@ -36,6 +36,7 @@ import com.dremio.dac.explore.model.DatasetPath;
 import com.dremio.dac.model.common.DACRuntimeException;
 import com.dremio.dac.model.job.JobDataFragment;
 import com.dremio.dac.model.job.JobUI;
+import com.dremio.dac.proto.model.dataset.VirtualDatasetState;
 import com.dremio.exec.ops.ViewExpansionContext;
 import com.dremio.exec.server.options.OptionValue;
 import com.dremio.exec.store.SchemaConfig;
@@ -102,7 +103,8 @@ public class QueryExecutor {
           jobsService.getJobsForDataset(datasetPath.toNamespaceKey(), version, MAX_JOBS_TO_SEARCH);
         for (Job job : jobsForDataset) {
           if (job.getJobAttempt().getInfo().getQueryType() == queryType
-            && query.getSql().equals(job.getJobAttempt().getInfo().getSql())
+            && (query.getSql().equals(job.getJobAttempt().getInfo().getSql())
+              || isSamplePreviewOfVersion(queryType, version, job))
             && job.getJobAttempt().getState() == JobState.COMPLETED
             && job.hasResults()) {
             try {
@@ -124,6 +126,36 @@ public class QueryExecutor {
     }
   }
 
+  /**
+   * Run the preview of a dataset state with given listener.
+   * <p>
+   * If the state reads a physical dataset of which a preview sample is stored, the preview reads the sample instead.
+   *
+   * @param state          the state to preview
+   * @param query          the sql of the state
+   * @param datasetPath    the path for the dataset represented by the query (metadata)
+   * @param version        the version for the dataset represented by the query (metadata)
+   * @param statusListener Job status and event listener
+   * @return
+   */
+  public JobUI runPreviewWithListener(VirtualDatasetState state, SqlQuery query, DatasetPath datasetPath,
+                                      DatasetVersion version, JobStatusListener statusListener) {
+    final PreviewSample sample = PreviewSample.of(jobsService, state, query.getUsername());
+    if (sample == null) {
+      return runQueryWithListener(query, QueryType.UI_PREVIEW, datasetPath, version, statusListener);
+    }
+    final SqlQuery sampleQuery = new SqlQuery(sample.getSql(state), query.getContext(), query.getUsername());
+    return runQueryWithListener(sampleQuery, QueryType.UI_PREVIEW, datasetPath, version, sample.wrap(statusListener));
+  }
+
+  /**
+   * A version of a dataset always previews the same state, so a preview of the version that read a sample can be
+   * reused although its sql reads the sample rather than the dataset.
+   */
+  private static boolean isSamplePreviewOfVersion(QueryType queryType, DatasetVersion version, Job job) {
+    return queryType == QueryType.UI_PREVIEW && version != null && PreviewSample.readsSample(job);
+  }
+
   public JobUI runQuery(SqlQuery query, QueryType queryType, DatasetPath datasetPath, DatasetVersion version) {
     return runQueryWithListener(query, queryType, datasetPath, version, JobStatusListener.NONE);
   }
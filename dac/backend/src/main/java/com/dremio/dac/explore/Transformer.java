@@ -226,7 +226,9 @@ class Transformer {
       // if the actor didn't require a query, it didn't start a job and we need to start one here.
       final SqlQuery query = new SqlQuery(SQLGenerator.generateSQL(transformResult.getNewState()), transformResult.getNewState().getContextList(), securityContext);
       final MetadataCollectingJobStatusListener collector = new MetadataCollectingJobStatusListener();
-      JobUI job = executor.runQueryWithListener(query, queryType, path, newVersion, collector);
+      final JobUI job = queryType == QueryType.UI_PREVIEW ?
+          executor.runPreviewWithListener(transformResult.getNewState(), query, path, newVersion, collector) :
+          executor.runQueryWithListener(query, queryType, path, newVersion, collector);
       resultToReturn = new DatasetAndJob(job, asDataset(newVersion, path, original, transform, transformResult, collector.getMetadata()));
     }
 
@@ -268,7 +270,7 @@ class Transformer {
       // if the actor didn't require a query, it didn't start a job and we need to start one here.
       final SqlQuery query = new SqlQuery(SQLGenerator.generateSQL(transformResult.getNewState()), transformResult.getNewState().getContextList(), securityContext);
       final MetadataCollectingJobStatusListener collector = new MetadataCollectingJobStatusListener();
-      job = executor.runQueryWithListener(query, QueryType.UI_PREVIEW, path, newVersion, collector);
+      job = executor.runPreviewWithListener(transformResult.getNewState(), query, path, newVersion, collector);
       dataset = asDataset(newVersion, path, original, transform, transformResult, collector.getMetadata());
     }
 
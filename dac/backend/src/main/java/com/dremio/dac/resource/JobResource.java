@@ -175,7 +175,8 @@ public class JobResource {
 
   public static String getDownloadURL(Job job) {
     final JobInfo jobInfo = job.getJobAttempt().getInfo();
-    if (jobInfo.getQueryType() == QueryType.UI_EXPORT) {
+    // streamed downloads have no stored data to download.
+    if (jobInfo.getQueryType() == QueryType.UI_EXPORT && jobInfo.getDownloadInfo() != null) {
       return format("/job/%s/download", job.getJobId().getId());
     }
     return null;
@@ -188,7 +189,7 @@ public class JobResource {
     final Job job = jobsService.getJob(jobId);
     final JobInfo jobInfo = job.getJobAttempt().getInfo();
 
-    if (jobInfo.getQueryType() == QueryType.UI_EXPORT) {
+    if (jobInfo.getQueryType() == QueryType.UI_EXPORT && jobInfo.getDownloadInfo() != null) {
       final DownloadDataResponse downloadDataResponse = datasetService.downloadData(jobInfo.getDownloadInfo(), securityContext.getUserPrincipal().getName());
       final StreamingOutput streamingOutput = new StreamingOutput() {
         @Override
@@ -36,6 +36,7 @@ import com.dremio.dac.explore.model.DatasetUI;
 import com.dremio.dac.explore.model.DownloadFormat;
 import com.dremio.dac.proto.model.dataset.VirtualDatasetUI;
 import com.dremio.service.job.proto.DownloadInfo;
+import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.jobs.Job;
 import com.dremio.service.jobs.JobsService;
 import com.dremio.service.jobs.SqlQuery;
@@ -84,6 +85,49 @@ public class DatasetDownloadManager {
                               DownloadFormat downloadFormat,
                               int limit,
                               String userName) throws IOException {
+    final String downloadId = UUID.randomUUID().toString();
+    final String fileName = getDownloadFileName(virtualDatasetUI, downloadFormat);
+    final Path downloadFilePath = new Path(downloadId);
+    final String selectQuery = getSelectQuery(virtualDatasetUI, limit);
+
+    String ctasSql = format("CREATE TABLE %s.%s STORE AS (%s) WITH SINGLE WRITER AS %s",
+      SqlUtils.quoteIdentifier(DATASET_DOWNLOAD_STORAGE_PLUGIN), SqlUtils.quoteIdentifier(downloadFilePath.toString()), getTableOptions(downloadFormat), selectQuery);
+
+    final Job job = jobsService.submitDownloadJob(new SqlQuery(ctasSql, userName), downloadId, fileName);
+    logger.debug("Scheduled download job {} for {}", job.getJobId(), datasetPath);
+    return job;
+  }
+
+  /**
+   * Submit a job for dataset download whose results are streamed to the client as they are produced, instead of
+   * being written to the download storage first.
+   * @param datasetPath Path of dataset to download
+   * @param virtualDatasetUI dataset properties
+   * @param downloadFormat output format, must be supported by {@link StreamingDownload#isSupported(DownloadFormat)}
+   * @param limit number of records to include in output (-1 for no limit)
+   * @param compress whether to gzip the output
+   * @param userName logged in user who is downloading dataset.
+   * @return download to write to the response
+   * @throws IOException
+   */
+  public StreamingDownload streamDownload(DatasetPath datasetPath,
+                                          VirtualDatasetUI virtualDatasetUI,
+                                          DownloadFormat downloadFormat,
+                                          int limit,
+                                          boolean compress,
+                                          String userName) throws IOException {
+    Preconditions.checkArgument(StreamingDownload.isSupported(downloadFormat),
+      "Dataset download in %s format can not be streamed", downloadFormat);
+    final String fileName = getDownloadFileName(virtualDatasetUI, downloadFormat) + (compress ? ".gz" : "");
+    final StreamingDownload download = new StreamingDownload(jobsService, userName, downloadFormat, fileName, compress);
+    final Job job = jobsService.submitStreamingJob(new SqlQuery(getSelectQuery(virtualDatasetUI, limit), userName),
+      QueryType.UI_EXPORT, download, download);
+    download.setJobId(job.getJobId());
+    logger.debug("Scheduled streaming download job {} for {}", job.getJobId(), datasetPath);
+    return download;
+  }
+
+  private static String getDownloadFileName(VirtualDatasetUI virtualDatasetUI, DownloadFormat downloadFormat) throws IOException {
     final DatasetUI datasetUI;
     try {
       datasetUI = DatasetUI.newInstance(virtualDatasetUI, null);
@@ -92,23 +136,14 @@ public class DatasetDownloadManager {
       // Should move the logic of resolving the dataset path to a common method.
       throw new IOException(ex);
     }
-    final String downloadId = UUID.randomUUID().toString();
-    final String fileName = format("%s.%s", PathUtils.slugify(datasetUI.getDisplayFullPath()), extensions.get(downloadFormat));
-    final Path downloadFilePath = new Path(downloadId);
+    return format("%s.%s", PathUtils.slugify(datasetUI.getDisplayFullPath()), extensions.get(downloadFormat));
+  }
 
-    final String selectQuery;
+  private static String getSelectQuery(VirtualDatasetUI virtualDatasetUI, int limit) {
     if (limit != -1) {
-      selectQuery = format("SELECT * FROM (%s) LIMIT %d", virtualDatasetUI.getSql(), limit);
-    } else {
-      selectQuery = virtualDatasetUI.getSql();
+      return format("SELECT * FROM (%s) LIMIT %d", virtualDatasetUI.getSql(), limit);
     }
-
-    String ctasSql = format("CREATE TABLE %s.%s STORE AS (%s) WITH SINGLE WRITER AS %s",
-      SqlUtils.quoteIdentifier(DATASET_DOWNLOAD_STORAGE_PLUGIN), SqlUtils.quoteIdentifier(downloadFilePath.toString()), getTableOptions(downloadFormat), selectQuery);
-
-    final Job job = jobsService.submitDownloadJob(new SqlQuery(ctasSql, userName), downloadId, fileName);
-    logger.debug("Scheduled download job {} for {}", job.getJobId(), datasetPath);
-    return job;
+    return virtualDatasetUI.getSql();
   }
 
   public DownloadDataResponse getDownloadData(DownloadInfo downloadInfo) throws IOException {
@@ -331,6 +331,13 @@ public class DatasetVersionMutator {
     return datasetDownloadManager.scheduleDownload(datasetPath, vds, downloadFormat, limit, userName);
   }
 
+  public StreamingDownload streamDownload(DatasetPath datasetPath, DatasetVersion datasetVersion, DownloadFormat downloadFormat,
+                                          int limit, boolean compress, String userName) throws DatasetVersionNotFoundException, IOException {
+    // TODO check if user can access this dataset.
+    final VirtualDatasetUI vds = getVersion(datasetPath, datasetVersion);
+    return datasetDownloadManager.streamDownload(datasetPath, vds, downloadFormat, limit, compress, userName);
+  }
+
   public DownloadDataResponse downloadData(DownloadInfo downloadInfo, String userName) throws IOException {
     // TODO check if user can access this dataset.
     return datasetDownloadManager.getDownloadData(downloadInfo);
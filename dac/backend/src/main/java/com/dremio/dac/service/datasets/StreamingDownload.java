@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.service.datasets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.util.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.dac.explore.model.DownloadFormat;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.jobs.JobException;
+import com.dremio.service.jobs.JobResultsListener;
+import com.dremio.service.jobs.JobsService;
+import com.dremio.service.jobs.NoOpJobStatusListener;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * Dataset download served straight from the results of the job as they are produced, without storing them.
+ *
+ * Result batches are formatted on the thread delivering them and handed to the thread writing the response without
+ * waiting. A batch is only acknowledged to the job once it is written to the response, and the job stops sending
+ * after a few batches aren't acknowledged: when the client reads slower than the job produces, the job waits, and
+ * only a few batches are pending at any time.
+ */
+public class StreamingDownload extends NoOpJobStatusListener implements JobResultsListener {
+  private static final Logger logger = LoggerFactory.getLogger(StreamingDownload.class);
+
+  private static final Chunk END = new Chunk(new byte[0], null);
+
+  private final JobsService jobsService;
+  private final String userName;
+  private final String fileName;
+  private final boolean compress;
+  private final RecordFormatter formatter;
+  private final BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+
+  private volatile JobId jobId;
+  private volatile Exception failure;
+  private volatile boolean aborted;
+
+  StreamingDownload(JobsService jobsService, String userName, DownloadFormat format, String fileName, boolean compress) {
+    this.jobsService = jobsService;
+    this.userName = userName;
+    this.fileName = fileName;
+    this.compress = compress;
+    this.formatter = newFormatter(format);
+  }
+
+  void setJobId(JobId jobId) {
+    this.jobId = jobId;
+  }
+
+  public JobId getJobId() {
+    return jobId;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * Whether the given format can be streamed. Formats with a footer, like parquet, need the whole result set first.
+   */
+  public static boolean isSupported(DownloadFormat format) {
+    return format == DownloadFormat.CSV || format == DownloadFormat.JSON;
+  }
+
+  @Override
+  public void dataArrived(VectorAccessible batch, Runnable consumed) throws Exception {
+    if (aborted) {
+      consumed.run();
+      return;
+    }
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      formatter.write(batch, out);
+    } catch (Exception e) {
+      consumed.run();
+      throw e;
+    }
+    if (out.size() == 0 || !enqueue(new Chunk(out.toByteArray(), consumed))) {
+      consumed.run();
+    }
+  }
+
+  @Override
+  public void jobCompleted() {
+    enqueue(END);
+  }
+
+  @Override
+  public void jobFailed(Exception e) {
+    failure = e;
+    enqueue(END);
+  }
+
+  @Override
+  public void jobCancelled() {
+    failure = new IOException("Download job was cancelled.");
+    enqueue(END);
+  }
+
+  /**
+   * @return false if the download was aborted, the chunk is not queued then.
+   */
+  private synchronized boolean enqueue(Chunk chunk) {
+    if (aborted) {
+      return false;
+    }
+    chunks.add(chunk);
+    return true;
+  }
+
+  /**
+   * Write the results to the given stream as they arrive, until the job completes.
+   *
+   * @throws IOException if the job failed or the stream couldn't be written. The job is cancelled in the latter case.
+   */
+  public void writeTo(OutputStream output) throws IOException {
+    final OutputStream out = compress ? new GZIPOutputStream(output) : output;
+    try {
+      while (true) {
+        final Chunk chunk = chunks.take();
+        if (chunk == END) {
+          break;
+        }
+        try {
+          out.write(chunk.data);
+          // let the client see the data as it comes instead of waiting for the container buffer to fill up.
+          out.flush();
+        } finally {
+          chunk.consumed.run();
+        }
+      }
+      if (failure != null) {
+        throw new IOException(String.format("Download job %s failed.", jobId == null ? "" : jobId.getId()), failure);
+      }
+      out.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abort();
+      throw new IOException("Interrupted while streaming download.", e);
+    } catch (IOException e) {
+      abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Stop the download and cancel its job. The chunks not written are acknowledged, so that the job isn't left waiting.
+   */
+  private void abort() {
+    synchronized (this) {
+      if (aborted) {
+        return;
+      }
+      aborted = true;
+      for (Chunk chunk = chunks.poll(); chunk != null; chunk = chunks.poll()) {
+        if (chunk != END) {
+          chunk.consumed.run();
+        }
+      }
+    }
+    if (jobId == null) {
+      return;
+    }
+    try {
+      jobsService.cancel(userName, jobId);
+    } catch (JobException e) {
+      logger.debug("Failed to cancel download job {}", jobId.getId(), e);
+    }
+  }
+
+  /**
+   * Formatted records of a batch, with what acknowledges the batch once they are written.
+   */
+  private static final class Chunk {
+    private final byte[] data;
+    private final Runnable consumed;
+
+    private Chunk(byte[] data, Runnable consumed) {
+      this.data = data;
+      this.consumed = consumed;
+    }
+  }
+
+  private static RecordFormatter newFormatter(DownloadFormat format) {
+    switch (format) {
+    case CSV:
+      return new CsvFormatter();
+    case JSON:
+      return new JsonFormatter();
+    default:
+      throw new UnsupportedOperationException(String.format("%s format can't be streamed.", format));
+    }
+  }
+
+  /**
+   * Convert a value read from a vector to a value that can be serialized.
+   */
+  private static Object toSerializable(Object value) {
+    if (value == null || value instanceof Number || value instanceof Boolean || value instanceof String || value instanceof byte[]) {
+      return value;
+    }
+    if (value instanceof Text) {
+      return value.toString();
+    }
+    if (value instanceof List) {
+      final List<Object> list = Lists.newArrayList();
+      for (Object o : (List<?>) value) {
+        list.add(toSerializable(o));
+      }
+      return list;
+    }
+    if (value instanceof Map) {
+      final Map<String, Object> map = new LinkedHashMap<>();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        map.put(String.valueOf(entry.getKey()), toSerializable(entry.getValue()));
+      }
+      return map;
+    }
+    return value.toString();
+  }
+
+  /**
+   * Formats the records of a batch in the download format.
+   */
+  private abstract static class RecordFormatter {
+    protected final ObjectMapper mapper = new ObjectMapper();
+
+    abstract void write(VectorAccessible batch, OutputStream out) throws IOException;
+
+    List<ValueVector> getVectors(VectorAccessible batch) {
+      final List<ValueVector> vectors = Lists.newArrayList();
+      for (VectorWrapper<?> wrapper : batch) {
+        vectors.add(wrapper.getValueVector());
+      }
+      return vectors;
+    }
+  }
+
+  /**
+   * One JSON object per line, as written by the JSON record writer.
+   */
+  private static final class JsonFormatter extends RecordFormatter {
+
+    private JsonFormatter() {
+      mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    }
+
+    @Override
+    void write(VectorAccessible batch, OutputStream out) throws IOException {
+      final List<ValueVector> vectors = getVectors(batch);
+      for (int i = 0; i < batch.getRecordCount(); i++) {
+        final Map<String, Object> record = new LinkedHashMap<>();
+        for (ValueVector vector : vectors) {
+          record.put(vector.getField().getName(), toSerializable(vector.getAccessor().getObject(i)));
+        }
+        mapper.writeValue(out, record);
+        out.write('\n');
+      }
+    }
+  }
+
+  /**
+   * Comma separated values with a header line, as written by the text record writer.
+   */
+  private static final class CsvFormatter extends RecordFormatter {
+    private boolean headerWritten;
+
+    @Override
+    void write(VectorAccessible batch, OutputStream out) throws IOException {
+      final List<ValueVector> vectors = getVectors(batch);
+      final StringBuilder sb = new StringBuilder();
+      if (!headerWritten) {
+        for (int j = 0; j < vectors.size(); j++) {
+          if (j > 0) {
+            sb.append(',');
+          }
+          appendEscaped(sb, vectors.get(j).getField().getName());
+        }
+        sb.append('\n');
+        headerWritten = true;
+      }
+
+      for (int i = 0; i < batch.getRecordCount(); i++) {
+        for (int j = 0; j < vectors.size(); j++) {
+          if (j > 0) {
+            sb.append(',');
+          }
+          final Object value = toSerializable(vectors.get(j).getAccessor().getObject(i));
+          if (value == null) {
+            continue;
+          }
+          appendEscaped(sb, value instanceof List || value instanceof Map ? mapper.writeValueAsString(value) : value.toString());
+        }
+        sb.append('\n');
+      }
+      out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendEscaped(StringBuilder sb, String value) {
+      Preconditions.checkNotNull(value);
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+        sb.append(value);
+        return;
+      }
+      sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+  }
+}
@@ -59,6 +59,8 @@
         <p>
         Number of Matching Substitutions:   ${model.getProfile().getAccelerationProfile().getNumSubstitutions()}
         <br>
+        Materializations Considered / Matched:   ${model.getProfile().getAccelerationProfile().getNumMaterializationsConsidered()} / ${model.getProfile().getAccelerationProfile().getNumMaterializationsMatched()}
+        <br>
         Time To Find Materializations:   ${model.getProfile().getAccelerationProfile().getMillisTakenGettingMaterializations()} ms
         <br>
         Time To Normalize:   ${model.getProfile().getAccelerationProfile().getMillisTakenNormalizing()} ms
@@ -69,6 +71,8 @@
         <p>
         Number of Matching Substitutions:   0
         <br>
+        Materializations Considered / Matched:   --
+        <br>
         Time To Find Materializations:   --
         <br>
         Time To Normalize:   --
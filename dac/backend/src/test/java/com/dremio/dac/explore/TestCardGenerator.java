@@ -17,6 +17,8 @@ package com.dremio.dac.explore;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
@@ -46,62 +48,64 @@ public class TestCardGenerator {
   );
 
   /**
-   * Tests {@link CardGenerator#generateCardGenQuery(String, String, List)}
+   * Tests {@link CardGenerator#generateCardQuery(String, String, List)}
    */
   @Test
-  public void exampleGeneratorQuery() {
+  public void cardQuery() {
     // Expect backticks around column name as it has special characters in it.
-    String outputQuery1 = cardGenerator.generateCardGenQuery("col.with.dots",
+    String outputQuery1 = cardGenerator.generateCardQuery("col.with.dots",
         "TABLE(\"jobstore\".\"path\"(type => 'arrow))", rules);
     String expQuery1 = "SELECT\n" +
-        "match_pattern_example(dremio_preview_data.\"col.with.dots\", 'CONTAINS', 'test pattern', false) AS example_0,\n" +
-        "match_pattern_example(dremio_preview_data.\"col.with.dots\", 'MATCHES', '.*txt.*', true) AS example_1,\n" +
-        "dremio_preview_data.\"col.with.dots\" AS inputCol\n" +
+        "match_pattern_example(dremio_preview_data.dremio_value, 'CONTAINS', 'test pattern', false) AS example_0,\n" +
+        "match_pattern_example(dremio_preview_data.dremio_value, 'MATCHES', '.*txt.*', true) AS example_1,\n" +
+        "dremio_preview_data.dremio_value AS inputCol,\n" +
+        "matched_count_0,\n" +
+        "matched_count_1,\n" +
+        "total\n" +
+        "FROM (\n" +
+        "SELECT\n" +
+        "dremio_preview_data.\"col.with.dots\" AS dremio_value,\n" +
+        "sum(CASE WHEN regexp_like(dremio_preview_data.\"col.with.dots\", '.*?\\Qtest pattern\\E.*?') THEN 1 ELSE 0 END) OVER () AS matched_count_0,\n" +
+        "sum(CASE WHEN regexp_like(dremio_preview_data.\"col.with.dots\", '(?i)(?u).*?.*txt.*.*?') THEN 1 ELSE 0 END) OVER () AS matched_count_1,\n" +
+        "COUNT(1) OVER () as total\n" +
         "FROM TABLE(\"jobstore\".\"path\"(type => 'arrow)) as dremio_preview_data\n" +
-        "WHERE \"col.with.dots\" IS NOT NULL\n" +
-        "LIMIT 3";
+        "ORDER BY CASE WHEN dremio_preview_data.\"col.with.dots\" IS NULL THEN 1 ELSE 0 END\n" +
+        "LIMIT 3\n" +
+        ") as dremio_preview_data";
 
     assertEquals(expQuery1, outputQuery1);
 
     // Column name expecting no backticks
-    String outputQuery2 = cardGenerator.generateCardGenQuery("normalCol",
+    String outputQuery2 = cardGenerator.generateCardQuery("normalCol",
         "TABLE(\"jobstore\".\"path\"(type => 'arrow))", rules);
     String expQuery2 = "SELECT\n" +
-        "match_pattern_example(dremio_preview_data.normalCol, 'CONTAINS', 'test pattern', false) AS example_0,\n" +
-        "match_pattern_example(dremio_preview_data.normalCol, 'MATCHES', '.*txt.*', true) AS example_1,\n" +
-        "dremio_preview_data.normalCol AS inputCol\n" +
+        "match_pattern_example(dremio_preview_data.dremio_value, 'CONTAINS', 'test pattern', false) AS example_0,\n" +
+        "match_pattern_example(dremio_preview_data.dremio_value, 'MATCHES', '.*txt.*', true) AS example_1,\n" +
+        "dremio_preview_data.dremio_value AS inputCol,\n" +
+        "matched_count_0,\n" +
+        "matched_count_1,\n" +
+        "total\n" +
+        "FROM (\n" +
+        "SELECT\n" +
+        "dremio_preview_data.normalCol AS dremio_value,\n" +
+        "sum(CASE WHEN regexp_like(dremio_preview_data.normalCol, '.*?\\Qtest pattern\\E.*?') THEN 1 ELSE 0 END) OVER () AS matched_count_0,\n" +
+        "sum(CASE WHEN regexp_like(dremio_preview_data.normalCol, '(?i)(?u).*?.*txt.*.*?') THEN 1 ELSE 0 END) OVER () AS matched_count_1,\n" +
+        "COUNT(1) OVER () as total\n" +
         "FROM TABLE(\"jobstore\".\"path\"(type => 'arrow)) as dremio_preview_data\n" +
-        "WHERE normalCol IS NOT NULL\n" +
-        "LIMIT 3";
+        "ORDER BY CASE WHEN dremio_preview_data.normalCol IS NULL THEN 1 ELSE 0 END\n" +
+        "LIMIT 3\n" +
+        ") as dremio_preview_data";
 
     assertEquals(expQuery2, outputQuery2);
   }
 
-  /**
-   * Tests for {@link CardGenerator#generateMatchCountQuery(String, String, List)}
-   */
   @Test
-  public void matchCountGeneratorQuery() {
-    // Expect backticks around column name as it has special characters in it.
-    String outputQuery1 = cardGenerator.generateMatchCountQuery("col with spaces",
-        "TABLE(\"jobstore\".\"path\"(type => 'arrow))", rules);
-    String expQuery1 = "SELECT\n" +
-        "sum(CASE WHEN regexp_like(dremio_preview_data.\"col with spaces\", '.*?\\Qtest pattern\\E.*?') THEN 1 ELSE 0 END) AS matched_count_0,\n" +
-        "sum(CASE WHEN regexp_like(dremio_preview_data.\"col with spaces\", '(?i)(?u).*?.*txt.*.*?') THEN 1 ELSE 0 END) AS matched_count_1,\n" +
-        "COUNT(1) as total\n" +
-        "FROM TABLE(\"jobstore\".\"path\"(type => 'arrow)) as dremio_preview_data";
-
-    assertEquals(expQuery1, outputQuery1);
-
-    // Column name expecting no backticks
-    String outputQuery2 = cardGenerator.generateMatchCountQuery("normalCol",
+  public void cardQueryOnColumnNamedTotal() {
+    String outputQuery = cardGenerator.generateCardQuery("total",
         "TABLE(\"jobstore\".\"path\"(type => 'arrow))", rules);
-    String expQuery2 = "SELECT\n" +
-        "sum(CASE WHEN regexp_like(dremio_preview_data.normalCol, '.*?\\Qtest pattern\\E.*?') THEN 1 ELSE 0 END) AS matched_count_0,\n" +
-        "sum(CASE WHEN regexp_like(dremio_preview_data.normalCol, '(?i)(?u).*?.*txt.*.*?') THEN 1 ELSE 0 END) AS matched_count_1,\n" +
-        "COUNT(1) as total\n" +
-        "FROM TABLE(\"jobstore\".\"path\"(type => 'arrow)) as dremio_preview_data";
-
-    assertEquals(expQuery2, outputQuery2);
+    // the input is projected under its own reserved name, the only column named total is the count of rows.
+    assertTrue(outputQuery, outputQuery.contains(" AS dremio_value,\n"));
+    assertFalse(outputQuery, outputQuery.contains("AS total"));
+    assertFalse(outputQuery, outputQuery.contains("AS \"total\""));
   }
 }
@@ -40,6 +40,7 @@ import org.mockito.stubbing.Answer;
 
 import com.dremio.dac.explore.HistogramGenerator.TruncEvalEnum;
 import com.dremio.dac.explore.model.DatasetPath;
+import com.dremio.dac.explore.model.HistogramValue;
 import com.dremio.dac.model.job.JobUI;
 import com.dremio.dac.proto.model.dataset.DataType;
 import com.dremio.exec.expr.fn.impl.DateFunctionsUtils;
@@ -149,6 +150,23 @@ public class TestHistogramGenerator {
     testSelectionCountHelper(null, 0L, DataType.INTEGER, ImmutableSet.<String>of());
   }
 
+  @Test
+  public void testSelectionCountFromHistogram() {
+    final List<HistogramValue> values = Arrays.asList(
+        new HistogramValue(DataType.TEXT, "val1", 0, 10, null),
+        new HistogramValue(DataType.TEXT, "val2", 0, 5, null),
+        new HistogramValue(DataType.TEXT, "", 0, 3, null),
+        new HistogramValue(DataType.TEXT, null, 0, 2, null));
+    final HistogramGenerator.Histogram<HistogramValue> histogram = new HistogramGenerator.Histogram<>(values, 20);
+
+    assertEquals(10L, HistogramGenerator.getSelectionCount(histogram, DataType.TEXT, ImmutableSet.of("val1")));
+    assertEquals(15L, HistogramGenerator.getSelectionCount(histogram, DataType.TEXT, ImmutableSet.of("val1", "val2")));
+    assertEquals(3L, HistogramGenerator.getSelectionCount(histogram, DataType.TEXT, ImmutableSet.of("")));
+    assertEquals(0L, HistogramGenerator.getSelectionCount(histogram, DataType.INTEGER, ImmutableSet.of("")));
+    Set<String> selectedValues = new LinkedHashSet<>(Arrays.asList("val2", null));
+    assertEquals(7L, HistogramGenerator.getSelectionCount(histogram, DataType.TEXT, selectedValues));
+  }
+
   private void testSelectionCountHelper(final String expFilter, final long expCount, DataType type, Set<String> selectedValues) {
     final DatasetPath datasetPath = new DatasetPath(Arrays.asList("dfs", "parquet", "lineitem.parquet"));
     final DatasetVersion datasetVersion = DatasetVersion.newVersion();
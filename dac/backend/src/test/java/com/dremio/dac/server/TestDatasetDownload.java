@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import javax.ws.rs.core.Response;
 
@@ -89,6 +90,25 @@ public class TestDatasetDownload extends BaseTestServer {
     validateAllRows(readDataCsv((InputStream)response.getEntity()));
   }
 
+  @Test
+  public void testStreamCsvRest() throws Exception {
+    final String downloadPath = new DatasetVersionResourcePath(new DatasetPath("DG.dsg1"), dsg1.getVersion()).toString();
+
+    Response response = getBuilder(getAPIv2().path(downloadPath).path("download/stream")
+      .queryParam("downloadFormat", DownloadFormat.CSV)).buildGet().invoke();
+    validateAllRows(readDataCsv((InputStream)response.getEntity()));
+  }
+
+  @Test
+  public void testStreamCompressedJsonRest() throws Exception {
+    final String downloadPath = new DatasetVersionResourcePath(new DatasetPath("DG.dsg1"), dsg1.getVersion()).toString();
+
+    Response response = getBuilder(getAPIv2().path(downloadPath).path("download/stream")
+      .queryParam("downloadFormat", DownloadFormat.JSON)
+      .queryParam("compress", true)).buildGet().invoke();
+    validateAllRows(readDataJson(new GZIPInputStream((InputStream)response.getEntity())));
+  }
+
   @Test
   public void testDownloadJson() throws Exception {
     Job job = datasetService.prepareDownload(dsg1DatasetPath, dsg1.getVersion(), DownloadFormat.JSON, -1, SampleDataPopulator.DEFAULT_USER_NAME);
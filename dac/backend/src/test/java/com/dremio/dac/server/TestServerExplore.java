@@ -473,6 +473,29 @@ public class TestServerExplore extends BaseTestServer {
     }
   }
 
+  @Test
+  public void testReplaceCardsOnColumnNamedTotal() throws Exception {
+    setSpace();
+    DatasetPath datasetPath = new DatasetPath("spacefoo.folderbar.folderbaz.replaceTotal");
+    createDatasetFromSQLAndSave(datasetPath, "select address as total from cp.\"json/replace_example.json\"",
+        asList("cp"));
+    DatasetUI dataset = getDataset(datasetPath);
+
+    // the column is named like the count of rows the cards are computed with.
+    Selection selection = new Selection("total", "tic tac toe", 4, 3);
+    ReplaceCards card = expectSuccess(
+            getBuilder(
+                getAPIv2().path(versionedResourcePath(dataset) + "/replace")
+            ).buildPost(entity(selection, JSON)),
+            ReplaceCards.class);
+    List<Card<ReplacePatternRule>> cards = card.getCards();
+    assertEquals(2, cards.size());
+    for (Card<ReplacePatternRule> c : cards) {
+      assertEquals(0, c.getMatchedCount());
+      assertEquals(5, c.getUnmatchedCount());
+    }
+  }
+
   @Test
   public void testReplaceFlow() throws Exception {
     setSpace();
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.service.datasets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.NullableIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.expression.CompleteType;
+import com.dremio.dac.explore.model.DownloadFormat;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.rpc.Acks;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.sabot.threads.SendingAccountor;
+import com.dremio.sabot.threads.SendingMonitor;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import com.dremio.service.jobs.JobsService;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests for the backpressure {@link StreamingDownload} applies to the job sending its results.
+ */
+public class TestStreamingDownload {
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testSlowClientHoldsSenderBack() throws Exception {
+    final SharedResourceManager resourceManager = SharedResourceManager.newBuilder()
+        .addGroup("test")
+        .build();
+    final SharedResource resource = resourceManager.getGroup("test").createResource("download");
+    final SendingMonitor monitor = new SendingMonitor(resource, new SendingAccountor());
+
+    final StreamingDownload download =
+        new StreamingDownload(mock(JobsService.class), "user", DownloadFormat.CSV, "download.csv", false);
+    final SlowClient client = new SlowClient();
+    final Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          download.writeTo(client);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    }, "download-writer");
+    writer.start();
+
+    try (VectorContainer batch = new VectorContainer(allocator)) {
+      final NullableIntVector vector = batch.addOrGet(CompleteType.INT.toField("a"));
+      batch.buildSchema();
+      batch.allocateNew();
+      vector.getMutator().set(0, 1);
+      batch.setAllCount(1);
+
+      // the batches are handed over at once, although the client doesn't read them.
+      for (int i = 0; i < SendingMonitor.LIMIT; i++) {
+        monitor.increment();
+        download.dataArrived(batch, ack(monitor.wrap(new NoOpListener())));
+      }
+    }
+
+    // none of the batches is acknowledged while the client doesn't read: the sender is blocked.
+    assertFalse(resource.isAvailable());
+
+    client.release.countDown();
+    download.jobCompleted();
+    writer.join(TimeUnit.SECONDS.toMillis(10));
+    assertFalse(writer.isAlive());
+    assertTrue(resource.isAvailable());
+    assertEquals("a\n1\n1\n1\n", new String(client.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  private static Runnable ack(final RpcOutcomeListener<Ack> listener) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        listener.success(Acks.OK, null);
+      }
+    };
+  }
+
+  /**
+   * A client which doesn't read the response until released.
+   */
+  private static final class SlowClient extends ByteArrayOutputStream {
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      super.write(b, off, len);
+    }
+  }
+
+  private static final class NoOpListener implements RpcOutcomeListener<Ack> {
+    @Override
+    public void failed(RpcException ex) {
+    }
+
+    @Override
+    public void success(Ack value, ByteBuf buffer) {
+    }
+
+    @Override
+    public void interrupted(InterruptedException e) {
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.accelerator;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.dremio.dac.server.BaseTestServer;
+import com.dremio.service.accelerator.analysis.AccelerationAnalyzer;
+import com.dremio.service.accelerator.proto.ColumnStats;
+import com.dremio.service.jobs.JobsService;
+import com.dremio.service.namespace.NamespaceKey;
+
+/**
+ * Tests the statistics {@link AccelerationAnalyzer} computes over a sample of the splits of a dataset.
+ */
+public class TestSampledAnalysis extends BaseTestServer {
+
+  @Test
+  public void testSingleSplitDatasetNotScaled() throws Exception {
+    // a single file with a single row group, so the sample keeps its only split and reads the whole dataset.
+    final NamespaceKey path = new NamespaceKey(asList("cp", "tpch/supplier.parquet"));
+    final JobsService jobsService = l(JobsService.class);
+
+    final List<ColumnStats> sampled = new AccelerationAnalyzer(jobsService, 0.1, 0).analyze(path)
+        .getDatasetAnalysis().getColumnList();
+    final List<ColumnStats> full = new AccelerationAnalyzer(jobsService).analyze(path)
+        .getDatasetAnalysis().getColumnList();
+
+    assertFalse(full.isEmpty());
+    assertEquals(full.size(), sampled.size());
+    for (int i = 0; i < full.size(); i++) {
+      final String name = full.get(i).getField().getName();
+      assertEquals(name, full.get(i).getCount(), sampled.get(i).getCount());
+      assertEquals(name, full.get(i).getCardinality(), sampled.get(i).getCardinality());
+    }
+    // supplier has 100 rows.
+    assertEquals(Long.valueOf(100), full.get(0).getCount());
+  }
+}
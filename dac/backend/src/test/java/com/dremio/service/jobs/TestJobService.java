@@ -15,16 +15,19 @@
  */
 package com.dremio.service.jobs;
 
+import static com.dremio.dac.proto.model.dataset.ConvertCase.UPPER_CASE;
 import static com.dremio.dac.proto.model.dataset.OrderDirection.ASC;
 import static com.dremio.service.namespace.dataset.DatasetVersion.newVersion;
 import static java.util.Arrays.asList;
 import static javax.ws.rs.client.Entity.entity;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -34,14 +37,18 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.dremio.dac.daemon.DACDaemonModule;
 import com.dremio.dac.explore.model.DatasetPath;
+import com.dremio.dac.explore.model.DatasetUI;
 import com.dremio.dac.explore.model.InitialPreviewResponse;
 import com.dremio.dac.explore.model.InitialTransformAndRunResponse;
 import com.dremio.dac.model.job.AttemptDetailsUI;
 import com.dremio.dac.model.job.AttemptsHelper;
 import com.dremio.dac.model.job.JobDetailsUI;
 import com.dremio.dac.model.job.JobFilters;
+import com.dremio.dac.proto.model.dataset.TransformConvertCase;
 import com.dremio.dac.proto.model.dataset.TransformSort;
+import com.dremio.dac.proto.model.dataset.VirtualDatasetUI;
 import com.dremio.dac.resource.JobResource;
 import com.dremio.dac.resource.NotificationResponse;
 import com.dremio.dac.server.BaseTestServer;
@@ -64,7 +71,9 @@ import com.dremio.service.job.proto.JobInfo;
 import com.dremio.service.job.proto.JobState;
 import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.DatasetVersion;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.FieldOrigin;
 import com.dremio.service.namespace.dataset.proto.Origin;
 import com.google.common.collect.ImmutableList;
@@ -484,6 +493,234 @@ public class TestJobService extends BaseTestServer {
     assertFalse(new JobDetailsUI(job).getResultsAvailable());
   }
 
+  @Test
+  public void testReuseResults() throws Exception {
+    SabotContext context = l(SabotContext.class);
+    context.getOptionManager().setOption(
+        OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.RESULTS_CACHE_ENABLED.getOptionName(), true));
+    try {
+      Job job1 = jobsService.submitJob(getQueryFromSQL("select * from cp.\"json/users.json\""), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE);
+      job1.getData().loadIfNecessary();
+
+      // same query, formatted differently
+      Job job2 = jobsService.submitJob(getQueryFromSQL("select *\n  from cp.\"json/users.json\""), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE);
+      job2.getData().loadIfNecessary();
+      assertEquals(job1.getJobId(), job2.getJobAttempt().getInfo().getResultsFromJob());
+      assertEquals(JobState.COMPLETED, job2.getJobAttempt().getState());
+
+      // results are read from the first job, also once the job is loaded from the store
+      job2 = jobsService.getJob(job2.getJobId());
+      assertTrue(job2.hasResults());
+      try (JobDataFragment data1 = job1.getData().truncate(100);
+           JobDataFragment data2 = job2.getData().truncate(100)) {
+        assertEquals(data1.getReturnedRowCount(), data2.getReturnedRowCount());
+      }
+
+      // previews don't reuse the results of full runs
+      Job job3 = jobsService.submitJob(getQueryFromSQL("select * from cp.\"json/users.json\""), QueryType.UI_PREVIEW,
+          null, null, JobStatusListener.NONE);
+      job3.getData().loadIfNecessary();
+      assertNull(job3.getJobAttempt().getInfo().getResultsFromJob());
+
+      // nor do queries running with different options
+      context.getOptionManager().setOption(
+          OptionValue.createString(OptionType.SYSTEM, ExecConstants.OUTPUT_FORMAT_OPTION, "json"));
+      try {
+        Job job4 = jobsService.submitJob(getQueryFromSQL("select * from cp.\"json/users.json\""), QueryType.UI_RUN,
+            null, null, JobStatusListener.NONE);
+        job4.getData().loadIfNecessary();
+        assertNull(job4.getJobAttempt().getInfo().getResultsFromJob());
+      } finally {
+        context.getOptionManager().setOption(ExecConstants.OUTPUT_FORMAT_VALIDATOR.getDefault());
+      }
+    } finally {
+      context.getOptionManager().setOption(
+          OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.RESULTS_CACHE_ENABLED.getOptionName(), false));
+    }
+  }
+
+  @Test
+  public void testCleanupKeepsReusedResults() throws Exception {
+    SabotContext context = l(SabotContext.class);
+    context.getOptionManager().setOption(
+        OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.RESULTS_CACHE_ENABLED.getOptionName(), true));
+    context.getOptionManager().setOption(
+        OptionValue.createLong(OptionType.SYSTEM, ExecConstants.RESULTS_MAX_AGE_IN_DAYS.getOptionName(), 0));
+    context.getOptionManager().setOption(
+        OptionValue.createLong(OptionType.SYSTEM, ExecConstants.DEBUG_RESULTS_MAX_AGE_IN_MILLISECONDS.getOptionName(), 1000));
+    try {
+      Job job1 = jobsService.submitJob(getQueryFromSQL("select * from cp.\"json/users.json\""), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE);
+      job1.getData().loadIfNecessary();
+
+      Thread.sleep(1500);
+
+      Job job2 = jobsService.submitJob(getQueryFromSQL("select * from cp.\"json/users.json\""), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE);
+      job2.getData().loadIfNecessary();
+      assertEquals(job1.getJobId(), job2.getJobAttempt().getInfo().getResultsFromJob());
+
+      // the first job is older than the max age, but the second one still reads its results
+      jobsService.new CleanupTask().run();
+      assertTrue(jobsService.getjobResultsStore().jobOutputDirectoryExists(job1.getJobId()));
+      assertTrue(jobsService.getJob(job2.getJobId()).hasResults());
+
+      Thread.sleep(1500);
+
+      // both jobs are older than the max age now
+      jobsService.new CleanupTask().run();
+      assertFalse(jobsService.getjobResultsStore().jobOutputDirectoryExists(job1.getJobId()));
+    } finally {
+      context.getOptionManager().setOption(ExecConstants.DEBUG_RESULTS_MAX_AGE_IN_MILLISECONDS.getDefault());
+      context.getOptionManager().setOption(ExecConstants.RESULTS_MAX_AGE_IN_DAYS.getDefault());
+      context.getOptionManager().setOption(
+          OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.RESULTS_CACHE_ENABLED.getOptionName(), false));
+    }
+  }
+
+  @Test
+  public void testPreviewSample() throws Exception {
+    populateInitialData();
+    SabotContext context = l(SabotContext.class);
+    context.getOptionManager().setOption(
+        OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.PREVIEW_SAMPLES_ENABLED.getOptionName(), true));
+    try {
+      // reading the file makes it a dataset of the namespace.
+      jobsService.submitJob(getQueryFromSQL("select * from LocalFS1.\"dac-sample1.json\""), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE).getData().loadIfNecessary();
+
+      final NamespaceKey path = new NamespaceKey(asList("LocalFS1", "dac-sample1.json"));
+      Job sample1 = jobsService.getPreviewSample(path, DEFAULT_USERNAME);
+      assertEquals(JobState.COMPLETED, sample1.getJobAttempt().getState());
+      assertEquals(QueryType.UI_INTERNAL_PREVIEW, sample1.getJobAttempt().getInfo().getQueryType());
+      assertTrue(sample1.hasResults());
+
+      // the sample is reused while the dataset doesn't change
+      Job sample2 = jobsService.getPreviewSample(path, DEFAULT_USERNAME);
+      assertEquals(sample1.getJobId(), sample2.getJobId());
+
+      // views are not sampled
+      assertNull(jobsService.getPreviewSample(new NamespaceKey(asList("Prod-Sample", "ds1")), DEFAULT_USERNAME));
+
+      // refreshing the metadata of the dataset makes the sample stale
+      final NamespaceService namespaceService = newNamespaceService();
+      final DatasetConfig config = namespaceService.getDataset(path);
+      config.getReadDefinition().setLastRefreshDate(System.currentTimeMillis());
+      namespaceService.addOrUpdateDataset(path, config);
+      Job sample3 = jobsService.getPreviewSample(path, DEFAULT_USERNAME);
+      assertFalse(sample1.getJobId().equals(sample3.getJobId()));
+      assertFalse(jobsService.getjobResultsStore().jobOutputDirectoryExists(sample1.getJobId()));
+      assertTrue(sample3.hasResults());
+    } finally {
+      context.getOptionManager().setOption(
+          OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.PREVIEW_SAMPLES_ENABLED.getOptionName(), false));
+    }
+  }
+
+  @Test
+  public void testPreviewSampleBudget() throws Exception {
+    populateInitialData();
+    final NamespaceKey path = new NamespaceKey(asList("LocalFS1", "dac-sample1.json"));
+    jobsService.submitJob(getQueryFromSQL("select * from LocalFS1.\"dac-sample1.json\""), QueryType.UI_RUN,
+        null, null, JobStatusListener.NONE).getData().loadIfNecessary();
+    final DatasetConfig config = newNamespaceService().getDataset(path);
+    final JobResultsStore resultsStore = jobsService.getjobResultsStore();
+
+    final List<JobId> jobIds = new ArrayList<>();
+    long maxBytes = 0;
+    for (int i = 0; i < 3; i++) {
+      final Job job = jobsService.submitJob(getQueryFromSQL(PreviewSampleStore.getSampleSql(path)),
+          QueryType.UI_INTERNAL_PREVIEW, path, null, JobStatusListener.NONE);
+      job.getData().loadIfNecessary();
+      jobIds.add(job.getJobId());
+      maxBytes = Math.max(maxBytes, resultsStore.getJobResultsSize(job.getJobId()));
+    }
+    assertTrue(maxBytes > 0);
+
+    // room for two samples out of the three
+    final PreviewSampleStore store = new PreviewSampleStore(maxBytes * 5 / 2, resultsStore);
+    final PreviewSampleStore.Key key1 = PreviewSampleStore.newKey(path, "a");
+    final PreviewSampleStore.Key key2 = PreviewSampleStore.newKey(path, "b");
+    final PreviewSampleStore.Key key3 = PreviewSampleStore.newKey(path, "c");
+    assertTrue(store.put(key1, jobIds.get(0), config));
+    assertTrue(store.put(key2, jobIds.get(1), config));
+    // the second sample becomes the least recently used one
+    assertEquals(jobIds.get(0), store.get(key1, config));
+    assertTrue(store.put(key3, jobIds.get(2), config));
+
+    assertNull(store.get(key2, config));
+    assertFalse(resultsStore.jobOutputDirectoryExists(jobIds.get(1)));
+    assertEquals(jobIds.get(0), store.get(key1, config));
+    assertEquals(jobIds.get(2), store.get(key3, config));
+    assertEquals(2, store.size());
+
+    // samples larger than the budget are not kept
+    final PreviewSampleStore smallStore = new PreviewSampleStore(maxBytes / 2, resultsStore);
+    assertFalse(smallStore.put(key1, jobIds.get(0), config));
+    assertNull(smallStore.get(key1, config));
+  }
+
+  @Test
+  public void testPreviewOverSample() throws Exception {
+    SabotContext context = l(SabotContext.class);
+    context.getOptionManager().setOption(
+        OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.PREVIEW_SAMPLES_ENABLED.getOptionName(), true));
+    try {
+      // reading the file makes it a dataset of the namespace.
+      jobsService.submitJob(getQueryFromSQL("select * from cp.\"tpch/supplier.parquet\""), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE).getData().loadIfNecessary();
+
+      final DatasetUI dataset = createDatasetFromParent("cp.\"tpch/supplier.parquet\"").getDataset();
+      final InitialPreviewResponse response =
+          transform(dataset, new TransformConvertCase("s_name", UPPER_CASE, "foo", true));
+      final DatasetUI transformed = response.getDataset();
+
+      // the preview read the sample
+      final Job preview = jobsService.getJob(response.getJobId());
+      assertTrue(preview.getJobAttempt().getInfo().getSql().contains(DACDaemonModule.JOBS_STORAGEPLUGIN_NAME));
+
+      // the version has the lineage of the dataset rather than of the sample
+      final VirtualDatasetUI version =
+          newDatasetVersionMutator().getVersion(getDatasetPath(transformed), transformed.getDatasetVersion());
+      assertEquals(1, version.getParentsList().size());
+      assertEquals(asList("cp", "tpch/supplier.parquet"), version.getParentsList().get(0).getDatasetPathList());
+      for (FieldOrigin fieldOrigin : version.getFieldOriginsList()) {
+        for (Origin origin : fieldOrigin.getOriginsList()) {
+          assertEquals(asList("cp", "tpch/supplier.parquet"), origin.getTableList());
+        }
+      }
+    } finally {
+      context.getOptionManager().setOption(
+          OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.PREVIEW_SAMPLES_ENABLED.getOptionName(), false));
+    }
+  }
+
+  @Test
+  public void testViewCallingNowNotReused() throws Exception {
+    setSpace();
+    createDatasetFromSQLAndSave(new DatasetPath("spacefoo.nowview"), "select now() as t from cp.\"json/users.json\"",
+        null);
+
+    SabotContext context = l(SabotContext.class);
+    context.getOptionManager().setOption(
+        OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.RESULTS_CACHE_ENABLED.getOptionName(), true));
+    try {
+      // the query doesn't call now() itself, the view it reads does.
+      Job job1 = jobsService.submitJob(getQueryFromSQL("select * from spacefoo.nowview"), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE);
+      job1.getData().loadIfNecessary();
+      Job job2 = jobsService.submitJob(getQueryFromSQL("select * from spacefoo.nowview"), QueryType.UI_RUN,
+          null, null, JobStatusListener.NONE);
+      job2.getData().loadIfNecessary();
+      assertNull(job2.getJobAttempt().getInfo().getResultsFromJob());
+    } finally {
+      context.getOptionManager().setOption(
+          OptionValue.createBoolean(OptionType.SYSTEM, ExecConstants.RESULTS_CACHE_ENABLED.getOptionName(), false));
+    }
+  }
+
   @Test
   public void testSingleFailedAttempt() throws Exception {
     final String attemptId = AttemptIdUtils.toString(new AttemptId());
@@ -590,6 +827,34 @@ public class TestJobService extends BaseTestServer {
     ctasJob.getData().loadIfNecessary();
   }
 
+  @Test
+  public void testProfileSerializer() throws Exception {
+    final UserBitShared.QueryProfile profile = UserBitShared.QueryProfile.newBuilder()
+        .setQuery("SELECT * FROM sys.version")
+        .setStart(1000)
+        .setEnd(2000)
+        .build();
+    final LocalJobsService.QueryProfileSerializer serializer = new LocalJobsService.QueryProfileSerializer();
+
+    assertEquals(profile, serializer.revert(serializer.convert(profile)));
+    // profiles stored uncompressed are still read
+    assertEquals(profile, serializer.revert(profile.toByteArray()));
+  }
+
+  @Test
+  public void testProfileOfCompletedJob() throws Exception {
+    final Job job = jobsService.submitJob(getQueryFromSQL("SELECT * FROM sys.version"), QueryType.UNKNOWN, null, null,
+        JobStatusListener.NONE);
+    job.getData().loadIfNecessary();
+
+    // written or still journaled, the profile is found as soon as the job completed.
+    assertEquals(JobState.COMPLETED, jobsService.getJob(job.getJobId()).getJobAttempt().getState());
+    final UserBitShared.QueryProfile profile = jobsService.getProfile(job.getJobId(), 0);
+    assertNotNull(profile);
+    // the final profile, not one journaled while the job ran.
+    assertEquals(UserBitShared.QueryResult.QueryState.COMPLETED, profile.getState());
+  }
+
   @Test
   public void testJobFilters() throws Exception {
     JobFilters jobFilters = new JobFilters()
@@ -36,6 +36,7 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.util.Bytes;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.SchemaPath;
@@ -49,6 +50,9 @@ import com.dremio.exec.planner.cost.ScanCostFactor;
 import com.dremio.exec.planner.fragment.ExecutionNodeMap;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.server.options.Options;
+import com.dremio.exec.server.options.TypeValidators.LongValidator;
+import com.dremio.exec.server.options.TypeValidators.RangeLongValidator;
 import com.dremio.exec.store.StoragePlugin;
 import com.dremio.exec.store.StoragePluginRegistry;
 import com.dremio.exec.store.hbase.HBaseSubScan.HBaseSubScanSpec;
@@ -65,11 +69,18 @@ import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 
 @JsonTypeName("hbase-scan")
+@Options
 public class HBaseGroupScan extends OldAbstractGroupScan<RegionWork> implements HBaseConstants {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HBaseGroupScan.class);
 
+  // regions estimated larger than this are scanned as several key ranges, possibly by different fragments. 0 disables.
+  public static final LongValidator REGION_SPLIT_BYTES = new RangeLongValidator("store.hbase.region_split_bytes", 0, Long.MAX_VALUE, 0);
+
+  private static final int MAX_RANGES_PER_REGION = 64;
+
   private static final Comparator<List<HBaseSubScanSpec>> LIST_SIZE_COMPARATOR = new Comparator<List<HBaseSubScanSpec>>() {
     @Override
     public int compare(List<HBaseSubScanSpec> list1, List<HBaseSubScanSpec> list2) {
@@ -98,6 +109,7 @@ public class HBaseGroupScan extends OldAbstractGroupScan<RegionWork> implements
   private Map<Integer, List<HBaseSubScanSpec>> endpointFragmentMapping;
   private NavigableMap<HRegionInfo, ServerName> regionsToScan;
   private long scanSizeInBytes = 0;
+  private long regionSplitBytes = 0;
 
   @JsonCreator
   public HBaseGroupScan(@JsonProperty("userName") String userName,
@@ -138,6 +150,7 @@ public class HBaseGroupScan extends OldAbstractGroupScan<RegionWork> implements
     this.filterPushedDown = that.filterPushedDown;
     this.statsCalculator = that.statsCalculator;
     this.scanSizeInBytes = that.scanSizeInBytes;
+    this.regionSplitBytes = that.regionSplitBytes;
   }
 
   @Override
@@ -154,22 +167,67 @@ public class HBaseGroupScan extends OldAbstractGroupScan<RegionWork> implements
     List<RegionWork> work = new ArrayList<>();
 
     for (Entry<HRegionInfo, ServerName> entry : regionsToScan.entrySet()) {
-      long bytes = statsCalculator.getRegionSizeInBytes(entry.getKey().getRegionName());
       String name = entry.getValue().getHostname();
       NodeEndpoint endpoint = executionNodes.getEndpoint(name);
       if(endpoint != null){
-        work.add(new RegionWork(entry.getKey(), bytes, new EndpointAffinity(endpoint, bytes)));
+        List<byte[][]> ranges = getKeyRanges(entry.getKey());
+        long bytes = statsCalculator.getRegionSizeInBytes(entry.getKey().getRegionName()) / ranges.size();
+        for (byte[][] range : ranges) {
+          work.add(new RegionWork(entry.getKey(), range[0], range[1], bytes, new EndpointAffinity(endpoint, bytes)));
+        }
       }
     }
     return work.iterator();
   }
 
+  /**
+   * Get the key ranges to scan a region with. Regions estimated larger than the split size are cut in ranges of equal
+   * key space, as the distribution of their keys is unknown.
+   *
+   * @return the start and stop rows of each range.
+   */
+  private List<byte[][]> getKeyRanges(HRegionInfo ri) {
+    final byte[] startRow = getStartRow(ri);
+    final byte[] stopRow = getStopRow(ri);
+    if (regionSplitBytes <= 0 || isNullOrEmpty(stopRow)) {
+      return ImmutableList.of(new byte[][] {startRow, stopRow});
+    }
+    return splitKeyRange(startRow, stopRow, statsCalculator.getRegionSizeInBytes(ri.getRegionName()), regionSplitBytes);
+  }
+
+  /**
+   * Cut the key range of a region in ranges of equal key space, one per split size of the region.
+   *
+   * @return the start and stop rows of each range.
+   */
+  @VisibleForTesting
+  public static List<byte[][]> splitKeyRange(byte[] startRow, byte[] stopRow, long regionBytes, long splitBytes) {
+    final List<byte[][]> single = ImmutableList.of(new byte[][] {startRow, stopRow});
+    if (Bytes.compareTo(startRow, stopRow) >= 0) {
+      return single;
+    }
+
+    final long ranges = Math.min(MAX_RANGES_PER_REGION, (regionBytes + splitBytes - 1) / splitBytes);
+    if (ranges < 2) {
+      return single;
+    }
+    final byte[][] keys = Bytes.split(startRow, stopRow, (int) ranges - 1);
+    if (keys == null) {
+      return single;
+    }
+    final ImmutableList.Builder<byte[][]> builder = ImmutableList.builder();
+    for (int i = 0; i < keys.length - 1; i++) {
+      builder.add(new byte[][] {keys[i], keys[i + 1]});
+    }
+    return builder.build();
+  }
+
   @Override
   public SubScan getSpecificScan(List<RegionWork> work) throws ExecutionSetupException {
     List<HBaseSubScanSpec> readers = FluentIterable.from(work).transform(new Function<RegionWork, HBaseSubScanSpec>(){
       @Override
       public HBaseSubScanSpec apply(RegionWork input) {
-        return regionInfoToSubScanSpec(input.getRegionInfo());
+        return regionInfoToSubScanSpec(input.getRegionInfo(), input.getStartRow(), input.getStopRow());
       }}).toList();
 
     return new HBaseSubScan(getUserName(), storagePlugin, storagePluginConfig, readers, columns, getSchema(), getTableSchemaPath());
@@ -185,6 +243,7 @@ public class HBaseGroupScan extends OldAbstractGroupScan<RegionWork> implements
       this.hTableDesc = admin.getTableDescriptor(tableName);
       List<HRegionLocation> regionLocations = locator.getAllRegionLocations();
       statsCalculator = new TableStatsCalculator(conn, hbaseScanSpec, storagePlugin.getContext().getConfig(), storagePluginConfig);
+      regionSplitBytes = storagePlugin.getContext().getOptionManager().getOption(REGION_SPLIT_BYTES);
 
       boolean foundStartRegion = false;
       regionsToScan = new TreeMap<>();
@@ -224,16 +283,26 @@ public class HBaseGroupScan extends OldAbstractGroupScan<RegionWork> implements
     return storagePlugin;
   }
 
-  private HBaseSubScanSpec regionInfoToSubScanSpec(HRegionInfo ri) {
+  private HBaseSubScanSpec regionInfoToSubScanSpec(HRegionInfo ri, byte[] startRow, byte[] stopRow) {
     HBaseScanSpec spec = hbaseScanSpec;
     return new HBaseSubScanSpec()
         .setTableName(spec.getTableName())
         .setRegionServer(regionsToScan.get(ri).getHostname())
-        .setStartRow((!isNullOrEmpty(spec.getStartRow()) && ri.containsRow(spec.getStartRow())) ? spec.getStartRow() : ri.getStartKey())
-        .setStopRow((!isNullOrEmpty(spec.getStopRow()) && ri.containsRow(spec.getStopRow())) ? spec.getStopRow() : ri.getEndKey())
+        .setStartRow(startRow)
+        .setStopRow(stopRow)
         .setSerializedFilter(spec.getSerializedFilter());
   }
 
+  private byte[] getStartRow(HRegionInfo ri) {
+    HBaseScanSpec spec = hbaseScanSpec;
+    return (!isNullOrEmpty(spec.getStartRow()) && ri.containsRow(spec.getStartRow())) ? spec.getStartRow() : ri.getStartKey();
+  }
+
+  private byte[] getStopRow(HRegionInfo ri) {
+    HBaseScanSpec spec = hbaseScanSpec;
+    return (!isNullOrEmpty(spec.getStopRow()) && ri.containsRow(spec.getStopRow())) ? spec.getStopRow() : ri.getEndKey();
+  }
+
   private boolean isNullOrEmpty(byte[] key) {
     return key == null || key.length == 0;
   }
@@ -241,7 +310,14 @@ public class HBaseGroupScan extends OldAbstractGroupScan<RegionWork> implements
 
   @Override
   public int getMaxParallelizationWidth() {
-    return regionsToScan.size();
+    if (regionSplitBytes <= 0) {
+      return regionsToScan.size();
+    }
+    int width = 0;
+    for (HRegionInfo ri : regionsToScan.keySet()) {
+      width += getKeyRanges(ri).size();
+    }
+    return width;
   }
 
   @Override
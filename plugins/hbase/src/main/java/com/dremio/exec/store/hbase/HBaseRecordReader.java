@@ -26,6 +26,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.vector.NullableVarBinaryVector;
@@ -43,23 +46,31 @@ import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.PathSegment;
 import com.dremio.common.expression.PathSegment.NameSegment;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.exec.exception.SchemaChangeException;
+import com.dremio.exec.server.options.Options;
+import com.dremio.exec.server.options.TypeValidators.BooleanValidator;
 import com.dremio.exec.store.AbstractRecordReader;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.scan.OutputMutator;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Sets;
 
+@Options
 public class HBaseRecordReader extends AbstractRecordReader implements HBaseConstants {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HBaseRecordReader.class);
 
+  // fetch the next batch of rows from the region server while the current one is copied to vectors
+  public static final BooleanValidator ASYNC_FETCH = new BooleanValidator("store.hbase.async_fetch", false);
+
   private OutputMutator outputMutator;
 
   private Map<String, NullableMapVector> familyVectorMap;
@@ -76,6 +87,13 @@ public class HBaseRecordReader extends AbstractRecordReader implements HBaseCons
   private boolean rowKeyOnly;
   private final Connection connection;
 
+  private boolean asyncFetch;
+  private Future<Result[]> pendingFetch;
+
+  // family of the last cell copied, to skip decoding the name of the family of consecutive cells.
+  private byte[] lastFamily;
+  private NullableMapVector lastFamilyVector;
+
   public HBaseRecordReader(
       Connection connection,
       HBaseSubScan.HBaseSubScanSpec subScanSpec,
@@ -189,6 +207,7 @@ public class HBaseRecordReader extends AbstractRecordReader implements HBaseCons
         }
       }
       resultScanner = hTable.getScanner(hbaseScan);
+      asyncFetch = context != null && context.getOptions().getOption(ASYNC_FETCH);
     } catch (SchemaChangeException | IOException e) {
       throw new ExecutionSetupException(e);
     }
@@ -207,50 +226,35 @@ public class HBaseRecordReader extends AbstractRecordReader implements HBaseCons
     }
 
     int rowCount = 0;
-    done:
-    for (; rowCount < numRowsPerBatch; rowCount++) {
-      Result result = null;
-      final OperatorStats operatorStats = context == null ? null : context.getStats();
-      try {
-        if (operatorStats != null) {
-          operatorStats.startWait();
-        }
+    if (asyncFetch) {
+      final Result[] results = nextResults();
+      for (; rowCount < results.length; rowCount++) {
+        copyResult(results[rowCount], rowCount);
+      }
+    } else {
+      done:
+      for (; rowCount < numRowsPerBatch; rowCount++) {
+        Result result = null;
+        final OperatorStats operatorStats = context == null ? null : context.getStats();
         try {
-          result = resultScanner.next();
-        } finally {
           if (operatorStats != null) {
-            operatorStats.stopWait();
+            operatorStats.startWait();
+          }
+          try {
+            result = resultScanner.next();
+          } finally {
+            if (operatorStats != null) {
+              operatorStats.stopWait();
+            }
           }
+        } catch (IOException e) {
+          throw new RuntimeException(e);
         }
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-      if (result == null) {
-        break done;
-      }
-
-      // parse the result and populate the value vectors
-      Cell[] cells = result.rawCells();
-      if (rowKeyVector != null) {
-        rowKeyVector.getMutator().setSafe(rowCount, cells[0].getRowArray(), cells[0].getRowOffset(), cells[0].getRowLength());
-      }
-      if (!rowKeyOnly) {
-        for (final Cell cell : cells) {
-          final int familyOffset = cell.getFamilyOffset();
-          final int familyLength = cell.getFamilyLength();
-          final byte[] familyArray = cell.getFamilyArray();
-          final NullableMapVector mv = getOrCreateFamilyVector(outputMutator, new String(familyArray, familyOffset, familyLength), true);
-          mv.getMutator().setIndexDefined(rowCount);
-          final int qualifierOffset = cell.getQualifierOffset();
-          final int qualifierLength = cell.getQualifierLength();
-          final byte[] qualifierArray = cell.getQualifierArray();
-          final NullableVarBinaryVector v = getOrCreateColumnVector(mv, new String(qualifierArray, qualifierOffset, qualifierLength));
-
-          final int valueOffset = cell.getValueOffset();
-          final int valueLength = cell.getValueLength();
-          final byte[] valueArray = cell.getValueArray();
-          v.getMutator().setSafe(rowCount, valueArray, valueOffset, valueLength);
+        if (result == null) {
+          break done;
         }
+
+        copyResult(result, rowCount);
       }
     }
 
@@ -259,6 +263,79 @@ public class HBaseRecordReader extends AbstractRecordReader implements HBaseCons
     return rowCount;
   }
 
+  /**
+   * Get the next batch of rows, fetched in the background during the previous call, and start fetching the following
+   * one.
+   */
+  private Result[] nextResults() {
+    final OperatorStats operatorStats = context.getStats();
+    operatorStats.startWait();
+    final Result[] results;
+    try {
+      if (pendingFetch == null) {
+        results = resultScanner.next((int) numRowsPerBatch);
+      } else {
+        results = pendingFetch.get();
+        pendingFetch = null;
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      operatorStats.stopWait();
+    }
+
+    if (results.length == numRowsPerBatch) {
+      final int batchSize = (int) numRowsPerBatch;
+      pendingFetch = context.getExecutor().submit(new Callable<Result[]>() {
+        @Override
+        public Result[] call() throws Exception {
+          return resultScanner.next(batchSize);
+        }
+      });
+    }
+    return results;
+  }
+
+  // parse the result and populate the value vectors
+  private void copyResult(Result result, int rowCount) {
+    Cell[] cells = result.rawCells();
+    if (rowKeyVector != null) {
+      rowKeyVector.getMutator().setSafe(rowCount, cells[0].getRowArray(), cells[0].getRowOffset(), cells[0].getRowLength());
+    }
+    if (!rowKeyOnly) {
+      for (final Cell cell : cells) {
+        final NullableMapVector mv = getFamilyVector(cell);
+        mv.getMutator().setIndexDefined(rowCount);
+        final int qualifierOffset = cell.getQualifierOffset();
+        final int qualifierLength = cell.getQualifierLength();
+        final byte[] qualifierArray = cell.getQualifierArray();
+        final NullableVarBinaryVector v = getOrCreateColumnVector(mv, new String(qualifierArray, qualifierOffset, qualifierLength));
+
+        final int valueOffset = cell.getValueOffset();
+        final int valueLength = cell.getValueLength();
+        final byte[] valueArray = cell.getValueArray();
+        v.getMutator().setSafe(rowCount, valueArray, valueOffset, valueLength);
+      }
+    }
+  }
+
+  private NullableMapVector getFamilyVector(Cell cell) {
+    final int familyOffset = cell.getFamilyOffset();
+    final int familyLength = cell.getFamilyLength();
+    final byte[] familyArray = cell.getFamilyArray();
+    // cells of a row are sorted by family, so consecutive cells usually share it.
+    if (lastFamily == null || !Bytes.equals(lastFamily, 0, lastFamily.length, familyArray, familyOffset, familyLength)) {
+      lastFamilyVector = getOrCreateFamilyVector(outputMutator, new String(familyArray, familyOffset, familyLength), true);
+      lastFamily = Bytes.copy(familyArray, familyOffset, familyLength);
+    }
+    return lastFamilyVector;
+  }
+
   private NullableMapVector getOrCreateFamilyVector(OutputMutator output, String familyName, boolean allocateOnCreate) {
     NullableMapVector v = familyVectorMap.get(familyName);
     if(v == null) {
@@ -290,6 +367,17 @@ public class HBaseRecordReader extends AbstractRecordReader implements HBaseCons
   @Override
   public void close() {
     try {
+      if (pendingFetch != null) {
+        // don't close the scanner while it is being read from.
+        try {
+          pendingFetch.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          logger.debug("Failure while fetching rows from HBase table: " + hbaseTableName, e.getCause());
+        }
+        pendingFetch = null;
+      }
       if (resultScanner != null) {
         resultScanner.close();
       }
@@ -23,13 +23,25 @@ import com.dremio.exec.store.schedule.SimpleCompleteWork;
 class RegionWork extends SimpleCompleteWork {
 
   private final HRegionInfo regionInfo;
+  private final byte[] startRow;
+  private final byte[] stopRow;
 
-  public RegionWork(HRegionInfo regionInfo, long size, EndpointAffinity... affinity) {
+  public RegionWork(HRegionInfo regionInfo, byte[] startRow, byte[] stopRow, long size, EndpointAffinity... affinity) {
     super(size, affinity);
     this.regionInfo = regionInfo;
+    this.startRow = startRow;
+    this.stopRow = stopRow;
   }
 
   HRegionInfo getRegionInfo(){
     return regionInfo;
   }
+
+  byte[] getStartRow(){
+    return startRow;
+  }
+
+  byte[] getStopRow(){
+    return stopRow;
+  }
 }
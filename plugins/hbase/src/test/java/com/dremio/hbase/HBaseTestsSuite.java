@@ -44,6 +44,7 @@ import com.dremio.hbase.test.Drill2130StorageHBaseHamcrestConfigurationTest;
   TestHBaseCFAsJSONString.class,
   TestHBaseConnectionManager.class,
   TestHBaseFilterPushDown.class,
+  TestHBaseKeyRanges.class,
   TestHBaseProjectPushDown.class,
   TestHBaseQueries.class,
   TestHBaseRegexParser.class,
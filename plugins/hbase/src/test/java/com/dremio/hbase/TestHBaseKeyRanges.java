@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.hbase;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import com.dremio.exec.store.hbase.HBaseGroupScan;
+import com.dremio.test.DremioTest;
+
+/**
+ * Tests the cutting of large regions in key ranges, with region sizes given instead of read from the cluster.
+ */
+public class TestHBaseKeyRanges extends DremioTest {
+
+  private static final long MB = 1024 * 1024;
+  private static final byte[] START = Bytes.toBytes("aaaa");
+  private static final byte[] STOP = Bytes.toBytes("zzzz");
+
+  @Test
+  public void testSmallRegionNotSplit() {
+    final List<byte[][]> ranges = HBaseGroupScan.splitKeyRange(START, STOP, MB, 8 * MB);
+    assertEquals(1, ranges.size());
+    assertArrayEquals(START, ranges.get(0)[0]);
+    assertArrayEquals(STOP, ranges.get(0)[1]);
+  }
+
+  @Test
+  public void testLargeRegionSplit() {
+    final List<byte[][]> ranges = HBaseGroupScan.splitKeyRange(START, STOP, 10 * MB, MB);
+    assertEquals(10, ranges.size());
+    assertCovers(ranges);
+  }
+
+  @Test
+  public void testRangesPerRegionCapped() {
+    final List<byte[][]> ranges = HBaseGroupScan.splitKeyRange(START, STOP, 1024 * MB, MB);
+    assertEquals(64, ranges.size());
+    assertCovers(ranges);
+  }
+
+  @Test
+  public void testEmptyRangeNotSplit() {
+    assertEquals(1, HBaseGroupScan.splitKeyRange(STOP, START, 10 * MB, MB).size());
+  }
+
+  /**
+   * Check that the ranges are contiguous, not empty and cover the region from its start to its stop row.
+   */
+  private static void assertCovers(List<byte[][]> ranges) {
+    assertArrayEquals(START, ranges.get(0)[0]);
+    assertArrayEquals(STOP, ranges.get(ranges.size() - 1)[1]);
+    for (int i = 0; i < ranges.size(); i++) {
+      assertTrue(Bytes.compareTo(ranges.get(i)[0], ranges.get(i)[1]) < 0);
+      if (i > 0) {
+        assertArrayEquals(ranges.get(i - 1)[1], ranges.get(i)[0]);
+      }
+    }
+  }
+}
@@ -27,6 +27,8 @@ import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Table;
 import org.junit.Test;
 
+import com.dremio.exec.store.hbase.HBaseGroupScan;
+import com.dremio.exec.store.hbase.HBaseRecordReader;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
 
 public class TestHBaseQueries extends BaseHBaseTest {
@@ -97,4 +99,22 @@ public class TestHBaseQueries extends BaseHBaseTest {
     }
   }
 
+  @Test
+  public void testAsyncFetchWithRegionSplits() throws Exception {
+    try {
+      test("alter session set `%s` = true", HBaseRecordReader.ASYNC_FETCH.getOptionName());
+      // smaller than any region, so that regions with known bounds are scanned as several ranges, see TestHBaseKeyRanges.
+      test("alter system set `%s` = 1", HBaseGroupScan.REGION_SPLIT_BYTES.getOptionName());
+      setColumnWidths(new int[] {8, 38});
+      runHBaseSQLVerifyCount("SELECT\n"
+          + "row_key, f\n"
+          + "FROM\n"
+          + "  hbase.`[TABLE_NAME]` tableName"
+          , 8);
+    } finally {
+      test("alter session reset `%s`", HBaseRecordReader.ASYNC_FETCH.getOptionName());
+      test("alter system reset `%s`", HBaseGroupScan.REGION_SPLIT_BYTES.getOptionName());
+    }
+  }
+
 }
@@ -334,3 +334,23 @@ SqlNode SqlRefreshMetadata() :
     }
 }
 
+
+/**
+ * Parse analyze table statement.
+ * ANALYZE TABLE tblname COMPUTE STATISTICS
+ */
+SqlNode SqlAnalyzeTable() :
+{
+    SqlParserPos pos;
+    SqlIdentifier tblName;
+}
+{
+    <ANALYZE> { pos = getPos(); }
+    <TABLE>
+    tblName = CompoundIdentifier()
+    <COMPUTE>
+    <STATISTICS>
+    {
+        return new SqlAnalyzeTable(pos, tblName);
+    }
+}
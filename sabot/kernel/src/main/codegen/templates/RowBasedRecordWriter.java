@@ -50,7 +50,7 @@ public abstract class RowBasedRecordWriter implements RecordWriter {
   public abstract void setup() throws IOException;
   
   @Override
-  public final int writeBatch(int offset, int length) throws IOException {
+  public int writeBatch(int offset, int length) throws IOException {
     if (this.eventBasedRecordWriter == null) {
       this.eventBasedRecordWriter = new EventBasedRecordWriter(incoming, this);
     }
@@ -49,6 +49,10 @@ public interface ExecConstants {
   String INCOMING_BUFFER_SIZE = "dremio.exec.buffer.size";
   String SPOOLING_BUFFER_DELETE = "dremio.exec.buffer.spooling.delete";
   String SPOOLING_BUFFER_SIZE = "dremio.exec.buffer.spooling.size";
+  /** whether exchange receivers hold back acknowledgements of senders exceeding their credit */
+  String INCOMING_BUFFER_CREDIT_ENABLED = "dremio.exec.buffer.credit.enabled";
+  /** memory (in bytes) an exchange receiver may hold, split between its senders, capped by the fragment's headroom */
+  String INCOMING_BUFFER_CREDIT_BYTES = "dremio.exec.buffer.credit.bytes";
   String BATCH_PURGE_THRESHOLD = "dremio.exec.sort.purge.threshold";
   String SPILL_DIRS = "dremio.exec.sort.external.spill.directories";
   String HTTP_ENABLE = "dremio.exec.http.enabled";
@@ -79,6 +83,9 @@ public interface ExecConstants {
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN_SPECIFIC = new BooleanValidator("exec.operator.join.vectorize.specific", false);
   BooleanValidator ENABLE_VECTORIZED_COPIER = new BooleanValidator("exec.operator.copier.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_PARTITIONER = new BooleanValidator("exec.operator.partitioner.vectorize", true);
+  BooleanValidator ENABLE_VECTORIZED_EXPRESSIONS = new BooleanValidator("exec.operator.expression.vectorize", false);
+  BooleanValidator ENABLE_PROJECT_CSE = new BooleanValidator("exec.operator.project.cse", false);
+  LongValidator PROJECT_CSE_MIN_COST = new RangeLongValidator("exec.operator.project.cse.min_cost", 1, Integer.MAX_VALUE, 20);
 
   String OUTPUT_FORMAT_OPTION = "store.format";
   OptionValidator OUTPUT_FORMAT_VALIDATOR = new StringValidator(OUTPUT_FORMAT_OPTION, "parquet");
@@ -103,6 +110,10 @@ public interface ExecConstants {
   BooleanValidator PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_BINARY_TYPE_VALIDATOR = new BooleanValidator(
     PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_BINARY_TYPE, false);
 
+  // write batches a column at a time from the vectors, when all the columns are flat primitives. Off until it's shown
+  // to be faster than writing record by record.
+  BooleanValidator PARQUET_WRITER_COLUMNAR = new BooleanValidator("store.parquet.writer.columnar", false);
+
   String PARQUET_NEW_RECORD_READER = "store.parquet.use_new_reader";
   BooleanValidator PARQUET_RECORD_READER_IMPLEMENTATION_VALIDATOR = new BooleanValidator(PARQUET_NEW_RECORD_READER, false);
 
@@ -124,6 +135,10 @@ public interface ExecConstants {
 
   DoubleValidator TEXT_ESTIMATED_ROW_SIZE = new RangeDoubleValidator(
       "store.text.estimated_row_size_bytes", 1, Long.MAX_VALUE, 10.0);
+  // read the next blocks of text files on another thread while the current one is parsed. Parsing itself stays on the
+  // fragment thread.
+  BooleanValidator TEXT_ASYNC_READ = new BooleanValidator("store.text.async_read", false);
+  LongValidator TEXT_ASYNC_READ_BLOCKS = new RangeLongValidator("store.text.async_read.blocks", 1, 16, 2);
 
   /**
    * The column label (for directory levels) in results when querying files in a directory
@@ -173,6 +188,12 @@ public interface ExecConstants {
   BooleanValidator ACCELERATION_RAW_REMOVE_PROJECT = new BooleanValidator("accelerator.raw.remove_project", true);
   BooleanValidator ACCELERATION_ENABLE_MIN_MAX = new BooleanValidator("accelerator.enable_min_max", true);
   BooleanValidator ACCELERATION_ENABLE_AGG_JOIN = new BooleanValidator("accelerator.enable_agg_join", true);
+  // only match materializations whose tables and columns may cover the query
+  BooleanValidator ACCELERATION_SIGNATURE_FILTER = new BooleanValidator("accelerator.signature_filter.enabled", true);
+  // fraction of the splits of a dataset read to analyze it, 1 to read them all
+  DoubleValidator ACCELERATION_ANALYSIS_SAMPLE_FRACTION = new RangeDoubleValidator("accelerator.analysis.sample_fraction", 0, 1, 1);
+  // rows a sample must have for its statistics to be trusted, smaller samples are analyzed again without sampling
+  LongValidator ACCELERATION_ANALYSIS_SAMPLE_MIN_ROWS = new RangeLongValidator("accelerator.analysis.sample_min_rows", 0, Long.MAX_VALUE, 10000);
 
   // TODO: We need to add a feature that enables storage plugins to add their own options. Currently we have to declare
   // in core which is not right. Move this option and above two mongo plugin related options once we have the feature.
@@ -243,6 +264,12 @@ public interface ExecConstants {
   LongValidator MAX_QUERY_MEMORY_PER_NODE = new RangeLongValidator(
       MAX_QUERY_MEMORY_PER_NODE_KEY, 1024 * 1024, Long.MAX_VALUE, 2 * 1024 * 1024 * 1024L);
 
+  /**
+   * Let the spilling operators of a query running on a node borrow memory from each other, within the query memory
+   * per node, rather than spilling as soon as their own share is used.
+   */
+  BooleanValidator MEMORY_ARBITER = new BooleanValidator("exec.memory.arbiter.enabled", false);
+
   /**
    * Extra query memory per node for non-blocking operators.
    * NOTE: This option is currently used only for memory estimation.
@@ -330,6 +357,18 @@ public interface ExecConstants {
   PositiveLongValidator SOURCE_METADATA_REFRESH_MIN = new PositiveLongValidator("store.metadata.base.refresh_min", Character.MAX_VALUE, 5);
   BooleanValidator PARQUET_SINGLE_STREAM = new BooleanValidator("store.parquet.single_stream", false);
   LongValidator RESULTS_MAX_AGE_IN_DAYS = new LongValidator("results.max.age_in_days", 30);
+  // Off heap cache of the job result batches served to clients paging through results, read at startup
+  LongValidator RESULTS_PAGE_CACHE_SIZE = new RangeLongValidator("results.page_cache.size_bytes", 0, Long.MAX_VALUE, 64 * 1024 * 1024);
+  LongValidator RESULTS_PREFETCH_BATCHES = new RangeLongValidator("results.page_cache.prefetch_batches", 0, 16, 2);
+  // Reuse of the results of previous jobs running the same query over unchanged datasets. Size and ttl are read at startup
+  BooleanValidator RESULTS_CACHE_ENABLED = new BooleanValidator("results.cache.enabled", false);
+  LongValidator RESULTS_CACHE_MAX_ENTRIES = new RangeLongValidator("results.cache.max_entries", 1, 100000, 1000);
+  LongValidator RESULTS_CACHE_TTL_SECONDS = new RangeLongValidator("results.cache.ttl_seconds", 1, Integer.MAX_VALUE, 3600);
+  // Samples of physical datasets stored to run explore previews over, within a disk budget. Budget is read at startup
+  BooleanValidator PREVIEW_SAMPLES_ENABLED = new BooleanValidator("results.preview_samples.enabled", false);
+  LongValidator PREVIEW_SAMPLES_SIZE = new RangeLongValidator("results.preview_samples.size_bytes", 0, Long.MAX_VALUE, 1024 * 1024 * 1024);
+  // Time between writes of the intermediate states and profiles of jobs, 0 to write them as they change. Read at startup
+  LongValidator JOBS_STATE_FLUSH_INTERVAL = new RangeLongValidator("jobs.state.flush_interval_ms", 0, 60 * 1000, 1000);
   //Configuration used for testing or debugging
   LongValidator DEBUG_RESULTS_MAX_AGE_IN_MILLISECONDS = new LongValidator("debug.results.max.age_in_milliseconds", 0);
 
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr;
+
+import java.util.List;
+import java.util.Map;
+
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.IfExpression;
+import com.dremio.common.expression.IfExpression.IfCondition;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.expr.fn.AbstractFunctionHolder;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Finds subexpressions shared by a list of materialized expressions, so that they can be evaluated once per batch
+ * instead of once per referencing expression.
+ *
+ * A subexpression is shared if it appears more than once and at least one of its occurrences is evaluated for every
+ * record (i.e. not in a branch of a CASE or in the short circuited side of an AND/OR). Its conditional occurrences
+ * then read the shared value as well. Evaluating it for the whole batch therefore never does more work, or raises
+ * errors for records, that the expressions wouldn't have. Subexpressions only repeated in conditional positions are
+ * left alone and still evaluated for the records reaching them.
+ */
+public final class CommonSubexpressions {
+
+  private CommonSubexpressions() {
+  }
+
+  /**
+   * Find the subexpressions to share across the given expressions.
+   *
+   * @param exprs materialized expressions
+   * @param minCost minimum cumulative cost of a subexpression for it to be worth sharing
+   * @return the subexpressions to evaluate once, in order of first appearance
+   */
+  public static List<LogicalExpression> find(List<LogicalExpression> exprs, int minCost) {
+    final Map<Key, Occurrences> occurrences = Maps.newLinkedHashMap();
+    for (LogicalExpression expr : exprs) {
+      collect(expr, false, minCost, occurrences);
+    }
+
+    final List<LogicalExpression> candidates = Lists.newArrayList();
+    for (Map.Entry<Key, Occurrences> entry : occurrences.entrySet()) {
+      if (entry.getValue().count > 1 && entry.getValue().unconditionalCount > 0) {
+        candidates.add(entry.getKey().expression);
+      }
+    }
+
+    // larger subexpressions absorb the occurrences of the ones they contain. Only keep the candidates that are
+    // still referenced more than once, and at least once unconditionally, after replacement, until no more
+    // candidates are dropped.
+    boolean changed = true;
+    while (changed && !candidates.isEmpty()) {
+      final Replacer counter = new Replacer(candidates, candidates);
+      for (LogicalExpression expr : exprs) {
+        counter.replace(expr);
+      }
+      changed = false;
+      for (int i = candidates.size() - 1; i >= 0; i--) {
+        if (counter.uses[i] < 2 || counter.unconditionalUses[i] == 0) {
+          candidates.remove(i);
+          changed = true;
+        }
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Replace the occurrences of the shared subexpressions in the given expression.
+   *
+   * @param expr expression to rewrite
+   * @param shared subexpressions returned by {@link #find(List, int)}
+   * @param replacements expressions reading the evaluated subexpressions, in the same order
+   * @return rewritten expression
+   */
+  public static LogicalExpression replace(LogicalExpression expr, List<LogicalExpression> shared, List<LogicalExpression> replacements) {
+    return new Replacer(shared, replacements).replace(expr);
+  }
+
+  private static void collect(LogicalExpression e, boolean conditional, int minCost, Map<Key, Occurrences> occurrences) {
+    if (e instanceof IfExpression) {
+      final IfExpression ifExpr = (IfExpression) e;
+      collect(ifExpr.ifCondition.condition, conditional, minCost, occurrences);
+      collect(ifExpr.ifCondition.expression, true, minCost, occurrences);
+      collect(ifExpr.elseExpression, true, minCost, occurrences);
+      return;
+    }
+
+    if (e instanceof BooleanOperator) {
+      // only the first argument is evaluated for all records, the others might be short circuited.
+      boolean first = true;
+      for (LogicalExpression arg : (BooleanOperator) e) {
+        collect(arg, conditional || !first, minCost, occurrences);
+        first = false;
+      }
+      return;
+    }
+
+    if (isCandidate(e, minCost)) {
+      final Key key = new Key(e);
+      Occurrences o = occurrences.get(key);
+      if (o == null) {
+        o = new Occurrences();
+        occurrences.put(key, o);
+      }
+      o.count++;
+      if (!conditional) {
+        o.unconditionalCount++;
+      }
+    }
+
+    for (LogicalExpression child : e) {
+      collect(child, conditional, minCost, occurrences);
+    }
+  }
+
+  private static boolean isCandidate(LogicalExpression e, int minCost) {
+    if (!(e instanceof FunctionHolderExpr)) {
+      return false;
+    }
+    final FunctionHolderExpr function = (FunctionHolderExpr) e;
+    if (function.isComplexWriterFuncHolder()
+        || function.isRandom()
+        || function.isAggregating()
+        || ((AbstractFunctionHolder) function.getHolder()).isNested()) {
+      return false;
+    }
+    return function.getCompleteType().isScalar()
+        && function.getCumulativeCost() >= minCost
+        && readsVectors(function);
+  }
+
+  /**
+   * Constant subexpressions are already evaluated once, at setup time.
+   */
+  private static boolean readsVectors(LogicalExpression e) {
+    if (e instanceof ValueVectorReadExpression) {
+      return true;
+    }
+    for (LogicalExpression child : e) {
+      if (readsVectors(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class Occurrences {
+    private int count;
+    private int unconditionalCount;
+  }
+
+  /**
+   * Key comparing expressions structurally.
+   */
+  private static class Key {
+    private final LogicalExpression expression;
+    private final int hash;
+
+    Key(LogicalExpression expression) {
+      this.expression = expression;
+      this.hash = expression.accept(new HashVisitor(), null);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      return hash == that.hash && expression.accept(new EqualityVisitor(), that.expression);
+    }
+  }
+
+  /**
+   * Replaces the outermost occurrences of the shared subexpressions, counting how often each one was used, and how
+   * often it was used for every record.
+   */
+  private static class Replacer {
+    private final Map<Key, Integer> indexes = Maps.newHashMap();
+    private final List<LogicalExpression> replacements;
+    private final int[] uses;
+    private final int[] unconditionalUses;
+
+    Replacer(List<LogicalExpression> shared, List<LogicalExpression> replacements) {
+      Preconditions.checkArgument(shared.size() == replacements.size());
+      for (int i = 0; i < shared.size(); i++) {
+        indexes.put(new Key(shared.get(i)), i);
+      }
+      this.replacements = replacements;
+      this.uses = new int[shared.size()];
+      this.unconditionalUses = new int[shared.size()];
+    }
+
+    LogicalExpression replace(LogicalExpression e) {
+      return replace(e, false);
+    }
+
+    private LogicalExpression replace(LogicalExpression e, boolean conditional) {
+      if (e instanceof FunctionHolderExpr) {
+        final Integer index = indexes.get(new Key(e));
+        if (index != null) {
+          uses[index]++;
+          if (!conditional) {
+            unconditionalUses[index]++;
+          }
+          return replacements.get(index);
+        }
+
+        final FunctionHolderExpr function = (FunctionHolderExpr) e;
+        final List<LogicalExpression> args = replaceAll(function.args, conditional, conditional);
+        if (args == null) {
+          return e;
+        }
+        return function.copy(args);
+      }
+
+      if (e instanceof IfExpression) {
+        final IfExpression ifExpr = (IfExpression) e;
+        final LogicalExpression condition = replace(ifExpr.ifCondition.condition, conditional);
+        final LogicalExpression expression = replace(ifExpr.ifCondition.expression, true);
+        final LogicalExpression elseExpression = replace(ifExpr.elseExpression, true);
+        if (condition == ifExpr.ifCondition.condition
+            && expression == ifExpr.ifCondition.expression
+            && elseExpression == ifExpr.elseExpression) {
+          return e;
+        }
+        return IfExpression.newBuilder()
+            .setIfCondition(new IfCondition(condition, expression))
+            .setElse(elseExpression)
+            .setOutputType(ifExpr.outputType)
+            .build();
+      }
+
+      if (e instanceof BooleanOperator) {
+        final BooleanOperator op = (BooleanOperator) e;
+        // only the first argument is evaluated for all records, the others might be short circuited.
+        final List<LogicalExpression> args = replaceAll(op.args, conditional, true);
+        if (args == null) {
+          return e;
+        }
+        return new BooleanOperator(op.getName(), args);
+      }
+
+      // other expressions don't contain shareable subexpressions once materialized.
+      return e;
+    }
+
+    /**
+     * @param firstConditional whether the first expression is only evaluated for some records
+     * @param nextConditional whether the other expressions are only evaluated for some records
+     * @return the replaced expressions or null if none of them changed.
+     */
+    private List<LogicalExpression> replaceAll(List<LogicalExpression> exprs, boolean firstConditional,
+        boolean nextConditional) {
+      final List<LogicalExpression> replaced = Lists.newArrayList();
+      boolean changed = false;
+      boolean first = true;
+      for (LogicalExpression expr : exprs) {
+        final LogicalExpression r = replace(expr, first ? firstConditional : nextConditional);
+        changed |= r != expr;
+        replaced.add(r);
+        first = false;
+      }
+      return changed ? replaced : null;
+    }
+  }
+}
@@ -39,6 +39,7 @@ import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.expr.annotations.FunctionTemplate;
 import com.dremio.exec.expr.annotations.FunctionTemplate.FunctionSyntax;
 import com.dremio.exec.expr.annotations.FunctionTemplate.NullHandling;
+import com.dremio.sabot.exec.context.ContextInformation;
 import com.dremio.sabot.exec.context.FunctionContext;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
@@ -146,6 +147,19 @@ public abstract class BaseFunctionHolder extends AbstractFunctionHolder {
     return syntax;
   }
 
+  /**
+   * @return whether the function reads the context of the query, such as its start time or its user, so that its
+   * value is the same within a query but changes from one query to the other.
+   */
+  public boolean isContextDependent() {
+    for (WorkspaceReference ref : workspaceVars) {
+      if (ref.isInject() && ref.getType() == ContextInformation.class) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   protected JVar[] declareWorkspaceVariables(ClassGenerator<?> g) {
     JVar[] workspaceJVars = new JVar[workspaceVars.length];
     for (int i = 0; i < workspaceVars.length; i++) {
@@ -126,6 +126,7 @@ public class FunctionRegistry {
       final ArrayListMultimap<Integer, BaseFunctionHolder> aggregateFunctions = ArrayListMultimap.create();
       final String name = function.getKey().toUpperCase();
       boolean isDeterministic = true;
+      boolean isContextDependent = false;
       FunctionSyntax syntax = FunctionSyntax.FUNCTION;
       for (BaseFunctionHolder func : function.getValue()) {
         final int paramCount = func.getParamCount();
@@ -144,6 +145,9 @@ public class FunctionRegistry {
         if(!func.isDeterministic()) {
           isDeterministic = false;
         }
+        if(func.isContextDependent()) {
+          isContextDependent = true;
+        }
 
         // All the functions are assumed to share the same syntax
         syntax = func.getSyntax();
@@ -173,6 +177,7 @@ public class FunctionRegistry {
             min,
             max,
             isDeterministic,
+            isContextDependent,
             TypeInferenceUtils.getSqlReturnTypeInference(name, Lists.newArrayList(entry.getValue())),
             sqlSyntax);
         operatorTable.add(name, sqlOperator);
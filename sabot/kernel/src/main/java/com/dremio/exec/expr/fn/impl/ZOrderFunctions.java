@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr.fn.impl;
+
+import io.netty.buffer.ArrowBuf;
+
+import javax.inject.Inject;
+
+import org.apache.arrow.vector.holders.BigIntHolder;
+import org.apache.arrow.vector.holders.NullableBigIntHolder;
+import org.apache.arrow.vector.holders.NullableDateMilliHolder;
+import org.apache.arrow.vector.holders.NullableFloat4Holder;
+import org.apache.arrow.vector.holders.NullableFloat8Holder;
+import org.apache.arrow.vector.holders.NullableIntHolder;
+import org.apache.arrow.vector.holders.NullableTimeMilliHolder;
+import org.apache.arrow.vector.holders.NullableTimeStampMilliHolder;
+import org.apache.arrow.vector.holders.VarBinaryHolder;
+
+import com.dremio.exec.expr.SimpleFunction;
+import com.dremio.exec.expr.annotations.FunctionTemplate;
+import com.dremio.exec.expr.annotations.FunctionTemplate.FunctionScope;
+import com.dremio.exec.expr.annotations.FunctionTemplate.NullHandling;
+import com.dremio.exec.expr.annotations.Output;
+import com.dremio.exec.expr.annotations.Param;
+import com.dremio.exec.expr.annotations.Workspace;
+
+/**
+ * Functions computing a Z-order (Morton) value of several columns, used to cluster the rows written to a table on
+ * several sort columns at once.
+ *
+ * zorder_key maps a value to a long whose signed order is the order of the values, nulls first. zorder_scale stretches
+ * a key over the whole range of longs given the minimum and maximum keys of its column, so that every column takes the
+ * same part of the Z-order whatever the spread of its values. zorder interleaves the bits of up to four scaled keys,
+ * most significant bits first, into a binary value whose byte order is the Z-order.
+ */
+public class ZOrderFunctions {
+
+  public static final String ZORDER = "zorder";
+  public static final String ZORDER_KEY = "zorder_key";
+  public static final String ZORDER_SCALE = "zorder_scale";
+  public static final int MAX_KEYS = 4;
+
+  private ZOrderFunctions() {
+  }
+
+  /**
+   * Maps a double to a long with the same order.
+   */
+  public static long doubleKey(double value) {
+    final long bits = Double.doubleToLongBits(value);
+    // negative doubles are ordered backwards as integers.
+    return bits >= 0 ? bits : bits ^ Long.MAX_VALUE;
+  }
+
+  /**
+   * Maps a key within [min, max] to a long with the same order, min mapping to Long.MIN_VALUE and max to
+   * Long.MAX_VALUE.
+   */
+  public static long scale(long key, long min, long max) {
+    if (max <= min) {
+      return 0;
+    }
+    // doubles keep the 53 most significant bits of the fraction, more than any Z-order resolution needs.
+    final double fraction = ((double) key - (double) min) / ((double) max - (double) min);
+    return (long) (fraction * 18446744073709551615.0 - 9223372036854775808.0);
+  }
+
+  /**
+   * Interleaves the bits of the keys into the buffer.
+   *
+   * @return the number of bytes written.
+   */
+  public static int interleave(long[] keys, ArrowBuf buffer) {
+    final int length = keys.length * 8;
+    for (int i = 0; i < length; i++) {
+      buffer.setByte(i, 0);
+    }
+    int position = 0;
+    for (int bit = 63; bit >= 0; bit--) {
+      for (long key : keys) {
+        // flip the sign bit so that unsigned order is signed order.
+        if ((((key ^ Long.MIN_VALUE) >>> bit) & 1) != 0) {
+          final int index = position >>> 3;
+          buffer.setByte(index, buffer.getByte(index) | (0x80 >>> (position & 7)));
+        }
+        position++;
+      }
+    }
+    return length;
+  }
+
+  @FunctionTemplate(name = ZORDER_KEY, scope = FunctionScope.SIMPLE, nulls = NullHandling.INTERNAL)
+  public static class BigIntKey implements SimpleFunction {
+    @Param NullableBigIntHolder in;
+    @Output NullableBigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.isSet = 1;
+      out.value = in.isSet == 0 ? Long.MIN_VALUE : in.value;
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER_KEY, scope = FunctionScope.SIMPLE, nulls = NullHandling.INTERNAL)
+  public static class IntKey implements SimpleFunction {
+    @Param NullableIntHolder in;
+    @Output NullableBigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.isSet = 1;
+      out.value = in.isSet == 0 ? Long.MIN_VALUE : in.value;
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER_KEY, scope = FunctionScope.SIMPLE, nulls = NullHandling.INTERNAL)
+  public static class Float4Key implements SimpleFunction {
+    @Param NullableFloat4Holder in;
+    @Output NullableBigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.isSet = 1;
+      out.value = in.isSet == 0 ? Long.MIN_VALUE : com.dremio.exec.expr.fn.impl.ZOrderFunctions.doubleKey(in.value);
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER_KEY, scope = FunctionScope.SIMPLE, nulls = NullHandling.INTERNAL)
+  public static class Float8Key implements SimpleFunction {
+    @Param NullableFloat8Holder in;
+    @Output NullableBigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.isSet = 1;
+      out.value = in.isSet == 0 ? Long.MIN_VALUE : com.dremio.exec.expr.fn.impl.ZOrderFunctions.doubleKey(in.value);
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER_KEY, scope = FunctionScope.SIMPLE, nulls = NullHandling.INTERNAL)
+  public static class DateKey implements SimpleFunction {
+    @Param NullableDateMilliHolder in;
+    @Output NullableBigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.isSet = 1;
+      out.value = in.isSet == 0 ? Long.MIN_VALUE : in.value;
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER_KEY, scope = FunctionScope.SIMPLE, nulls = NullHandling.INTERNAL)
+  public static class TimeKey implements SimpleFunction {
+    @Param NullableTimeMilliHolder in;
+    @Output NullableBigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.isSet = 1;
+      out.value = in.isSet == 0 ? Long.MIN_VALUE : in.value;
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER_KEY, scope = FunctionScope.SIMPLE, nulls = NullHandling.INTERNAL)
+  public static class TimeStampKey implements SimpleFunction {
+    @Param NullableTimeStampMilliHolder in;
+    @Output NullableBigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.isSet = 1;
+      out.value = in.isSet == 0 ? Long.MIN_VALUE : in.value;
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER_SCALE, scope = FunctionScope.SIMPLE, nulls = NullHandling.NULL_IF_NULL)
+  public static class ScaleKey implements SimpleFunction {
+    @Param BigIntHolder in;
+    @Param BigIntHolder min;
+    @Param BigIntHolder max;
+    @Output BigIntHolder out;
+
+    public void setup() {
+    }
+
+    public void eval() {
+      out.value = com.dremio.exec.expr.fn.impl.ZOrderFunctions.scale(in.value, min.value, max.value);
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER, scope = FunctionScope.SIMPLE, nulls = NullHandling.NULL_IF_NULL)
+  public static class ZOrder2 implements SimpleFunction {
+    @Param BigIntHolder in1;
+    @Param BigIntHolder in2;
+    @Output VarBinaryHolder out;
+    @Inject ArrowBuf buffer;
+    @Workspace long[] keys;
+
+    public void setup() {
+      buffer = buffer.reallocIfNeeded(16);
+      keys = new long[2];
+    }
+
+    public void eval() {
+      keys[0] = in1.value;
+      keys[1] = in2.value;
+      out.buffer = buffer;
+      out.start = 0;
+      out.end = com.dremio.exec.expr.fn.impl.ZOrderFunctions.interleave(keys, buffer);
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER, scope = FunctionScope.SIMPLE, nulls = NullHandling.NULL_IF_NULL)
+  public static class ZOrder3 implements SimpleFunction {
+    @Param BigIntHolder in1;
+    @Param BigIntHolder in2;
+    @Param BigIntHolder in3;
+    @Output VarBinaryHolder out;
+    @Inject ArrowBuf buffer;
+    @Workspace long[] keys;
+
+    public void setup() {
+      buffer = buffer.reallocIfNeeded(24);
+      keys = new long[3];
+    }
+
+    public void eval() {
+      keys[0] = in1.value;
+      keys[1] = in2.value;
+      keys[2] = in3.value;
+      out.buffer = buffer;
+      out.start = 0;
+      out.end = com.dremio.exec.expr.fn.impl.ZOrderFunctions.interleave(keys, buffer);
+    }
+  }
+
+  @FunctionTemplate(name = ZORDER, scope = FunctionScope.SIMPLE, nulls = NullHandling.NULL_IF_NULL)
+  public static class ZOrder4 implements SimpleFunction {
+    @Param BigIntHolder in1;
+    @Param BigIntHolder in2;
+    @Param BigIntHolder in3;
+    @Param BigIntHolder in4;
+    @Output VarBinaryHolder out;
+    @Inject ArrowBuf buffer;
+    @Workspace long[] keys;
+
+    public void setup() {
+      buffer = buffer.reallocIfNeeded(32);
+      keys = new long[4];
+    }
+
+    public void eval() {
+      keys[0] = in1.value;
+      keys[1] = in2.value;
+      keys[2] = in3.value;
+      keys[3] = in4.value;
+      out.buffer = buffer;
+      out.start = 0;
+      out.end = com.dremio.exec.expr.fn.impl.ZOrderFunctions.interleave(keys, buffer);
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr.vectorized;
+
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.CompleteType;
+import com.google.common.base.Preconditions;
+
+import io.netty.buffer.ArrowBuf;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A node of an expression tree evaluated a whole batch at a time. After {@link #evaluate(int)}, the values of the
+ * expression for the batch are available as a validity bitmap and a data buffer in the Arrow layout of the
+ * expression's type (bit packed for booleans, fixed width little endian values otherwise).
+ */
+public abstract class VectorizedExpression implements AutoCloseable {
+
+  static final int VALIDITY_BUFFER_ORDINAL = 0;
+  static final int VALUE_BUFFER_ORDINAL = 1;
+
+  private static final int WORD_BYTES = 8;
+
+  /**
+   * Fixed width types supported by the vectorized evaluation.
+   */
+  public enum Kind {
+    BIT(0),
+    INT(4),
+    BIGINT(8),
+    FLOAT4(4),
+    FLOAT8(8);
+
+    private final int width;
+
+    Kind(int width) {
+      this.width = width;
+    }
+
+    /**
+     * Width of a value in bytes, 0 for bit packed values.
+     */
+    public int getWidth() {
+      return width;
+    }
+
+    public boolean isFloatingPoint() {
+      return this == FLOAT4 || this == FLOAT8;
+    }
+
+    public boolean isNumeric() {
+      return this != BIT;
+    }
+
+    long getDataSize(int count) {
+      return this == BIT ? getValiditySize(count) : ((long) count) * width;
+    }
+
+    /**
+     * Get the kind for the given type, or null if the type isn't supported.
+     */
+    public static Kind fromType(CompleteType type) {
+      if (CompleteType.BIT.equals(type)) {
+        return BIT;
+      } else if (CompleteType.INT.equals(type)) {
+        return INT;
+      } else if (CompleteType.BIGINT.equals(type)) {
+        return BIGINT;
+      } else if (CompleteType.FLOAT.equals(type)) {
+        return FLOAT4;
+      } else if (CompleteType.DOUBLE.equals(type)) {
+        return FLOAT8;
+      }
+      return null;
+    }
+  }
+
+  protected final Kind kind;
+
+  protected VectorizedExpression(Kind kind) {
+    this.kind = kind;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Evaluate the expression for the first {@code count} records of the current batch.
+   */
+  public abstract void evaluate(int count);
+
+  /**
+   * Memory address of the validity bitmap of the last evaluated batch.
+   */
+  public abstract long getValidityAddress();
+
+  /**
+   * Memory address of the values of the last evaluated batch.
+   */
+  public abstract long getDataAddress();
+
+  /**
+   * Evaluate the expression and write the result into the given buffers, e.g. the buffers of an output vector.
+   */
+  public void evaluateInto(int count, long validityAddress, long dataAddress) {
+    evaluate(count);
+    PlatformDependent.copyMemory(getValidityAddress(), validityAddress, getValiditySize(count));
+    PlatformDependent.copyMemory(getDataAddress(), dataAddress, kind.getDataSize(count));
+  }
+
+  /**
+   * Evaluate the expression into the given fixed width vector. The vector must have been allocated for at least
+   * {@code count} records.
+   */
+  public void evaluateInto(int count, FieldVector vector) {
+    final List<ArrowBuf> buffers = vector.getFieldBuffers();
+    Preconditions.checkArgument(buffers.size() == 2, "Vectorized expressions can only be written into fixed width vectors.");
+    evaluateInto(count, buffers.get(VALIDITY_BUFFER_ORDINAL).memoryAddress(), buffers.get(VALUE_BUFFER_ORDINAL).memoryAddress());
+  }
+
+  @Override
+  public void close() throws Exception {
+  }
+
+  static long getValiditySize(int count) {
+    return (count + 7) >>> 3;
+  }
+
+  /**
+   * An expression computed into scratch buffers owned by the expression.
+   */
+  abstract static class Computed extends VectorizedExpression {
+    private final BufferAllocator allocator;
+    private final List<VectorizedExpression> children;
+    private ArrowBuf validity;
+    private ArrowBuf data;
+    private int capacity = -1;
+
+    Computed(Kind kind, BufferAllocator allocator, List<VectorizedExpression> children) {
+      super(kind);
+      this.allocator = allocator;
+      this.children = children;
+    }
+
+    @Override
+    public void evaluate(int count) {
+      ensureCapacity(count);
+      evaluateInto(count, validity.memoryAddress(), data.memoryAddress());
+    }
+
+    @Override
+    public void evaluateInto(int count, long validityAddress, long dataAddress) {
+      for (VectorizedExpression child : children) {
+        child.evaluate(count);
+      }
+      compute(count, validityAddress, dataAddress);
+    }
+
+    /**
+     * Compute the values from the already evaluated children.
+     */
+    abstract void compute(int count, long validityAddress, long dataAddress);
+
+    @Override
+    public long getValidityAddress() {
+      return validity.memoryAddress();
+    }
+
+    @Override
+    public long getDataAddress() {
+      return data.memoryAddress();
+    }
+
+    /**
+     * Reallocate the scratch buffers if needed.
+     *
+     * @return true if the buffers were reallocated
+     */
+    boolean ensureCapacity(int count) {
+      if (count <= capacity) {
+        return false;
+      }
+      releaseBuffers();
+      // round sizes up to full words so that bitmaps can be processed a word at a time.
+      validity = allocator.buffer(roundToWord(getValiditySize(count)));
+      data = allocator.buffer(roundToWord(kind.getDataSize(count)));
+      capacity = count;
+      return true;
+    }
+
+    private void releaseBuffers() {
+      if (validity != null) {
+        validity.release();
+        validity = null;
+      }
+      if (data != null) {
+        data.release();
+        data = null;
+      }
+    }
+
+    @Override
+    public void close() throws Exception {
+      releaseBuffers();
+      AutoCloseables.close(children);
+    }
+
+    private static int roundToWord(long size) {
+      return (int) Math.max(WORD_BYTES, (size + WORD_BYTES - 1) & ~(WORD_BYTES - 1));
+    }
+  }
+
+  // Bitmap helpers, processing a word at a time and the trailing bytes one at a time.
+
+  static void and(long left, long right, long out, int count) {
+    final long size = getValiditySize(count);
+    long i = 0;
+    for (; i + WORD_BYTES <= size; i += WORD_BYTES) {
+      PlatformDependent.putLong(out + i, PlatformDependent.getLong(left + i) & PlatformDependent.getLong(right + i));
+    }
+    for (; i < size; i++) {
+      PlatformDependent.putByte(out + i, (byte) (PlatformDependent.getByte(left + i) & PlatformDependent.getByte(right + i)));
+    }
+  }
+
+  static void fill(long out, long size, byte value) {
+    PlatformDependent.setMemory(out, size, value);
+  }
+}
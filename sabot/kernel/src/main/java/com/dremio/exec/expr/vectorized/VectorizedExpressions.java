@@ -0,0 +1,814 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr.vectorized;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.FunctionHolderExpression;
+import com.dremio.common.expression.IfExpression;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.ValueExpressions.BooleanExpression;
+import com.dremio.common.expression.ValueExpressions.DoubleExpression;
+import com.dremio.common.expression.ValueExpressions.FloatExpression;
+import com.dremio.common.expression.ValueExpressions.IntExpression;
+import com.dremio.common.expression.ValueExpressions.LongExpression;
+import com.dremio.common.expression.visitors.AbstractExprVisitor;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.expr.vectorized.VectorizedExpression.Computed;
+import com.dremio.exec.expr.vectorized.VectorizedExpression.Kind;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import io.netty.buffer.ArrowBuf;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Builds {@link VectorizedExpression} trees out of materialized expressions. Only a core set of scalar operations on
+ * fixed width columns is supported: arithmetic, comparisons, AND/OR/NOT, IS [NOT] NULL, CASE and casts between numeric
+ * types. Everything else is left to code generation. The semantics match the generated code, including SQL three
+ * valued logic for AND/OR. As opposed to generated code, all branches are evaluated for every record, which is fine
+ * since none of the supported operations can fail or has side effects.
+ */
+public final class VectorizedExpressions {
+
+  private enum Op {
+    ADD, SUBTRACT, MULTIPLY, DIVIDE,
+    EQUAL, NOT_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL,
+    NOT, IS_NULL, IS_NOT_NULL, CAST
+  }
+
+  private static final Map<String, Op> FUNCTIONS = ImmutableMap.<String, Op>builder()
+      .put("add", Op.ADD)
+      .put("subtract", Op.SUBTRACT)
+      .put("multiply", Op.MULTIPLY)
+      .put("divide", Op.DIVIDE)
+      .put("equal", Op.EQUAL)
+      .put("==", Op.EQUAL)
+      .put("=", Op.EQUAL)
+      .put("not_equal", Op.NOT_EQUAL)
+      .put("<>", Op.NOT_EQUAL)
+      .put("!=", Op.NOT_EQUAL)
+      .put("less_than", Op.LESS_THAN)
+      .put("<", Op.LESS_THAN)
+      .put("less_than_or_equal_to", Op.LESS_THAN_OR_EQUAL)
+      .put("<=", Op.LESS_THAN_OR_EQUAL)
+      .put("greater_than", Op.GREATER_THAN)
+      .put(">", Op.GREATER_THAN)
+      .put("greater_than_or_equal_to", Op.GREATER_THAN_OR_EQUAL)
+      .put(">=", Op.GREATER_THAN_OR_EQUAL)
+      .put("not", Op.NOT)
+      .put("isnull", Op.IS_NULL)
+      .put("is null", Op.IS_NULL)
+      .put("isnotnull", Op.IS_NOT_NULL)
+      .put("is not null", Op.IS_NOT_NULL)
+      .put("castint", Op.CAST)
+      .put("castbigint", Op.CAST)
+      .put("castfloat4", Op.CAST)
+      .put("castfloat8", Op.CAST)
+      .build();
+
+  private VectorizedExpressions() {
+  }
+
+  /**
+   * Build a vectorized evaluator for the given materialized expression.
+   *
+   * @param expr materialized expression
+   * @param incoming batch the expression reads from, must not have a selection vector
+   * @param allocator allocator for the intermediate results
+   * @return the evaluator, or null if some part of the expression isn't supported.
+   */
+  public static VectorizedExpression build(LogicalExpression expr, VectorAccessible incoming, BufferAllocator allocator) {
+    final Builder builder = new Builder(incoming, allocator);
+    final VectorizedExpression result = expr.accept(builder, null);
+    if (result == null) {
+      AutoCloseables.closeNoChecked(AutoCloseables.all(builder.created));
+    }
+    return result;
+  }
+
+  private static class Builder extends AbstractExprVisitor<VectorizedExpression, Void, RuntimeException> {
+    private final VectorAccessible incoming;
+    private final BufferAllocator allocator;
+    private final List<VectorizedExpression> created = Lists.newArrayList();
+
+    Builder(VectorAccessible incoming, BufferAllocator allocator) {
+      this.incoming = incoming;
+      this.allocator = allocator;
+    }
+
+    private <T extends VectorizedExpression> T add(T expr) {
+      created.add(expr);
+      return expr;
+    }
+
+    private List<VectorizedExpression> children(List<LogicalExpression> args) {
+      final List<VectorizedExpression> children = Lists.newArrayList();
+      for (LogicalExpression arg : args) {
+        final VectorizedExpression child = arg.accept(this, null);
+        if (child == null) {
+          return null;
+        }
+        children.add(child);
+      }
+      return children;
+    }
+
+    @Override
+    public VectorizedExpression visitFunctionHolderExpression(FunctionHolderExpression holder, Void value) {
+      final Op op = FUNCTIONS.get(holder.getName().toLowerCase());
+      final Kind outputKind = Kind.fromType(holder.getCompleteType());
+      if (op == null || outputKind == null) {
+        return null;
+      }
+
+      final List<VectorizedExpression> args = children(holder.args);
+      if (args == null) {
+        return null;
+      }
+
+      switch (op) {
+      case ADD:
+      case SUBTRACT:
+      case MULTIPLY:
+      case DIVIDE:
+        // integer division fails on zero divisors, leave it to generated code
+        if (args.size() != 2 || !outputKind.isNumeric() || (op == Op.DIVIDE && !outputKind.isFloatingPoint())
+            || args.get(0).getKind() != outputKind || args.get(1).getKind() != outputKind) {
+          return null;
+        }
+        return add(new Arithmetic(op, outputKind, allocator, args));
+
+      case EQUAL:
+      case NOT_EQUAL:
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+        if (args.size() != 2 || !args.get(0).getKind().isNumeric()
+            || args.get(0).getKind() != args.get(1).getKind()) {
+          return null;
+        }
+        return add(new Comparison(op, allocator, args));
+
+      case NOT:
+        if (args.size() != 1 || args.get(0).getKind() != Kind.BIT) {
+          return null;
+        }
+        return add(new Not(allocator, args));
+
+      case IS_NULL:
+      case IS_NOT_NULL:
+        if (args.size() != 1) {
+          return null;
+        }
+        return add(new NullCheck(op == Op.IS_NULL, allocator, args));
+
+      case CAST:
+        // casts from floating point to integers round, leave those to generated code
+        if (args.size() != 1 || !args.get(0).getKind().isNumeric()
+            || (args.get(0).getKind().isFloatingPoint() && !outputKind.isFloatingPoint())) {
+          return null;
+        }
+        return add(new Cast(outputKind, allocator, args));
+
+      default:
+        return null;
+      }
+    }
+
+    @Override
+    public VectorizedExpression visitBooleanOperator(BooleanOperator op, Void value) {
+      final boolean isAnd;
+      if (op.getName().equals("booleanAnd")) {
+        isAnd = true;
+      } else if (op.getName().equals("booleanOr")) {
+        isAnd = false;
+      } else {
+        return null;
+      }
+
+      final List<VectorizedExpression> args = children(op.args);
+      if (args == null || args.isEmpty()) {
+        return null;
+      }
+      VectorizedExpression result = args.get(0);
+      for (int i = 1; i < args.size(); i++) {
+        if (result.getKind() != Kind.BIT || args.get(i).getKind() != Kind.BIT) {
+          return null;
+        }
+        result = add(new Logical(isAnd, allocator, ImmutableList.of(result, args.get(i))));
+      }
+      return result.getKind() == Kind.BIT ? result : null;
+    }
+
+    @Override
+    public VectorizedExpression visitIfExpression(IfExpression ifExpr, Void value) {
+      final Kind outputKind = Kind.fromType(ifExpr.getCompleteType());
+      if (outputKind == null) {
+        return null;
+      }
+      final List<VectorizedExpression> args = children(ImmutableList.of(
+          ifExpr.ifCondition.condition, ifExpr.ifCondition.expression, ifExpr.elseExpression));
+      if (args == null || args.get(0).getKind() != Kind.BIT
+          || args.get(1).getKind() != outputKind || args.get(2).getKind() != outputKind) {
+        return null;
+      }
+      return add(new Conditional(outputKind, allocator, args));
+    }
+
+    @Override
+    public VectorizedExpression visitIntConstant(IntExpression intExpr, Void value) {
+      final int constant = intExpr.getInt();
+      return add(new Constant(Kind.INT, allocator) {
+        @Override
+        void fillValues(long address, int count) {
+          for (int i = 0; i < count; i++) {
+            PlatformDependent.putInt(address + i * 4L, constant);
+          }
+        }
+      });
+    }
+
+    @Override
+    public VectorizedExpression visitLongConstant(LongExpression longExpr, Void value) {
+      final long constant = longExpr.getLong();
+      return add(new Constant(Kind.BIGINT, allocator) {
+        @Override
+        void fillValues(long address, int count) {
+          for (int i = 0; i < count; i++) {
+            PlatformDependent.putLong(address + i * 8L, constant);
+          }
+        }
+      });
+    }
+
+    @Override
+    public VectorizedExpression visitFloatConstant(FloatExpression floatExpr, Void value) {
+      final int constant = Float.floatToRawIntBits(floatExpr.getFloat());
+      return add(new Constant(Kind.FLOAT4, allocator) {
+        @Override
+        void fillValues(long address, int count) {
+          for (int i = 0; i < count; i++) {
+            PlatformDependent.putInt(address + i * 4L, constant);
+          }
+        }
+      });
+    }
+
+    @Override
+    public VectorizedExpression visitDoubleConstant(DoubleExpression doubleExpr, Void value) {
+      final long constant = Double.doubleToRawLongBits(doubleExpr.getDouble());
+      return add(new Constant(Kind.FLOAT8, allocator) {
+        @Override
+        void fillValues(long address, int count) {
+          for (int i = 0; i < count; i++) {
+            PlatformDependent.putLong(address + i * 8L, constant);
+          }
+        }
+      });
+    }
+
+    @Override
+    public VectorizedExpression visitBooleanConstant(BooleanExpression e, Void value) {
+      final byte constant = e.getBoolean() ? (byte) 0xFF : 0;
+      return add(new Constant(Kind.BIT, allocator) {
+        @Override
+        void fillValues(long address, int count) {
+          fill(address, getValiditySize(count), constant);
+        }
+      });
+    }
+
+    @Override
+    public VectorizedExpression visitUnknown(LogicalExpression e, Void value) {
+      if (!(e instanceof ValueVectorReadExpression)) {
+        return null;
+      }
+
+      final ValueVectorReadExpression read = (ValueVectorReadExpression) e;
+      final Kind kind = Kind.fromType(read.getCompleteType());
+      if (kind == null || read.hasReadPath()) {
+        return null;
+      }
+      final TypedFieldId id = read.getFieldId();
+      final FieldVector vector = (FieldVector) incoming.getValueAccessorById(id.getIntermediateClass(), id.getFieldIds()).getValueVector();
+      return add(new VectorRead(kind, vector));
+    }
+  }
+
+  /**
+   * Reads the values of an incoming vector, without copying them.
+   */
+  private static class VectorRead extends VectorizedExpression {
+    private final FieldVector vector;
+    private long validityAddress;
+    private long dataAddress;
+
+    VectorRead(Kind kind, FieldVector vector) {
+      super(kind);
+      this.vector = vector;
+    }
+
+    @Override
+    public void evaluate(int count) {
+      // the buffers of the incoming vector change from batch to batch
+      final List<ArrowBuf> buffers = vector.getFieldBuffers();
+      validityAddress = buffers.get(VALIDITY_BUFFER_ORDINAL).memoryAddress();
+      dataAddress = buffers.get(VALUE_BUFFER_ORDINAL).memoryAddress();
+    }
+
+    @Override
+    public long getValidityAddress() {
+      return validityAddress;
+    }
+
+    @Override
+    public long getDataAddress() {
+      return dataAddress;
+    }
+  }
+
+  /**
+   * A literal, filled once for the largest batch seen so far.
+   */
+  private abstract static class Constant extends Computed {
+
+    Constant(Kind kind, BufferAllocator allocator) {
+      super(kind, allocator, Collections.<VectorizedExpression>emptyList());
+    }
+
+    @Override
+    public void evaluate(int count) {
+      if (ensureCapacity(count)) {
+        compute(count, getValidityAddress(), getDataAddress());
+      }
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      fill(validityAddress, getValiditySize(count), (byte) 0xFF);
+      fillValues(dataAddress, count);
+    }
+
+    abstract void fillValues(long address, int count);
+  }
+
+  private static class Arithmetic extends Computed {
+    private final Op op;
+    private final VectorizedExpression left;
+    private final VectorizedExpression right;
+
+    Arithmetic(Op op, Kind kind, BufferAllocator allocator, List<VectorizedExpression> args) {
+      super(kind, allocator, args);
+      this.op = op;
+      this.left = args.get(0);
+      this.right = args.get(1);
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      and(left.getValidityAddress(), right.getValidityAddress(), validityAddress, count);
+      // values of null records are computed as well, they are never read.
+      final long l = left.getDataAddress();
+      final long r = right.getDataAddress();
+      switch (kind) {
+      case INT:
+        computeInt(l, r, dataAddress, count);
+        break;
+      case BIGINT:
+        computeBigInt(l, r, dataAddress, count);
+        break;
+      case FLOAT4:
+        computeFloat4(l, r, dataAddress, count);
+        break;
+      case FLOAT8:
+        computeFloat8(l, r, dataAddress, count);
+        break;
+      default:
+        throw new UnsupportedOperationException();
+      }
+    }
+
+    private void computeInt(long l, long r, long out, int count) {
+      final long max = out + count * 4L;
+      switch (op) {
+      case ADD:
+        for (; out < max; out += 4, l += 4, r += 4) {
+          PlatformDependent.putInt(out, PlatformDependent.getInt(l) + PlatformDependent.getInt(r));
+        }
+        break;
+      case SUBTRACT:
+        for (; out < max; out += 4, l += 4, r += 4) {
+          PlatformDependent.putInt(out, PlatformDependent.getInt(l) - PlatformDependent.getInt(r));
+        }
+        break;
+      case MULTIPLY:
+        for (; out < max; out += 4, l += 4, r += 4) {
+          PlatformDependent.putInt(out, PlatformDependent.getInt(l) * PlatformDependent.getInt(r));
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException();
+      }
+    }
+
+    private void computeBigInt(long l, long r, long out, int count) {
+      final long max = out + count * 8L;
+      switch (op) {
+      case ADD:
+        for (; out < max; out += 8, l += 8, r += 8) {
+          PlatformDependent.putLong(out, PlatformDependent.getLong(l) + PlatformDependent.getLong(r));
+        }
+        break;
+      case SUBTRACT:
+        for (; out < max; out += 8, l += 8, r += 8) {
+          PlatformDependent.putLong(out, PlatformDependent.getLong(l) - PlatformDependent.getLong(r));
+        }
+        break;
+      case MULTIPLY:
+        for (; out < max; out += 8, l += 8, r += 8) {
+          PlatformDependent.putLong(out, PlatformDependent.getLong(l) * PlatformDependent.getLong(r));
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException();
+      }
+    }
+
+    private void computeFloat4(long l, long r, long out, int count) {
+      for (int i = 0; i < count; i++, out += 4, l += 4, r += 4) {
+        final float a = Float.intBitsToFloat(PlatformDependent.getInt(l));
+        final float b = Float.intBitsToFloat(PlatformDependent.getInt(r));
+        final float result;
+        switch (op) {
+        case ADD:
+          result = a + b;
+          break;
+        case SUBTRACT:
+          result = a - b;
+          break;
+        case MULTIPLY:
+          result = a * b;
+          break;
+        case DIVIDE:
+          result = a / b;
+          break;
+        default:
+          throw new UnsupportedOperationException();
+        }
+        PlatformDependent.putInt(out, Float.floatToRawIntBits(result));
+      }
+    }
+
+    private void computeFloat8(long l, long r, long out, int count) {
+      for (int i = 0; i < count; i++, out += 8, l += 8, r += 8) {
+        final double a = Double.longBitsToDouble(PlatformDependent.getLong(l));
+        final double b = Double.longBitsToDouble(PlatformDependent.getLong(r));
+        final double result;
+        switch (op) {
+        case ADD:
+          result = a + b;
+          break;
+        case SUBTRACT:
+          result = a - b;
+          break;
+        case MULTIPLY:
+          result = a * b;
+          break;
+        case DIVIDE:
+          result = a / b;
+          break;
+        default:
+          throw new UnsupportedOperationException();
+        }
+        PlatformDependent.putLong(out, Double.doubleToRawLongBits(result));
+      }
+    }
+  }
+
+  private static class Comparison extends Computed {
+    private final Op op;
+    private final VectorizedExpression left;
+    private final VectorizedExpression right;
+
+    Comparison(Op op, BufferAllocator allocator, List<VectorizedExpression> args) {
+      super(Kind.BIT, allocator, args);
+      this.op = op;
+      this.left = args.get(0);
+      this.right = args.get(1);
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      and(left.getValidityAddress(), right.getValidityAddress(), validityAddress, count);
+      final long l = left.getDataAddress();
+      final long r = right.getDataAddress();
+      final Kind inputKind = left.getKind();
+      final int width = inputKind.getWidth();
+      // pack the results eight records at a time.
+      for (int i = 0; i < count; i += 8) {
+        final int end = Math.min(8, count - i);
+        int bits = 0;
+        for (int j = 0; j < end; j++) {
+          final long offset = (i + j) * (long) width;
+          final boolean result;
+          switch (inputKind) {
+          case INT:
+            result = compare(PlatformDependent.getInt(l + offset), PlatformDependent.getInt(r + offset));
+            break;
+          case BIGINT:
+            result = compare(PlatformDependent.getLong(l + offset), PlatformDependent.getLong(r + offset));
+            break;
+          case FLOAT4:
+            // widening to double is exact and keeps the ordering of all values, including NaN
+            result = compare((double) Float.intBitsToFloat(PlatformDependent.getInt(l + offset)),
+                (double) Float.intBitsToFloat(PlatformDependent.getInt(r + offset)));
+            break;
+          case FLOAT8:
+            result = compare(Double.longBitsToDouble(PlatformDependent.getLong(l + offset)),
+                Double.longBitsToDouble(PlatformDependent.getLong(r + offset)));
+            break;
+          default:
+            throw new UnsupportedOperationException();
+          }
+          bits |= (result ? 1 : 0) << j;
+        }
+        PlatformDependent.putByte(dataAddress + (i >>> 3), (byte) bits);
+      }
+    }
+
+    private boolean compare(long a, long b) {
+      switch (op) {
+      case EQUAL:
+        return a == b;
+      case NOT_EQUAL:
+        return a != b;
+      case LESS_THAN:
+        return a < b;
+      case LESS_THAN_OR_EQUAL:
+        return a <= b;
+      case GREATER_THAN:
+        return a > b;
+      case GREATER_THAN_OR_EQUAL:
+        return a >= b;
+      default:
+        throw new UnsupportedOperationException();
+      }
+    }
+
+    private boolean compare(double a, double b) {
+      switch (op) {
+      case EQUAL:
+        return a == b;
+      case NOT_EQUAL:
+        return a != b;
+      case LESS_THAN:
+        return a < b;
+      case LESS_THAN_OR_EQUAL:
+        return a <= b;
+      case GREATER_THAN:
+        return a > b;
+      case GREATER_THAN_OR_EQUAL:
+        return a >= b;
+      default:
+        throw new UnsupportedOperationException();
+      }
+    }
+  }
+
+  /**
+   * AND/OR with SQL three valued logic, a byte of the bitmaps at a time.
+   */
+  private static class Logical extends Computed {
+    private final boolean isAnd;
+    private final VectorizedExpression left;
+    private final VectorizedExpression right;
+
+    Logical(boolean isAnd, BufferAllocator allocator, List<VectorizedExpression> args) {
+      super(Kind.BIT, allocator, args);
+      this.isAnd = isAnd;
+      this.left = args.get(0);
+      this.right = args.get(1);
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      final long size = getValiditySize(count);
+      final long lValidity = left.getValidityAddress();
+      final long lData = left.getDataAddress();
+      final long rValidity = right.getValidityAddress();
+      final long rData = right.getDataAddress();
+      for (long i = 0; i < size; i++) {
+        final int lValid = PlatformDependent.getByte(lValidity + i);
+        final int lValue = PlatformDependent.getByte(lData + i);
+        final int rValid = PlatformDependent.getByte(rValidity + i);
+        final int rValue = PlatformDependent.getByte(rData + i);
+        final int lTrue = lValid & lValue;
+        final int lFalse = lValid & ~lValue;
+        final int rTrue = rValid & rValue;
+        final int rFalse = rValid & ~rValue;
+        final int resultTrue;
+        final int resultFalse;
+        if (isAnd) {
+          resultTrue = lTrue & rTrue;
+          resultFalse = lFalse | rFalse;
+        } else {
+          resultTrue = lTrue | rTrue;
+          resultFalse = lFalse & rFalse;
+        }
+        PlatformDependent.putByte(validityAddress + i, (byte) (resultTrue | resultFalse));
+        PlatformDependent.putByte(dataAddress + i, (byte) resultTrue);
+      }
+    }
+  }
+
+  private static class Not extends Computed {
+    private final VectorizedExpression input;
+
+    Not(BufferAllocator allocator, List<VectorizedExpression> args) {
+      super(Kind.BIT, allocator, args);
+      this.input = args.get(0);
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      final long size = getValiditySize(count);
+      PlatformDependent.copyMemory(input.getValidityAddress(), validityAddress, size);
+      final long data = input.getDataAddress();
+      for (long i = 0; i < size; i++) {
+        PlatformDependent.putByte(dataAddress + i, (byte) ~PlatformDependent.getByte(data + i));
+      }
+    }
+  }
+
+  private static class NullCheck extends Computed {
+    private final boolean isNull;
+    private final VectorizedExpression input;
+
+    NullCheck(boolean isNull, BufferAllocator allocator, List<VectorizedExpression> args) {
+      super(Kind.BIT, allocator, args);
+      this.isNull = isNull;
+      this.input = args.get(0);
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      final long size = getValiditySize(count);
+      fill(validityAddress, size, (byte) 0xFF);
+      final long validity = input.getValidityAddress();
+      if (isNull) {
+        for (long i = 0; i < size; i++) {
+          PlatformDependent.putByte(dataAddress + i, (byte) ~PlatformDependent.getByte(validity + i));
+        }
+      } else {
+        PlatformDependent.copyMemory(validity, dataAddress, size);
+      }
+    }
+  }
+
+  private static class Cast extends Computed {
+    private final VectorizedExpression input;
+
+    Cast(Kind kind, BufferAllocator allocator, List<VectorizedExpression> args) {
+      super(kind, allocator, args);
+      this.input = args.get(0);
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      PlatformDependent.copyMemory(input.getValidityAddress(), validityAddress, getValiditySize(count));
+      final Kind inputKind = input.getKind();
+      if (inputKind == kind) {
+        PlatformDependent.copyMemory(input.getDataAddress(), dataAddress, kind.getDataSize(count));
+        return;
+      }
+
+      long in = input.getDataAddress();
+      long out = dataAddress;
+      final int inWidth = inputKind.getWidth();
+      final int outWidth = kind.getWidth();
+      for (int i = 0; i < count; i++, in += inWidth, out += outWidth) {
+        switch (inputKind) {
+        case INT:
+          write(out, PlatformDependent.getInt(in));
+          break;
+        case BIGINT:
+          write(out, PlatformDependent.getLong(in));
+          break;
+        case FLOAT4:
+          write(out, (double) Float.intBitsToFloat(PlatformDependent.getInt(in)));
+          break;
+        default:
+          write(out, Double.longBitsToDouble(PlatformDependent.getLong(in)));
+          break;
+        }
+      }
+    }
+
+    private void write(long out, long value) {
+      switch (kind) {
+      case INT:
+        PlatformDependent.putInt(out, (int) value);
+        break;
+      case BIGINT:
+        PlatformDependent.putLong(out, value);
+        break;
+      case FLOAT4:
+        PlatformDependent.putInt(out, Float.floatToRawIntBits((float) value));
+        break;
+      default:
+        PlatformDependent.putLong(out, Double.doubleToRawLongBits((double) value));
+        break;
+      }
+    }
+
+    private void write(long out, double value) {
+      // only floating point targets, casts to integers are not vectorized
+      if (kind == Kind.FLOAT4) {
+        PlatformDependent.putInt(out, Float.floatToRawIntBits((float) value));
+      } else {
+        PlatformDependent.putLong(out, Double.doubleToRawLongBits(value));
+      }
+    }
+  }
+
+  /**
+   * CASE WHEN condition THEN a ELSE b END, with the ELSE branch possibly being another CASE.
+   */
+  private static class Conditional extends Computed {
+    private final VectorizedExpression condition;
+    private final VectorizedExpression then;
+    private final VectorizedExpression otherwise;
+
+    Conditional(Kind kind, BufferAllocator allocator, List<VectorizedExpression> args) {
+      super(kind, allocator, args);
+      this.condition = args.get(0);
+      this.then = args.get(1);
+      this.otherwise = args.get(2);
+    }
+
+    @Override
+    void compute(int count, long validityAddress, long dataAddress) {
+      final long size = getValiditySize(count);
+      final long cValidity = condition.getValidityAddress();
+      final long cData = condition.getDataAddress();
+      final long tValidity = then.getValidityAddress();
+      final long oValidity = otherwise.getValidityAddress();
+
+      // a null condition selects the ELSE branch, as in generated code.
+      for (long i = 0; i < size; i++) {
+        final int selected = PlatformDependent.getByte(cValidity + i) & PlatformDependent.getByte(cData + i);
+        final int valid = (selected & PlatformDependent.getByte(tValidity + i)) | (~selected & PlatformDependent.getByte(oValidity + i));
+        PlatformDependent.putByte(validityAddress + i, (byte) valid);
+      }
+
+      final long tData = then.getDataAddress();
+      final long oData = otherwise.getDataAddress();
+      if (kind == Kind.BIT) {
+        for (long i = 0; i < size; i++) {
+          final int selected = PlatformDependent.getByte(cValidity + i) & PlatformDependent.getByte(cData + i);
+          final int value = (selected & PlatformDependent.getByte(tData + i)) | (~selected & PlatformDependent.getByte(oData + i));
+          PlatformDependent.putByte(dataAddress + i, (byte) value);
+        }
+        return;
+      }
+
+      final int width = kind.getWidth();
+      for (int i = 0; i < count; i++) {
+        final int bitIndex = i >>> 3;
+        final int selected = PlatformDependent.getByte(cValidity + bitIndex) & PlatformDependent.getByte(cData + bitIndex);
+        final long offset = i * (long) width;
+        final long source = (((selected >>> (i & 7)) & 1) == 1 ? tData : oData) + offset;
+        if (width == 4) {
+          PlatformDependent.putInt(dataAddress + offset, PlatformDependent.getInt(source));
+        } else {
+          PlatformDependent.putLong(dataAddress + offset, PlatformDependent.getLong(source));
+        }
+      }
+    }
+  }
+}
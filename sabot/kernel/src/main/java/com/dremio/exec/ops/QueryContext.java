@@ -35,6 +35,8 @@ import com.dremio.common.scanner.persistence.ScanResult;
 import com.dremio.exec.expr.fn.FunctionImplementationRegistry;
 import com.dremio.exec.planner.acceleration.substitution.DefaultSubstitutionProviderFactory;
 import com.dremio.exec.planner.acceleration.substitution.SubstitutionProviderFactory;
+import com.dremio.exec.planner.cost.StatisticsProvider;
+import com.dremio.exec.planner.fragment.FragmentStatsStore;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.sql.OperatorTable;
 import com.dremio.exec.proto.CoordExecRPC.QueryContextInformation;
@@ -88,6 +90,7 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext {
   private final ViewExpansionContext viewExpansionContext;
   private final SchemaTreeProvider schemaTreeProvider;
   private final SubstitutionProviderFactory substitutionProviderFactory;
+  private final FragmentStatsStore fragmentStats;
   private final SchemaInfoProvider infoProvider = new SchemaInfoProvider() {
     @Override
     public ViewExpansionContext getViewExpansionContext() {
@@ -120,6 +123,16 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext {
       QueryId queryId,
       QueryPriority priority,
       long maxAllocation) {
+    this(session, sabotContext, queryId, priority, maxAllocation, null);
+  }
+
+  public QueryContext(
+      final UserSession session,
+      final SabotContext sabotContext,
+      QueryId queryId,
+      QueryPriority priority,
+      long maxAllocation,
+      FragmentStatsStore fragmentStats) {
     this.sabotContext = sabotContext;
     this.session = session;
     queryOptions = new QueryOptionManager(session.getOptions());
@@ -139,9 +152,11 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext {
     schemaTreeProvider = new SchemaTreeProvider(sabotContext);
     viewExpansionContext = new ViewExpansionContext(getSchemaInfoProvider(), schemaTreeProvider, session.getCredentials().getUserName());
     namespaceService = sabotContext.getNamespaceService(session.getCredentials().getUserName());
+    plannerSettings.setStatisticsProvider(new StatisticsProvider(namespaceService));
     constantValueHolderCache = Maps.newHashMap();
     substitutionProviderFactory = sabotContext.getConfig().getInstance("dremio.exec.substitution.factory",
         SubstitutionProviderFactory.class, DefaultSubstitutionProviderFactory.class);
+    this.fragmentStats = fragmentStats;
   }
 
   public CatalogService getCatalogService(){
@@ -318,6 +333,13 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext {
     return sabotContext.getWorkStatsProvider();
   }
 
+  /**
+   * @return the stats measured by previous queries on this coordinator, or null if not tracked.
+   */
+  public FragmentStatsStore getFragmentStats() {
+    return fragmentStats;
+  }
+
   public NamespaceService getNamespaceService() {
     return namespaceService;
   }
@@ -59,6 +59,8 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
   private long normalizationMillis = 0;
   private long substitutionMillis = 0;
   private int numSubstitutions = 0;
+  private int numCandidatesConsidered = 0;
+  private int numCandidatesMatched = 0;
 
   public PlanCaptureAttemptObserver(boolean verbose) {
     this.verbose = verbose;
@@ -70,7 +72,9 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
       .setNumSubstitutions(numSubstitutions)
       .setMillisTakenGettingMaterializations(findMaterializationMillis)
       .setMillisTakenNormalizing(normalizationMillis)
-      .setMillisTakenSubstituting(substitutionMillis);
+      .setMillisTakenSubstituting(substitutionMillis)
+      .setNumMaterializationsConsidered(numCandidatesConsidered)
+      .setNumMaterializationsMatched(numCandidatesMatched);
     if (!mapIdToAccelerationProfile.isEmpty()) {
       builder.addAllLayoutProfiles(mapIdToAccelerationProfile.values());
     }
@@ -130,6 +134,12 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
       .build());
   }
 
+  @Override
+  public void planMaterializationCandidates(int considered, int matched) {
+    numCandidatesConsidered = considered;
+    numCandidatesMatched = matched;
+  }
+
   @Override
   public void planSubstituted(DremioRelOptMaterialization materialization,
                               List<RelNode> substitutions,
@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.sql.MaterializationList;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
@@ -31,18 +32,28 @@ public class AccelerationAwareSubstitutionProvider implements SubstitutionProvid
 
   private boolean enabled = false;
   private final SubstitutionProvider delegate;
+  // materializations the delegate reads from, restricted to the candidates of each query. may be null.
+  private final MaterializationList materializations;
+  private AttemptObserver observer;
 
   public AccelerationAwareSubstitutionProvider(final SubstitutionProvider delegate) {
     this(delegate, false);
   }
 
   public AccelerationAwareSubstitutionProvider(final SubstitutionProvider delegate, final boolean enabled) {
+    this(delegate, null, enabled);
+  }
+
+  public AccelerationAwareSubstitutionProvider(final SubstitutionProvider delegate,
+                                               final MaterializationList materializations, final boolean enabled) {
     this.delegate = Preconditions.checkNotNull(delegate, "delegate is required");
+    this.materializations = materializations;
     this.enabled = enabled;
   }
 
   @Override
   public void setObserver(AttemptObserver observer) {
+    this.observer = observer;
     if (delegate instanceof Observable) {
       ((Observable)delegate).setObserver(observer);
     }
@@ -59,7 +70,21 @@ public class AccelerationAwareSubstitutionProvider implements SubstitutionProvid
   @Override
   public List<RelNode> findSubstitutions(final RelNode query) {
     if (isEnabled()) {
-      return delegate.findSubstitutions(query);
+      if (materializations == null) {
+        return delegate.findSubstitutions(query);
+      }
+
+      final int matched = materializations.restrictTo(query);
+      final int considered = materializations.size();
+      logger.debug("{} out of {} materializations may match the query", matched, considered);
+      if (observer != null) {
+        observer.planMaterializationCandidates(considered, matched);
+      }
+      try {
+        return delegate.findSubstitutions(query);
+      } finally {
+        materializations.restrictTo(null);
+      }
     }
     logger.debug("Acceleration is disabled. No substitutions...");
     return ImmutableList.of();
@@ -68,4 +93,9 @@ public class AccelerationAwareSubstitutionProvider implements SubstitutionProvid
   public static AccelerationAwareSubstitutionProvider of(final SubstitutionProvider delegate) {
     return new AccelerationAwareSubstitutionProvider(delegate);
   }
+
+  public static AccelerationAwareSubstitutionProvider of(final SubstitutionProvider delegate,
+                                                         final MaterializationList materializations) {
+    return new AccelerationAwareSubstitutionProvider(delegate, materializations, false);
+  }
 }
@@ -28,6 +28,7 @@ import org.apache.calcite.rel.RelShuttleImpl;
 import org.apache.calcite.rel.core.Project;
 import org.apache.calcite.rel.core.RelFactories;
 import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.core.TableScan;
 import org.apache.calcite.rel.logical.LogicalProject;
 import org.apache.calcite.rel.metadata.RelColumnOrigin;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
@@ -48,10 +49,12 @@ import org.apache.calcite.rex.RexLocalRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexOver;
 import org.apache.calcite.rex.RexRangeRef;
+import org.apache.calcite.rex.RexShuttle;
 import org.apache.calcite.rex.RexSubQuery;
 import org.apache.calcite.rex.RexUtil;
 import org.apache.calcite.rex.RexVisitorImpl;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.sql.validate.SqlValidatorUtil;
 import org.apache.calcite.util.Pair;
@@ -60,6 +63,7 @@ import com.dremio.common.exceptions.UserException;
 import com.dremio.common.types.TypeProtos;
 import com.dremio.common.types.Types;
 import com.dremio.exec.planner.StatelessRelShuttleImpl;
+import com.dremio.exec.planner.sql.SqlOperatorImpl;
 import com.dremio.exec.resolver.TypeCastRules;
 import com.dremio.exec.store.OldNamespaceTable;
 import com.dremio.service.namespace.capabilities.SourceCapabilities;
@@ -111,6 +115,23 @@ public final class MoreRelOptUtil {
     return minDepth + 1;
   }
 
+  /**
+   * @return the number of table scans in the rel tree under the given rel node, a table read twice counting twice.
+   */
+  public static int countTableScans(RelNode rel) {
+    if (rel instanceof RelSubset) {
+      return countTableScans(((RelSubset) rel).getBest());
+    }
+    if (rel instanceof TableScan) {
+      return 1;
+    }
+    int count = 0;
+    for (RelNode input : rel.getInputs()) {
+      count += countTableScans(input);
+    }
+    return count;
+  }
+
   // Similar to RelOptUtil.areRowTypesEqual() with the additional check for allowSubstring
   public static boolean areRowTypesCompatible(
       RelDataType rowType1,
@@ -664,6 +685,50 @@ public final class MoreRelOptUtil {
   }
 
 
+  /**
+   * Finds the calls of a plan whose value changes from one query to the other: non-deterministic functions such as
+   * random(), and functions reading the context of the query such as now() or current_date, which are reduced to
+   * literals when planning.
+   */
+  public static final class DynamicCallFinder extends RexShuttle {
+    private boolean found;
+
+    private DynamicCallFinder() {
+    }
+
+    public static boolean hasDynamicCall(RelNode rel) {
+      final DynamicCallFinder finder = new DynamicCallFinder();
+      finder.visit(rel);
+      return finder.found;
+    }
+
+    private void visit(RelNode rel) {
+      rel.accept(this);
+      for (RelNode input : rel.getInputs()) {
+        if (found) {
+          return;
+        }
+        visit(input);
+      }
+    }
+
+    @Override
+    public RexNode visitCall(RexCall call) {
+      final SqlOperator operator = call.getOperator();
+      if (!operator.isDeterministic() || operator.isDynamicFunction()
+          || (operator instanceof SqlOperatorImpl && ((SqlOperatorImpl) operator).isContextDependent())) {
+        found = true;
+        return call;
+      }
+      return super.visitCall(call);
+    }
+
+    @Override
+    public RexNode visitSubQuery(RexSubQuery subQuery) {
+      visit(subQuery.rel);
+      return super.visitSubQuery(subQuery);
+    }
+  }
 
   public static class NodeRemover extends  RelShuttleImpl{
 
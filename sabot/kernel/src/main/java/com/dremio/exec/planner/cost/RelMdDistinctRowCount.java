@@ -15,7 +15,10 @@
  */
 package com.dremio.exec.planner.cost;
 
+import java.util.List;
+
 import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMdUtil;
 import org.apache.calcite.rel.metadata.RelMetadataProvider;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
@@ -39,7 +42,38 @@ public class RelMdDistinctRowCount extends org.apache.calcite.rel.metadata.RelMd
   }
 
   public Double getDistinctRowCount(ScanRelBase scan, RelMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate) {
+    final TableStatistics statistics = StatisticsProvider.getStatistics(scan);
+    if (statistics != null) {
+      final Double distinctRowCount = getDistinctRowCount(scan, mq, statistics, groupKey, predicate);
+      if (distinctRowCount != null) {
+        return distinctRowCount;
+      }
+    }
+
     // Consistent with the estimation of Aggregate row count in RelMdRowCount : distinctRowCount = rowCount * 10%.
     return scan.estimateRowCount(DefaultRelMetadataProvider.INSTANCE.getRelMetadataQuery()) * 0.1;
   }
+
+  private Double getDistinctRowCount(ScanRelBase scan, RelMetadataQuery mq, TableStatistics statistics,
+      ImmutableBitSet groupKey, RexNode predicate) {
+    // columns are assumed independent, so each combination of their values may appear.
+    final List<String> fieldNames = scan.getRowType().getFieldNames();
+    double combinations = 1.0d;
+    for (int field : groupKey) {
+      final String column = fieldNames.get(field);
+      final Double distinctCount = statistics.getDistinctCount(column);
+      final Double nullFraction = statistics.getNullFraction(column);
+      if (distinctCount == null || nullFraction == null) {
+        return null;
+      }
+      // null is a group of its own.
+      combinations *= nullFraction > 0 ? distinctCount + 1 : distinctCount;
+    }
+
+    final double rowCount = scan.estimateRowCount(DefaultRelMetadataProvider.INSTANCE.getRelMetadataQuery());
+    if (predicate == null || predicate.isAlwaysTrue()) {
+      return Math.min(combinations, rowCount);
+    }
+    return RelMdUtil.numDistinctVals(combinations, rowCount * mq.getSelectivity(scan, predicate));
+  }
 }
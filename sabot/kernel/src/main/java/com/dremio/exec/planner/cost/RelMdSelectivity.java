@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.util.BuiltInMethod;
+
+import com.dremio.exec.planner.common.ScanRelBase;
+
+/**
+ * Estimates the selectivity of predicates on scans from the column statistics of the table, when there are some.
+ */
+public class RelMdSelectivity extends org.apache.calcite.rel.metadata.RelMdSelectivity {
+  private static final RelMdSelectivity INSTANCE = new RelMdSelectivity();
+
+  public static final RelMetadataProvider SOURCE =
+      ReflectiveRelMetadataProvider.reflectiveSource(
+          BuiltInMethod.SELECTIVITY.method, INSTANCE);
+
+  public Double getSelectivity(ScanRelBase scan, RelMetadataQuery mq, RexNode predicate) {
+    final TableStatistics statistics = predicate != null ? StatisticsProvider.getStatistics(scan) : null;
+    if (statistics == null) {
+      return super.getSelectivity((RelNode) scan, mq, predicate);
+    }
+
+    // conjuncts are assumed independent.
+    double selectivity = 1.0d;
+    for (RexNode conjunct : RelOptUtil.conjunctions(predicate)) {
+      final Double estimate = estimate(scan, statistics, conjunct);
+      selectivity *= estimate != null ? Math.max(estimate, statistics.getMinimumFraction())
+          : RelMdUtil.guessSelectivity(conjunct);
+    }
+    return selectivity;
+  }
+
+  private static Double estimate(ScanRelBase scan, TableStatistics statistics, RexNode condition) {
+    if (!(condition instanceof RexCall)) {
+      return null;
+    }
+    final RexCall call = (RexCall) condition;
+    final List<RexNode> operands = call.getOperands();
+
+    switch (call.getKind()) {
+    case IS_NULL:
+    case IS_NOT_NULL: {
+      final String column = getColumn(scan, operands.get(0));
+      final Double nullFraction = column != null ? statistics.getNullFraction(column) : null;
+      if (nullFraction == null) {
+        return null;
+      }
+      return call.getKind() == SqlKind.IS_NULL ? nullFraction : 1 - nullFraction;
+    }
+
+    case EQUALS:
+    case NOT_EQUALS:
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL: {
+      SqlKind kind = call.getKind();
+      String column = getColumn(scan, operands.get(0));
+      RexNode value = operands.get(1);
+      if (column == null) {
+        // literal op column
+        column = getColumn(scan, operands.get(1));
+        value = operands.get(0);
+        kind = reverse(kind);
+      }
+      if (column == null || !(value instanceof RexLiteral)) {
+        return null;
+      }
+      final Double nullFraction = statistics.getNullFraction(column);
+      if (nullFraction == null) {
+        return null;
+      }
+      // nulls never match a comparison.
+      final double nonNullFraction = 1 - nullFraction;
+
+      if (kind == SqlKind.EQUALS || kind == SqlKind.NOT_EQUALS) {
+        final Double distinctCount = statistics.getDistinctCount(column);
+        if (distinctCount == null) {
+          return null;
+        }
+        final double equalFraction = nonNullFraction / distinctCount;
+        return kind == SqlKind.EQUALS ? equalFraction : nonNullFraction - equalFraction;
+      }
+
+      final Object literal = ((RexLiteral) value).getValue();
+      if (!(literal instanceof Number)) {
+        return null;
+      }
+      final Double below = statistics.getFractionBelow(column, ((Number) literal).doubleValue());
+      if (below == null) {
+        return null;
+      }
+      return nonNullFraction * (kind == SqlKind.LESS_THAN || kind == SqlKind.LESS_THAN_OR_EQUAL ? below : 1 - below);
+    }
+
+    default:
+      return null;
+    }
+  }
+
+  private static SqlKind reverse(SqlKind kind) {
+    switch (kind) {
+    case LESS_THAN:
+      return SqlKind.GREATER_THAN;
+    case LESS_THAN_OR_EQUAL:
+      return SqlKind.GREATER_THAN_OR_EQUAL;
+    case GREATER_THAN:
+      return SqlKind.LESS_THAN;
+    case GREATER_THAN_OR_EQUAL:
+      return SqlKind.LESS_THAN_OR_EQUAL;
+    default:
+      return kind;
+    }
+  }
+
+  /**
+   * @return the name of the scanned column the expression reads, possibly through a cast, or null if it is not a column.
+   */
+  private static String getColumn(ScanRelBase scan, RexNode node) {
+    if (node.getKind() == SqlKind.CAST) {
+      node = ((RexCall) node).getOperands().get(0);
+    }
+    if (!(node instanceof RexInputRef)) {
+      return null;
+    }
+    return scan.getRowType().getFieldNames().get(((RexInputRef) node).getIndex());
+  }
+}
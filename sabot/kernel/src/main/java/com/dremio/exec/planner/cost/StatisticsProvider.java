@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.util.Map;
+
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.PrelUtil;
+import com.dremio.service.namespace.NamespaceException;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+
+/**
+ * Looks up the column statistics of the tables read by a query, once per table.
+ */
+public class StatisticsProvider {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StatisticsProvider.class);
+
+  private final NamespaceService namespace;
+  private final Map<NamespaceKey, Optional<TableStatistics>> statistics = Maps.newHashMap();
+
+  public StatisticsProvider(NamespaceService namespace) {
+    this.namespace = namespace;
+  }
+
+  /**
+   * @return the statistics of the given dataset, or null if they were never computed.
+   */
+  public TableStatistics get(NamespaceKey datasetPath) {
+    Optional<TableStatistics> tableStatistics = statistics.get(datasetPath);
+    if (tableStatistics == null) {
+      tableStatistics = Optional.absent();
+      try {
+        final DatasetStatistics datasetStatistics = namespace.getDatasetStatistics(datasetPath);
+        if (datasetStatistics != null) {
+          tableStatistics = Optional.of(new TableStatistics(datasetStatistics));
+        }
+      } catch (NamespaceException e) {
+        logger.debug("No statistics for {}", datasetPath, e);
+      }
+      statistics.put(datasetPath, tableStatistics);
+    }
+    return tableStatistics.orNull();
+  }
+
+  /**
+   * @return the statistics of the table read by the given scan, or null if there are none or they are not used.
+   */
+  public static TableStatistics getStatistics(ScanRelBase scan) {
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(scan.getCluster());
+    if (settings == null || !settings.isStatisticsEnabled()) {
+      return null;
+    }
+    return settings.unwrap(StatisticsProvider.class).get(scan.getTableMetadata().getName());
+  }
+}
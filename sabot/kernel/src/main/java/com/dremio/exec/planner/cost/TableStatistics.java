@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.dremio.service.namespace.dataset.proto.ColumnStatistics;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+/**
+ * Column statistics of a table, as computed by ANALYZE TABLE, and the estimates derived from them.
+ *
+ * Estimates are fractions of the records of the table when the statistics were computed, so they still hold when the
+ * table grows as long as its distribution does not change much.
+ */
+public class TableStatistics {
+
+  private final long recordCount;
+  // by lower case column name, since column names are case insensitive.
+  private final Map<String, ColumnStatistics> columns = Maps.newHashMap();
+
+  public TableStatistics(DatasetStatistics statistics) {
+    this.recordCount = statistics.getRecordCount() != null ? statistics.getRecordCount() : 0;
+    if (statistics.getColumnsList() != null) {
+      for (ColumnStatistics column : statistics.getColumnsList()) {
+        columns.put(column.getName().toLowerCase(Locale.ROOT), column);
+      }
+    }
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * @return the smallest fraction of records an estimate can return, one record.
+   */
+  public double getMinimumFraction() {
+    return 1.0d / Math.max(1, recordCount);
+  }
+
+  /**
+   * @return the fraction of records where the column is null, or null if unknown.
+   */
+  public Double getNullFraction(String column) {
+    final ColumnStatistics statistics = columns.get(column.toLowerCase(Locale.ROOT));
+    if (statistics == null || statistics.getNonNullCount() == null || recordCount == 0) {
+      return null;
+    }
+    return 1.0d - Math.min(1.0d, (double) statistics.getNonNullCount() / recordCount);
+  }
+
+  /**
+   * @return the number of distinct non null values of the column, or null if unknown.
+   */
+  public Double getDistinctCount(String column) {
+    final ColumnStatistics statistics = columns.get(column.toLowerCase(Locale.ROOT));
+    if (statistics == null || statistics.getNdv() == null) {
+      return null;
+    }
+    return (double) Math.max(1, statistics.getNdv());
+  }
+
+  /**
+   * @return the fraction of non null values of the column below the given value, or null if unknown.
+   */
+  public Double getFractionBelow(String column, double value) {
+    final ColumnStatistics statistics = columns.get(column.toLowerCase(Locale.ROOT));
+    if (statistics == null) {
+      return null;
+    }
+
+    List<Double> bounds = statistics.getHistogramBoundsList();
+    if (bounds == null || bounds.size() < 2) {
+      if (statistics.getMinValue() == null || statistics.getMaxValue() == null) {
+        return null;
+      }
+      // without histogram, assume values are uniformly distributed between min and max.
+      bounds = ImmutableList.of(statistics.getMinValue(), statistics.getMaxValue());
+    }
+    return getFractionBelow(bounds, value);
+  }
+
+  static double getFractionBelow(List<Double> bounds, double value) {
+    final int buckets = bounds.size() - 1;
+    if (value <= bounds.get(0)) {
+      return 0;
+    }
+    for (int i = 0; i < buckets; i++) {
+      final double low = bounds.get(i);
+      final double high = bounds.get(i + 1);
+      if (value < high) {
+        // each bucket holds the same number of values, assumed uniformly distributed within the bucket.
+        return (i + (value - low) / (high - low)) / buckets;
+      }
+    }
+    return 1;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.fragment;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.dremio.exec.physical.base.Exchange;
+import com.dremio.exec.physical.base.GroupScan;
+import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.planner.AbstractOpWrapperVisitor;
+import com.dremio.exec.planner.fragment.Fragment.ExchangeFragmentPair;
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.hash.Hashing;
+
+/**
+ * Computes the signature of a major fragment: the types of its operators in tree order, the datasets it scans and the
+ * signatures of the fragments sending to it. Runs of the same plan shape get the same signatures, so what was measured
+ * for a fragment in one run can be used to parallelize it in the next ones.
+ */
+class FragmentSignature extends AbstractOpWrapperVisitor<Void, RuntimeException> {
+  private static final Joiner PATH_JOINER = Joiner.on('.');
+
+  private final PlanningSet planningSet;
+  private final Map<Fragment, String> signatures = new IdentityHashMap<>();
+  private StringBuilder builder;
+
+  FragmentSignature(PlanningSet planningSet) {
+    this.planningSet = planningSet;
+  }
+
+  /**
+   * @return the signature of the given fragment, as a hex encoded hash.
+   */
+  String get(Wrapper wrapper) {
+    final Fragment fragment = wrapper.getNode();
+    String signature = signatures.get(fragment);
+    if (signature == null) {
+      final StringBuilder parent = builder;
+      builder = new StringBuilder();
+      fragment.getRoot().accept(this, wrapper);
+      signature = Hashing.md5().hashString(builder, Charsets.UTF_8).toString();
+      builder = parent;
+      signatures.put(fragment, signature);
+    }
+    return signature;
+  }
+
+  @Override
+  public Void visitReceivingExchange(Exchange exchange, Wrapper wrapper) {
+    builder.append(exchange.getClass().getSimpleName()).append('(');
+    for (ExchangeFragmentPair pair : wrapper.getNode().getReceivingExchangePairs()) {
+      if (pair.getExchange() == exchange) {
+        builder.append(get(planningSet.get(pair.getNode())));
+      }
+    }
+    builder.append(')');
+    // no traversal since it would cross current fragment boundary.
+    return null;
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public Void visitGroupScan(GroupScan groupScan, Wrapper wrapper) {
+    builder.append(groupScan.getClass().getSimpleName()).append('[');
+    if (groupScan.getTableSchemaPath() != null) {
+      builder.append(PATH_JOINER.join(groupScan.getTableSchemaPath()));
+    }
+    builder.append(']');
+    return visitChildren(groupScan, wrapper);
+  }
+
+  @Override
+  public Void visitOp(PhysicalOperator op, Wrapper wrapper) {
+    builder.append(op.getClass().getSimpleName());
+    return visitChildren(op, wrapper);
+  }
+
+  private Void visitChildren(PhysicalOperator op, Wrapper wrapper) {
+    builder.append('(');
+    for (PhysicalOperator child : op) {
+      child.accept(this, wrapper);
+      builder.append(',');
+    }
+    builder.append(')');
+    return null;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.fragment;
+
+import java.util.Map;
+
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.proto.UserBitShared.MajorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.proto.UserBitShared.StreamProfile;
+import com.dremio.exec.work.protector.UserResult;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the number of records and bytes actually processed by the major fragments of completed queries, keyed by
+ * fragment signature (see {@link FragmentSignature}).
+ *
+ * The parallelizer uses the measured counts in place of the planner estimates when sizing fragments, so a plan whose
+ * estimates were far off gets a better width the next time it runs.
+ */
+public class FragmentStatsStore {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FragmentStatsStore.class);
+
+  private final Cache<String, FragmentStats> stats;
+
+  public FragmentStatsStore(long maxSize) {
+    this.stats = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  /**
+   * @return the last measured stats of the fragment with the given signature, or null if it never completed.
+   */
+  public FragmentStats get(String signature) {
+    return stats.getIfPresent(signature);
+  }
+
+  /**
+   * Record the stats of the major fragments of a completed query.
+   *
+   * @param signatures signatures of the major fragments, by major fragment id.
+   * @param profile profile of the completed query.
+   */
+  public void record(Map<Integer, String> signatures, QueryProfile profile) {
+    for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+      final String signature = signatures.get(major.getMajorFragmentId());
+      if (signature == null) {
+        continue;
+      }
+
+      // sum each operator over the minor fragments, and keep the largest one like the planner keeps the largest cost.
+      final Map<Integer, FragmentStats> operators = Maps.newHashMap();
+      for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+        for (OperatorProfile operator : minor.getOperatorProfileList()) {
+          long records = 0;
+          long bytes = 0;
+          for (StreamProfile input : operator.getInputProfileList()) {
+            records += input.getRecords();
+            bytes += input.getSize();
+          }
+          final FragmentStats previous = operators.get(operator.getOperatorId());
+          if (previous != null) {
+            records += previous.getRecords();
+            bytes += previous.getBytes();
+          }
+          operators.put(operator.getOperatorId(), new FragmentStats(records, bytes));
+        }
+      }
+
+      FragmentStats largest = null;
+      for (FragmentStats operator : operators.values()) {
+        if (largest == null || operator.getRecords() > largest.getRecords()) {
+          largest = operator;
+        }
+      }
+      if (largest != null) {
+        logger.debug("Major fragment {} with signature {} processed {}", major.getMajorFragmentId(), signature, largest);
+        stats.put(signature, largest);
+      }
+    }
+  }
+
+  /**
+   * @return an observer recording the stats of the attempt once it completes.
+   */
+  public AttemptObserver newRecorder() {
+    return new AbstractAttemptObserver() {
+      private Map<Integer, String> signatures;
+
+      @Override
+      public void planParallelized(PlanningSet planningSet) {
+        final Map<Integer, String> signatures = Maps.newHashMap();
+        for (Wrapper wrapper : planningSet) {
+          if (wrapper.getSignature() != null) {
+            signatures.put(wrapper.getMajorFragmentId(), wrapper.getSignature());
+          }
+        }
+        this.signatures = signatures;
+      }
+
+      @Override
+      public void attemptCompletion(UserResult result) {
+        // stats of failed or cancelled queries only cover part of the input.
+        if (signatures != null && !signatures.isEmpty() && result.getState() == QueryState.COMPLETED
+            && result.getProfile() != null) {
+          record(signatures, result.getProfile());
+        }
+      }
+    };
+  }
+
+  /**
+   * Records and bytes processed by a major fragment, over all its minor fragments.
+   */
+  public static final class FragmentStats {
+    private final long records;
+    private final long bytes;
+
+    public FragmentStats(long records, long bytes) {
+      this.records = records;
+      this.bytes = bytes;
+    }
+
+    public long getRecords() {
+      return records;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    @Override
+    public String toString() {
+      return "FragmentStats [records=" + records + ", bytes=" + bytes + "]";
+    }
+  }
+}
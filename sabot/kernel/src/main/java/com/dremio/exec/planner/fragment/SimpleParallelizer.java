@@ -38,6 +38,7 @@ import com.dremio.exec.planner.PhysicalPlanReader;
 import com.dremio.exec.planner.fragment.Fragment.ExchangeFragmentPair;
 import com.dremio.exec.planner.fragment.Materializer.IndexedFragmentNode;
 import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.proto.CoordExecRPC.Collector;
 import com.dremio.exec.proto.CoordExecRPC.IncomingMinorFragment;
 import com.dremio.exec.proto.CoordExecRPC.PlanFragment;
@@ -74,6 +75,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
   private final double assignmentCreatorBalanceFactor;
   private final AttemptObserver observer;
   private final ExecutionNodeMap executionMap;
+  private final FragmentStatsStore fragmentStats;
 
   public SimpleParallelizer(QueryContext context, AttemptObserver observer) {
     OptionManager optionManager = context.getOptions();
@@ -95,7 +97,8 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.useNewAssignmentCreator = !optionManager.getOption(ExecConstants.OLD_ASSIGNMENT_CREATOR);
     this.assignmentCreatorBalanceFactor = optionManager.getOption(ExecConstants.ASSIGNMENT_CREATOR_BALANCE_FACTOR);
     this.observer = observer;
-
+    this.fragmentStats = optionManager.getOption(PlannerSettings.USE_RUNTIME_STATS)
+        ? context.getFragmentStats() : null;
   }
 
   public SimpleParallelizer(long parallelizationThreshold, int maxWidthPerNode, int maxGlobalWidth, double affinityFactor, AttemptObserver observer, boolean useNewAssignmentCreator, double assignmentCreatorBalanceFactor) {
@@ -107,6 +110,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.observer = observer;
     this.useNewAssignmentCreator = useNewAssignmentCreator;
     this.assignmentCreatorBalanceFactor = assignmentCreatorBalanceFactor;
+    this.fragmentStats = null;
   }
 
   @Override
@@ -210,6 +214,13 @@ public class SimpleParallelizer implements ParallelizationParameters {
 
     final Set<Wrapper> leafFragments = constructFragmentDependencyGraph(planningSet);
 
+    if (fragmentStats != null) {
+      final FragmentSignature signature = new FragmentSignature(planningSet);
+      for (Wrapper wrapper : planningSet) {
+        wrapper.setSignature(signature.get(wrapper));
+      }
+    }
+
     // Start parallelizing from leaf fragments
     for (Wrapper wrapper : leafFragments) {
       parallelizeFragment(wrapper, planningSet, activeEndpoints);
@@ -296,6 +307,16 @@ public class SimpleParallelizer implements ParallelizationParameters {
     // work in physical operator and affinity of physical operator to certain nodes.
     fragmentWrapper.getNode().getRoot().accept(new StatsCollector(planningSet, executionMap), fragmentWrapper);
 
+    // Use the records measured by a previous run of the same fragment, if any, in place of the planner estimates.
+    if (fragmentStats != null && fragmentWrapper.getSignature() != null) {
+      final FragmentStatsStore.FragmentStats measured = fragmentStats.get(fragmentWrapper.getSignature());
+      if (measured != null) {
+        logger.debug("Major fragment {} estimated cost {}, measured {}", fragmentWrapper.getMajorFragmentId(),
+            fragmentWrapper.getStats().getMaxCost(), measured);
+        fragmentWrapper.getStats().setMeasuredCost(measured.getRecords());
+      }
+    }
+
     fragmentWrapper.getStats().getDistributionAffinity()
         .getFragmentParallelizer()
         .parallelizeFragment(fragmentWrapper, this, activeEndpoints);
@@ -29,6 +29,7 @@ import com.google.common.base.Preconditions;
 public class Stats {
   private final ParallelizationInfoCollector collector = new ParallelizationInfoCollector();
   private double maxCost = 0.0;
+  private double measuredCost = -1;
   private DistributionAffinity distributionAffinity = DistributionAffinity.NONE;
   private final IdentityHashMap<GroupScan, List<CompleteWork>> splitMap = new IdentityHashMap<>();
 
@@ -40,6 +41,13 @@ public class Stats {
     maxCost = Math.max(maxCost, cost);
   }
 
+  /**
+   * Use the number of records measured by a previous run of this fragment in place of the planner costs.
+   */
+  public void setMeasuredCost(double measuredCost) {
+    this.measuredCost = measuredCost;
+  }
+
   public void addMaxWidth(int maxWidth) {
     collector.addMaxWidth(maxWidth);
   }
@@ -75,11 +83,11 @@ public class Stats {
 
   @Override
   public String toString() {
-    return "Stats [maxCost=" + maxCost +", parallelizationInfo=" + collector.toString() + "]";
+    return "Stats [maxCost=" + maxCost + ", measuredCost=" + measuredCost +", parallelizationInfo=" + collector.toString() + "]";
   }
 
   public double getMaxCost() {
-    return maxCost;
+    return measuredCost >= 0 ? measuredCost : maxCost;
   }
 
   public DistributionAffinity getDistributionAffinity() {
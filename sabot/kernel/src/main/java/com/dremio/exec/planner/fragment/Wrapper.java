@@ -45,6 +45,7 @@ public class Wrapper {
   private boolean endpointsAssigned;
   private long initialAllocation = 0;
   private final long maxAllocation = Long.MAX_VALUE;
+  private String signature;
   private final IdentityHashMap<GroupScan, ListMultimap<Integer, CompleteWork>> splitSets = new IdentityHashMap<>();
 
   // List of fragments this particular fragment depends on for determining its parallelization and endpoint assignments.
@@ -68,6 +69,17 @@ public class Wrapper {
     return stats;
   }
 
+  /**
+   * @return the signature of this fragment, or null if it was not computed.
+   */
+  public String getSignature() {
+    return signature;
+  }
+
+  public void setSignature(String signature) {
+    this.signature = signature;
+  }
+
   public void resetAllocation() {
     initialAllocation = 0;
   }
@@ -15,7 +15,13 @@
  */
 package com.dremio.exec.planner.logical;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.calcite.plan.RelOptSamplingParameters;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Sample;
 import org.apache.calcite.rel.core.TableScan;
 import org.apache.calcite.rel.logical.LogicalFilter;
 import org.apache.calcite.rel.logical.LogicalJoin;
@@ -24,14 +30,26 @@ import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexShuttle;
 import org.apache.calcite.rex.RexSubQuery;
 
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.calcite.logical.ScanCrel;
 import com.dremio.exec.planner.StatelessRelShuttleImpl;
+import com.dremio.exec.planner.common.MoreRelOptUtil;
+import com.dremio.service.namespace.NamespaceException;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 
 /**
  * A visitor that converts every {@link ConvertibleScan} seen to its concrete representation.
  *
+ * {@link Sample}s (TABLESAMPLE SYSTEM) are applied to the converted scan below them, keeping a random subset of its
+ * splits. Samples of datasets reading several tables are rejected.
+ *
  * Past this visitor the plan is not guaranteed to be serializable.
  */
 public class ScanConverter extends StatelessRelShuttleImpl {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ScanConverter.class);
 
   public static final ScanConverter INSTANCE = new ScanConverter();
   private static final SubQueryConverter SUBQUERY_CONVERTER = new SubQueryConverter();
@@ -62,6 +80,82 @@ public class ScanConverter extends StatelessRelShuttleImpl {
     return super.visit(newJoin);
   }
 
+  @Override
+  public RelNode visit(final RelNode other) {
+    if (other instanceof Sample) {
+      final RelOptSamplingParameters parameters = ((Sample) other).getSamplingParameters();
+      if (parameters.isBernoulli()) {
+        throw UserException.unsupportedError()
+            .message("TABLESAMPLE BERNOULLI is not supported, use TABLESAMPLE SYSTEM instead.")
+            .build(logger);
+      }
+      final RelNode input = ((Sample) other).getInput().accept(this);
+      if (MoreRelOptUtil.countTableScans(input) > 1) {
+        // sampling each table independently would sample joins far more than asked for.
+        throw UserException.unsupportedError()
+            .message("TABLESAMPLE SYSTEM is only supported on datasets reading a single table.")
+            .build(logger);
+      }
+      return input.accept(new SplitSampler(parameters));
+    }
+    return super.visit(other);
+  }
+
+  /**
+   * Keeps a random subset of the splits of the scan, each split being kept with the sampling probability. At least
+   * one split of a table is always read. Scans whose splits are not known at this point are read entirely.
+   */
+  private static class SplitSampler extends StatelessRelShuttleImpl {
+    private final double fraction;
+    private final HashFunction hash;
+
+    SplitSampler(final RelOptSamplingParameters parameters) {
+      this.fraction = parameters.getSamplingPercentage();
+      this.hash = Hashing.murmur3_128(parameters.isRepeatable() ? parameters.getRepeatableSeed() : new Random().nextInt());
+    }
+
+    @Override
+    public RelNode visit(final TableScan scan) {
+      if (!(scan instanceof ScanCrel)) {
+        return super.visit(scan);
+      }
+
+      final ScanCrel crel = (ScanCrel) scan;
+      final List<DatasetSplit> sampled = Lists.newArrayList();
+      DatasetSplit first = null;
+      double firstDraw = Double.MAX_VALUE;
+      int total = 0;
+      for (Iterator<DatasetSplit> splits = crel.getTableMetadata().getSplits(); splits.hasNext(); total++) {
+        final DatasetSplit split = splits.next();
+        // uniform in [0, 1), and stable for a given seed and split.
+        final double draw = (hash.hashUnencodedChars(String.valueOf(split.getSplitKey())).asLong() >>> 11) * 0x1.0p-53;
+        if (draw < fraction) {
+          sampled.add(split);
+        }
+        if (draw < firstDraw) {
+          first = split;
+          firstDraw = draw;
+        }
+      }
+      if (sampled.isEmpty() && first != null) {
+        sampled.add(first);
+      }
+      if (sampled.size() == total) {
+        return scan;
+      }
+
+      try {
+        return new ScanCrel(crel.getCluster(), crel.getTraitSet(), crel.getPluginId(),
+            crel.getTableMetadata().prune(sampled), crel.getProjectedColumns(), crel.getObservedRowcountAdjustment(),
+            false);
+      } catch (NamespaceException e) {
+        throw UserException.dataReadError(e)
+            .message("Failure sampling splits of dataset %s.", crel.getTableMetadata().getName())
+            .build(logger);
+      }
+    }
+  }
+
   private static class SubQueryConverter extends RexShuttle {
 
     @Override
@@ -64,6 +64,10 @@ public abstract class AbstractAttemptObserver implements AttemptObserver {
   public void planNormalized(long millisTaken) {
   }
 
+  @Override
+  public void planMaterializationCandidates(int considered, int matched) {
+  }
+
   @Override
   public void planAccelerated(final SubstitutionInfo info) {
   }
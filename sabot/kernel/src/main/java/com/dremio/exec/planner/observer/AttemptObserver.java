@@ -132,6 +132,13 @@ public interface AttemptObserver {
    */
   void planNormalized(long millisTaken);
 
+  /**
+   * Report materializations kept for substitution after comparing their signature with the query
+   * @param considered number of available materializations
+   * @param matched number of materializations whose tables and columns may cover the query
+   */
+  void planMaterializationCandidates(int considered, int matched);
+
   /**
    * Report substitution
    * @param materialization
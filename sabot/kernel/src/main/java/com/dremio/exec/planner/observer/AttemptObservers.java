@@ -145,6 +145,13 @@ public class AttemptObservers implements AttemptObserver {
     }
   }
 
+  @Override
+  public void planMaterializationCandidates(int considered, int matched) {
+    for (final AttemptObserver observer : observers) {
+      observer.planMaterializationCandidates(considered, matched);
+    }
+  }
+
   @Override
   public void planSubstituted(DremioRelOptMaterialization materialization, List<RelNode> substitutions,
                               RelNode query, RelNode target, long millisTaken) {
@@ -232,6 +239,16 @@ public class AttemptObservers implements AttemptObserver {
     observers.add(observer);
   }
 
+  /**
+   * Add to the collection of observers, ahead of the others. Such an observer sees the results of the attempt before
+   * they are handed over to the client.
+   *
+   * @param observer attempt observer
+   */
+  public void addFirst(final AttemptObserver observer) {
+    observers.add(0, observer);
+  }
+
   /**
    * Create a collection of observers.
    *
@@ -113,6 +113,11 @@ public class DelegatingAttemptObserver implements AttemptObserver {
     observer.planNormalized(millisTaken);
   }
 
+  @Override
+  public void planMaterializationCandidates(int considered, int matched) {
+    observer.planMaterializationCandidates(considered, matched);
+  }
+
   @Override
   public void planSubstituted(DremioRelOptMaterialization materialization, List<RelNode> substitutions, RelNode query, RelNode target, long millisTaken) {
     observer.planSubstituted(materialization, substitutions, query, target, millisTaken);
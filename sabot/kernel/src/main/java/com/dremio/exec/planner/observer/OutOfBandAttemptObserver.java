@@ -125,6 +125,16 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
     });
   }
 
+  @Override
+  public void planMaterializationCandidates(final int considered, final int matched) {
+    serializedExec.execute(new DeferredRunnable() {
+      @Override
+      public void doRun() {
+        innerObserver.planMaterializationCandidates(considered, matched);
+      }
+    });
+  }
+
   @Override
   public void planSubstituted(final DremioRelOptMaterialization materialization,
                               final List<RelNode> substitutions,
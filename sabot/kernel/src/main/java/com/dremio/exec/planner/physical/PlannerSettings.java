@@ -27,6 +27,7 @@ import org.apache.calcite.util.CancelFlag;
 
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.fn.FunctionImplementationRegistry;
+import com.dremio.exec.planner.cost.StatisticsProvider;
 import com.dremio.exec.server.options.CachingOptionManager;
 import com.dremio.exec.server.options.OptionManager;
 import com.dremio.exec.server.options.OptionValidator;
@@ -101,11 +102,25 @@ public class PlannerSettings implements Context{
   public static final OptionValidator STORE_QUERY_RESULTS = new QueryLevelOptionValidation(new BooleanValidator("planner.store_query_results", false));
   public static final OptionValidator QUERY_RESULTS_STORE_TABLE = new QueryLevelOptionValidation(new StringValidator("planner.query_results_store_path", "null"));
 
+  // Reuse the plans of sql queries sent repeatedly. Size and ttl are read at startup
+  public static final BooleanValidator QUERY_PLAN_CACHE = new BooleanValidator("planner.query_plan_cache.enabled", false);
+  public static final RangeLongValidator QUERY_PLAN_CACHE_MAX_ENTRIES = new RangeLongValidator("planner.query_plan_cache.max_entries", 1, 100000, 1000);
+  public static final RangeLongValidator QUERY_PLAN_CACHE_TTL_SECONDS = new RangeLongValidator("planner.query_plan_cache.ttl_seconds", 1, Integer.MAX_VALUE, 600);
+
+  // Size fragments from the records measured by previous runs of the same plan shape, when there are some
+  public static final BooleanValidator USE_RUNTIME_STATS = new BooleanValidator("planner.width.use_runtime_stats", false);
+
+  // Estimate selectivity and distinct rows of scans from the column statistics computed by ANALYZE TABLE
+  public static final BooleanValidator USE_STATISTICS = new BooleanValidator("planner.statistics.enabled", false);
+  public static final LongValidator STATISTICS_HISTOGRAM_BUCKETS = new RangeLongValidator("planner.statistics.histogram_buckets", 1, 1024, 32);
+
   // Enable filter reduce expressions rule for tableau's 1=0 queries.
   public static final BooleanValidator ENABLE_REDUCE_PROJECT = new BooleanValidator("planner.enable_reduce_project", true);
   public static final BooleanValidator ENABLE_REDUCE_FILTER = new BooleanValidator("planner.enable_reduce_filter", true);
   public static final BooleanValidator ENABLE_REDUCE_CALC = new BooleanValidator("planner.enable_reduce_calc", true);
   public static final BooleanValidator ENABLE_TRIVIAL_SINGULAR = new BooleanValidator("planner.enable_trivial_singular", true);
+  // cluster the rows written by a CTAS on a Z-order of its local sort columns rather than sorting them one after the other.
+  public static final BooleanValidator WRITER_ZORDER = new BooleanValidator("planner.writer.localsort_zorder", false);
 
   public static final BooleanValidator ENABLE_SORT_ROUND_ROBIN = new BooleanValidator("planner.enable_sort_round_robin", true);
   public static final BooleanValidator ENABLE_UNIONALL_ROUND_ROBIN = new BooleanValidator("planner.enable_union_all_round_robin", true);
@@ -125,6 +140,7 @@ public class PlannerSettings implements Context{
   public OptionManager options = null;
   public FunctionImplementationRegistry functionImplementationRegistry = null;
   private CalciteCatalogReader catalog;
+  private StatisticsProvider statisticsProvider;
 
   // This flag is used by AbstractRelOptPlanner to set it's "cancelFlag".
   private final CancelFlag cancelFlag = new CancelFlag(new AtomicBoolean());
@@ -190,6 +206,14 @@ public class PlannerSettings implements Context{
     this.numEndPoints = numEndPoints;
   }
 
+  public void setStatisticsProvider(StatisticsProvider statisticsProvider) {
+    this.statisticsProvider = statisticsProvider;
+  }
+
+  public boolean isStatisticsEnabled() {
+    return statisticsProvider != null && options.getOption(USE_STATISTICS);
+  }
+
   public void setUseDefaultCosting(boolean defcost) {
     this.useDefaultCosting = defcost;
   }
@@ -314,6 +338,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_TRIVIAL_SINGULAR);
   }
 
+  public boolean isWriterZOrderEnabled() {
+    return options.getOption(WRITER_ZORDER);
+  }
+
   @Override
   public <T> T unwrap(Class<T> clazz) {
     if(clazz == PlannerSettings.class){
@@ -324,6 +352,8 @@ public class PlannerSettings implements Context{
       return clazz.cast(catalog);
     } else if (CancelFlag.class.isAssignableFrom(clazz)) {
       return clazz.cast(cancelFlag);
+    } else if (clazz == StatisticsProvider.class) {
+      return (T) statisticsProvider;
     }
     return null;
   }
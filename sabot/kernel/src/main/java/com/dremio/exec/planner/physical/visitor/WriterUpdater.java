@@ -21,15 +21,27 @@ import java.util.Set;
 
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Window;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rel.type.RelDataTypeFieldImpl;
+import org.apache.calcite.rel.type.RelRecordType;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.rex.RexWindowBound;
+import org.apache.calcite.sql.SqlWindow;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableBitSet;
 
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.expr.fn.impl.ZOrderFunctions;
 import com.dremio.exec.physical.base.WriterOptions;
 import com.dremio.exec.planner.physical.DistributionTrait;
 import com.dremio.exec.planner.physical.DistributionTrait.DistributionType;
@@ -43,6 +55,7 @@ import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.planner.physical.ProjectAllowDupPrel;
 import com.dremio.exec.planner.physical.ProjectPrel;
 import com.dremio.exec.planner.physical.SortPrel;
+import com.dremio.exec.planner.physical.WindowPrel;
 import com.dremio.exec.planner.physical.WriterPrel;
 
 /**
@@ -55,12 +68,25 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WriterUpdater.class);
 
-  private static final WriterUpdater INSTANCE = new WriterUpdater();
+  private static final String ZORDER_FIELD = "E_X_P_R_Z_O_R_D_E_R";
+  private static final String ZORDER_KEY_FIELD = "E_X_P_R_Z_O_R_D_E_R_K_E_Y_";
 
-  private WriterUpdater(){}
+  // types with a zorder_key function.
+  private static final Set<SqlTypeName> ZORDER_TYPES = Sets.immutableEnumSet(SqlTypeName.TINYINT,
+      SqlTypeName.SMALLINT, SqlTypeName.INTEGER, SqlTypeName.BIGINT, SqlTypeName.FLOAT, SqlTypeName.REAL,
+      SqlTypeName.DOUBLE, SqlTypeName.DATE, SqlTypeName.TIME, SqlTypeName.TIMESTAMP);
 
-  public static Prel update(Prel prel) {
-    return prel.accept(INSTANCE, null);
+  private final boolean zorder;
+
+  private WriterUpdater(boolean zorder){
+    this.zorder = zorder;
+  }
+
+  /**
+   * @param zorder whether to sort on a Z-order of the local sort columns, when there are several of them.
+   */
+  public static Prel update(Prel prel, boolean zorder) {
+    return prel.accept(new WriterUpdater(zorder), null);
   }
 
   @Override
@@ -97,6 +123,7 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
       }
 
       // if sorted, add those as well.
+      final List<Integer> localSortKeys = new ArrayList<>();
       if (options.hasSort()) {
         List<Integer> sortRequestKeys = WriterOptions.getFieldIndices(options.getSortColumns(), project);
         for(Integer key : sortRequestKeys){
@@ -104,13 +131,11 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
             logger.warn("Rejecting sort key {} since it is already included in partition clause.", key);
             continue;
           }
-          sortKeys.add(key);
+          localSortKeys.add(key);
         }
       }
 
-      final RelCollation collation = WriterOptions.getCollation(prel.getTraitSet(), sortKeys);
-
-      final Prel sort = new SortPrel(project.getCluster(), project.getTraitSet().plus(collation), project, collation);
+      final Prel sort = addSort(prel, project, sortKeys, localSortKeys);
 
       List<Integer> fieldIndices = new ArrayList<>();
       // add bucket field.
@@ -134,6 +159,7 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
       sortedKeys.addAll(partitionKeys);
 
       // then sort by sort keys, if available.
+      final List<Integer> localSortKeys = new ArrayList<>();
       if (options.hasSort()) {
         List<Integer> sortRequestKeys = WriterOptions.getFieldIndices(options.getSortColumns(), input);
         for(Integer key : sortRequestKeys){
@@ -141,12 +167,11 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
             logger.warn("Rejecting sort key {} since it is already included in partition clause.", key);
             continue;
           }
-          sortKeys.add(key);
+          localSortKeys.add(key);
         }
       }
 
-      final RelCollation collation = WriterOptions.getCollation(prel.getTraitSet(), sortKeys);
-      final Prel sort = new SortPrel(input.getCluster(), input.getTraitSet().plus(collation), input, collation);
+      final Prel sort = addSort(prel, input, sortKeys, localSortKeys);
 
       // we need to sort by the partitions.
       final Prel changeDetectionPrel = addChangeDetectionProject(sort, WriterOptions.getFieldIndices(options.getPartitionColumns(), input));
@@ -156,8 +181,7 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
     } else if(options.hasSort()){
       // no partitions or distributions.
       // insert a sort on sort fields.
-      final RelCollation collation = WriterOptions.getCollation(prel.getTraitSet(), WriterOptions.getFieldIndices(options.getSortColumns(), input));
-      final Prel sort = new SortPrel(input.getCluster(), input.getTraitSet().plus(collation), input, collation);
+      final Prel sort = addSort(prel, input, ImmutableList.<Integer>of(), WriterOptions.getFieldIndices(options.getSortColumns(), input));
       final WriterPrel writer = new WriterPrel(prel.getCluster(), prel.getTraitSet(), sort, prel.getCreateTableEntry());
       return writer;
 
@@ -167,6 +191,111 @@ public class WriterUpdater extends BasePrelVisitor<Prel, Void, RuntimeException>
   }
 
 
+  /**
+   * Sort the input on the given keys followed by the local sort keys.
+   *
+   * If enabled and there are several local sort keys, the input is sorted on the Z-order of the local sort keys
+   * instead, so that rows are clustered on all of them rather than mostly on the first one. The keys of the local
+   * sort columns are scaled to the same range before being interleaved, from their minimum and maximum over the rows
+   * sorted together, so that a column with a wide spread of values doesn't take over the order. The Z-order value is
+   * computed below the sort, and removed after it.
+   */
+  private Prel addSort(WriterPrel writer, Prel input, List<Integer> keys, List<Integer> localSortKeys) {
+    if (!canZOrder(input, localSortKeys)) {
+      final List<Integer> sortKeys = Lists.newArrayList(keys);
+      sortKeys.addAll(localSortKeys);
+      final RelCollation collation = WriterOptions.getCollation(writer.getTraitSet(), sortKeys);
+      return new SortPrel(input.getCluster(), input.getTraitSet().plus(collation), input, collation);
+    }
+
+    final RelOptCluster cluster = input.getCluster();
+    final RexBuilder rexBuilder = cluster.getRexBuilder();
+    final RelDataType rowType = input.getRowType();
+    final int fieldCount = rowType.getFieldCount();
+
+    // the keys of the local sort columns.
+    final List<RexNode> keyExprs = getFields(rowType);
+    final List<String> keyNames = Lists.newArrayList(rowType.getFieldNames());
+    final SqlOperatorImpl keyOp = new SqlOperatorImpl(ZOrderFunctions.ZORDER_KEY, 1, true);
+    for (int i = 0; i < localSortKeys.size(); i++) {
+      keyExprs.add(rexBuilder.makeCall(keyOp, RexInputRef.of(localSortKeys.get(i), rowType)));
+      keyNames.add(ZORDER_KEY_FIELD + i);
+    }
+    final RelDataType keysRowType = RexUtil.createStructType(cluster.getTypeFactory(), keyExprs, keyNames);
+    final Prel keysProject = new ProjectPrel(cluster, input.getTraitSet(), input, keyExprs, keysRowType);
+
+    // the minimum and maximum of each key over the input of the sort.
+    final List<Window.RexWinAggCall> aggCalls = new ArrayList<>();
+    final List<RelDataTypeField> windowFields = Lists.newArrayList(keysRowType.getFieldList());
+    for (int i = 0; i < localSortKeys.size(); i++) {
+      final RexNode key = RexInputRef.of(fieldCount + i, keysRowType);
+      aggCalls.add(new Window.RexWinAggCall(SqlStdOperatorTable.MIN, key.getType(), ImmutableList.of(key), 2 * i));
+      windowFields.add(new RelDataTypeFieldImpl("w0$o" + (2 * i), windowFields.size(), key.getType()));
+      aggCalls.add(new Window.RexWinAggCall(SqlStdOperatorTable.MAX, key.getType(), ImmutableList.of(key), 2 * i + 1));
+      windowFields.add(new RelDataTypeFieldImpl("w0$o" + (2 * i + 1), windowFields.size(), key.getType()));
+    }
+    final Window.Group group = new Window.Group(ImmutableBitSet.of(), false,
+        RexWindowBound.create(SqlWindow.createUnboundedPreceding(SqlParserPos.ZERO), null),
+        RexWindowBound.create(SqlWindow.createUnboundedFollowing(SqlParserPos.ZERO), null),
+        RelCollations.EMPTY, aggCalls);
+    final RelDataType windowRowType = new RelRecordType(windowFields);
+    final Prel window = new WindowPrel(cluster, keysProject.getTraitSet(), keysProject, ImmutableList.<RexLiteral>of(),
+        windowRowType, group);
+
+    // the Z-order of the scaled keys.
+    final List<RexNode> exprs = Lists.newArrayList(getFields(windowRowType).subList(0, fieldCount));
+    final List<String> fieldNames = Lists.newArrayList(rowType.getFieldNames());
+    final SqlOperatorImpl scaleOp = new SqlOperatorImpl(ZOrderFunctions.ZORDER_SCALE, 3, true);
+    final List<RexNode> scaledKeys = new ArrayList<>();
+    for (int i = 0; i < localSortKeys.size(); i++) {
+      final int statsIndex = fieldCount + localSortKeys.size() + 2 * i;
+      scaledKeys.add(rexBuilder.makeCall(scaleOp,
+          RexInputRef.of(fieldCount + i, windowRowType),
+          RexInputRef.of(statsIndex, windowRowType),
+          RexInputRef.of(statsIndex + 1, windowRowType)));
+    }
+    final SqlOperatorImpl zorderOp = new SqlOperatorImpl(ZOrderFunctions.ZORDER, scaledKeys.size(), true);
+    exprs.add(rexBuilder.makeCall(zorderOp, scaledKeys));
+    fieldNames.add(ZORDER_FIELD);
+    final RelDataType rowTypeWithZOrder = RexUtil.createStructType(cluster.getTypeFactory(), exprs, fieldNames);
+    final Prel project = new ProjectPrel(cluster, window.getTraitSet(), window, exprs, rowTypeWithZOrder);
+
+    final List<Integer> sortKeys = Lists.newArrayList(keys);
+    sortKeys.add(fieldCount);
+    final RelCollation collation = WriterOptions.getCollation(writer.getTraitSet(), sortKeys);
+    final Prel sort = new SortPrel(cluster, project.getTraitSet().plus(collation), project, collation);
+
+    // remove the Z-order value.
+    return new ProjectPrel(cluster, input.getTraitSet(), sort, getFields(rowTypeWithZOrder).subList(0, fieldCount),
+        rowType);
+  }
+
+  private static List<RexNode> getFields(RelDataType rowType) {
+    final List<RexNode> fields = new ArrayList<>();
+    for (final RelDataTypeField field : rowType.getFieldList()) {
+      fields.add(RexInputRef.of(field.getIndex(), rowType));
+    }
+    return fields;
+  }
+
+  private boolean canZOrder(Prel input, List<Integer> localSortKeys) {
+    if (!zorder || localSortKeys.size() < 2) {
+      return false;
+    }
+    if (localSortKeys.size() > ZOrderFunctions.MAX_KEYS) {
+      logger.debug("Not clustering on a Z-order of more than {} sort keys.", ZOrderFunctions.MAX_KEYS);
+      return false;
+    }
+    for (Integer key : localSortKeys) {
+      final SqlTypeName type = input.getRowType().getFieldList().get(key).getType().getSqlTypeName();
+      if (!ZORDER_TYPES.contains(type)) {
+        logger.debug("Not clustering on a Z-order of sort key {} of type {}.", key, type);
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * A PrelVisitor which will insert a project under Writer.
    *
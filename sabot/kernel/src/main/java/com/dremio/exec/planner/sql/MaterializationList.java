@@ -20,9 +20,13 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.apache.calcite.plan.RelOptMaterialization;
 import org.apache.calcite.plan.substitution.MaterializationProvider;
+import org.apache.calcite.rel.RelNode;
 
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.server.MaterializationDescriptorProvider;
 import com.dremio.sabot.rpc.user.UserSession;
 import com.google.common.annotations.VisibleForTesting;
@@ -30,7 +34,9 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -38,6 +44,9 @@ import com.google.common.collect.Sets;
 /**
  * An abstraction used to maintain available materializations alongside a mapping from materialization handle to
  * {@link MaterializationDescriptor materialization} itself.
+ *
+ * Materializations are indexed by the {@link MaterializationSignature signature} of their plan, so that substitution
+ * can be restricted to the ones that may match a given query.
  */
 public class MaterializationList implements MaterializationProvider<RelOptMaterialization> {
 
@@ -48,11 +57,20 @@ public class MaterializationList implements MaterializationProvider<RelOptMateri
       return build(provider);
     }
   });
+  private final Supplier<Index> index = Suppliers.memoize(new Supplier<Index>() {
+    @Override
+    public Index get() {
+      return new Index(factory.get());
+    }
+  });
 
   private final MaterializationDescriptorProvider provider;
   private final SqlConverter converter;
   private final UserSession session;
 
+  // materializations that may match the query being substituted, or null to use all of them.
+  private List<RelOptMaterialization> candidates;
+
   public MaterializationList(final SqlConverter converter, final UserSession session,
                              final MaterializationDescriptorProvider provider) {
     this.provider = Preconditions.checkNotNull(provider, "provider is required");
@@ -68,9 +86,35 @@ public class MaterializationList implements MaterializationProvider<RelOptMateri
    */
   @Override
   public List<RelOptMaterialization> getMaterializations() {
+    if (candidates != null) {
+      return candidates;
+    }
     return factory.get();
   }
 
+  /**
+   * Returns the number of available materializations, regardless of any restriction.
+   */
+  public int size() {
+    return factory.get().size();
+  }
+
+  /**
+   * Restricts the materializations returned by {@link #getMaterializations()} to the ones whose signature is compatible
+   * with the given query, or lifts the restriction if the query is null.
+   *
+   * @param query  query to substitute.
+   * @return number of materializations kept
+   */
+  public int restrictTo(@Nullable final RelNode query) {
+    if (query == null || !converter.getSettings().getOptions().getOption(ExecConstants.ACCELERATION_SIGNATURE_FILTER)) {
+      candidates = null;
+      return size();
+    }
+    candidates = index.get().find(MaterializationSignature.of(query));
+    return candidates.size();
+  }
+
   public Optional<MaterializationDescriptor> getDescriptor(final List<String> path) {
     return getDescriptor(TablePath.of(path));
   }
@@ -108,6 +152,55 @@ public class MaterializationList implements MaterializationProvider<RelOptMateri
     return materializations;
   }
 
+  /**
+   * Materializations by the first table of their signature. All the tables of a materialization must be scanned by the
+   * query for it to match, so looking up the tables of the query finds all possible candidates.
+   */
+  private static final class Index {
+    private final List<RelOptMaterialization> materializations;
+    private final Map<RelOptMaterialization, MaterializationSignature> signatures = Maps.newIdentityHashMap();
+    private final ListMultimap<List<String>, RelOptMaterialization> byTable = ArrayListMultimap.create();
+    // materializations that scan no table, or whose plan could not be walked.
+    private final List<RelOptMaterialization> unindexed = Lists.newArrayList();
+
+    private Index(final List<RelOptMaterialization> materializations) {
+      this.materializations = materializations;
+      for (final RelOptMaterialization materialization : materializations) {
+        final MaterializationSignature signature = MaterializationSignature.of(materialization.queryRel);
+        signatures.put(materialization, signature);
+        if (!signature.isComplete() || signature.getTables().isEmpty()) {
+          unindexed.add(materialization);
+        } else {
+          byTable.put(signature.getTables().iterator().next(), materialization);
+        }
+      }
+    }
+
+    private List<RelOptMaterialization> find(final MaterializationSignature query) {
+      if (!query.isComplete()) {
+        return materializations;
+      }
+
+      final Set<RelOptMaterialization> found = Sets.newIdentityHashSet();
+      found.addAll(unindexed);
+      for (final List<String> table : query.getTables()) {
+        for (final RelOptMaterialization materialization : byTable.get(table)) {
+          if (query.accepts(signatures.get(materialization))) {
+            found.add(materialization);
+          }
+        }
+      }
+
+      // keep the order of the provider.
+      final List<RelOptMaterialization> candidates = Lists.newArrayListWithCapacity(found.size());
+      for (final RelOptMaterialization materialization : materializations) {
+        if (found.contains(materialization)) {
+          candidates.add(materialization);
+        }
+      }
+      return candidates;
+    }
+  }
 
   static class TablePath {
     public final List<String> path;
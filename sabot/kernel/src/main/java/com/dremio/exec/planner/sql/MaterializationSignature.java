@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelVisitor;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Tables and columns scanned by a plan, used to tell cheaply whether a materialization may substitute part of a query.
+ *
+ * A materialization can only replace a part of a query that scans all of its tables, and it can only provide the
+ * columns it scans itself. For each scan, a signature keeps the columns the scan provides and the columns its parent
+ * reads from it. The latter is a lower bound of what the plan needs, so a materialization is only ruled out when it
+ * certainly cannot match.
+ */
+public final class MaterializationSignature {
+
+  private final ListMultimap<List<String>, Scan> scans;
+  // false if part of the plan could not be walked, in which case the signature rules out nothing.
+  private final boolean complete;
+
+  private MaterializationSignature(ListMultimap<List<String>, Scan> scans, boolean complete) {
+    this.scans = scans;
+    this.complete = complete;
+  }
+
+  /**
+   * @return the (lower cased) qualified names of the tables scanned by the plan.
+   */
+  public Set<List<String>> getTables() {
+    return scans.keySet();
+  }
+
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * Whether a materialization with the given signature may substitute part of the query with this signature: the query
+   * scans all the tables of the materialization, and for each of them at least one scan of the query reads only columns
+   * the materialization provides.
+   */
+  public boolean accepts(MaterializationSignature materialization) {
+    if (!complete || !materialization.complete) {
+      return true;
+    }
+
+    for (List<String> table : materialization.scans.keySet()) {
+      final Set<String> provided = Sets.newHashSet();
+      for (Scan scan : materialization.scans.get(table)) {
+        provided.addAll(scan.provided);
+      }
+
+      boolean covered = false;
+      for (Scan scan : scans.get(table)) {
+        if (provided.containsAll(scan.read)) {
+          covered = true;
+          break;
+        }
+      }
+      if (!covered) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static MaterializationSignature of(RelNode rel) {
+    final ListMultimap<List<String>, Scan> scans = ArrayListMultimap.create();
+    final boolean[] complete = { true };
+    new RelVisitor() {
+      @Override
+      public void visit(RelNode node, int ordinal, RelNode parent) {
+        if (node instanceof RelSubset || node instanceof HepRelVertex) {
+          // inputs already registered in a planner are not visible from here.
+          complete[0] = false;
+          return;
+        }
+        if (node instanceof TableScan) {
+          scans.put(lowerCase(node.getTable().getQualifiedName()), newScan((TableScan) node, ordinal, parent));
+        }
+        super.visit(node, ordinal, parent);
+      }
+    }.go(rel);
+    return new MaterializationSignature(scans, complete[0]);
+  }
+
+  private static Scan newScan(TableScan scan, int ordinal, RelNode parent) {
+    final List<String> fields = lowerCase(scan.getRowType().getFieldNames());
+
+    final ImmutableBitSet read;
+    if (parent == null) {
+      read = ImmutableBitSet.range(fields.size());
+    } else if (parent instanceof Project) {
+      read = RelOptUtil.InputFinder.bits(((Project) parent).getProjects(), null);
+    } else if (parent instanceof Filter) {
+      read = RelOptUtil.InputFinder.bits(((Filter) parent).getCondition());
+    } else if (parent instanceof Aggregate) {
+      final Aggregate aggregate = (Aggregate) parent;
+      final ImmutableBitSet.Builder builder = ImmutableBitSet.builder(aggregate.getGroupSet());
+      for (AggregateCall call : aggregate.getAggCallList()) {
+        builder.addAll(call.getArgList());
+        if (call.filterArg >= 0) {
+          builder.set(call.filterArg);
+        }
+      }
+      read = builder.build();
+    } else if (parent instanceof Join) {
+      final Join join = (Join) parent;
+      final int offset = ordinal == 0 ? 0 : join.getLeft().getRowType().getFieldCount();
+      final ImmutableBitSet.Builder builder = ImmutableBitSet.builder();
+      for (int field : RelOptUtil.InputFinder.bits(join.getCondition())) {
+        if (field >= offset && field < offset + fields.size()) {
+          builder.set(field - offset);
+        }
+      }
+      read = builder.build();
+    } else {
+      // nothing is known about what other operators read.
+      read = ImmutableBitSet.of();
+    }
+
+    final ImmutableSet.Builder<String> readFields = ImmutableSet.builder();
+    for (int field : read) {
+      if (field < fields.size()) {
+        readFields.add(fields.get(field));
+      }
+    }
+    return new Scan(ImmutableSet.copyOf(fields), readFields.build());
+  }
+
+  private static List<String> lowerCase(List<String> names) {
+    final List<String> lowerCased = Lists.newArrayListWithCapacity(names.size());
+    for (String name : names) {
+      lowerCased.add(name.toLowerCase(Locale.ROOT));
+    }
+    return lowerCased;
+  }
+
+  private static final class Scan {
+    private final Set<String> provided;
+    private final Set<String> read;
+
+    private Scan(Set<String> provided, Set<String> read) {
+      this.provided = provided;
+      this.read = read;
+    }
+  }
+}
@@ -27,6 +27,7 @@ public class SqlOperatorImpl extends SqlFunction {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SqlOperatorImpl.class);
 
   private final boolean isDeterministic;
+  private final boolean isContextDependent;
   private final SqlSyntax syntax;
   /**
    * This constructor exists for the legacy reason.
@@ -55,6 +56,11 @@ public class SqlOperatorImpl extends SqlFunction {
 
   public SqlOperatorImpl(String name, int argCountMin, int argCountMax, boolean isDeterministic,
       SqlReturnTypeInference sqlReturnTypeInference, SqlSyntax syntax) {
+    this(name, argCountMin, argCountMax, isDeterministic, false, sqlReturnTypeInference, syntax);
+  }
+
+  public SqlOperatorImpl(String name, int argCountMin, int argCountMax, boolean isDeterministic,
+      boolean isContextDependent, SqlReturnTypeInference sqlReturnTypeInference, SqlSyntax syntax) {
     super(new SqlIdentifier(name, SqlParserPos.ZERO),
         sqlReturnTypeInference,
         null,
@@ -62,6 +68,7 @@ public class SqlOperatorImpl extends SqlFunction {
         null,
         SqlFunctionCategory.USER_DEFINED_FUNCTION);
     this.isDeterministic = isDeterministic;
+    this.isContextDependent = isContextDependent;
     this.syntax = syntax;
   }
   @Override
@@ -73,4 +80,12 @@ public class SqlOperatorImpl extends SqlFunction {
   public boolean isDeterministic() {
     return isDeterministic;
   }
+
+  /**
+   * @return whether the function reads the context of the query, such as its start time or its user. Such functions
+   * are reduced to literals when planning, so the plan is only valid for the query it was made for.
+   */
+  public boolean isContextDependent() {
+    return isContextDependent;
+  }
 }
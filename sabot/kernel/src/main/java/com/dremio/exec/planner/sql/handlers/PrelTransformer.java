@@ -540,7 +540,7 @@ public class PrelTransformer {
     /* 5.5)
      * Insert additional required operations to achieve correct writer behavior
      */
-    phyRelNode = WriterUpdater.update(phyRelNode);
+    phyRelNode = WriterUpdater.update(phyRelNode, context.getPlannerSettings().isWriterZOrderEnabled());
 
     /* 5.5)
      * Insert Project before/after HashToMergeExchangePrel and HashToRandomExchangePrel nodes
@@ -21,7 +21,8 @@ import org.apache.calcite.sql.SqlNode;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.ops.QueryContext;
-import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObservers;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.planner.sql.handlers.direct.AccelAddLayoutHandler;
@@ -43,6 +44,7 @@ import com.dremio.exec.planner.sql.handlers.direct.ShowSchemasHandler;
 import com.dremio.exec.planner.sql.handlers.direct.ShowTablesHandler;
 import com.dremio.exec.planner.sql.handlers.direct.SqlDirectHandler;
 import com.dremio.exec.planner.sql.handlers.direct.UseSchemaHandler;
+import com.dremio.exec.planner.sql.handlers.query.AnalyzeTableHandler;
 import com.dremio.exec.planner.sql.handlers.query.CreateTableHandler;
 import com.dremio.exec.planner.sql.handlers.query.NormalHandler;
 import com.dremio.exec.planner.sql.handlers.query.SqlToPlanHandler;
@@ -50,6 +52,7 @@ import com.dremio.exec.planner.sql.parser.SqlAccelDisable;
 import com.dremio.exec.planner.sql.parser.SqlAccelEnable;
 import com.dremio.exec.planner.sql.parser.SqlAccelToggle;
 import com.dremio.exec.planner.sql.parser.SqlAddLayout;
+import com.dremio.exec.planner.sql.parser.SqlAnalyzeTable;
 import com.dremio.exec.planner.sql.parser.SqlDropLayout;
 import com.dremio.exec.planner.sql.parser.SqlForgetTable;
 import com.dremio.exec.planner.sql.parser.SqlRefreshMetadata;
@@ -92,9 +95,10 @@ public class CommandCreator {
   private final QueryContext context;
   private final CoordToExecTunnelCreator tunnelCreator;
   private final UserRequest request;
-  private final AttemptObserver observer;
+  private final AttemptObservers observer;
   private final SabotContext dbContext;
   private final Cache<Long, PreparedPlan> plans;
+  private final PlanCache planCache;
   private final int attemptNumber;
   private final Pointer<QueryId> prepareId;
 
@@ -103,8 +107,9 @@ public class CommandCreator {
       QueryContext context,
       CoordToExecTunnelCreator tunnelCreator,
       UserRequest request,
-      AttemptObserver observer,
+      AttemptObservers observer,
       Cache<Long, PreparedPlan> plans,
+      PlanCache planCache,
       Pointer<QueryId> prepareId,
       int attemptNumber) {
     this.context = context;
@@ -113,6 +118,7 @@ public class CommandCreator {
     this.observer = observer;
     this.dbContext = dbContext;
     this.plans = plans;
+    this.planCache = planCache;
     this.prepareId = prepareId;
     this.attemptNumber = attemptNumber;
   }
@@ -279,11 +285,17 @@ public class CommandCreator {
             context.getAccelerationManager()));
         } else if (sqlNode instanceof SqlRefreshTable) {
           return direct.create(new RefreshTableHandler(context.getNewDefaultSchema(), context.getCatalogService()));
+        } else if (sqlNode instanceof SqlAnalyzeTable) {
+          final AnalyzeTableHandler handler = new AnalyzeTableHandler(context.getNamespaceService(), context.getAllocator());
+          if (!isPrepare) {
+            observer.addFirst(handler.getObserver());
+          }
+          return async.create(handler, config);
         }
 
         // fallthrough
       default:
-        return async.create(new NormalHandler(), config);
+        return async.createCacheable(new NormalHandler(), config);
       }
 
     } catch(SqlUnsupportedException e) {
@@ -344,6 +356,33 @@ public class CommandCreator {
       return new HandlerToExec(tunnelCreator, context, dbContext.getPlanReader(), observer, sql, sqlNode,
         handler, config);
     }
+
+    // handlers whose plan only depends on the query, the datasets it reads and the options.
+    public CommandRunner<?> createCacheable(SqlToPlanHandler handler, SqlHandlerConfig config){
+      if(prepare || planCache == null || !context.getOptions().getOption(PlannerSettings.QUERY_PLAN_CACHE)) {
+        return create(handler, config);
+      }
+
+      // plans storing the results have a query specific destination.
+      final OptionValue storeResults = context.getOptions().getOption(STORE_QUERY_RESULTS.getOptionName());
+      if(storeResults != null && storeResults.bool_val) {
+        return create(handler, config);
+      }
+
+      final PlanCache.Key key = PlanCache.newKey(context, sqlNode);
+      final String materializations = PlanCache.getMaterializationsFingerprint(context);
+      // a new attempt might be caused by a schema change the cached plan doesn't know about.
+      if(attemptNumber == 0) {
+        final PlanCache.CachedPlan cached = planCache.get(key, materializations, context);
+        if(cached != null) {
+          return new PrepareToExecution(cached.getPlan(), context, observer, dbContext.getPlanReader(), tunnelCreator);
+        }
+      } else {
+        planCache.invalidate(key);
+      }
+      return new HandlerToCachingExec(tunnelCreator, context, dbContext.getPlanReader(), observer, sql, sqlNode,
+        handler, config, planCache, key, materializations);
+    }
   }
 
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.handlers.commands;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.sql.SqlNode;
+
+import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.physical.PhysicalPlan;
+import com.dremio.exec.planner.PhysicalPlanReader;
+import com.dremio.exec.planner.common.MoreRelOptUtil;
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObservers;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.planner.sql.handlers.commands.HandlerToPreparePlan.RecordingObserver;
+import com.dremio.exec.planner.sql.handlers.query.SqlToPlanHandler;
+import com.dremio.exec.work.foreman.ExecutionPlan;
+import com.dremio.exec.work.rpc.CoordToExecTunnelCreator;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Take a sql node, plan it, keep the plan in the plan cache and run as async command.
+ */
+public class HandlerToCachingExec extends AsyncCommand<Object> {
+
+  private final CoordToExecTunnelCreator tunnelCreator;
+  private final PhysicalPlanReader reader;
+  private final AttemptObserver observer;
+  private final SqlNode sqlNode;
+  private final SqlToPlanHandler handler;
+  private final String sql;
+  private final SqlHandlerConfig config;
+  private final PlanCache planCache;
+  private final PlanCache.Key key;
+  private final String materializations;
+
+  private ExecutionPlan exec;
+
+  public HandlerToCachingExec(
+      CoordToExecTunnelCreator tunnelCreator,
+      QueryContext context,
+      PhysicalPlanReader reader,
+      AttemptObserver observer,
+      String sql,
+      SqlNode sqlNode,
+      SqlToPlanHandler handler,
+      SqlHandlerConfig config,
+      PlanCache planCache,
+      PlanCache.Key key,
+      String materializations) {
+    super(context);
+    this.tunnelCreator = tunnelCreator;
+    this.reader = reader;
+    this.observer = observer;
+    this.sqlNode = sqlNode;
+    this.sql = sql;
+    this.handler = handler;
+    this.config = config;
+    this.planCache = planCache;
+    this.key = key;
+    this.materializations = materializations;
+  }
+
+  @Override
+  public double plan() throws Exception {
+    // record the planning calls so that they can be replayed when the plan is reused.
+    final RecordingObserver recording = new RecordingObserver();
+    final ValidationObserver validation = new ValidationObserver();
+    final AttemptObservers observers = AttemptObservers.of(observer, recording, validation);
+    observers.planStart(sql);
+    final Stopwatch stopwatch = Stopwatch.createStarted();
+    final PhysicalPlan plan = handler.getPlan(config.cloneWithNewObserver(observers), sql, sqlNode);
+    // calls to now(), random() and the like are reduced to literals of this query only.
+    if (!validation.dynamic) {
+      planCache.put(key, materializations, context, validation.validated,
+          new PreparedPlan(context.getQueryId(), context.getQueryUserName(), sql, plan, recording),
+          stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    setQueueTypeFromPlan(plan);
+    exec = ExecutionPlanCreator.getExecutionPlan(context, reader, observer, plan, getQueueType());
+    observer.planCompleted(exec);
+    return plan.getCost();
+  }
+
+  @Override
+  public Object execute() throws Exception {
+    FragmentStarter starter = new FragmentStarter(tunnelCreator);
+    starter.start(exec, observer);
+    return null;
+  }
+
+  @Override
+  public CommandType getCommandType() {
+    return CommandType.ASYNC_QUERY;
+  }
+
+  @Override
+  public String getDescription() {
+    return "execute; query";
+  }
+
+  /**
+   * Keeps the validated query, to find the datasets the plan depends on, and finds whether the converted query, with
+   * its views expanded, calls functions whose value changes from one query to the other.
+   */
+  private static class ValidationObserver extends AbstractAttemptObserver {
+    private SqlNode validated;
+    private boolean dynamic;
+
+    @Override
+    public void planValidated(RelDataType rowType, SqlNode node, long millisTaken) {
+      this.validated = node;
+    }
+
+    @Override
+    public void planConvertedToRel(RelNode converted, long millisTaken) {
+      this.dynamic = MoreRelOptUtil.DynamicCallFinder.hasDynamicCall(converted);
+    }
+  }
+}
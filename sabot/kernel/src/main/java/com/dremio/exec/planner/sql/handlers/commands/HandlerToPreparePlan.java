@@ -228,6 +228,15 @@ public class HandlerToPreparePlan implements CommandRunner<CreatePreparedStateme
         }});
     }
 
+    @Override
+    public void planMaterializationCandidates(final int considered, final int matched) {
+      calls.add(new ObserverCall(){
+        @Override
+        public void doCall(AttemptObserver observer) {
+          observer.planMaterializationCandidates(considered, matched);
+        }});
+    }
+
     @Override
     public void planAccelerated(final SubstitutionInfo info) {
       calls.add(new ObserverCall(){
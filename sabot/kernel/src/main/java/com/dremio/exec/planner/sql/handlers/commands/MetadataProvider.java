@@ -65,6 +65,7 @@ import com.dremio.exec.store.ischema.InfoSchemaFilter;
 import com.dremio.exec.store.ischema.InfoSchemaFilter.ConstantExprNode;
 import com.dremio.exec.store.ischema.InfoSchemaFilter.FieldExprNode;
 import com.dremio.exec.store.ischema.InfoSchemaFilter.FunctionExprNode;
+import com.dremio.exec.store.ischema.InfoSchemaRecordGenerator;
 import com.dremio.exec.store.ischema.InfoSchemaTableType;
 import com.dremio.exec.store.ischema.Records.Catalog;
 import com.dremio.exec.store.ischema.Records.Column;
@@ -586,7 +587,7 @@ public class MetadataProvider {
     final SchemaConfig schemaConfig = SchemaConfig.newBuilder(userSession.getCredentials().getUserName())
         .setProvider(newSchemaConfigInfoProvider(userSession, provider))
         .setIgnoreAuthErrors(true)
-        .exposeSubSchemasAsTopLevelSchemas(true)
+        .exposeSubSchemasAsTopLevelSchemas(InfoSchemaRecordGenerator.getRequiredSchemaNames(filter) == null)
         .build();
     final SchemaPlus rootSchema = provider.getRootSchema(schemaConfig);
     return tableType.getRecordReader(userSession.getCatalogName(), rootSchema, filter);
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.handlers.commands;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlJoin;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.dialect.CalciteSqlDialect;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.sql.MaterializationDescriptor;
+import com.dremio.exec.server.options.OptionList;
+import com.dremio.exec.server.options.OptionValue;
+import com.dremio.metrics.Metrics;
+import com.dremio.service.namespace.NamespaceUtils;
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Cache of the physical plans of sql queries, so that queries sent repeatedly skip planning.
+ *
+ * Plans are looked up by normalized sql text, user, default schema and options. A cached plan is only reused if the
+ * versions of the datasets it reads, including the views it expands and their parents, and the set of available
+ * materializations didn't change since it was planned.
+ */
+public class PlanCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PlanCache.class);
+
+  private static final String METRIC_PREFIX = "planner.plan_cache";
+
+  private final Cache<Key, CachedPlan> plans;
+  private final Counter hits = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+  private final Counter misses = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+  private final Counter stale = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "stale"));
+  private final Counter millisSaved =
+      Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "planning_millis_saved"));
+
+  public PlanCache(long maximumSize, long expireAfterWriteSeconds) {
+    this.plans = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * Get the plan cached for the given key, if it's still valid.
+   *
+   * @param materializations fingerprint of the available materializations, see
+   *                         {@link #getMaterializationsFingerprint(QueryContext)}
+   */
+  CachedPlan get(Key key, String materializations, QueryContext context) {
+    final CachedPlan plan = plans.getIfPresent(key);
+    if (plan == null) {
+      misses.inc();
+      return null;
+    }
+
+    if (!plan.materializations.equals(materializations)
+        || !plan.datasetVersions.equals(
+            NamespaceUtils.getDatasetVersions(context.getNamespaceService(), plan.datasetVersions.keySet()))) {
+      logger.debug("Dropping stale plan for query {}", key.sql);
+      plans.invalidate(key);
+      stale.inc();
+      misses.inc();
+      return null;
+    }
+
+    hits.inc();
+    millisSaved.inc(plan.planningMillis);
+    return plan;
+  }
+
+  /**
+   * Cache the plan of a query.
+   *
+   * @param materializations fingerprint of the materializations available when the query was looked up
+   * @param validated validated query, to find the datasets it reads
+   * @return true if the plan was cached. Plans reading datasets that can't be found in the namespace are not cached.
+   */
+  boolean put(Key key, String materializations, QueryContext context, SqlNode validated, PreparedPlan plan,
+      long planningMillis) {
+    final Set<List<String>> tables = Sets.newHashSet();
+    if (validated == null || !collectTables(validated, tables)) {
+      return false;
+    }
+    final Map<List<String>, Long> versions = NamespaceUtils.getDatasetVersions(context.getNamespaceService(), tables);
+    if (versions == null) {
+      return false;
+    }
+    plans.put(key, new CachedPlan(plan, versions, materializations, planningMillis));
+    return true;
+  }
+
+  void invalidate(Key key) {
+    plans.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    plans.invalidateAll();
+  }
+
+  public long size() {
+    return plans.size();
+  }
+
+  /**
+   * Create the key for a query.
+   *
+   * @param parsed parsed query, so that formatting differences don't matter.
+   */
+  static Key newKey(QueryContext context, SqlNode parsed) {
+    final List<String> options = Lists.newArrayList();
+    // query and session options, then system options.
+    for (OptionList list : ImmutableList.of(context.getOptions().getOptionList(), context.getNonDefaultSystemOptions())) {
+      final List<OptionValue> values = Lists.newArrayList(list);
+      Collections.sort(values);
+      for (OptionValue value : values) {
+        options.add(value.type + ":" + value.name + "=" + value.getValue());
+      }
+    }
+
+    return new Key(
+        parsed.toSqlString(CalciteSqlDialect.DEFAULT).getSql(),
+        context.getQueryUserName(),
+        context.getSession().getDefaultSchemaPath(),
+        Joiner.on(',').join(options));
+  }
+
+  /**
+   * Fingerprint of the materializations available to a query. Listing them is not cheap, so it's computed once per
+   * lookup and reused when caching the plan.
+   */
+  static String getMaterializationsFingerprint(QueryContext context) {
+    final List<String> ids = Lists.newArrayList();
+    for (MaterializationDescriptor descriptor : context.getMaterializationProvider().get()) {
+      ids.add(descriptor.getMaterializationId());
+    }
+    Collections.sort(ids);
+    return Joiner.on(',').join(ids);
+  }
+
+  /**
+   * Collect the tables read by a validated query. Identifiers of tables are fully qualified by validation.
+   *
+   * @return false if the query reads from a table function or from a derived table that can't be resolved.
+   */
+  private static boolean collectTables(SqlNode node, Set<List<String>> tables) {
+    if (node == null) {
+      return true;
+    }
+    if (node instanceof SqlSelect) {
+      final SqlSelect select = (SqlSelect) node;
+      if (!collectFromTables(select.getFrom(), tables)) {
+        return false;
+      }
+      // sub queries in the other clauses.
+      for (SqlNode operand : select.getOperandList()) {
+        if (operand != select.getFrom() && !collectTables(operand, tables)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    final List<SqlNode> operands;
+    if (node instanceof SqlCall) {
+      operands = ((SqlCall) node).getOperandList();
+    } else if (node instanceof SqlNodeList) {
+      operands = ((SqlNodeList) node).getList();
+    } else {
+      return true;
+    }
+    for (SqlNode operand : operands) {
+      if (!collectTables(operand, tables)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean collectFromTables(SqlNode from, Set<List<String>> tables) {
+    if (from == null) {
+      return true;
+    }
+    if (from instanceof SqlIdentifier) {
+      tables.add(ImmutableList.copyOf(((SqlIdentifier) from).names));
+      return true;
+    }
+    if (from instanceof SqlJoin) {
+      final SqlJoin join = (SqlJoin) from;
+      return collectFromTables(join.getLeft(), tables)
+          && collectFromTables(join.getRight(), tables)
+          && collectTables(join.getCondition(), tables);
+    }
+    if (from.getKind() == SqlKind.AS) {
+      return collectFromTables(((SqlCall) from).operand(0), tables);
+    }
+    if (from.getKind() == SqlKind.SELECT || from.getKind() == SqlKind.UNION || from.getKind() == SqlKind.INTERSECT
+        || from.getKind() == SqlKind.EXCEPT || from.getKind() == SqlKind.ORDER_BY || from.getKind() == SqlKind.VALUES) {
+      return collectTables(from, tables);
+    }
+    // table functions and others can't be checked for changes.
+    return false;
+  }
+
+  /**
+   * Identifies a query.
+   */
+  static final class Key {
+    private final String sql;
+    private final String user;
+    private final String defaultSchema;
+    private final String options;
+
+    private Key(String sql, String user, String defaultSchema, String options) {
+      this.sql = sql;
+      this.user = user;
+      this.defaultSchema = defaultSchema;
+      this.options = options;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(sql, user, defaultSchema, options);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      return Objects.equal(sql, that.sql)
+          && Objects.equal(user, that.user)
+          && Objects.equal(defaultSchema, that.defaultSchema)
+          && Objects.equal(options, that.options);
+    }
+  }
+
+  /**
+   * A cached plan with what it depends on.
+   */
+  static final class CachedPlan {
+    private final PreparedPlan plan;
+    private final Map<List<String>, Long> datasetVersions;
+    private final String materializations;
+    private final long planningMillis;
+
+    private CachedPlan(PreparedPlan plan, Map<List<String>, Long> datasetVersions, String materializations,
+        long planningMillis) {
+      this.plan = plan;
+      this.datasetVersions = datasetVersions;
+      this.materializations = materializations;
+      this.planningMillis = planningMillis;
+    }
+
+    PreparedPlan getPlan() {
+      return plan;
+    }
+  }
+}
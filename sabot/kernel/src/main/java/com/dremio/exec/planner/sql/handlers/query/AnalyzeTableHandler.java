@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.handlers.query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.calcite.prepare.Prepare;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.Pair;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.physical.PhysicalPlan;
+import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.planner.logical.Rel;
+import com.dremio.exec.planner.logical.ScreenRel;
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.sql.SqlConverter;
+import com.dremio.exec.planner.sql.SqlExceptionHelper;
+import com.dremio.exec.planner.sql.handlers.ConvertedRelNode;
+import com.dremio.exec.planner.sql.handlers.PrelTransformer;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.planner.sql.handlers.direct.SqlNodeUtil;
+import com.dremio.exec.planner.sql.parser.SqlAnalyzeTable;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.QueryData;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.record.RecordBatchLoader;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.sabot.op.screen.QueryWritableBatch;
+import com.dremio.service.namespace.NamespaceException;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.ColumnStatistics;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import io.netty.buffer.ArrowBuf;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Handler for <code>ANALYZE TABLE tblname COMPUTE STATISTICS</code>.
+ *
+ * Runs a query computing, for each column of the table, the number of non null and distinct values, and for numeric
+ * columns the min, max and an equi-depth histogram. The statistics are returned to the client, a row holding the counts
+ * of all the columns followed by the rows ending histogram buckets, and saved in the namespace once the query
+ * completes (see {@link #getObserver()}), along with the version of the splits they were computed from.
+ */
+public class AnalyzeTableHandler implements SqlToPlanHandler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AnalyzeTableHandler.class);
+
+  private static final String BUCKET = "bucket";
+  private static final String BUCKET_BOUND = "bucket_bound";
+  private static final String ROW_COUNT = "row_count";
+  private static final String NON_NULL_COUNT = "non_null_count";
+  private static final String NDV = "ndv";
+  private static final String MIN_VALUE = "min_value";
+  private static final String MAX_VALUE = "max_value";
+  // columns of the unpivoted values of the numeric columns.
+  private static final String COLUMN_INDEX = "column_index";
+  private static final String VALUE = "column_value";
+  private static final String POSITION = "value_position";
+  private static final String COUNT = "value_count";
+  private static final String PREVIOUS_BUCKET = "previous_bucket";
+
+  // types ndv() is defined for.
+  private static final Set<SqlTypeName> NDV_TYPES = ImmutableSet.of(
+      SqlTypeName.BOOLEAN, SqlTypeName.INTEGER, SqlTypeName.BIGINT, SqlTypeName.FLOAT, SqlTypeName.REAL,
+      SqlTypeName.DOUBLE, SqlTypeName.DATE, SqlTypeName.TIME, SqlTypeName.TIMESTAMP, SqlTypeName.CHAR,
+      SqlTypeName.VARCHAR, SqlTypeName.BINARY, SqlTypeName.VARBINARY);
+
+  private final NamespaceService namespace;
+  private final BufferAllocator allocator;
+
+  private String textPlan;
+  private volatile List<AnalyzedColumn> analyzedColumns;
+  private volatile NamespaceKey datasetPath;
+  private volatile Long splitVersion;
+
+  public AnalyzeTableHandler(NamespaceService namespace, BufferAllocator allocator) {
+    this.namespace = namespace;
+    this.allocator = allocator;
+  }
+
+  @Override
+  public PhysicalPlan getPlan(SqlHandlerConfig config, String sql, SqlNode sqlNode) throws Exception {
+    try{
+      final SqlAnalyzeTable sqlAnalyzeTable = SqlNodeUtil.unwrap(sqlNode, SqlAnalyzeTable.class);
+      final SqlConverter converter = config.getConverter();
+
+      final Prepare.PreparingTable table = converter.getCatalog().getTable(sqlAnalyzeTable.getTable().names);
+      if (table == null) {
+        throw UserException.validationError()
+            .message("Table [%s] not found", sqlAnalyzeTable.getTable())
+            .build(logger);
+      }
+
+      final List<AnalyzedColumn> columns = getAnalyzedColumns(sqlAnalyzeTable.getTable().names,
+          table.getRowType().getFieldList());
+      final String statisticsSql = getStatisticsQuery(config, sqlAnalyzeTable.getTable().names, columns);
+      logger.debug("Computing statistics of {} with {}", sqlAnalyzeTable.getTable(), statisticsSql);
+
+      final ConvertedRelNode convertedRelNode = PrelTransformer.validateAndConvert(config, converter.parse(statisticsSql));
+
+      // planning the query loaded the metadata of the table if it was not known yet.
+      final NamespaceKey key = new NamespaceKey(table.getQualifiedName());
+      final DatasetConfig dataset = namespace.getDataset(key);
+      if (dataset.getType() == DatasetType.VIRTUAL_DATASET) {
+        throw UserException.validationError()
+            .message("Statistics can only be computed for physical datasets, [%s] is a virtual dataset", key)
+            .build(logger);
+      }
+
+      // the statistics are collected from the query results, which must not be redirected to a table.
+      Rel drel = PrelTransformer.convertToDrel(config, convertedRelNode.getConvertedNode());
+      drel = PrelTransformer.addRenamedProject(config, drel, convertedRelNode.getValidatedRowType());
+      drel = new ScreenRel(drel.getCluster(), drel.getTraitSet(), drel);
+
+      final Pair<Prel, String> convertToPrel = PrelTransformer.convertToPrel(config, drel);
+      final Prel prel = convertToPrel.getKey();
+      textPlan = convertToPrel.getValue();
+      final PhysicalOperator pop = PrelTransformer.convertToPop(config, prel);
+      final PhysicalPlan plan = PrelTransformer.convertToPlan(config, pop);
+      PrelTransformer.log(config, "Dremio Plan", plan, logger);
+
+      analyzedColumns = columns;
+      datasetPath = key;
+      splitVersion = dataset.getReadDefinition() == null ? null : dataset.getReadDefinition().getSplitVersion();
+      return plan;
+    }catch(Exception ex){
+      throw SqlExceptionHelper.coerceException(logger, sql, ex, true);
+    }
+  }
+
+  /**
+   * Build the query computing the statistics. It is made of two queries put together with UNION ALL, returning the
+   * same columns numbered after the analyzed columns:
+   * - one computing the counts, ndv, min and max of all the columns, returned as a single row,
+   * - one unpivoting the non null values of the numeric columns into (column, value) rows, numbering the values of
+   *   each column in order with a single window partitioned by column, and keeping the rows holding the last value of
+   *   a histogram bucket. The values of all the columns are therefore sorted once, rather than once per column.
+   */
+  private static String getStatisticsQuery(SqlHandlerConfig config, List<String> tableName,
+      List<AnalyzedColumn> columns) {
+    final String quote = config.getConverter().getParserConfig().quoting().string;
+    final List<String> quotedTableName = Lists.newArrayList();
+    for (String name : tableName) {
+      quotedTableName.add(quote(name, quote));
+    }
+    final String table = Joiner.on('.').join(quotedTableName);
+    final long buckets = config.getContext().getOptions().getOption(PlannerSettings.STATISTICS_HISTOGRAM_BUCKETS);
+
+    final List<String> aggregates = Lists.newArrayList();
+    final List<String> boundaries = Lists.newArrayList();
+    final List<String> values = Lists.newArrayList();
+    aggregates.add(String.format("COUNT(*) AS %s", ROW_COUNT));
+    boundaries.add(String.format("CAST(NULL AS BIGINT) AS %s", ROW_COUNT));
+    for (int i = 0; i < columns.size(); i++) {
+      final AnalyzedColumn analyzed = columns.get(i);
+      final String column = quote(analyzed.name, quote);
+
+      aggregates.add(String.format("COUNT(%s) AS %s", column, alias(NON_NULL_COUNT, i)));
+      boundaries.add(String.format("CAST(NULL AS BIGINT) AS %s", alias(NON_NULL_COUNT, i)));
+      if (analyzed.ndv) {
+        aggregates.add(String.format("NDV(%s) AS %s", column, alias(NDV, i)));
+        boundaries.add(String.format("CAST(NULL AS BIGINT) AS %s", alias(NDV, i)));
+      }
+      if (!analyzed.numeric) {
+        continue;
+      }
+
+      values.add(String.format("SELECT %d AS %s, CAST(%s AS DOUBLE) AS %s FROM %s WHERE %s IS NOT NULL",
+          i, COLUMN_INDEX, column, VALUE, table, column));
+      aggregates.add(String.format("CAST(MIN(%s) AS DOUBLE) AS %s, CAST(MAX(%s) AS DOUBLE) AS %s, "
+          + "CAST(NULL AS INTEGER) AS %s, CAST(NULL AS DOUBLE) AS %s",
+          column, alias(MIN_VALUE, i), column, alias(MAX_VALUE, i), alias(BUCKET, i), alias(BUCKET_BOUND, i)));
+      boundaries.add(String.format("CAST(NULL AS DOUBLE) AS %s, CAST(NULL AS DOUBLE) AS %s, "
+          + "CASE WHEN %s = %d THEN CAST(%s AS INTEGER) END AS %s, CASE WHEN %s = %d THEN %s END AS %s",
+          alias(MIN_VALUE, i), alias(MAX_VALUE, i), COLUMN_INDEX, i, BUCKET, alias(BUCKET, i), COLUMN_INDEX, i, VALUE,
+          alias(BUCKET_BOUND, i)));
+    }
+
+    final String aggregateQuery = String.format("SELECT %s FROM %s", Joiner.on(", ").join(aggregates), table);
+    if (values.isEmpty()) {
+      return aggregateQuery;
+    }
+
+    // position of each value among the values of its column, and number of values of the column.
+    final String numbered = String.format("SELECT %s, %s, ROW_NUMBER() OVER (PARTITION BY %s ORDER BY %s) AS %s, "
+        + "COUNT(*) OVER (PARTITION BY %s) AS %s FROM (%s)",
+        COLUMN_INDEX, VALUE, COLUMN_INDEX, VALUE, POSITION, COLUMN_INDEX, COUNT, Joiner.on(" UNION ALL ").join(values));
+    // the value ends a bucket when the next one falls in the next bucket.
+    final String bucketed = String.format("SELECT %s, %s, FLOOR(CAST(%s AS DOUBLE) * %d / %s) AS %s, "
+        + "FLOOR(CAST(%s - 1 AS DOUBLE) * %d / %s) AS %s FROM (%s)",
+        COLUMN_INDEX, VALUE, POSITION, buckets, COUNT, BUCKET, POSITION, buckets, COUNT, PREVIOUS_BUCKET, numbered);
+    final String boundaryQuery = String.format("SELECT %s FROM (%s) WHERE %s > %s",
+        Joiner.on(", ").join(boundaries), bucketed, BUCKET, PREVIOUS_BUCKET);
+    return aggregateQuery + " UNION ALL " + boundaryQuery;
+  }
+
+  /**
+   * @return the columns of the table statistics can be computed for.
+   */
+  private static List<AnalyzedColumn> getAnalyzedColumns(List<String> tableName, List<RelDataTypeField> fields) {
+    final List<AnalyzedColumn> columns = Lists.newArrayList();
+    for (RelDataTypeField field : fields) {
+      final SqlTypeName type = field.getType().getSqlTypeName();
+      final boolean numeric = SqlTypeName.NUMERIC_TYPES.contains(type);
+      if (!numeric && !NDV_TYPES.contains(type)) {
+        // complex columns
+        continue;
+      }
+      columns.add(new AnalyzedColumn(field.getName(), NDV_TYPES.contains(type), numeric));
+    }
+
+    if (columns.isEmpty()) {
+      throw UserException.validationError()
+          .message("Table [%s] has no column statistics can be computed for", Joiner.on('.').join(tableName))
+          .build(logger);
+    }
+    return columns;
+  }
+
+  private static String alias(String name, int column) {
+    return name + "_" + column;
+  }
+
+  private static String quote(String identifier, String quote) {
+    return quote + identifier.replace(quote, quote + quote) + quote;
+  }
+
+  /**
+   * @return an observer collecting the statistics from the results of the query, and saving them once it completes. It
+   *         must see the results before the client consumes them.
+   */
+  public AttemptObserver getObserver() {
+    return new StatisticsCollector();
+  }
+
+  @Override
+  public String getTextPlan() {
+    return textPlan;
+  }
+
+  /**
+   * A column of the table statistics are computed for.
+   */
+  private static final class AnalyzedColumn {
+    private final String name;
+    private final boolean ndv;
+    private final boolean numeric;
+
+    private AnalyzedColumn(String name, boolean ndv, boolean numeric) {
+      this.name = name;
+      this.ndv = ndv;
+      this.numeric = numeric;
+    }
+  }
+
+  private class StatisticsCollector extends AbstractAttemptObserver {
+    private final List<ColumnStatistics> columns = Lists.newArrayList();
+    // upper bound of each histogram bucket, by column and bucket number.
+    private final Map<Integer, TreeMap<Integer, Double>> histograms = Maps.newHashMap();
+    private long recordCount;
+    private boolean failed;
+
+    @Override
+    public void execDataArrived(RpcOutcomeListener<Ack> outcomeListener, QueryWritableBatch result) {
+      final QueryData header = result.getHeader();
+      final ByteBuf[] buffers = result.getBuffers();
+      if (failed || header.getRowCount() == 0 || buffers == null) {
+        return;
+      }
+
+      // the buffers belong to the client, copy them rather than consuming them.
+      int length = 0;
+      for (ByteBuf buffer : buffers) {
+        length += buffer.readableBytes();
+      }
+      final RecordBatchLoader loader = new RecordBatchLoader(allocator);
+      try (ArrowBuf data = allocator.buffer(length)) {
+        int offset = 0;
+        for (ByteBuf buffer : buffers) {
+          data.setBytes(offset, buffer, buffer.readerIndex(), buffer.readableBytes());
+          offset += buffer.readableBytes();
+        }
+        data.writerIndex(length);
+
+        loader.load(header.getDef(), data);
+        final Map<String, ValueVector> vectors = Maps.newHashMap();
+        for (VectorWrapper<?> wrapper : loader) {
+          vectors.put(wrapper.getField().getName(), wrapper.getValueVector());
+        }
+        for (int i = 0; i < loader.getRecordCount(); i++) {
+          addRow(vectors, i);
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Failure reading statistics of {}", datasetPath, e);
+        failed = true;
+      } finally {
+        loader.clear();
+      }
+    }
+
+    private void addRow(Map<String, ValueVector> vectors, int index) {
+      final List<AnalyzedColumn> analyzed = analyzedColumns;
+      final Number rowCount = get(vectors, ROW_COUNT, index);
+      if (rowCount == null) {
+        // a row ending histogram buckets.
+        for (int i = 0; i < analyzed.size(); i++) {
+          if (!analyzed.get(i).numeric) {
+            continue;
+          }
+          final Number bucket = get(vectors, alias(BUCKET, i), index);
+          if (bucket == null) {
+            continue;
+          }
+          TreeMap<Integer, Double> histogram = histograms.get(i);
+          if (histogram == null) {
+            histogram = new TreeMap<>();
+            histograms.put(i, histogram);
+          }
+          histogram.put(bucket.intValue(), get(vectors, alias(BUCKET_BOUND, i), index).doubleValue());
+        }
+        return;
+      }
+
+      recordCount = rowCount.longValue();
+      for (int i = 0; i < analyzed.size(); i++) {
+        final AnalyzedColumn column = analyzed.get(i);
+        final ColumnStatistics statistics = new ColumnStatistics()
+            .setName(column.name)
+            .setNonNullCount(get(vectors, alias(NON_NULL_COUNT, i), index).longValue());
+        final Number ndv = column.ndv ? get(vectors, alias(NDV, i), index) : null;
+        if (ndv != null) {
+          statistics.setNdv(ndv.longValue());
+        }
+        final Number min = column.numeric ? get(vectors, alias(MIN_VALUE, i), index) : null;
+        final Number max = column.numeric ? get(vectors, alias(MAX_VALUE, i), index) : null;
+        if (min != null && max != null) {
+          statistics.setMinValue(min.doubleValue());
+          statistics.setMaxValue(max.doubleValue());
+        }
+        columns.add(statistics);
+      }
+    }
+
+    private Number get(Map<String, ValueVector> vectors, String name, int index) {
+      return (Number) vectors.get(name).getAccessor().getObject(index);
+    }
+
+    @Override
+    public void attemptCompletion(UserResult result) {
+      if (failed || datasetPath == null || result.getState() != QueryState.COMPLETED) {
+        return;
+      }
+
+      for (int i = 0; i < columns.size(); i++) {
+        final ColumnStatistics statistics = columns.get(i);
+        final TreeMap<Integer, Double> histogram = histograms.get(i);
+        if (histogram == null || histogram.isEmpty() || statistics.getMinValue() == null) {
+          continue;
+        }
+        final List<Double> bounds = Lists.newArrayList();
+        bounds.add(statistics.getMinValue());
+        bounds.addAll(histogram.values());
+        statistics.setHistogramBoundsList(bounds);
+      }
+
+      final DatasetStatistics statistics = new DatasetStatistics()
+          .setComputedAt(System.currentTimeMillis())
+          .setRecordCount(recordCount)
+          .setSplitVersion(splitVersion)
+          .setColumnsList(Lists.newArrayList(columns));
+      try {
+        namespace.setDatasetStatistics(datasetPath, statistics);
+      } catch (NamespaceException e) {
+        logger.warn("Failure saving statistics of {}", datasetPath, e);
+      }
+    }
+  }
+}
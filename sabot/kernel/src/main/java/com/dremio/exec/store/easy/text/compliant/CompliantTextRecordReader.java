@@ -32,6 +32,7 @@ import org.apache.poi.hssf.util.CellReference;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.exception.SchemaChangeException;
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.store.AbstractRecordReader;
@@ -131,7 +132,16 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
 
       // setup Input using InputStream
       stream = dfs.openPossiblyCompressedStream(split.getPath());
-      input = new TextInput(settings,  stream, readBuffer, split.getStart(), split.getStart() + split.getLength());
+      if (context.getOptions().getOption(ExecConstants.TEXT_ASYNC_READ)) {
+        final ArrowBuf[] prefetchBuffers = new ArrowBuf[(int) context.getOptions().getOption(ExecConstants.TEXT_ASYNC_READ_BLOCKS)];
+        for (int i = 0; i < prefetchBuffers.length; i++) {
+          prefetchBuffers[i] = context.getManagedBuffer(READ_BUFFER);
+        }
+        input = new TextInput(settings, stream, readBuffer, split.getStart(), split.getStart() + split.getLength(),
+            context.getExecutor(), prefetchBuffers);
+      } else {
+        input = new TextInput(settings,  stream, readBuffer, split.getStart(), split.getStart() + split.getLength());
+      }
 
       // setup Reader using Input and Output
       reader = new TextReader(settings, input, output, whitespaceBuffer);
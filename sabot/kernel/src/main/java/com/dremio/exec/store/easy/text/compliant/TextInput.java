@@ -38,6 +38,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
 
 import org.apache.arrow.memory.BoundsChecking;
 import org.apache.hadoop.fs.ByteBufferReadable;
@@ -84,6 +85,11 @@ final class TextInput {
 
   private final boolean bufferReadable;
 
+  // when set, blocks are read asynchronously into these buffers.
+  private final Executor prefetchExecutor;
+  private final ArrowBuf[] prefetchBuffers;
+  private TextInputPrefetcher prefetcher;
+
   /**
    * Whether there was a possible partial line separator on the previous
    * read so we dropped it and it should be appended to next read.
@@ -108,6 +114,14 @@ final class TextInput {
    * normalizedLineSeparator the normalized newline character (as defined in {@link Format#getNormalizedNewline()}) that is used to replace any lineSeparator sequence found in the input.
    */
   public TextInput(TextParsingSettings settings, InputStream input, ArrowBuf readBuffer, long startPos, long endPos) {
+    this(settings, input, readBuffer, startPos, endPos, null, null);
+  }
+
+  /**
+   * Creates a new instance reading the input on the given executor, into the given buffers, ahead of the parsing.
+   */
+  public TextInput(TextParsingSettings settings, InputStream input, ArrowBuf readBuffer, long startPos, long endPos,
+      Executor prefetchExecutor, ArrowBuf[] prefetchBuffers) {
     this.lineSeparator = settings.getNewLineDelimiter();
     byte normalizedLineSeparator = settings.getNormalizedNewLine();
     Preconditions.checkArgument(input instanceof Seekable, "Text input only supports an InputStream that supports Seekable.");
@@ -140,6 +154,8 @@ final class TextInput {
     this.bStart = buffer.memoryAddress();
     this.bStartMinus1 = bStart -1;
     this.underlyingBuffer = buffer.nioBuffer(0, buffer.capacity());
+    this.prefetchExecutor = prefetchExecutor;
+    this.prefetchBuffers = prefetchBuffers;
   }
 
   /**
@@ -153,6 +169,11 @@ final class TextInput {
       seekable.seek(startPos);
     }
 
+    if(prefetchExecutor != null){
+      prefetcher = new TextInputPrefetcher(input, prefetchExecutor, prefetchBuffers, seekable.getPos(), endPos);
+      prefetcher.start();
+    }
+
     updateBuffer();
     if (length > 0) {
       if(startPos > 0 || settings.isSkipFirstLine()){
@@ -193,7 +214,17 @@ final class TextInput {
    * @throws IOException
    */
   private void read() throws IOException {
-    if(bufferReadable){
+    if(prefetcher != null){
+
+      if(remByte != -1){
+        for (int i = 0; i <= remByte; i++) {
+          underlyingBuffer.put(lineSeparator[i]);
+        }
+        remByte = -1;
+      }
+      length = prefetcher.read(underlyingBuffer);
+
+    }else if(bufferReadable){
 
       if(remByte != -1){
         for (int i = 0; i <= remByte; i++) {
@@ -224,7 +255,7 @@ final class TextInput {
    * @throws IOException
    */
   private void updateBuffer() throws IOException {
-    streamPos = seekable.getPos();
+    streamPos = prefetcher != null ? prefetcher.getPos() : seekable.getPos();
     underlyingBuffer.clear();
 
     if(endFound){
@@ -382,6 +413,9 @@ final class TextInput {
   }
 
   public void close() throws IOException{
+    if(prefetcher != null){
+      prefetcher.close();
+    }
     input.close();
   }
 }
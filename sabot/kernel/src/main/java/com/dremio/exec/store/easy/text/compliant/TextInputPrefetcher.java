@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.text.compliant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Reads the blocks of a text input on another thread, so the next blocks are read while the current one is parsed.
+ *
+ * Blocks are read ahead until the end of the split. Past it the reader only needs the end of the last line, so blocks
+ * are then read one at a time when asked for.
+ *
+ * Only the reads are moved off the fragment thread: a split is still parsed by a single thread, in order. A large
+ * uncompressed file is parsed in parallel by scanning its blocks as separate splits.
+ */
+final class TextInputPrefetcher {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TextInputPrefetcher.class);
+
+  private final InputStream input;
+  private final FSDataInputStream inputFS;
+  private final Executor executor;
+  private final Deque<Block> filled = new ArrayDeque<>();
+  private final Deque<Block> free = new ArrayDeque<>();
+  private final Runnable readTask = new Runnable() {
+    @Override
+    public void run() {
+      readBlocks();
+    }
+  };
+
+  // position of the next byte handed to the reader
+  private long pos;
+  // position of the next byte read from the stream, and how far it may be read ahead
+  private long readPos;
+  private long readLimit;
+
+  private boolean running;
+  private boolean eof;
+  private boolean closed;
+  private IOException failure;
+  private byte[] copyBuffer;
+
+  /**
+   * @param blocks buffers to read into, owned by the caller.
+   * @param startPos current position of the input.
+   * @param endPos end of the split.
+   */
+  TextInputPrefetcher(InputStream input, Executor executor, ArrowBuf[] blocks, long startPos, long endPos) {
+    this.input = input;
+    if (input instanceof FSDataInputStream && ((FSDataInputStream) input).getWrappedStream() instanceof ByteBufferReadable) {
+      this.inputFS = (FSDataInputStream) input;
+    } else {
+      this.inputFS = null;
+    }
+    this.executor = executor;
+    for (ArrowBuf block : blocks) {
+      free.add(new Block(block));
+    }
+    this.pos = startPos;
+    this.readPos = startPos;
+    this.readLimit = endPos;
+  }
+
+  synchronized void start() {
+    schedule();
+  }
+
+  long getPos() {
+    return pos;
+  }
+
+  /**
+   * Copy the next bytes of the input into the target buffer, waiting for them to be read if needed.
+   *
+   * @return the number of bytes copied, or -1 at the end of the input.
+   */
+  int read(ByteBuffer target) throws IOException {
+    final Block block;
+    synchronized (this) {
+      while (filled.isEmpty()) {
+        if (failure != null) {
+          throw new IOException("Failure while reading text input", failure);
+        }
+        if (eof) {
+          return -1;
+        }
+        if (!running) {
+          // past the end of the split, read the next block.
+          readLimit = readPos + 1;
+          schedule();
+        }
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for text input", e);
+        }
+      }
+      block = filled.peekFirst();
+    }
+
+    final int length = Math.min(block.length - block.offset, target.remaining());
+    final ByteBuffer source = block.nioBuffer.duplicate();
+    source.limit(block.offset + length);
+    source.position(block.offset);
+    target.put(source);
+    block.offset += length;
+
+    synchronized (this) {
+      pos += length;
+      if (block.offset == block.length) {
+        filled.pollFirst();
+        free.add(block);
+        schedule();
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Stop reading, waiting for the block being read if any.
+   */
+  synchronized void close() {
+    closed = true;
+    boolean interrupted = false;
+    while (running) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // called under lock
+  private void schedule() {
+    if (!running && !closed && !eof && failure == null && !free.isEmpty() && readPos < readLimit) {
+      running = true;
+      executor.execute(readTask);
+    }
+  }
+
+  private void readBlocks() {
+    while (true) {
+      final Block block;
+      synchronized (this) {
+        if (closed || eof || free.isEmpty() || readPos >= readLimit) {
+          running = false;
+          notifyAll();
+          return;
+        }
+        block = free.pollFirst();
+      }
+
+      int length;
+      boolean end = false;
+      try {
+        length = 0;
+        while (length < block.nioBuffer.capacity()) {
+          final int read = readInto(block, length);
+          if (read == -1) {
+            end = true;
+            break;
+          }
+          length += read;
+        }
+      } catch (IOException | RuntimeException e) {
+        logger.debug("Failure while reading text input", e);
+        synchronized (this) {
+          failure = e instanceof IOException ? (IOException) e : new IOException(e);
+          free.add(block);
+          running = false;
+          notifyAll();
+        }
+        return;
+      }
+
+      synchronized (this) {
+        if (length > 0) {
+          block.offset = 0;
+          block.length = length;
+          filled.add(block);
+        } else {
+          free.add(block);
+        }
+        readPos += length;
+        eof = end;
+        notifyAll();
+      }
+    }
+  }
+
+  private int readInto(Block block, int offset) throws IOException {
+    final int remaining = block.nioBuffer.capacity() - offset;
+    if (inputFS != null) {
+      final ByteBuffer target = block.nioBuffer.duplicate();
+      target.clear();
+      target.position(offset);
+      return inputFS.read(target);
+    }
+
+    if (copyBuffer == null) {
+      copyBuffer = new byte[block.nioBuffer.capacity()];
+    }
+    final int read = input.read(copyBuffer, 0, remaining);
+    if (read > 0) {
+      block.buffer.setBytes(offset, copyBuffer, 0, read);
+    }
+    return read;
+  }
+
+  private static final class Block {
+    private final ArrowBuf buffer;
+    private final ByteBuffer nioBuffer;
+    private int offset;
+    private int length;
+
+    private Block(ArrowBuf buffer) {
+      this.buffer = buffer;
+      this.nioBuffer = buffer.nioBuffer(0, buffer.capacity());
+    }
+  }
+}
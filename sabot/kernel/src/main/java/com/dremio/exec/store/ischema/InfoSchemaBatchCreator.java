@@ -59,7 +59,8 @@ public class InfoSchemaBatchCreator implements ProducerOperator.Creator<InfoSche
             }
         )
         .setIgnoreAuthErrors(true)
-        .exposeSubSchemasAsTopLevelSchemas(true)
+        // Walking the whole namespace tree is not needed when the filter names the schemas, they are resolved lazily.
+        .exposeSubSchemasAsTopLevelSchemas(InfoSchemaRecordGenerator.getRequiredSchemaNames(config.getFilter()) == null)
         .build();
     final SchemaPlus root = tree.getRootSchema(schemaConfig);
     RecordReader rr = config.getTable().getRecordReader(UserSession.getCatalogName(context.getOptions()), root, config.getFilter());
@@ -19,6 +19,7 @@ import static com.dremio.exec.expr.fn.impl.RegexpUtil.sqlToRegexLike;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import com.dremio.exec.store.ischema.ExprNode.Type;
@@ -28,6 +29,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 
 @JsonTypeName("info-schema-filter")
 public class InfoSchemaFilter {
@@ -309,6 +312,110 @@ public class InfoSchemaFilter {
         String.format("Unknown function '%s' in InfoSchemaFilter", exprNode.function));
   }
 
+  /**
+   * Get the finite set of values the given field must take for the filter to not evaluate to FALSE. Used to look up
+   * schemas and tables by name instead of walking the complete schema tree.
+   *
+   * @param fields names of the field, more than one name if the field is exposed under aliases (e.g. TABLE_SCHEMA and
+   *               SCHEMA_NAME)
+   * @return set of required values or null if the filter doesn't restrict the field to a finite set of values.
+   */
+  @JsonIgnore
+  public Set<String> getRequiredValues(String... fields) {
+    return requiredValuesHelper(ImmutableSet.copyOf(fields), getExprRoot());
+  }
+
+  private Set<String> requiredValuesHelper(Set<String> fields, ExprNode exprNode) {
+    if (exprNode.getType() != Type.FUNCTION) {
+      return null;
+    }
+
+    final FunctionExprNode function = (FunctionExprNode) exprNode;
+    switch(function.function) {
+      case "equal": {
+        FieldExprNode col = (FieldExprNode) function.args.get(0);
+        ConstantExprNode constant = (ConstantExprNode) function.args.get(1);
+        return fields.contains(col.field) ? ImmutableSet.of(constant.value) : null;
+      }
+
+      case "like": {
+        // a LIKE pattern without wildcards is an equality check
+        FieldExprNode col = (FieldExprNode) function.args.get(0);
+        ConstantExprNode pattern = (ConstantExprNode) function.args.get(1);
+        ConstantExprNode escape = function.args.size() > 2 ? (ConstantExprNode) function.args.get(2) : null;
+        if (!fields.contains(col.field)) {
+          return null;
+        }
+        final String value = likePatternToValue(pattern.value, escape != null ? escape.value : null);
+        return value != null ? ImmutableSet.of(value) : null;
+      }
+
+      case "in": {
+        FieldExprNode col = (FieldExprNode) function.args.get(0);
+        if (!fields.contains(col.field)) {
+          return null;
+        }
+        final ImmutableSet.Builder<String> values = ImmutableSet.builder();
+        for(ExprNode arg : function.args.subList(1, function.args.size())) {
+          values.add(((ConstantExprNode) arg).value);
+        }
+        return values.build();
+      }
+
+      case "booleanand": {
+        // Any arg restricting the field restricts the AND function, take the intersection of all restrictions.
+        Set<String> result = null;
+        for(ExprNode arg : function.args) {
+          final Set<String> argValues = requiredValuesHelper(fields, arg);
+          if (argValues != null) {
+            result = result == null ? argValues : ImmutableSet.copyOf(Sets.intersection(result, argValues));
+          }
+        }
+        return result;
+      }
+
+      case "booleanor": {
+        // Only if every arg restricts the field, the OR function restricts it to the union of all restrictions.
+        final Set<String> result = Sets.newHashSet();
+        for(ExprNode arg : function.args) {
+          final Set<String> argValues = requiredValuesHelper(fields, arg);
+          if (argValues == null) {
+            return null;
+          }
+          result.addAll(argValues);
+        }
+        return result;
+      }
+
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Convert a LIKE pattern into the only value it matches.
+   *
+   * @return unescaped value or null if the pattern contains wildcards.
+   */
+  private static String likePatternToValue(String pattern, String escape) {
+    final char escapeChar = escape != null && escape.length() == 1 ? escape.charAt(0) : 0;
+    final StringBuilder value = new StringBuilder(pattern.length());
+    for (int i = 0; i < pattern.length(); i++) {
+      final char c = pattern.charAt(i);
+      if (escapeChar != 0 && c == escapeChar) {
+        if (++i == pattern.length()) {
+          return null;
+        }
+        value.append(pattern.charAt(i));
+      } else if (c == '%' || c == '_') {
+        return null;
+      } else {
+        value.append(c);
+      }
+    }
+    return value.toString();
+  }
+
   @Override
   public String toString() {
     return exprRoot.toString();
@@ -26,6 +26,7 @@ import static com.dremio.exec.store.ischema.InfoSchemaConstants.TBLS_COL_TABLE_T
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
 import org.apache.calcite.rel.type.RelDataType;
@@ -43,6 +44,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * Generates records for POJO RecordReader by scanning the given schema. At every level (catalog, schema, table, field),
@@ -148,6 +150,25 @@ public abstract class InfoSchemaRecordGenerator<S> {
     return true;
   }
 
+  /**
+   * Check whether the table can be pruned by its name only, before loading the table metadata.
+   */
+  protected boolean shouldVisitTableName(String schemaName, String tableName) {
+    if (filter == null) {
+      return true;
+    }
+
+    final Map<String, String> recordValues =
+      ImmutableMap.of(
+        CATS_COL_CATALOG_NAME, catalogName,
+        SHRD_COL_TABLE_SCHEMA, schemaName,
+        SCHS_COL_SCHEMA_NAME, schemaName,
+        SHRD_COL_TABLE_NAME, tableName);
+
+    // Table type is not known yet, so conditions on it evaluate to INCONCLUSIVE.
+    return filter.evaluate(recordValues) != Result.FALSE;
+  }
+
   protected boolean shouldVisitTable(String schemaName, String tableName, TableType tableType) {
     if (filter == null) {
       return true;
@@ -184,6 +205,34 @@ public abstract class InfoSchemaRecordGenerator<S> {
     return filter.evaluate(recordValues) != Result.FALSE;
   }
 
+  /**
+   * Get the schema names the given filter restricts the scan to.
+   *
+   * @param filter filter pushed into the scan, may be null
+   * @return set of schema names or null if the filter doesn't restrict the schemas to a finite set of names.
+   */
+  public static Set<String> getRequiredSchemaNames(InfoSchemaFilter filter) {
+    if (filter == null) {
+      return null;
+    }
+
+    // TABLE_SCHEMA and SCHEMA_NAME both refer to the schema name
+    return filter.getRequiredValues(SHRD_COL_TABLE_SCHEMA, SCHS_COL_SCHEMA_NAME);
+  }
+
+  private Iterable<String> getSchemaNames(SchemaPlus rootSchema) {
+    final Set<String> requiredSchemaNames = getRequiredSchemaNames(filter);
+    // Schemas are resolved by name, including the sub schemas which are not exposed as top level schemas.
+    return requiredSchemaNames != null ? requiredSchemaNames : rootSchema.getSubSchemaNames();
+  }
+
+  private Iterable<String> getTableNames(SchemaPlus schema) {
+    final Set<String> tableNames = schema.getTableNames();
+    final Set<String> requiredTableNames = filter != null ? filter.getRequiredValues(SHRD_COL_TABLE_NAME) : null;
+    // Listing the table names is a single namespace range scan, only the tables with required names get loaded.
+    return requiredTableNames != null ? Sets.intersection(requiredTableNames, tableNames) : tableNames;
+  }
+
   public abstract PojoRecordReader<S> getRecordReader();
 
   /**
@@ -196,8 +245,17 @@ public abstract class InfoSchemaRecordGenerator<S> {
     }
 
     // Visit this schema and if requested ...
-    for (String subSchemaName: rootSchema.getSubSchemaNames()) {
-      final SchemaPlus firstLevelSchema = rootSchema.getSubSchema(subSchemaName);
+    for (String subSchemaName: getSchemaNames(rootSchema)) {
+      final SchemaPlus firstLevelSchema;
+      try {
+        firstLevelSchema = rootSchema.getSubSchema(subSchemaName);
+      } catch (Exception ex) {
+        logger.warn("Failure reading schema {}. Skipping inclusion in INFORMATION_SCHEMA.", subSchemaName, ex);
+        continue;
+      }
+      if (firstLevelSchema == null) {
+        continue;
+      }
 
       if (shouldVisitSchema(subSchemaName, firstLevelSchema) && visitSchema(subSchemaName, firstLevelSchema)) {
 
@@ -210,7 +268,12 @@ public abstract class InfoSchemaRecordGenerator<S> {
         }
 
         // ... do for each of the schema's tables.
-        for (String tableName : firstLevelSchema.getTableNames()) {
+        for (String tableName : getTableNames(firstLevelSchema)) {
+          if (!shouldVisitTableName(subSchemaName, tableName)) {
+            // Skip loading the table when the filter already rejects it by name.
+            continue;
+          }
+
           try {
             final TableInfo tableInfo = schemaInstance.getTableInfo(tableName);
 
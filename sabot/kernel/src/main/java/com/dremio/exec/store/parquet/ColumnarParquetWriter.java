@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.apache.arrow.vector.NullableBigIntVector;
+import org.apache.arrow.vector.NullableBitVector;
+import org.apache.arrow.vector.NullableDateMilliVector;
+import org.apache.arrow.vector.NullableFloat4Vector;
+import org.apache.arrow.vector.NullableFloat8Vector;
+import org.apache.arrow.vector.NullableIntVector;
+import org.apache.arrow.vector.NullableSmallIntVector;
+import org.apache.arrow.vector.NullableTimeMilliVector;
+import org.apache.arrow.vector.NullableTimeStampMilliVector;
+import org.apache.arrow.vector.NullableTinyIntVector;
+import org.apache.arrow.vector.NullableVarBinaryVector;
+import org.apache.arrow.vector.NullableVarCharVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.holders.NullableVarBinaryHolder;
+import org.apache.arrow.vector.holders.NullableVarCharHolder;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnWriteStore;
+import org.apache.parquet.column.ColumnWriter;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.joda.time.DateTimeConstants;
+
+import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils;
+import com.dremio.exec.planner.physical.WriterPrel;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+import com.google.common.collect.Lists;
+
+/**
+ * Writes batches to parquet a column at a time: the values of a column are read straight from its vector and handed to
+ * the parquet column writer in a single loop, instead of going through a field reader and the record consumer for
+ * every value. Encoding (dictionary, RLE of definition levels) is left to the parquet column writers.
+ *
+ * Only flat schemas of primitive columns are supported, see {@link #of}.
+ */
+final class ColumnarParquetWriter {
+
+  private final List<Column> columns;
+  private final UpdateColumn updateColumn;
+
+  private ColumnarParquetWriter(List<Column> columns, UpdateColumn updateColumn) {
+    this.columns = columns;
+    this.updateColumn = updateColumn;
+  }
+
+  /**
+   * @return a writer for the incoming batches, or null if some of the columns can only be written record by record.
+   */
+  @Nullable
+  static ColumnarParquetWriter of(VectorAccessible incoming, MessageType schema) {
+    final List<Column> columns = Lists.newArrayList();
+    UpdateColumn updateColumn = null;
+    for (VectorWrapper<?> wrapper : incoming) {
+      final String name = wrapper.getField().getName();
+      if (name.equalsIgnoreCase(WriterPrel.PARTITION_COMPARATOR_FIELD)) {
+        continue;
+      }
+      if (!schema.containsField(name)) {
+        return null;
+      }
+      final Column column = newColumn(wrapper.getValueVector(), schema.getColumnDescription(new String[] { name }),
+          IncrementalUpdateUtils.UPDATE_COLUMN.equals(name));
+      if (column == null) {
+        return null;
+      }
+      if (column instanceof UpdateColumn) {
+        updateColumn = (UpdateColumn) column;
+      }
+      columns.add(column);
+    }
+    return new ColumnarParquetWriter(columns, updateColumn);
+  }
+
+  /**
+   * Writes the records [offset, offset + length) of the batch.
+   */
+  void write(ColumnWriteStore store, int offset, int length) {
+    final int end = offset + length;
+    for (Column column : columns) {
+      column.write(store.getColumnWriter(column.descriptor), offset, end);
+    }
+  }
+
+  /**
+   * @return the maximum value of the update column written so far, null if there is no such column or value.
+   */
+  @Nullable
+  byte[] getUpdateMetadata() {
+    if (updateColumn == null || updateColumn.max == null) {
+      return null;
+    }
+    return Long.toString(updateColumn.max).getBytes();
+  }
+
+  @Nullable
+  private static Column newColumn(ValueVector vector, ColumnDescriptor descriptor, boolean isUpdateColumn) {
+    if (descriptor.getMaxRepetitionLevel() != 0 || descriptor.getMaxDefinitionLevel() != 1) {
+      return null;
+    }
+    if (vector instanceof NullableBigIntVector) {
+      final NullableBigIntVector.Accessor accessor = ((NullableBigIntVector) vector).getAccessor();
+      if (isUpdateColumn) {
+        return new UpdateColumn(descriptor) {
+          @Override
+          boolean isNull(int index) {
+            return accessor.isNull(index);
+          }
+
+          @Override
+          long get(int index) {
+            return accessor.get(index);
+          }
+        };
+      }
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableTimeStampMilliVector) {
+      final NullableTimeStampMilliVector.Accessor accessor = ((NullableTimeStampMilliVector) vector).getAccessor();
+      if (isUpdateColumn) {
+        return new UpdateColumn(descriptor) {
+          @Override
+          boolean isNull(int index) {
+            return accessor.isNull(index);
+          }
+
+          @Override
+          long get(int index) {
+            return accessor.get(index);
+          }
+        };
+      }
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableIntVector) {
+      final NullableIntVector.Accessor accessor = ((NullableIntVector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableSmallIntVector) {
+      final NullableSmallIntVector.Accessor accessor = ((NullableSmallIntVector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write((int) accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableTinyIntVector) {
+      final NullableTinyIntVector.Accessor accessor = ((NullableTinyIntVector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write((int) accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableTimeMilliVector) {
+      final NullableTimeMilliVector.Accessor accessor = ((NullableTimeMilliVector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableDateMilliVector) {
+      final NullableDateMilliVector.Accessor accessor = ((NullableDateMilliVector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              // parquet dates are days since epoch
+              writer.write((int) (accessor.get(i) / DateTimeConstants.MILLIS_PER_DAY), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableFloat4Vector) {
+      final NullableFloat4Vector.Accessor accessor = ((NullableFloat4Vector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableFloat8Vector) {
+      final NullableFloat8Vector.Accessor accessor = ((NullableFloat8Vector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(accessor.get(i), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableBitVector) {
+      final NullableBitVector.Accessor accessor = ((NullableBitVector) vector).getAccessor();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            if (accessor.isNull(i)) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(accessor.get(i) == 1, 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableVarCharVector) {
+      final NullableVarCharVector.Accessor accessor = ((NullableVarCharVector) vector).getAccessor();
+      final NullableVarCharHolder holder = new NullableVarCharHolder();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            accessor.get(i, holder);
+            if (holder.isSet == 0) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(Binary.fromByteBuffer(holder.buffer.nioBuffer(holder.start, holder.end - holder.start)), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    if (vector instanceof NullableVarBinaryVector) {
+      final NullableVarBinaryVector.Accessor accessor = ((NullableVarBinaryVector) vector).getAccessor();
+      final NullableVarBinaryHolder holder = new NullableVarBinaryHolder();
+      return new Column(descriptor) {
+        @Override
+        void write(ColumnWriter writer, int start, int end) {
+          for (int i = start; i < end; i++) {
+            accessor.get(i, holder);
+            if (holder.isSet == 0) {
+              writer.writeNull(0, 0);
+            } else {
+              writer.write(Binary.fromByteBuffer(holder.buffer.nioBuffer(holder.start, holder.end - holder.start)), 0, 1);
+            }
+          }
+        }
+      };
+    }
+    return null;
+  }
+
+  private abstract static class Column {
+    private final ColumnDescriptor descriptor;
+
+    Column(ColumnDescriptor descriptor) {
+      this.descriptor = descriptor;
+    }
+
+    /**
+     * Writes the values [start, end) of the vector.
+     */
+    abstract void write(ColumnWriter writer, int start, int end);
+  }
+
+  /**
+   * A long column that also tracks its maximum value, for incremental updates.
+   */
+  private abstract static class UpdateColumn extends Column {
+    private Long max;
+
+    UpdateColumn(ColumnDescriptor descriptor) {
+      super(descriptor);
+    }
+
+    abstract boolean isNull(int index);
+
+    abstract long get(int index);
+
+    @Override
+    void write(ColumnWriter writer, int start, int end) {
+      for (int i = start; i < end; i++) {
+        if (isNull(i)) {
+          writer.writeNull(0, 0);
+        } else {
+          final long value = get(i);
+          writer.write(value, 0, 1);
+          max = max == null ? value : Math.max(max, value);
+        }
+      }
+    }
+  }
+}
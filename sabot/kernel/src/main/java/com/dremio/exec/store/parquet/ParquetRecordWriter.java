@@ -123,6 +123,8 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private RecordConsumer consumer;
   private BatchSchema batchSchema;
   private UpdateTrackingConverter trackingConverter;
+  private final boolean columnar;
+  private ColumnarParquetWriter columnarWriter;
 
   private final String location;
   private final String prefix;
@@ -172,6 +174,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
 
     enableDictionary = context.getOptions().getOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_VALIDATOR);
     enableDictionaryForBinary = context.getOptions().getOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_BINARY_TYPE_VALIDATOR);
+    columnar = context.getOptions().getOption(ExecConstants.PARQUET_WRITER_COLUMNAR);
   }
 
   @Override
@@ -179,7 +182,32 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     this.fs = FileSystemWrapper.get(conf);
     this.batchSchema = incoming.getSchema();
     newSchema();
+    if (columnar) {
+      columnarWriter = ColumnarParquetWriter.of(incoming, schema);
+    }
+  }
 
+  @Override
+  public int writeBatch(int offset, int length) throws IOException {
+    if (columnarWriter == null) {
+      return super.writeBatch(offset, length);
+    }
+
+    final int end = offset + length;
+    int position = offset;
+    while (position < end) {
+      // we wait until there is at least one record before creating the parquet file
+      if (parquetFileWriter == null) {
+        initRecordReader();
+      }
+      // write up to the next memory check, so that files are closed at the same sizes as when writing record by record.
+      final int count = (int) min(end - position, max(1, recordCountForNextMemCheck - recordCount));
+      columnarWriter.write(store, position, count);
+      position += count;
+      recordCount += count;
+      checkBlockSizeReached();
+    }
+    return length;
   }
 
 
@@ -344,7 +372,8 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
 
       // we are writing one single block per file
       parquetFileWriter.end(extraMetaData);
-      byte[] metadata = this.trackingConverter == null ? null : trackingConverter.getMetadata();
+      byte[] metadata = columnarWriter != null ? columnarWriter.getUpdateMetadata()
+          : this.trackingConverter == null ? null : trackingConverter.getMetadata();
       listener.recordsWritten(recordsWritten, path.toString(), metadata /** TODO: add parquet footer **/, partition.getBucketNumber());
       parquetFileWriter = null;
     }
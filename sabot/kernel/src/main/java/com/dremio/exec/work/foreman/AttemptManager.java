@@ -28,6 +28,7 @@ import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.ops.BackwardsCompatObserver;
 import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.fragment.FragmentStatsStore;
 import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.planner.observer.AttemptObservers;
 import com.dremio.exec.planner.physical.PlannerSettings;
@@ -35,6 +36,7 @@ import com.dremio.exec.planner.sql.handlers.commands.AsyncCommand;
 import com.dremio.exec.planner.sql.handlers.commands.AsyncCommand.QueueType;
 import com.dremio.exec.planner.sql.handlers.commands.CommandCreator;
 import com.dremio.exec.planner.sql.handlers.commands.CommandRunner;
+import com.dremio.exec.planner.sql.handlers.commands.PlanCache;
 import com.dremio.exec.planner.sql.handlers.commands.PreparedPlan;
 import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
 import com.dremio.exec.proto.CoordExecRPC.RpcType;
@@ -104,6 +106,7 @@ public class AttemptManager implements Runnable {
   private final QueryManager queryManager; // handles lower-level details of query execution
   private final SabotContext sabotContext;
   private final Cache<Long, PreparedPlan> plans;
+  private final PlanCache planCache;
   private volatile QueryState state;
 
   private volatile DistributedLease lease; // used to limit the number of concurrent queries
@@ -131,7 +134,9 @@ public class AttemptManager implements Runnable {
       final UserSession session,
       final OptionProvider options,
       final CoordToExecTunnelCreator tunnelCreator,
-      final Cache<Long, PreparedPlan> plans
+      final Cache<Long, PreparedPlan> plans,
+      final PlanCache planCache,
+      final FragmentStatsStore fragmentStats
       ) {
     this.attemptId = attemptId;
     this.queryId = attemptId.toQueryId();
@@ -140,14 +145,18 @@ public class AttemptManager implements Runnable {
     this.sabotContext = context;
     this.tunnelCreator = tunnelCreator;
     this.plans = plans;
+    this.planCache = planCache;
     this.prepareId = new Pointer<>();
 
     final QueryPriority priority = queryRequest.getPriority();
     final long maxAllocation = queryRequest.getMaxAllocation();
-    this.queryContext = new QueryContext(session, sabotContext, queryId, priority, maxAllocation);
+    this.queryContext = new QueryContext(session, sabotContext, queryId, priority, maxAllocation, fragmentStats);
     this.backwardCompatAllocator = queryContext.getAllocator()
       .newChildAllocator("backward-compatibility", 0, Long.MAX_VALUE);
     this.observers = AttemptObservers.of(BackwardsCompatObserver.wrapIfOld(session, observer, backwardCompatAllocator));
+    if (fragmentStats != null) {
+      observers.add(fragmentStats.newRecorder());
+    }
     this.queryManager = new QueryManager(queryId, queryContext, new CompletionListenerImpl(), prepareId,
       observers, context.getOptionManager().getOption(PlannerSettings.VERBOSE_PROFILE));
 
@@ -367,9 +376,9 @@ public class AttemptManager implements Runnable {
      */
   }
 
-  protected CommandCreator newCommandCreator(QueryContext queryContext, AttemptObserver observer, Pointer<QueryId> prepareId) {
+  protected CommandCreator newCommandCreator(QueryContext queryContext, AttemptObservers observer, Pointer<QueryId> prepareId) {
     return new CommandCreator(this.sabotContext, queryContext, tunnelCreator, queryRequest,
-      observer, plans, prepareId, attemptId.getAttemptNum());
+      observer, plans, planCache, prepareId, attemptId.getAttemptNum());
   }
 
   private void releaseLease() {
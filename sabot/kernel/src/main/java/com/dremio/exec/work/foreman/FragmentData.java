@@ -15,6 +15,9 @@
  */
 package com.dremio.exec.work.foreman;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
@@ -45,15 +48,38 @@ public class FragmentData {
 
   /**
    * Update the status for this fragment. Also records last update and last progress time.
-   * @param newStatus Updated status
+   * @param newStatus Updated status, possibly only holding the operator profiles that changed
    */
   public void setStatus(final FragmentStatus newStatus) {
     final long time = System.currentTimeMillis();
+    final FragmentStatus merged = newStatus.getDelta() ? applyDelta(status, newStatus) : newStatus;
     lastStatusUpdate = time;
-    if (madeProgress(status, newStatus)) {
+    if (madeProgress(status, merged)) {
       lastProgress = time;
     }
-    status = newStatus;
+    status = merged;
+  }
+
+  /**
+   * Replace the operator profiles of the previous status with the ones that changed.
+   */
+  private static FragmentStatus applyDelta(final FragmentStatus prev, final FragmentStatus delta) {
+    final Map<Integer, OperatorProfile> changed = new LinkedHashMap<>();
+    for (OperatorProfile operator : delta.getProfile().getOperatorProfileList()) {
+      changed.put(operator.getOperatorId(), operator);
+    }
+
+    final MinorFragmentProfile.Builder profile = delta.getProfile().toBuilder().clearOperatorProfile();
+    for (OperatorProfile operator : prev.getProfile().getOperatorProfileList()) {
+      final OperatorProfile update = changed.remove(operator.getOperatorId());
+      profile.addOperatorProfile(update != null ? update : operator);
+    }
+    profile.addAllOperatorProfile(changed.values());
+
+    return delta.toBuilder()
+        .setProfile(profile)
+        .setDelta(false)
+        .build();
   }
 
   public FragmentState getState() {
@@ -21,11 +21,13 @@ import java.util.concurrent.Executor;
 import org.apache.calcite.rel.RelNode;
 
 import com.dremio.exec.planner.PlannerPhase;
+import com.dremio.exec.planner.fragment.FragmentStatsStore;
 import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.planner.observer.DelegatingAttemptObserver;
 import com.dremio.exec.planner.observer.QueryObserver;
 import com.dremio.exec.planner.physical.HashAggPrel;
 import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.handlers.commands.PlanCache;
 import com.dremio.exec.planner.sql.handlers.commands.PreparedPlan;
 import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
@@ -79,6 +81,8 @@ public class Foreman {
   private final ReAttemptHandler attemptHandler;
   private final CoordToExecTunnelCreator tunnelCreator;
   private final Cache<Long, PreparedPlan> plans;
+  private final PlanCache planCache;
+  private final FragmentStatsStore fragmentStats;
 
   private AttemptId attemptId; // id of last attempt
 
@@ -98,7 +102,9 @@ public class Foreman {
           final OptionProvider config,
           final ReAttemptHandler attemptHandler,
           final CoordToExecTunnelCreator tunnelCreator,
-          Cache<Long, PreparedPlan> plans) {
+          Cache<Long, PreparedPlan> plans,
+          PlanCache planCache,
+          FragmentStatsStore fragmentStats) {
     this.attemptId = AttemptId.of(externalId);
     this.executor = executor;
     this.context = context;
@@ -110,6 +116,8 @@ public class Foreman {
     this.attemptHandler = attemptHandler;
     this.tunnelCreator = tunnelCreator;
     this.plans = plans;
+    this.planCache = planCache;
+    this.fragmentStats = fragmentStats;
   }
 
   public void start() {
@@ -144,14 +152,15 @@ public class Foreman {
     }
 
     attemptManager = newAttemptManager(context, attemptId, request, attemptObserver, session,
-      optionProvider, tunnelCreator, plans);
+      optionProvider, tunnelCreator, plans, planCache, fragmentStats);
     executor.execute(attemptManager);
   }
 
   protected AttemptManager newAttemptManager(SabotContext context, AttemptId attemptId, UserRequest queryRequest,
       AttemptObserver observer, UserSession session, OptionProvider options, CoordToExecTunnelCreator tunnelCreator,
-      Cache<Long, PreparedPlan> plans) {
-    return new AttemptManager(context, attemptId, queryRequest, observer, session, options, tunnelCreator, plans);
+      Cache<Long, PreparedPlan> plans, PlanCache planCache, FragmentStatsStore fragmentStats) {
+    return new AttemptManager(context, attemptId, queryRequest, observer, session, options, tunnelCreator, plans,
+      planCache, fragmentStats);
   }
 
   public void updateStatus(FragmentStatus status) {
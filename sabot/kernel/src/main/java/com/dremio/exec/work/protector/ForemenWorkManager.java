@@ -27,8 +27,11 @@ import javax.inject.Provider;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.concurrent.ExtendedLatch;
 import com.dremio.exec.ExecConstants;
+import com.dremio.exec.planner.fragment.FragmentStatsStore;
 import com.dremio.exec.planner.observer.OutOfBandQueryObserver;
 import com.dremio.exec.planner.observer.QueryObserver;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.handlers.commands.PlanCache;
 import com.dremio.exec.planner.sql.handlers.commands.PreparedPlan;
 import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
@@ -88,6 +91,12 @@ public class ForemenWorkManager implements Service {
       .expireAfterWrite(3, TimeUnit.MINUTES)
       .build();
 
+  // cache of the plans of sql queries, sized at startup.
+  private PlanCache planCache;
+
+  // records and bytes measured by the fragments of completed queries.
+  private final FragmentStatsStore fragmentStats = new FragmentStatsStore(10000);
+
   // single map of currently running queries, mapped by their external ids.
   private final ConcurrentMap<ExternalId, ManagedForeman> externalIdToForeman = Maps.newConcurrentMap();
   private final NodeStatusListener nodeListener = new NodeStatusListener();
@@ -115,6 +124,9 @@ public class ForemenWorkManager implements Service {
   @Override
   public void start() throws Exception {
     coordinator = coord.get();
+    final OptionManager options = dbContext.get().getOptionManager();
+    planCache = new PlanCache(options.getOption(PlannerSettings.QUERY_PLAN_CACHE_MAX_ENTRIES),
+        options.getOption(PlannerSettings.QUERY_PLAN_CACHE_TTL_SECONDS));
     coordinator.getServiceSet(ClusterCoordinator.Role.EXECUTOR).addNodeStatusListener(nodeListener);
     tunnelCreator = new CoordToExecTunnelCreator(fabric.get().getProtocol(Protocols.COORD_TO_EXEC));
     bindingCreator.replace(ExecToCoordHandler.class, new ExecToCoordHandlerImpl());
@@ -154,7 +166,8 @@ public class ForemenWorkManager implements Service {
           final ReAttemptHandler attemptHandler) {
 
     final DelegatingCompletionListener delegate = new DelegatingCompletionListener();
-    final Foreman foreman = newForeman(pool, delegate, externalId, observer, session, request, config, attemptHandler, tunnelCreator, preparedHandles);
+    final Foreman foreman = newForeman(pool, delegate, externalId, observer, session, request, config, attemptHandler, tunnelCreator, preparedHandles,
+        planCache, fragmentStats);
     final ManagedForeman managed = new ManagedForeman(registry, foreman);
     externalIdToForeman.put(foreman.getExternalId(), managed);
     delegate.setListener(managed);
@@ -164,8 +177,9 @@ public class ForemenWorkManager implements Service {
   protected Foreman newForeman(Executor executor, CompletionListener listener, ExternalId externalId,
       QueryObserver observer, UserSession session, UserRequest request, OptionProvider config,
       ReAttemptHandler attemptHandler, CoordToExecTunnelCreator tunnelCreator,
-      Cache<Long, PreparedPlan> plans) {
-    return new Foreman(dbContext.get(), executor, listener, externalId, observer, session, request, config, attemptHandler, tunnelCreator, plans);
+      Cache<Long, PreparedPlan> plans, PlanCache planCache, FragmentStatsStore fragmentStats) {
+    return new Foreman(dbContext.get(), executor, listener, externalId, observer, session, request, config, attemptHandler, tunnelCreator, plans,
+        planCache, fragmentStats);
   }
 
   private class RunningQueryProviderImpl implements RunningQueryProvider {
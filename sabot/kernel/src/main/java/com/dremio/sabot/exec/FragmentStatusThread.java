@@ -15,15 +15,25 @@
  */
 package com.dremio.sabot.exec;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
+import com.dremio.exec.proto.CoordExecRPC.FragmentStatusBatch;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
 import com.dremio.exec.rpc.RpcFuture;
 import com.dremio.exec.rpc.RpcException;
 import com.dremio.sabot.exec.fragment.FragmentExecutor;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * Periodically gather current statistics. {@link Foreman} uses a
@@ -32,15 +42,24 @@ import com.google.common.collect.Lists;
  * current memory consumption, number of rows processed, and so on. The
  * FragmentStatusListener only tracks changes to state, so the statistics kept
  * there will be stale; this thread probes for current values.
+ *
+ * The statuses of all the fragments reporting to the same foreman are sent in one message. Once a fragment reported
+ * its full status, it only reports the operator profiles that changed since. Fragments running for a long time report
+ * less often.
  */
 public class FragmentStatusThread extends Thread implements AutoCloseable {
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FragmentStatusThread.class);
 
   private final static int STATUS_PERIOD_SECONDS = 5;
+  private final static long MAX_REPORTING_INTERVAL_MILLIS = 60 * 1000;
+  // a fragment reports at least this many times over its running time, until the max interval is reached.
+  private final static int REPORTS_PER_RUNNING_TIME = 10;
 
   private final Iterable<FragmentExecutor> executors;
   private final ExecToCoordTunnelCreator tunnelCreator;
+  // last status reported by the running fragments, only accessed by this thread.
+  private final Map<FragmentHandle, ReportedStatus> reported = Maps.newHashMap();
 
   public FragmentStatusThread(Iterable<FragmentExecutor> executors, ExecToCoordTunnelCreator tunnelCreator) {
     super();
@@ -54,23 +73,61 @@ public class FragmentStatusThread extends Thread implements AutoCloseable {
   public void run() {
 
     while (true) {
-      final List<RpcFuture<Ack>> futures = Lists.newArrayList();
+      final long now = System.currentTimeMillis();
+      final Map<NodeEndpoint, FragmentStatusBatch.Builder> batches = Maps.newHashMap();
+      final Set<FragmentHandle> running = Sets.newHashSet();
       for (final FragmentExecutor fragmentExecutor : executors) {
+        final FragmentHandle handle = fragmentExecutor.getHandle();
+        running.add(handle);
+
+        ReportedStatus previous = reported.get(handle);
+        if (previous != null && now - previous.time < getReportingInterval(now - previous.startTime)) {
+          continue;
+        }
+
         final FragmentStatus status = fragmentExecutor.getStatus();
         if (status == null) {
           continue;
         }
 
+        final FragmentStatus toSend;
+        if (previous == null) {
+          previous = new ReportedStatus(status.getProfile().getStartTime() > 0 ? status.getProfile().getStartTime() : now);
+          reported.put(handle, previous);
+          toSend = status;
+        } else {
+          toSend = getDelta(previous.operators, status);
+        }
+        previous.update(now, status.getProfile());
+
         final NodeEndpoint ep = fragmentExecutor.getForeman();
-        futures.add(tunnelCreator.getTunnel(ep).sendFragmentStatusFuture(status));
+        FragmentStatusBatch.Builder batch = batches.get(ep);
+        if (batch == null) {
+          batch = FragmentStatusBatch.newBuilder();
+          batches.put(ep, batch);
+        }
+        batch.addStatus(toSend);
+      }
+      reported.keySet().retainAll(running);
+
+      final List<RpcFuture<Ack>> futures = Lists.newArrayList();
+      final List<FragmentStatusBatch> sent = Lists.newArrayList();
+      for (final Map.Entry<NodeEndpoint, FragmentStatusBatch.Builder> entry : batches.entrySet()) {
+        final FragmentStatusBatch batch = entry.getValue().build();
+        futures.add(tunnelCreator.getTunnel(entry.getKey()).sendFragmentStatusBatchFuture(batch));
+        sent.add(batch);
       }
 
       // we'll wait to complete so we don't backup if the cluster is moving slowly.
-      for (final RpcFuture<Ack> future : futures) {
+      for (int i = 0; i < futures.size(); i++) {
         try {
-          future.checkedGet();
+          futures.get(i).checkedGet();
         } catch (final RpcException ex) {
           logger.info("Failure while sending intermediate fragment status to AttemptManager", ex);
+          // the foreman may have missed some changes, send the full status of these fragments next time.
+          for (FragmentStatus status : sent.get(i).getStatusList()) {
+            reported.remove(status.getHandle());
+          }
         }
       }
 
@@ -83,10 +140,53 @@ public class FragmentStatusThread extends Thread implements AutoCloseable {
     }
   }
 
+  /**
+   * Get how long to wait between two reports of a fragment that has been running for the given time.
+   */
+  @VisibleForTesting
+  static long getReportingInterval(long runningMillis) {
+    return Math.max(STATUS_PERIOD_SECONDS * 1000, Math.min(MAX_REPORTING_INTERVAL_MILLIS, runningMillis / REPORTS_PER_RUNNING_TIME));
+  }
+
+  /**
+   * Get a status only holding the operator profiles that changed since the ones last reported.
+   */
+  @VisibleForTesting
+  static FragmentStatus getDelta(Map<Integer, OperatorProfile> reportedOperators, FragmentStatus status) {
+    final MinorFragmentProfile.Builder profile = status.getProfile().toBuilder().clearOperatorProfile();
+    for (OperatorProfile operator : status.getProfile().getOperatorProfileList()) {
+      if (!operator.equals(reportedOperators.get(operator.getOperatorId()))) {
+        profile.addOperatorProfile(operator);
+      }
+    }
+    return status.toBuilder()
+        .setProfile(profile)
+        .setDelta(true)
+        .build();
+  }
+
   @Override
   public void close() {
     this.interrupt();
   }
 
+  /**
+   * What was last reported for a fragment.
+   */
+  private static final class ReportedStatus {
+    private final long startTime;
+    private final Map<Integer, OperatorProfile> operators = new LinkedHashMap<>();
+    private long time;
 
+    private ReportedStatus(long startTime) {
+      this.startTime = startTime;
+    }
+
+    private void update(long time, MinorFragmentProfile profile) {
+      this.time = time;
+      for (OperatorProfile operator : profile.getOperatorProfileList()) {
+        operators.put(operator.getOperatorId(), operator);
+      }
+    }
+  }
 }
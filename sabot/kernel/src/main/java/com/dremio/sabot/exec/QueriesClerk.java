@@ -25,6 +25,7 @@ import com.dremio.exec.proto.CoordExecRPC.PlanFragment;
 import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.dremio.exec.proto.UserBitShared.WorkloadClass;
 import com.dremio.exec.proto.helper.QueryIdHelper;
+import com.dremio.sabot.exec.context.MemoryArbiter;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 
@@ -123,6 +124,13 @@ public class QueriesClerk implements AutoCloseable {
       return clerk.getAllocator().newChildAllocator(name, initReservation, maxAllocation);
     }
 
+    /**
+     * @return the arbiter of the memory of the spilling operators of the query on this node.
+     */
+    public MemoryArbiter getMemoryArbiter() {
+      return clerk.getMemoryArbiter();
+    }
+
     @Override
     public void close() throws Exception {
       Preconditions.checkState(!closed, "Trying to close FragmentTicket more than once");
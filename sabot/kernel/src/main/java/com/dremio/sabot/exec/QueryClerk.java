@@ -20,6 +20,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.arrow.memory.BufferAllocator;
 
 import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.sabot.exec.context.MemoryArbiter;
 import com.google.common.base.Preconditions;
 
 /**
@@ -34,11 +35,13 @@ class QueryClerk implements AutoCloseable {
   private final QueryId queryId;
   private final BufferAllocator allocator;
   private final AtomicInteger childCount = new AtomicInteger();
+  private final MemoryArbiter memoryArbiter;
   private volatile boolean closed;
 
   public QueryClerk(QueryId queryId, BufferAllocator allocator) {
     this.allocator = Preconditions.checkNotNull(allocator, "allocator cannot be null");
     this.queryId = Preconditions.checkNotNull(queryId, "queryId cannot be null");
+    this.memoryArbiter = new MemoryArbiter(allocator);
   }
 
   public QueryId getQueryId() {
@@ -55,6 +58,10 @@ class QueryClerk implements AutoCloseable {
     return allocator;
   }
 
+  public MemoryArbiter getMemoryArbiter() {
+    return memoryArbiter;
+  }
+
   public boolean release() {
     Preconditions.checkState(!closed, "Query clerk already closed");
     return childCount.decrementAndGet() == 0;
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Moves memory between the spilling operators of a query running on a node.
+ *
+ * Each spilling operator starts with the limit assigned by the planner, and registers its allocator here. When it runs
+ * out of room, rather than spilling right away, it asks for more:
+ * - memory of the query allocator that no operator uses and that wasn't granted already is granted first,
+ * - then memory reserved but unused by other operators, whose limits are lowered down to what they use plus a margin.
+ * If none of these works, the request fails and the operator spills. If another operator, still consuming its input,
+ * holds less data and so is cheaper to spill, that operator is asked to spill on its next batch as well, and the
+ * memory it releases then goes to the requesting operator, which holds more data.
+ *
+ * Operators only ever spill on their own thread; the arbiter just changes allocator limits and raises flags. Limits
+ * are only raised with memory that is free at the time, so that granted memory is always there to be allocated.
+ */
+public class MemoryArbiter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryArbiter.class);
+
+  // share of its initial limit an operator keeps above what it uses when memory is taken from it.
+  private static final int MARGIN_DIVISOR = 4;
+
+  /**
+   * A spilling operator.
+   */
+  public interface Spiller {
+    /**
+     * @return the expected cost of spilling the operator now, as the number of bytes it would write and read back.
+     */
+    long getSpillCost();
+  }
+
+  private final BufferAllocator queryAllocator;
+  private final List<Grant> grants = new ArrayList<>();
+
+  /**
+   * @param queryAllocator allocator of the query on this node, that the allocators of the operators are children of.
+   */
+  public MemoryArbiter(BufferAllocator queryAllocator) {
+    this.queryAllocator = queryAllocator;
+  }
+
+  /**
+   * Register a spilling operator.
+   *
+   * @param name name of the operator, for logging.
+   * @param allocator allocator of the operator, its limit being the memory it was assigned.
+   * @param spiller the operator.
+   */
+  public synchronized Grant register(String name, BufferAllocator allocator, Spiller spiller) {
+    final Grant grant = new Grant(name, allocator, spiller);
+    grants.add(grant);
+    return grant;
+  }
+
+  private synchronized boolean request(Grant requester, long bytes) {
+    Preconditions.checkArgument(bytes > 0, "Invalid memory request: %s", bytes);
+
+    // an operator never goes beyond the limit of the query.
+    final long queryLimit = queryAllocator.getLimit();
+    if (requester.allocator.getLimit() >= queryLimit) {
+      return false;
+    }
+    bytes = Math.min(bytes, queryLimit - requester.allocator.getLimit());
+
+    // 1. memory of the query no operator uses, less what was granted and isn't used yet.
+    long free = queryAllocator.getHeadroom();
+    for (Grant grant : grants) {
+      free -= grant.getUnusedGrant();
+    }
+    long needed = bytes - Math.max(0, Math.min(bytes, free));
+
+    // 2. memory other operators hold but do not use.
+    final long[] taken = new long[grants.size()];
+    for (int i = 0; i < grants.size() && needed > 0; i++) {
+      final Grant donor = grants.get(i);
+      if (donor != requester) {
+        taken[i] = Math.min(needed, donor.getIdle());
+        needed -= taken[i];
+      }
+    }
+
+    if (needed > 0) {
+      // 3. the requester spills, but the memory can go to it once an operator cheaper to spill released it.
+      requestSpill(requester, needed);
+      return false;
+    }
+
+    for (int i = 0; i < grants.size(); i++) {
+      if (taken[i] > 0) {
+        final Grant donor = grants.get(i);
+        donor.allocator.setLimit(donor.allocator.getLimit() - taken[i]);
+        donor.yieldedBytes += taken[i];
+      }
+    }
+    requester.grow(bytes);
+    logger.debug("Granted {} bytes to {}", bytes, requester.name);
+    return true;
+  }
+
+  /**
+   * Ask the operator that is the cheapest to spill, if it is cheaper than the requester and still consuming, to spill
+   * the given number of bytes for the requester.
+   */
+  private void requestSpill(Grant requester, long bytes) {
+    Grant victim = null;
+    long victimCost = requester.spiller.getSpillCost();
+    for (Grant grant : grants) {
+      if (grant.creditor == requester) {
+        // already waiting for an operator to spill.
+        return;
+      }
+      if (grant == requester || !grant.consuming || grant.spillRequested) {
+        continue;
+      }
+      final long cost = grant.spiller.getSpillCost();
+      if (cost > 0 && cost < victimCost && grant.allocator.getAllocatedMemory() >= bytes) {
+        victim = grant;
+        victimCost = cost;
+      }
+    }
+    if (victim != null) {
+      victim.spillRequested = true;
+      victim.spillRequests++;
+      victim.debt = bytes;
+      victim.creditor = requester;
+      logger.debug("Asking {} to spill {} bytes for {}", victim.name, bytes, requester.name);
+    }
+  }
+
+  private synchronized void spilled(Grant grant) {
+    if (grant.spillRequested) {
+      // the memory released is moved to the operator it was asked for, if that one is still there.
+      final long paid = Math.min(grant.debt, grant.getIdle());
+      if (paid > 0 && grants.contains(grant.creditor)) {
+        grant.allocator.setLimit(grant.allocator.getLimit() - paid);
+        grant.yieldedBytes += paid;
+        grant.creditor.grow(Math.min(paid,
+            Math.max(0, queryAllocator.getLimit() - grant.creditor.allocator.getLimit())));
+        logger.debug("{} released {} bytes for {}", grant.name, paid, grant.creditor.name);
+      }
+    }
+    clearSpillRequest(grant);
+  }
+
+  private synchronized void doneConsuming(Grant grant) {
+    grant.consuming = false;
+    clearSpillRequest(grant);
+  }
+
+  // called under the arbiter lock.
+  private void clearSpillRequest(Grant grant) {
+    grant.spillRequested = false;
+    grant.debt = 0;
+    grant.creditor = null;
+  }
+
+  private synchronized void unregister(Grant grant) {
+    grants.remove(grant);
+    for (Grant other : grants) {
+      if (other.creditor == grant) {
+        clearSpillRequest(other);
+      }
+    }
+  }
+
+  /**
+   * Registration of a spilling operator.
+   */
+  public final class Grant implements AutoCloseable {
+    private final String name;
+    private final BufferAllocator allocator;
+    private final Spiller spiller;
+    private final long initialLimit;
+
+    // memory the operator was asked to release by spilling, and the operator it goes to.
+    private long debt;
+    private Grant creditor;
+    private boolean spillRequested;
+    private boolean consuming = true;
+
+    private long grantedBytes;
+    private long yieldedBytes;
+    private long spillRequests;
+
+    private Grant(String name, BufferAllocator allocator, Spiller spiller) {
+      this.name = name;
+      this.allocator = allocator;
+      this.spiller = spiller;
+      this.initialLimit = allocator.getLimit();
+    }
+
+    /**
+     * Ask to raise the limit of the operator allocator.
+     *
+     * @return true if the limit was raised, by at most the given number of bytes, false if the operator should spill
+     *         instead.
+     */
+    public boolean request(long bytes) {
+      return MemoryArbiter.this.request(this, bytes);
+    }
+
+    /**
+     * @return whether the operator was asked to spill to make room for another operator.
+     */
+    public boolean isSpillRequested() {
+      synchronized (MemoryArbiter.this) {
+        return spillRequested;
+      }
+    }
+
+    /**
+     * The operator spilled its memory, the memory it was asked to release can now be moved.
+     */
+    public void spilled() {
+      MemoryArbiter.this.spilled(this);
+    }
+
+    /**
+     * The operator consumed all its input, so won't spill to make room for another operator anymore.
+     */
+    public void doneConsuming() {
+      MemoryArbiter.this.doneConsuming(this);
+    }
+
+    public long getGrantedBytes() {
+      synchronized (MemoryArbiter.this) {
+        return grantedBytes;
+      }
+    }
+
+    public long getYieldedBytes() {
+      synchronized (MemoryArbiter.this) {
+        return yieldedBytes;
+      }
+    }
+
+    public long getSpillRequests() {
+      synchronized (MemoryArbiter.this) {
+        return spillRequests;
+      }
+    }
+
+    @Override
+    public void close() {
+      unregister(this);
+    }
+
+    // called under the arbiter lock.
+    private void grow(long bytes) {
+      allocator.setLimit(allocator.getLimit() + bytes);
+      grantedBytes += bytes;
+    }
+
+    // called under the arbiter lock.
+    private long getUnusedGrant() {
+      return Math.max(0, Math.min(allocator.getLimit() - initialLimit,
+          allocator.getLimit() - allocator.getAllocatedMemory()));
+    }
+
+    // called under the arbiter lock.
+    private long getIdle() {
+      final long kept = allocator.getAllocatedMemory() + initialLimit / MARGIN_DIVISOR;
+      return Math.max(0, allocator.getLimit() - kept);
+    }
+  }
+}
@@ -67,6 +67,11 @@ public abstract class OperatorContext {
 
   public abstract NamespaceService getNamespaceService();
 
+  /**
+   * @return the arbiter of the memory of the spilling operators of the query on this node, or null if not available.
+   */
+  public abstract MemoryArbiter getMemoryArbiter();
+
   public static int getChildCount(PhysicalOperator popConfig) {
     Iterator<PhysicalOperator> iter = popConfig.iterator();
     int i = 0;
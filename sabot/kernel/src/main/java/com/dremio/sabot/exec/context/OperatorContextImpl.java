@@ -70,6 +70,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
   private final OptionManager optionManager;
   private final int targetBatchSize;
   private final NamespaceService ns;
+  private final MemoryArbiter memoryArbiter;
 
   /**
    * This lazily initialized executor service is used to submit a {@link Callable task} that needs a proxy user. There
@@ -93,6 +94,25 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
       OptionManager optionManager,
       NamespaceService namespaceService,
       int targetBatchSize) throws OutOfMemoryException {
+    this(config, handle, popConfig, allocator, compiler, stats, executionControls, executor, functions,
+        contextInformation, optionManager, namespaceService, null, targetBatchSize);
+  }
+
+  public OperatorContextImpl(
+      SabotConfig config,
+      FragmentHandle handle,
+      PhysicalOperator popConfig,
+      BufferAllocator allocator,
+      CodeCompiler compiler,
+      OperatorStats stats,
+      ExecutionControls executionControls,
+      ExecutorService executor,
+      FunctionLookupContext functions,
+      ContextInformation contextInformation,
+      OptionManager optionManager,
+      NamespaceService namespaceService,
+      MemoryArbiter memoryArbiter,
+      int targetBatchSize) throws OutOfMemoryException {
     this.config = config;
     this.handle = handle;
     this.allocator = allocator;
@@ -107,6 +127,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     this.optionManager = optionManager;
     this.targetBatchSize = targetBatchSize;
     this.ns = namespaceService;
+    this.memoryArbiter = memoryArbiter;
 
     this.producer = new ClassProducerImpl(compiler, functions, contextInformation, manager);
   }
@@ -237,4 +258,9 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     return ns;
   }
 
+  @Override
+  public MemoryArbiter getMemoryArbiter() {
+    return memoryArbiter;
+  }
+
 }
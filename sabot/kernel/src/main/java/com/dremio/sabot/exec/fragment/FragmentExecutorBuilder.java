@@ -187,7 +187,8 @@ public class FragmentExecutorBuilder {
           namespace,
           fragmentOptions,
           executorService,
-          contextInfo);
+          contextInfo,
+          ticket.getMemoryArbiter());
 
       final ExecToCoordTunnel coordTunnel = execToCoord.getTunnel(fragment.getForeman());
       final FragmentStatusReporter statusReporter = new FragmentStatusReporter(fragment.getHandle(), stats, coordTunnel, allocator);
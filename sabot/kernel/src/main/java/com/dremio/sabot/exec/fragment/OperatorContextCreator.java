@@ -33,6 +33,7 @@ import com.dremio.exec.server.options.OptionManager;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.sabot.exec.context.ContextInformation;
 import com.dremio.sabot.exec.context.FragmentStats;
+import com.dremio.sabot.exec.context.MemoryArbiter;
 import com.dremio.sabot.exec.context.OpProfileDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
@@ -53,11 +54,12 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
   private final OptionManager options;
   private final ExecutorService executor;
   private final ContextInformation contextInformation;
+  private final MemoryArbiter memoryArbiter;
 
   public OperatorContextCreator(FragmentStats stats, BufferAllocator allocator, CodeCompiler compiler,
       SabotConfig config, FragmentHandle handle, ExecutionControls executionControls,
       FunctionLookupContext funcRegistry, NamespaceService namespaceService, OptionManager options,
-      ExecutorService executor, ContextInformation contextInformation) {
+      ExecutorService executor, ContextInformation contextInformation, MemoryArbiter memoryArbiter) {
     super();
     this.stats = stats;
     this.allocator = allocator;
@@ -70,6 +72,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
     this.options = options;
     this.executor = executor;
     this.contextInformation = contextInformation;
+    this.memoryArbiter = memoryArbiter;
   }
 
   public OperatorContext newOperatorContext(PhysicalOperator popConfig) {
@@ -97,6 +100,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
         contextInformation,
         options,
         namespaceService,
+        memoryArbiter,
         4095);
     operatorContexts.add(context);
     return context;
@@ -73,4 +73,13 @@ class TunnelProviderImpl implements TunnelProvider {
     }
     return tunnel;
   }
+
+  @Override
+  public long getExecTunnelsBlockedNanos() {
+    long blockedNanos = 0;
+    for (AccountingExecTunnel tunnel : tunnels.values()) {
+      blockedNanos += tunnel.getBlockedNanos();
+    }
+    return blockedNanos;
+  }
 }
@@ -52,4 +52,8 @@ public class AccountingExecTunnel {
     tunnel.informReceiverFinished(statusHandler, finishedReceiver);
   }
 
+  public long getBlockedNanos() {
+    return monitor.getBlockedNanos();
+  }
+
 }
@@ -16,6 +16,7 @@
 package com.dremio.sabot.exec.rpc;
 
 import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
+import com.dremio.exec.proto.CoordExecRPC.FragmentStatusBatch;
 import com.dremio.exec.proto.CoordExecRPC.RpcType;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
@@ -57,6 +58,12 @@ public class ExecToCoordTunnel {
     return b.getFuture();
   }
 
+  public RpcFuture<Ack> sendFragmentStatusBatchFuture(FragmentStatusBatch batch){
+    SendFragmentStatusBatchFuture b = new SendFragmentStatusBatchFuture(batch);
+    manager.runCommand(b);
+    return b.getFuture();
+  }
+
   private static class SendFragmentStatus extends ListeningCommand<Ack, ProxyConnection> {
     final FragmentStatus status;
 
@@ -86,6 +93,20 @@ public class ExecToCoordTunnel {
 
   }
 
+  private static class SendFragmentStatusBatchFuture extends FutureBitCommand<Ack, ProxyConnection> {
+    final FragmentStatusBatch batch;
+
+    public SendFragmentStatusBatchFuture(FragmentStatusBatch batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void doRpcCall(RpcOutcomeListener<Ack> outcomeListener, ProxyConnection connection) {
+      connection.sendUnsafe(outcomeListener, RpcType.REQ_FRAGMENT_STATUS_BATCH, batch, Ack.class);
+    }
+
+  }
+
   private class SendBatch extends ListeningCommand<Ack, ProxyConnection> {
     private final QueryWritableBatch batch;
 
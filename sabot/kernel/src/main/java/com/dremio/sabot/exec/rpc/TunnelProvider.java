@@ -20,4 +20,9 @@ import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 public interface TunnelProvider {
   AccountingExecToCoordTunnel getCoordTunnel();
   AccountingExecTunnel getExecTunnel(final NodeEndpoint endpoint);
+
+  /**
+   * Get how long sending data to other nodes was blocked because the receivers didn't acknowledge it.
+   */
+  long getExecTunnelsBlockedNanos();
 }
@@ -23,9 +23,12 @@ import org.apache.arrow.vector.util.TransferPair;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.exception.SchemaChangeException;
 import com.dremio.exec.expr.ClassGenerator;
 import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.expr.vectorized.VectorizedExpression;
+import com.dremio.exec.expr.vectorized.VectorizedExpressions;
 import com.dremio.exec.physical.config.Filter;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
@@ -34,6 +37,7 @@ import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.spi.SingleInputOperator;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 
 public class FilterOperator implements SingleInputOperator {
@@ -60,6 +64,11 @@ public class FilterOperator implements SingleInputOperator {
 
     switch (input.getSchema().getSelectionVectorMode()) {
       case NONE:
+        this.filter = generateVectorizedFilterer();
+        if (filter == null) {
+          this.filter = generateSV2Filterer();
+        }
+        break;
       case TWO_BYTE:
         this.filter = generateSV2Filterer();
         break;
@@ -105,9 +114,47 @@ public class FilterOperator implements SingleInputOperator {
     return visitor.visitSingleInput(this, value);
   }
 
+  /**
+   * Whether the condition is evaluated a batch at a time rather than by generated code.
+   */
+  @VisibleForTesting
+  public boolean isVectorized() {
+    return filter instanceof VectorizedFilterer;
+  }
+
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(output);
+    AutoCloseables.close(filter instanceof AutoCloseable ? (AutoCloseable) filter : null, output);
+  }
+
+  /**
+   * Create a filterer evaluating the condition a batch at a time.
+   *
+   * @return the filterer or null if vectorized expressions are disabled or the condition isn't supported.
+   */
+  protected Filterer generateVectorizedFilterer() throws SchemaChangeException {
+    if (!context.getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_EXPRESSIONS)) {
+      return null;
+    }
+
+    final LogicalExpression expr = context.getClassProducer().materializeAndAllowComplex(config.getExpr(), input);
+    final VectorizedExpression condition = VectorizedExpressions.build(expr, input, context.getAllocator());
+    if (condition == null) {
+      return null;
+    }
+    if (condition.getKind() != VectorizedExpression.Kind.BIT) {
+      AutoCloseables.close(condition);
+      return null;
+    }
+
+    final List<TransferPair> transfers = Lists.newArrayList();
+    for (final VectorWrapper<?> v : input) {
+      transfers.add(v.getValueVector().makeTransferPair(output.addOrGet(v.getField())));
+    }
+
+    final VectorizedFilterer filter = new VectorizedFilterer(condition);
+    filter.setup(context.getClassProducer().getFunctionContext(), input, output, transfers.toArray(new TransferPair[transfers.size()]));
+    return filter;
   }
 
   protected Filterer generateSV2Filterer() throws SchemaChangeException {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.filter;
+
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.exec.exception.SchemaChangeException;
+import com.dremio.exec.expr.vectorized.VectorizedExpression;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.exec.context.FunctionContext;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Filters a batch by evaluating the condition for the whole batch with a {@link VectorizedExpression} and turning
+ * the records that evaluated to true into the outgoing selection vector.
+ */
+class VectorizedFilterer implements Filterer, AutoCloseable {
+
+  private final VectorizedExpression condition;
+  private SelectionVector2 outgoingSelectionVector;
+  private TransferPair[] transfers;
+
+  VectorizedFilterer(VectorizedExpression condition) {
+    this.condition = condition;
+  }
+
+  @Override
+  public void setup(FunctionContext context, VectorAccessible incoming, VectorAccessible outgoing, TransferPair[] transfers) throws SchemaChangeException {
+    Preconditions.checkArgument(incoming.getSchema().getSelectionVectorMode() == SelectionVectorMode.NONE,
+        "Vectorized filters only support batches without selection vector.");
+    this.outgoingSelectionVector = outgoing.getSelectionVector2();
+    this.transfers = transfers;
+  }
+
+  @Override
+  public int filterBatch(int recordCount) {
+    if (recordCount == 0) {
+      return 0;
+    }
+
+    outgoingSelectionVector.allocateNew(recordCount);
+    condition.evaluate(recordCount);
+
+    final long validityAddress = condition.getValidityAddress();
+    final long dataAddress = condition.getDataAddress();
+    final int byteCount = (recordCount + 7) >>> 3;
+    long svAddress = outgoingSelectionVector.memoryAddress();
+    int svIndex = 0;
+    for (int i = 0; i < byteCount; i++) {
+      // only records which are not null and true pass the filter
+      int selected = PlatformDependent.getByte(validityAddress + i) & PlatformDependent.getByte(dataAddress + i) & 0xFF;
+      if (i == byteCount - 1 && (recordCount & 7) != 0) {
+        selected &= (1 << (recordCount & 7)) - 1;
+      }
+      while (selected != 0) {
+        final int bit = Integer.numberOfTrailingZeros(selected);
+        PlatformDependent.putShort(svAddress, (short) ((i << 3) + bit));
+        svAddress += SelectionVector2.RECORD_SIZE;
+        svIndex++;
+        selected &= selected - 1;
+      }
+    }
+    outgoingSelectionVector.setRecordCount(svIndex);
+
+    for (TransferPair t : transfers) {
+      t.transfer();
+    }
+    return svIndex;
+  }
+
+  @Override
+  public void close() throws Exception {
+    condition.close();
+  }
+}
@@ -16,10 +16,12 @@
 package com.dremio.sabot.op.project;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.FixedWidthVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.complex.impl.ComplexWriterImpl;
@@ -42,13 +44,17 @@ import com.dremio.common.expression.ValueExpressions;
 import com.dremio.common.expression.fn.CastFunctions;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.types.TypeProtos.MinorType;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.CommonSubexpressions;
 import com.dremio.exec.expr.FunctionHolderExpr;
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.expr.ValueVectorReadExpression;
 import com.dremio.exec.expr.ValueVectorWriteExpression;
 import com.dremio.exec.expr.ClassGenerator.HoldingContainer;
 import com.dremio.exec.expr.fn.ComplexWriterFunctionHolder;
+import com.dremio.exec.expr.vectorized.VectorizedExpression;
+import com.dremio.exec.expr.vectorized.VectorizedExpressions;
 import com.dremio.exec.physical.config.ComplexToJson;
 import com.dremio.exec.physical.config.Project;
 import com.dremio.exec.record.BatchSchema;
@@ -56,15 +62,19 @@ import com.dremio.exec.record.TypedFieldId;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorAccessibleComplexWriter;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.project.Projector.ComplexWriterCreator;
 import com.dremio.sabot.op.spi.SingleInputOperator;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 
 public class ProjectOperator implements SingleInputOperator {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ProjectOperator.class);
 
+  private static final String SHARED_EXPRESSION_PREFIX = "$shared";
+
   private final Project config;
   private final OperatorContext context;
   private final VectorContainer outgoing;
@@ -74,10 +84,15 @@ public class ProjectOperator implements SingleInputOperator {
   private Projector projector;
   private List<ValueVector> allocationVectors;
   private final List<ComplexWriter> complexWriters = new ArrayList<>();
+  private final List<VectorizedExpression> vectorizedExprs = new ArrayList<>();
+  private final List<FieldVector> vectorizedOutputs = new ArrayList<>();
+  private final List<ValueVector> sharedVectors = new ArrayList<>();
+  private VectorContainer sharedIncoming;
+  private Projector sharedProjector;
   private int recordsConsumedCurrentBatch;
   private BatchSchema initialSchema;
 
-  public static enum EvalMode {DIRECT, COMPLEX, EVAL};
+  public static enum EvalMode {DIRECT, COMPLEX, EVAL, VECTORIZED};
 
   public ProjectOperator(final OperatorContext context, final Project config) throws OutOfMemoryException {
     this.config = config;
@@ -100,14 +115,40 @@ public class ProjectOperator implements SingleInputOperator {
     final ClassGenerator<Projector> cg = context.getClassProducer().createGenerator(Projector.TEMPLATE_DEFINITION).getRoot();
 
     final IntHashSet transferFieldIds = new IntHashSet();
+    final boolean vectorize = context.getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_EXPRESSIONS);
+
+    final List<LogicalExpression> materialized = Lists.newArrayList();
+    for (final NamedExpression namedExpression : exprs) {
+      materialized.add(context.getClassProducer().materializeAndAllowComplex(namedExpression.getExpr(), incoming));
+    }
+
+    // expressions are evaluated against the incoming batch, extended with the shared subexpressions if any.
+    final VectorAccessible evalIncoming = setupSharedExpressions(materialized);
 
     for (int i = 0; i < exprs.size(); i++) {
       final NamedExpression namedExpression = exprs.get(i);
 
-      final LogicalExpression expr = context.getClassProducer().materializeAndAllowComplex(namedExpression.getExpr(), incoming);
+      final LogicalExpression expr = materialized.get(i);
       final Field outputField = expr.getCompleteType().toField(namedExpression.getRef());
 
-      switch(getEvalMode(incoming, expr, transferFieldIds)){
+      EvalMode evalMode = getEvalMode(evalIncoming, expr, transferFieldIds);
+      VectorizedExpression vectorized = null;
+      if (vectorize && evalMode == EvalMode.EVAL && incoming.getSchema().getSelectionVectorMode() == SelectionVectorMode.NONE) {
+        vectorized = VectorizedExpressions.build(expr, evalIncoming, context.getAllocator());
+        if (vectorized != null) {
+          evalMode = EvalMode.VECTORIZED;
+        }
+      }
+
+      switch(evalMode){
+
+      case VECTORIZED: {
+        final ValueVector vector = outgoing.addOrGet(outputField);
+        allocationVectors.add(vector);
+        vectorizedExprs.add(vectorized);
+        vectorizedOutputs.add((FieldVector) vector);
+        break;
+      }
 
       case COMPLEX: {
         outgoing.addOrGet(expr.getCompleteType().toField(namedExpression.getRef()));
@@ -120,7 +161,7 @@ public class ProjectOperator implements SingleInputOperator {
       case DIRECT: {
         final ValueVectorReadExpression vectorRead = (ValueVectorReadExpression) expr;
         final TypedFieldId id = vectorRead.getFieldId();
-        final ValueVector vvIn = incoming.getValueAccessorById(id.getIntermediateClass(), id.getFieldIds()).getValueVector();
+        final ValueVector vvIn = evalIncoming.getValueAccessorById(id.getIntermediateClass(), id.getFieldIds()).getValueVector();
         final FieldReference ref = namedExpression.getRef();
         final ValueVector vvOut = outgoing.addOrGet(vectorRead.getCompleteType().toField(ref));
         final TransferPair tp = vvIn.makeTransferPair(vvOut);
@@ -142,7 +183,7 @@ public class ProjectOperator implements SingleInputOperator {
           final ValueVectorReadExpression vectorRead = (ValueVectorReadExpression) expr;
           if (!vectorRead.hasReadPath()) {
             final TypedFieldId id = vectorRead.getFieldId();
-            final ValueVector vvIn = incoming.getValueAccessorById(id.getIntermediateClass(), id.getFieldIds()).getValueVector();
+            final ValueVector vvIn = evalIncoming.getValueAccessorById(id.getIntermediateClass(), id.getFieldIds()).getValueVector();
             vvIn.makeTransferPair(vector);
           }
         }
@@ -161,7 +202,7 @@ public class ProjectOperator implements SingleInputOperator {
     this.projector = cg.getCodeGenerator().getImplementationClass();
     projector.setup(
         context.getFunctionContext(),
-        incoming,
+        evalIncoming,
         outgoing,
         transfers,
         new ComplexWriterCreator(){
@@ -188,6 +229,17 @@ public class ProjectOperator implements SingleInputOperator {
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
     allocateNew();
+    if (sharedProjector != null) {
+      sharedProjector.projectRecords(recordsConsumedCurrentBatch);
+      for (final ValueVector v : sharedVectors) {
+        v.getMutator().setValueCount(recordsConsumedCurrentBatch);
+      }
+      sharedIncoming.setRecordCount(recordsConsumedCurrentBatch);
+    }
+    // evaluate vectorized expressions first, generated code transfers the incoming vectors.
+    for (int i = 0; i < vectorizedExprs.size(); i++) {
+      vectorizedExprs.get(i).evaluateInto(recordsConsumedCurrentBatch, vectorizedOutputs.get(i));
+    }
     projector.projectRecords(recordsConsumedCurrentBatch);
     setValueCount(recordsConsumedCurrentBatch);
     outgoing.setRecordCount(recordsConsumedCurrentBatch);
@@ -217,9 +269,28 @@ public class ProjectOperator implements SingleInputOperator {
 
   @Override
   public void close() throws Exception {
+    AutoCloseables.close(vectorizedExprs);
+    // the shared container also holds the incoming vectors, which it doesn't own.
+    AutoCloseables.close(sharedVectors);
     AutoCloseables.close(outgoing);
   }
 
+  /**
+   * Number of expressions evaluated a batch at a time rather than by generated code.
+   */
+  @VisibleForTesting
+  public int getVectorizedExpressionCount() {
+    return vectorizedExprs.size();
+  }
+
+  /**
+   * Number of subexpressions evaluated once for the expressions sharing them.
+   */
+  @VisibleForTesting
+  public int getSharedExpressionCount() {
+    return sharedVectors.size();
+  }
+
 
   private void allocateNew() {
     //Allocate vv in the allocationVectors.
@@ -231,6 +302,10 @@ public class ProjectOperator implements SingleInputOperator {
       writer.allocate();
     }
 
+    for (final ValueVector v : sharedVectors) {
+      AllocationHelper.allocateNew(v, incoming.getRecordCount());
+    }
+
   }
 
   private void setValueCount(final int count) {
@@ -244,6 +319,55 @@ public class ProjectOperator implements SingleInputOperator {
     }
   }
 
+  /**
+   * Evaluate the subexpressions shared by several expressions once per batch into temporary vectors, and rewrite
+   * the expressions to read them instead.
+   *
+   * @return the batch to evaluate the rewritten expressions against
+   */
+  private VectorAccessible setupSharedExpressions(List<LogicalExpression> exprs) throws Exception {
+    if (!context.getOptions().getOption(ExecConstants.ENABLE_PROJECT_CSE)
+        || incoming.getSchema().getSelectionVectorMode() != SelectionVectorMode.NONE) {
+      return incoming;
+    }
+
+    final int minCost = (int) context.getOptions().getOption(ExecConstants.PROJECT_CSE_MIN_COST);
+    final List<LogicalExpression> shared = CommonSubexpressions.find(exprs, minCost);
+    if (shared.isEmpty()) {
+      return incoming;
+    }
+
+    sharedIncoming = new VectorContainer(context.getAllocator());
+    for (final VectorWrapper<?> wrapper : incoming) {
+      sharedIncoming.add(wrapper.getValueVector());
+    }
+
+    final ClassGenerator<Projector> cg = context.getClassProducer().createGenerator(Projector.TEMPLATE_DEFINITION).getRoot();
+    final List<LogicalExpression> reads = Lists.newArrayList();
+    int suffix = 0;
+    for (final LogicalExpression expr : shared) {
+      String name;
+      do {
+        name = SHARED_EXPRESSION_PREFIX + suffix++;
+      } while (sharedIncoming.getValueVectorId(SchemaPath.getSimplePath(name)) != null);
+
+      final ValueVector vector = sharedIncoming.addOrGet(expr.getCompleteType().toField(name));
+      sharedVectors.add(vector);
+      final TypedFieldId fid = sharedIncoming.getValueVectorId(SchemaPath.getSimplePath(name));
+      cg.addExpr(new ValueVectorWriteExpression(fid, expr, !(vector instanceof FixedWidthVector)), ClassGenerator.BlockCreateMode.NEW_IF_TOO_LARGE);
+      reads.add(new ValueVectorReadExpression(fid));
+    }
+    sharedIncoming.buildSchema(SelectionVectorMode.NONE);
+
+    for (int i = 0; i < exprs.size(); i++) {
+      exprs.set(i, CommonSubexpressions.replace(exprs.get(i), shared, reads));
+    }
+
+    sharedProjector = cg.getCodeGenerator().getImplementationClass();
+    sharedProjector.setup(context.getFunctionContext(), incoming, sharedIncoming, Collections.<TransferPair>emptyList(), null);
+    return sharedIncoming;
+  }
+
   private List<NamedExpression> getExpressionList() {
     if (config.getExprs() != null) {
       return config.getExprs();
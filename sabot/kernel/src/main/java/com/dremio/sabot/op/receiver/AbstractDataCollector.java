@@ -23,6 +23,7 @@ import org.apache.arrow.memory.BufferAllocator;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.CoordExecRPC.Collector;
 import com.dremio.exec.proto.CoordExecRPC.IncomingMinorFragment;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
@@ -86,6 +87,7 @@ public abstract class AbstractDataCollector implements DataCollector {
     }
 
     final boolean spooling = collector.getIsSpooling();
+    final boolean credits = config.getBoolean(ExecConstants.INCOMING_BUFFER_CREDIT_ENABLED);
 
     if (isDiscrete) {
       buffers = new RawBatchBuffer[collector.getIncomingMinorFragmentCount()];
@@ -95,6 +97,8 @@ public abstract class AbstractDataCollector implements DataCollector {
         final SharedResource resource = resourceGroup.createResource(name);
         if (spooling) {
           buffers[fragment.getMinorFragment()] = new SpoolingRawBatchBuffer(resource, config, workQueue, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId(), fragment.getMinorFragment());
+        } else if (credits) {
+          buffers[fragment.getMinorFragment()] = new CreditBasedRawBatchBuffer(resource, config, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId());
         } else {
           buffers[fragment.getMinorFragment()] = new UnlimitedRawBatchBuffer(resource, config, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId());
         }
@@ -105,6 +109,8 @@ public abstract class AbstractDataCollector implements DataCollector {
       final SharedResource resource = resourceGroup.createResource(name);
       if (spooling) {
         buffers[0] = new SpoolingRawBatchBuffer(resource, config, workQueue, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId(), 0);
+      } else if (credits) {
+        buffers[0] = new CreditBasedRawBatchBuffer(resource, config, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId());
       } else {
         buffers[0] = new UnlimitedRawBatchBuffer(resource, config, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId());
       }
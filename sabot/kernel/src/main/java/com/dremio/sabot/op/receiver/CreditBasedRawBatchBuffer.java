@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+
+/**
+ * Buffer granting each sender a credit of bytes it can have queued in the receiver. A batch is acknowledged when it
+ * arrives if its sender is within its credit, otherwise the acknowledgement is held back until the sender's batches
+ * are consumed. Senders stop sending once they have too many batches waiting for an acknowledgement, so a slow
+ * receiver holds a bounded amount of memory instead of queuing all it is sent.
+ *
+ * The memory a receiver may hold is split evenly between its senders. It is dremio.exec.buffer.credit.bytes, or less
+ * if the receiving fragment's allocator has less headroom left. The headroom is checked each time credit is granted,
+ * so the credit follows the memory available to the fragment as it changes.
+ */
+public class CreditBasedRawBatchBuffer extends BaseRawBatchBuffer<RawFragmentBatch> {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CreditBasedRawBatchBuffer.class);
+
+  private final long creditBytes;
+  private final int senderCount;
+  // credit used by each sender, updated under the shared resource lock.
+  private final Map<Integer, SenderCredit> credits = Maps.newHashMap();
+
+  public CreditBasedRawBatchBuffer(SharedResource resource, SabotConfig config, FragmentHandle handle, BufferAllocator allocator, int fragmentCount, int oppositeId) {
+    super(resource, config, handle, allocator, fragmentCount);
+    this.creditBytes = config.getLong(ExecConstants.INCOMING_BUFFER_CREDIT_BYTES);
+    this.senderCount = fragmentCount;
+    this.bufferQueue = new CreditBufferQueue();
+  }
+
+  /**
+   * @return the bytes each sender may have queued and acknowledged.
+   */
+  private long getCreditPerSender() {
+    return Math.max(1, Math.min(creditBytes, allocator.getHeadroom()) / senderCount);
+  }
+
+  private SenderCredit getCredit(RawFragmentBatch batch) {
+    final int sender = batch.getHeader().getSendingMinorFragmentId();
+    SenderCredit credit = credits.get(sender);
+    if (credit == null) {
+      credit = new SenderCredit();
+      credits.put(sender, credit);
+    }
+    return credit;
+  }
+
+  private class CreditBufferQueue implements BufferQueue<RawFragmentBatch> {
+    private final LinkedBlockingDeque<RawFragmentBatch> buffer = Queues.newLinkedBlockingDeque();
+
+    @Override
+    public RawFragmentBatch poll() {
+      final RawFragmentBatch batch = buffer.poll();
+      if (batch != null) {
+        getCredit(batch).consumed(batch);
+      }
+      return batch;
+    }
+
+    @Override
+    public int size() {
+      return buffer.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return buffer.size() == 0;
+    }
+
+    @Override
+    public void add(RawFragmentBatch batch) {
+      buffer.add(batch);
+    }
+  }
+
+  @Override
+  protected void enqueueInner(final RawFragmentBatch batch) {
+    getCredit(batch).arrived(batch);
+    bufferQueue.add(batch);
+  }
+
+  @Override
+  protected void upkeep(RawFragmentBatch batch) {
+  }
+
+  /**
+   * Bytes a sender has queued that were acknowledged, and its batches waiting for credit to be acknowledged.
+   */
+  private final class SenderCredit {
+    private final Deque<RawFragmentBatch> withheld = new ArrayDeque<>();
+    private long grantedBytes;
+
+    private void arrived(RawFragmentBatch batch) {
+      if (withheld.isEmpty() && grantedBytes < getCreditPerSender()) {
+        grant(batch);
+      } else {
+        withheld.add(batch);
+      }
+    }
+
+    private void consumed(RawFragmentBatch batch) {
+      if (!withheld.isEmpty() && withheld.peekFirst() == batch) {
+        // consumed before it got credit.
+        withheld.pollFirst();
+        batch.sendOk();
+      } else {
+        grantedBytes -= batch.getByteCount();
+      }
+
+      while (!withheld.isEmpty() && grantedBytes < getCreditPerSender()) {
+        grant(withheld.pollFirst());
+      }
+    }
+
+    private void grant(RawFragmentBatch batch) {
+      grantedBytes += batch.getByteCount();
+      batch.sendOk();
+    }
+  }
+}
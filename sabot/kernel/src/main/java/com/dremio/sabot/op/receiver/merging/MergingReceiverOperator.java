@@ -18,7 +18,6 @@ package com.dremio.sabot.op.receiver.merging;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
 
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.AllocationHelper;
@@ -50,6 +49,7 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
+import com.dremio.sabot.op.sort.external.LoserTree;
 import com.dremio.sabot.op.spi.BatchStreamProvider;
 import com.dremio.sabot.op.spi.ProducerOperator;
 import com.sun.codemodel.JConditional;
@@ -72,8 +72,10 @@ public class MergingReceiverOperator implements ProducerOperator {
 
   private State state = State.NEEDS_SETUP;
   private OutputState outputState = OutputState.INIT_ON_NEXT;
-  private PriorityQueue<Node> pqueue;
+  private LoserTree tree;
   private Merger merger;
+  // whether the current winner moved and needs to replay its matches once it is ready.
+  private boolean replayWinner;
 
   private int outgoingPosition = 0;
 
@@ -116,9 +118,6 @@ public class MergingReceiverOperator implements ProducerOperator {
   public VectorAccessible setup() throws Exception {
     state.is(State.NEEDS_SETUP);
     this.merger = createMerger();
-
-    // allocate the priority queue with the generated comparator
-    this.pqueue = new PriorityQueue<>(nodes.length);
     state = State.CAN_PRODUCE;
     return outgoingContainer;
   }
@@ -148,6 +147,12 @@ public class MergingReceiverOperator implements ProducerOperator {
       return 0;
     }
 
+    if(tree == null){
+      initTree();
+    } else if(replayWinner){
+      replayWinner();
+    }
+
     if(outputState == OutputState.INIT_ON_NEXT){
       allocateOutgoing();
       outgoingPosition = 0;
@@ -162,20 +167,24 @@ public class MergingReceiverOperator implements ProducerOperator {
      * - when our outgoing batch is full
      * - when there are no more records.
      */
-    while (!pqueue.isEmpty()) {
-      // pop next value from pq and copy to outgoing batch
-      final Node node = pqueue.poll();
+    while (!tree.isEmpty()) {
+      // copy the smallest value to outgoing batch and move its stream forward
+      final Node node = nodes[tree.peek()];
       node.copyRecordToOutgoingBatch();
 
+      replayWinner = true;
+      final boolean moved = node.nextPosition();
+      if (moved) {
+        replayWinner();
+      }
+
       if (outgoingPosition == maxRecords) {
         logger.debug("Outgoing vectors space is full; breaking");
         outputState = OutputState.INIT_ON_NEXT;
-
-        node.nextPosition();
         return outgoingContainer.setAllCount(outgoingPosition);
       }
 
-      if(!node.nextPosition()){
+      if(!moved){
         state = State.BLOCKED;
         return 0;
       }
@@ -188,13 +197,42 @@ public class MergingReceiverOperator implements ProducerOperator {
     }
     outgoingContainer.setRecordCount(outgoingPosition);
 
-    if (pqueue.isEmpty()) {
+    if (tree.isEmpty()) {
       state = State.DONE;
     }
 
     return outgoingPosition;
   }
 
+  /**
+   * Play the first round of the merge, once all the streams have their first batch or are done.
+   */
+  private void initTree() {
+    tree = new LoserTree(nodes.length, new LoserTree.StreamComparator() {
+      @Override
+      public int compareStreams(int leftStream, int rightStream) {
+        final int leftIndex = (leftStream << 16) + nodes[leftStream].valueIndex;
+        final int rightIndex = (rightStream << 16) + nodes[rightStream].valueIndex;
+        return merger.doEval(leftIndex, rightIndex);
+      }
+    });
+    for (Node node : nodes) {
+      if (node.done) {
+        tree.markExhausted(node.batchId);
+      }
+    }
+    tree.init();
+  }
+
+  private void replayWinner() {
+    if (nodes[tree.peek()].done) {
+      tree.exhausted();
+    } else {
+      tree.advanced();
+    }
+    replayWinner = false;
+  }
+
   private void allocateOutgoing() {
     for (final VectorWrapper<?> w : outgoingContainer) {
       final ValueVector v = w.getValueVector();
@@ -275,9 +313,9 @@ public class MergingReceiverOperator implements ProducerOperator {
 
   /**
    * A SabotNode contains a reference to a single value in a specific incoming batch.  It is used
-   * as a wrapper for the priority queue.
+   * as a stream of the loser tree.
    */
-  private class Node implements Comparable<Node>, AutoCloseable {
+  private class Node implements AutoCloseable {
     private final int batchId;      // incoming batch
     private final ArrowRecordBatchLoader loader;
     private final RawFragmentBatchProvider provider;
@@ -302,8 +340,8 @@ public class MergingReceiverOperator implements ProducerOperator {
     }
 
     /**
-     * Attempt to get next value and then readd yourself to the priority queue.
-     * @return True if we were able to move forward (whether added to queue or not). False if we are blocked on an incoming message.
+     * Attempt to get next value.
+     * @return True if we were able to move forward (whether to a value or to the end of the stream). False if we are blocked on an incoming message.
      */
     private boolean nextPosition(){
       if(currentBatch == null || valueIndex == loader.getRecordCount() - 1){
@@ -327,18 +365,15 @@ public class MergingReceiverOperator implements ProducerOperator {
           valueIndex = 0;
         }
 
-        // we received actual data, let's set things up and add to priority queue.
+        // we received actual data, let's set things up.
         stats.addLongStat(Metric.BYTES_RECEIVED, currentBatch.getByteCount());
         stats.batchReceived(0, loader.getRecordCount(), size);
         inputCounts += loader.getRecordCount();
         valueIndex = 0;
-
-        pqueue.add(this);
         return true;
 
       }else{
         valueIndex++;
-        pqueue.add(this);
         return true;
       }
     }
@@ -347,13 +382,6 @@ public class MergingReceiverOperator implements ProducerOperator {
       return done || currentBatch != null;
     }
 
-    @Override
-    public int compareTo(final Node node2) {
-      final int leftIndex = (this.batchId << 16) + this.valueIndex;
-      final int rightIndex = (node2.batchId << 16) + node2.valueIndex;
-      return merger.doEval(leftIndex, rightIndex);
-    }
-
     private void copyRecordToOutgoingBatch() {
       if (!(++outputCounts <= inputCounts)) {
         throw new RuntimeException(String.format("Stream %d input count: %d output count %d", batchId, inputCounts, outputCounts));
@@ -60,13 +60,15 @@ public class BroadcastOperator extends BaseSender {
   private final AccountingExecTunnel[] tunnels;
   private final ExecProtos.FragmentHandle handle;
   private final OperatorStats stats;
+  private final TunnelProvider tunnelProvider;
   private final OperatorContext context;
 
   private VectorAccessible incoming;
 
   public enum Metric implements MetricDef {
     N_RECEIVERS,
-    BYTES_SENT;
+    BYTES_SENT,
+    STALL_NANOS; // time spent blocked waiting for receivers to acknowledge batches.
     @Override
     public int metricId() {
       return ordinal();
@@ -79,6 +81,7 @@ public class BroadcastOperator extends BaseSender {
     this.context = context;
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.tunnelProvider = tunnelProvider;
 
     final List<MinorFragmentEndpoint> destinations = config.getDestinations();
     final ArrayListMultimap<NodeEndpoint, Integer> dests = ArrayListMultimap.create();
@@ -116,6 +119,8 @@ public class BroadcastOperator extends BaseSender {
   private void updateStats(FragmentWritableBatch writableBatch) {
     stats.setLongStat(Metric.N_RECEIVERS, tunnels.length);
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
+    // the provider owns one tunnel per endpoint, shared by all the receivers on it.
+    stats.setLongStat(Metric.STALL_NANOS, tunnelProvider.getExecTunnelsBlockedNanos());
   }
 
   @Override
@@ -92,7 +92,8 @@ public class PartitionSenderOperator extends BaseSender {
     PRECOPY_NS,
     FLUSH_NS,
     NUM_FLUSHES,
-    BUCKET_SIZE;
+    BUCKET_SIZE,
+    STALL_NANOS; // time spent blocked waiting for receivers to acknowledge batches.
 
     @Override
     public int metricId() {
@@ -148,6 +149,7 @@ public class PartitionSenderOperator extends BaseSender {
     }
 
     partitioner.partitionBatch(incoming);
+    stats.setLongStat(Metric.STALL_NANOS, tunnelProvider.getExecTunnelsBlockedNanos());
   }
 
   @Override
@@ -160,6 +162,7 @@ public class PartitionSenderOperator extends BaseSender {
     }
 
     partitioner.finishWork();
+    stats.setLongStat(Metric.STALL_NANOS, tunnelProvider.getExecTunnelsBlockedNanos());
     state = State.DONE;
   }
 
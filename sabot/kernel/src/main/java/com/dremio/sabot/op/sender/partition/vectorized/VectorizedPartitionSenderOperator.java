@@ -260,6 +260,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     stats.setLongStat(Metric.PRECOPY_NS, preCopyWatch.elapsed(NANOSECONDS));
     stats.setLongStat(Metric.FLUSH_NS, flushWatch.elapsed(NANOSECONDS));
     copyWatches.updateStats(stats);
+    stats.setLongStat(Metric.STALL_NANOS, tunnelProvider.getExecTunnelsBlockedNanos());
   }
 
   @Override
@@ -283,6 +284,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     state = State.DONE;
 
     stats.setLongStat(Metric.FLUSH_NS, flushWatch.elapsed(NANOSECONDS));
+    stats.setLongStat(Metric.STALL_NANOS, tunnelProvider.getExecTunnelsBlockedNanos());
   }
 
   @Override
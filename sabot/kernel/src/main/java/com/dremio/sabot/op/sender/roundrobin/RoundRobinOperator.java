@@ -58,6 +58,7 @@ public class RoundRobinOperator extends BaseSender {
   private final RoundRobinSender config;
   private final ExecProtos.FragmentHandle handle;
   private final OperatorStats stats;
+  private final TunnelProvider tunnelProvider;
   private final BufferAllocator allocator;
 
   private final List<AccountingExecTunnel> tunnels;
@@ -69,7 +70,8 @@ public class RoundRobinOperator extends BaseSender {
 
   public enum Metric implements MetricDef {
     N_RECEIVERS,
-    BYTES_SENT;
+    BYTES_SENT,
+    STALL_NANOS; // time spent blocked waiting for receivers to acknowledge batches.
     @Override
     public int metricId() {
       return ordinal();
@@ -82,6 +84,7 @@ public class RoundRobinOperator extends BaseSender {
     this.allocator = context.getAllocator();
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.tunnelProvider = tunnelProvider;
 
     List<MinorFragmentEndpoint> destinations = config.getDestinations();
     final ArrayListMultimap<NodeEndpoint, Integer> dests = ArrayListMultimap.create();
@@ -113,6 +116,8 @@ public class RoundRobinOperator extends BaseSender {
   private void updateStats(FragmentWritableBatch writableBatch) {
     stats.setLongStat(Metric.N_RECEIVERS, tunnels.size());
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
+    // the provider owns one tunnel per endpoint, shared by all the receivers on it.
+    stats.setLongStat(Metric.STALL_NANOS, tunnelProvider.getExecTunnelsBlockedNanos());
   }
 
   @Override
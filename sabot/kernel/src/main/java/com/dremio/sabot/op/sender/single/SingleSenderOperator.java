@@ -47,7 +47,8 @@ public class SingleSenderOperator extends BaseSender {
     private VectorAccessible incoming;
 
     public enum Metric implements MetricDef {
-      BYTES_SENT;
+      BYTES_SENT,
+      STALL_NANOS; // time spent blocked waiting for the receiver to acknowledge batches.
 
       @Override
       public int metricId() {
@@ -123,6 +124,7 @@ public class SingleSenderOperator extends BaseSender {
 
     private void updateStats(FragmentWritableBatch writableBatch) {
       context.getStats().addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
+      context.getStats().setLongStat(Metric.STALL_NANOS, tunnel.getBlockedNanos());
     }
 
     @Override
@@ -25,6 +25,7 @@ import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.sig.MappingSet;
 import com.dremio.exec.exception.SchemaChangeException;
 import com.dremio.exec.expr.ClassGenerator;
@@ -32,9 +33,11 @@ import com.dremio.exec.expr.ClassProducer;
 import com.dremio.exec.expr.ClassGenerator.HoldingContainer;
 import com.dremio.exec.expr.fn.FunctionGenerationHelper;
 import com.dremio.exec.physical.config.ExternalSort;
+import com.dremio.exec.proto.helper.QueryIdHelper;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.MemoryArbiter;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
@@ -89,6 +92,7 @@ public class ExternalSortOperator implements SingleInputOperator {
   private MovingCopier copier;
 
   private int maxBatchesInMemory = 0;
+  private MemoryArbiter.Grant memoryGrant;
 
   private State state = State.NEEDS_SETUP;
 
@@ -101,7 +105,10 @@ public class ExternalSortOperator implements SingleInputOperator {
     MAX_BATCH_SIZE,
     AVG_BATCH_SIZE,
     SPILL_TIME_NANOS,       // time spent spilling to diskRuns while sorting
-    MERGE_TIME_NANOS;       // time spent merging disk runs and spilling
+    MERGE_TIME_NANOS,       // time spent merging disk runs and spilling
+    MEMORY_GRANTED,         // memory granted by the memory arbiter, in bytes
+    MEMORY_YIELDED,         // memory given up to other operators through the memory arbiter, in bytes
+    SPILL_REQUESTS;         // number of times the memory arbiter asked the operator to spill
 
     @Override
     public int metricId() {
@@ -135,25 +142,57 @@ public class ExternalSortOperator implements SingleInputOperator {
     this.memoryRun = new MemoryRun(config, producer, context.getAllocator(), incoming.getSchema());
     this.diskRuns = new DiskRunManager(context.getConfig(), targetBatchSize, context.getFragmentHandle(), config.getOperatorId(), context.getClassProducer(), allocator, config.getOrderings(), incoming.getSchema());
     this.incoming = incoming;
+
+    final MemoryArbiter arbiter = context.getMemoryArbiter();
+    if (arbiter != null && context.getOptions().getOption(ExecConstants.MEMORY_ARBITER)) {
+      final String name = String.format("sort:%s:%d", QueryIdHelper.getFragmentId(context.getFragmentHandle()),
+          config.getOperatorId());
+      this.memoryGrant = arbiter.register(name, allocator, new MemoryArbiter.Spiller() {
+        @Override
+        public long getSpillCost() {
+          // called from other threads, only look at the allocator.
+          return allocator.getAllocatedMemory();
+        }
+      });
+    }
+
     state = State.CAN_CONSUME;
     return output;
   }
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(copier, output, memoryRun, diskRuns);
+    AutoCloseables.close(memoryGrant, copier, output, memoryRun, diskRuns);
   }
 
   @Override
   public void consumeData(int records) throws Exception {
     state.is(State.CAN_CONSUME);
+
+    // another operator was granted the memory of the current run.
+    if (memoryGrant != null && memoryGrant.isSpillRequested()) {
+      if (memoryRun.isEmpty()) {
+        memoryGrant.spilled();
+      } else {
+        rotateRuns();
+      }
+    }
+
+    boolean requested = false;
     while(true){
       boolean added = memoryRun.addBatch(incoming);
-      if(!added){
-        rotateRuns();
-      }else{
+      if (added) {
         break;
       }
+      // ask for more memory once before spilling.
+      if (memoryGrant != null && !requested) {
+        requested = true;
+        final long batchSize = new BatchStats().getSize(incoming, BatchStats.SizeType.WORSE_CASE);
+        if (memoryGrant.request(Math.max(allocator.getLimit() / 4, batchSize * 4))) {
+          continue;
+        }
+      }
+      rotateRuns();
     }
     updateStats();
   }
@@ -161,6 +200,9 @@ public class ExternalSortOperator implements SingleInputOperator {
   @Override
   public void noMoreToConsume() {
     state = State.CAN_PRODUCE;
+    if (memoryGrant != null) {
+      memoryGrant.doneConsuming();
+    }
 
     if(diskRuns.isEmpty()){ // no spills
 
@@ -251,6 +293,11 @@ public class ExternalSortOperator implements SingleInputOperator {
     stats.setLongStat(Metric.AVG_BATCH_SIZE, diskRuns.getAvgMaxBatchSize());
     stats.setLongStat(Metric.SPILL_TIME_NANOS, diskRuns.spillTimeNanos());
     stats.setLongStat(Metric.MERGE_TIME_NANOS, diskRuns.mergeTimeNanos());
+    if (memoryGrant != null) {
+      stats.setLongStat(Metric.MEMORY_GRANTED, memoryGrant.getGrantedBytes());
+      stats.setLongStat(Metric.MEMORY_YIELDED, memoryGrant.getYieldedBytes());
+      stats.setLongStat(Metric.SPILL_REQUESTS, memoryGrant.getSpillRequests());
+    }
   }
 
   private void rotateRuns() {
@@ -264,6 +311,9 @@ public class ExternalSortOperator implements SingleInputOperator {
     try {
       memoryRun.closeToDisk(diskRuns);
       memoryRun = new MemoryRun(config, producer, allocator, incoming.getSchema());
+      if (memoryGrant != null) {
+        memoryGrant.spilled();
+      }
     } catch (Exception e) {
       throw UserException.dataWriteError(e)
         .message("Failure while attempting to spill sort data to disk.")
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Tournament tree of losers used to merge k sorted streams. It only tracks stream ids, the values are compared through
+ * a StreamComparator looking at the current head of each stream.
+ *
+ * The tree is held in a single int array:
+ *
+ * [ w ] [ l1 l2 ... lk-1 ]
+ *
+ * w: the stream holding the smallest head.
+ * l1 - lk-1: the internal nodes, each holding the stream that lost the match played at that node. The children of node
+ * n are 2n and 2n+1, stream s being the leaf k+s.
+ *
+ * Once the head of the winning stream moves, the winner only replays the matches on the path from its leaf to the root,
+ * so each merged value costs ceil(log2(k)) comparisons, where a binary heap needs up to twice as many.
+ *
+ * Ties are broken by stream id, so the merge is stable.
+ */
+public final class LoserTree {
+
+  /**
+   * Compares the current heads of two streams.
+   */
+  public interface StreamComparator {
+    int compareStreams(int leftStream, int rightStream);
+  }
+
+  private static final int NONE = -1;
+
+  private final StreamComparator comparator;
+  private final int size;
+  private final int[] tree;
+  private final boolean[] exhausted;
+  private int remaining;
+  private boolean initialized;
+
+  public LoserTree(int size, StreamComparator comparator) {
+    Preconditions.checkArgument(size > 0, "Invalid number of streams: %s", size);
+    this.size = size;
+    this.comparator = comparator;
+    this.tree = new int[size];
+    this.exhausted = new boolean[size];
+    this.remaining = size;
+  }
+
+  /**
+   * Mark a stream as having no values. Only valid before the tree is initialized.
+   */
+  public void markExhausted(int stream) {
+    Preconditions.checkState(!initialized, "Tree already initialized.");
+    if (!exhausted[stream]) {
+      exhausted[stream] = true;
+      remaining--;
+    }
+  }
+
+  /**
+   * Play all the matches. The heads of all the streams that are not exhausted must be available.
+   */
+  public void init() {
+    Preconditions.checkState(!initialized, "Tree already initialized.");
+    // winners of the matches played at each node, leaves included.
+    final int[] winners = new int[2 * size];
+    for (int s = 0; s < size; s++) {
+      winners[size + s] = s;
+    }
+    for (int n = size - 1; n > 0; n--) {
+      final int left = winners[2 * n];
+      final int right = winners[2 * n + 1];
+      if (beats(left, right)) {
+        winners[n] = left;
+        tree[n] = right;
+      } else {
+        winners[n] = right;
+        tree[n] = left;
+      }
+    }
+    tree[0] = size == 1 ? 0 : winners[1];
+    initialized = true;
+  }
+
+  /**
+   * @return the stream holding the smallest head, or -1 if all the streams are exhausted.
+   */
+  public int peek() {
+    return remaining == 0 ? NONE : tree[0];
+  }
+
+  public boolean isEmpty() {
+    return remaining == 0;
+  }
+
+  /**
+   * The head of the winning stream moved to its next value.
+   */
+  public void advanced() {
+    replay();
+  }
+
+  /**
+   * The winning stream has no more values.
+   */
+  public void exhausted() {
+    final int winner = tree[0];
+    if (!exhausted[winner]) {
+      exhausted[winner] = true;
+      remaining--;
+    }
+    replay();
+  }
+
+  private void replay() {
+    int winner = tree[0];
+    for (int n = (size + winner) >>> 1; n > 0; n >>>= 1) {
+      final int loser = tree[n];
+      if (beats(loser, winner)) {
+        tree[n] = winner;
+        winner = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  private boolean beats(int left, int right) {
+    if (exhausted[left]) {
+      return false;
+    }
+    if (exhausted[right]) {
+      return true;
+    }
+    final int cmp = comparator.compareStreams(left, right);
+    return cmp < 0 || (cmp == 0 && left < right);
+  }
+}
@@ -15,10 +15,7 @@
  */
 package com.dremio.sabot.op.sort.external;
 
-import io.netty.buffer.ArrowBuf;
-
 import java.io.IOException;
-import java.util.Vector;
 
 import javax.inject.Named;
 
@@ -31,23 +28,21 @@ import com.dremio.exec.exception.SchemaChangeException;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
-import com.dremio.exec.record.selection.SelectionVector4;
 import com.dremio.sabot.exec.context.FunctionContext;
 import com.dremio.sabot.op.sort.external.DiskRunManager.DiskRunIterator;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
 import org.apache.arrow.vector.AllocationHelper;
 
-public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier {
+public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier, LoserTree.StreamComparator {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PriorityQueueCopierTemplate.class);
 
-  private SelectionVector4 vector4;
   private DiskRunIterator[] iterators;
   private Sv4HyperContainer incoming;
   private VectorContainer outgoing;
-  private int size;
-  private int queueSize = 0;
+  // compound index of the current record of each run.
+  private int[] heads;
+  private LoserTree tree;
 
   @Override
   public void setup(
@@ -57,20 +52,22 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
       VectorAccessible incoming,
       VectorContainer outgoing) throws SchemaChangeException, IOException {
     this.incoming = new Sv4HyperContainer(allocator, incoming.getSchema());
-    this.size = iterators.length;
-    final ArrowBuf arrowBuf = allocator.buffer(4 * size);
-    this.vector4 = new SelectionVector4(arrowBuf, size, Character.MAX_VALUE);
     this.iterators = iterators;
     this.outgoing = outgoing;
+    this.heads = new int[iterators.length];
+    this.tree = new LoserTree(iterators.length, this);
 
     doSetup(context, incoming, outgoing);
 
-    queueSize = 0;
-    for (int i = 0; i < size; i++) {
-      vector4.set(i, i, iterators[i].getNextId());
-      siftUp();
-      queueSize++;
+    for (int i = 0; i < iterators.length; i++) {
+      final int nextIndex = iterators[i].getNextId();
+      if (nextIndex < 0) {
+        tree.markExhausted(i);
+      } else {
+        heads[i] = compoundIndex(i, nextIndex);
+      }
     }
+    tree.init();
   }
 
   @Override
@@ -80,26 +77,25 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
     try{
       for (; outgoingIndex < targetRecordCount; outgoingIndex++) {
 
-        if (queueSize == 0) {
+        if (tree.isEmpty()) {
           return 0;
         }
 
-        final int compoundIndex = vector4.get(0);
-        final int batch = compoundIndex >>> 16;
+        final int batch = tree.peek();
         assert batch < iterators.length : String.format("batch: %d batchGroups: %d", batch, iterators.length);
-        doCopy(compoundIndex, outgoingIndex);
+        doCopy(heads[batch], outgoingIndex);
 
         int nextIndex = iterators[batch].getNextId();
         if (nextIndex < 0) {
-          vector4.set(0, vector4.get(--queueSize));
+          tree.exhausted();
         } else {
-          vector4.set(0, batch, nextIndex);
+          heads[batch] = compoundIndex(batch, nextIndex);
+          tree.advanced();
         }
-        if (queueSize == 0) {
+        if (tree.isEmpty()) {
           setValueCount(++outgoingIndex);
           return outgoingIndex;
         }
-        siftDown();
       }
       setValueCount(targetRecordCount);
       return targetRecordCount;
@@ -131,7 +127,6 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
   public void close() throws Exception {
     AutoCloseables.close(
       Iterables.concat(
-          AutoCloseables.iter(vector4),
           AutoCloseables.iter(outgoing),
           incoming,
           AutoCloseables.iter(iterators)
@@ -139,56 +134,19 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
     );
   }
 
-  private void siftUp() {
-    int p = queueSize;
-    while (p > 0) {
-      if (compare(p, (p - 1) / 2) < 0) {
-        swap(p, (p - 1) / 2);
-        p = (p - 1) / 2;
-      } else {
-        break;
-      }
-    }
-  }
-
   private void allocateVectors(int targetRecordCount) {
     for (VectorWrapper<?> w: outgoing) {
       AllocationHelper.allocateNew(w.getValueVector(), targetRecordCount);
     }
   }
 
-  private void siftDown() {
-    int p = 0;
-    int next;
-    while (p * 2 + 1 < queueSize) { // While the current node has at least one child
-      if (p * 2 + 2 >= queueSize) { // if current node has only one child, then we only look at it
-        next = p * 2 + 1;
-      } else {
-        if (compare(p * 2 + 1, p * 2 + 2) <= 0) {//if current node has two children, we must first determine which one has higher priority
-          next = p * 2 + 1;
-        } else {
-          next = p * 2 + 2;
-        }
-      }
-      if (compare(p, next) > 0) { // compare current node to highest priority child and swap if necessary
-        swap(p, next);
-        p = next;
-      } else {
-        break;
-      }
-    }
-  }
-
-  public void swap(int sv0, int sv1) {
-    int tmp = vector4.get(sv0);
-    vector4.set(sv0, vector4.get(sv1));
-    vector4.set(sv1, tmp);
+  private static int compoundIndex(int batch, int recordIndex) {
+    return (batch << 16) | (recordIndex & 65535);
   }
 
-  public int compare(int leftIndex, int rightIndex) {
-    int sv1 = vector4.get(leftIndex);
-    int sv2 = vector4.get(rightIndex);
-    return doEval(sv1, sv2);
+  @Override
+  public int compareStreams(int leftStream, int rightStream) {
+    return doEval(heads[leftStream], heads[rightStream]);
   }
 
   public abstract void doSetup(@Named("context") FunctionContext context, @Named("incoming") VectorAccessible incoming, @Named("outgoing") VectorAccessible outgoing);
@@ -26,6 +26,7 @@ import com.codahale.metrics.Gauge;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
+import com.dremio.exec.proto.CoordExecRPC.FragmentStatusBatch;
 import com.dremio.exec.proto.CoordExecRPC.InitializeFragments;
 import com.dremio.exec.proto.CoordExecRPC.RpcType;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
@@ -191,6 +192,21 @@ public class CoordExecService implements Service {
         sender.send(OK);
         break;
 
+      // executor > coordinator
+      case RpcType.REQ_FRAGMENT_STATUS_BATCH_VALUE:
+        final FragmentStatusBatch batch = get(pBody, FragmentStatusBatch.PARSER);
+        // the statuses are independent: a failing update must not drop the others, nor the acknowledgement the
+        // executor waits for.
+        for (FragmentStatus fragmentStatus : batch.getStatusList()) {
+          try {
+            execToCoord.get().fragmentStatusUpdate(fragmentStatus);
+          } catch (Exception e) {
+            logger.warn("Failure while handling status update of fragment {}", fragmentStatus.getHandle(), e);
+          }
+        }
+        sender.send(OK);
+        break;
+
       case RpcType.REQ_QUERY_DATA_VALUE:
         QueryData header = get(pBody, QueryData.PARSER);
         execToCoord.get().dataArrived(header, dBody, sender);
@@ -209,6 +225,7 @@ public class CoordExecService implements Service {
         .add(RpcType.REQ_START_FRAGMENTS, InitializeFragments.class, RpcType.ACK, Ack.class)
         .add(RpcType.REQ_CANCEL_FRAGMENTS, FragmentHandle.class, RpcType.ACK, Ack.class)
         .add(RpcType.REQ_FRAGMENT_STATUS, FragmentStatus.class, RpcType.ACK, Ack.class)
+        .add(RpcType.REQ_FRAGMENT_STATUS_BATCH, FragmentStatusBatch.class, RpcType.ACK, Ack.class)
         .add(RpcType.REQ_QUERY_DATA, QueryData.class, RpcType.ACK, Ack.class)
         .build();
   }
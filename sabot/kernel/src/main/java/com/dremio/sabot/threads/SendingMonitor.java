@@ -40,6 +40,9 @@ public class SendingMonitor {
   private final AtomicInteger outsandingMessages = new AtomicInteger(0);
   private final SharedResource resource;
   private final SendingAccountor accountor;
+  // time spent blocked waiting for receivers to acknowledge messages, updated under the resource lock.
+  private long blockedNanos;
+  private long blockedSince;
 
   public SendingMonitor(SharedResource resource, SendingAccountor accountor) {
     super();
@@ -53,6 +56,7 @@ public class SendingMonitor {
     synchronized(resource){
       final int outcome = outsandingMessages.incrementAndGet();
       if (outcome == LIMIT) {
+        blockedSince = System.nanoTime();
         resource.markBlocked();
       }
     }
@@ -63,11 +67,24 @@ public class SendingMonitor {
     synchronized(resource) {
       final int outcome = outsandingMessages.decrementAndGet();
       if(outcome == RESTART){
+        blockedNanos += System.nanoTime() - blockedSince;
         resource.markAvailable();
       }
     }
   }
 
+  /**
+   * Get how long sending was blocked because receivers didn't acknowledge the messages sent to them.
+   */
+  public long getBlockedNanos() {
+    synchronized(resource) {
+      if (outsandingMessages.get() >= LIMIT) {
+        return blockedNanos + System.nanoTime() - blockedSince;
+      }
+      return blockedNanos;
+    }
+  }
+
   public RpcOutcomeListener<Ack> wrap(RpcOutcomeListener<Ack> listener){
     return new WrappedListener(listener);
   }
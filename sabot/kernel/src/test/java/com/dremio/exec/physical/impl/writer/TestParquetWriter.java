@@ -186,6 +186,42 @@ public class TestParquetWriter extends BaseTestQuery {
     }
   }
 
+  @Test
+  public void testAllScalarTypesColumnar() throws Exception {
+    try (AutoCloseable ac = withOption(ExecConstants.PARQUET_WRITER_COLUMNAR, true)) {
+      runTestAndValidate(allTypesSelection, "*", allTypesTable, "testAllScalarTypesColumnar_donuts_json", false);
+    }
+  }
+
+  @Test
+  public void testColumnarMultipleFiles() throws Exception {
+    // all the columns are flat primitives, so they are written a column at a time (see TestColumnarParquetWriter),
+    // read back with the default reader.
+    final String selection = "l_orderkey, l_partkey, l_quantity, l_extendedprice, l_shipdate, l_comment";
+    final String inputTable = "cp.`tpch/lineitem.parquet`";
+    final String outputFile = "columnar_lineitem_parquet";
+    try (AutoCloseable ac = withOption(ExecConstants.PARQUET_WRITER_COLUMNAR, true)) {
+      test(String.format("ALTER SESSION SET `%s` = %d", ExecConstants.PARQUET_BLOCK_SIZE, 128*1024));
+      deleteTableIfExists(outputFile);
+      test("use dfs_test");
+      test("CREATE TABLE " + outputFile + " AS " + select(selection, inputTable, false));
+
+      // files are cut at the same points as when writing record by record.
+      final Path output = new Path(getDfsTestTmpSchemaLocation(), outputFile);
+      final FileSystem fs = output.getFileSystem(new Configuration());
+      assertTrue(fs.listStatus(output).length > 1);
+
+      testBuilder()
+          .unOrdered()
+          .sqlQuery(select(selection, outputFile, false))
+          .sqlBaselineQuery(select(selection, inputTable, false))
+          .go();
+    } finally {
+      test(String.format("ALTER SESSION RESET `%s`", ExecConstants.PARQUET_BLOCK_SIZE));
+      deleteTableIfExists(outputFile);
+    }
+  }
+
   @Test
   public void testNullAndEmptyMaps() throws Exception {
     runTestAndValidate("map", "*", "cp.`/json/null_map.json`", "null_empty_maps_json", false);
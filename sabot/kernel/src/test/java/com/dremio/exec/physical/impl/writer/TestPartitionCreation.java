@@ -15,10 +15,23 @@
  */
 package com.dremio.exec.physical.impl.writer;
 
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.junit.Test;
 
 import com.dremio.BaseTestQuery;
 import com.dremio.exec.ExecConstants;
+import com.dremio.exec.planner.physical.PlannerSettings;
 
 public class TestPartitionCreation extends BaseTestQuery {
 
@@ -157,4 +170,78 @@ public class TestPartitionCreation extends BaseTestQuery {
     test("create table dfs_test.mypart3 PARTITION BY (kind) STORE AS (type => 'TEXT', fieldDelimiter => ',') as select * from sys.options");
   }
 
+  @Test
+  public void testZOrderLocalSort() throws Exception {
+    final String select = "select l_orderkey, l_partkey, l_suppkey, l_shipdate from cp.`tpch/lineitem.parquet`";
+    try {
+      // small blocks, for the table to be written to several row groups.
+      test(String.format("ALTER SESSION SET `%s` = %d", ExecConstants.PARQUET_BLOCK_SIZE, 128*1024));
+      test("create table dfs_test.zorder_lexicographic LOCALSORT BY (l_partkey, l_suppkey) as " + select);
+      try (AutoCloseable ac = withOption(PlannerSettings.WRITER_ZORDER, true)) {
+        test("create table dfs_test.zorder0 LOCALSORT BY (l_partkey, l_suppkey) as " + select);
+        test("create table dfs_test.zorder1 PARTITION BY (l_suppkey) LOCALSORT BY (l_partkey, l_shipdate) as " + select);
+      }
+    } finally {
+      test(String.format("ALTER SESSION RESET `%s`", ExecConstants.PARQUET_BLOCK_SIZE));
+    }
+
+    // sorted by l_partkey first, the row groups span about all the values of l_suppkey.
+    final double lexicographicSpan = getRowGroupSpan("zorder_lexicographic", "l_suppkey");
+    assertTrue(lexicographicSpan > 0.9);
+    // the row groups of the z-ordered table only span part of the values of both columns.
+    final double partkeySpan = getRowGroupSpan("zorder0", "l_partkey");
+    final double suppkeySpan = getRowGroupSpan("zorder0", "l_suppkey");
+    assertTrue("l_partkey row groups span " + partkeySpan, partkeySpan < 0.75);
+    assertTrue("l_suppkey row groups span " + suppkeySpan, suppkeySpan < 0.75);
+    assertTrue(suppkeySpan < lexicographicSpan);
+
+    // the z-order value is not written.
+    testBuilder()
+      .unOrdered()
+      .sqlQuery("select * from dfs_test.zorder0")
+      .sqlBaselineQuery(select)
+      .go();
+    testBuilder()
+      .unOrdered()
+      .sqlQuery("select l_orderkey, l_partkey, l_suppkey, l_shipdate from dfs_test.zorder1")
+      .sqlBaselineQuery(select)
+      .go();
+  }
+
+  /**
+   * Average of the min/max ranges of a column in the row groups of a table, relative to the range of the column
+   * in the whole table.
+   */
+  private static double getRowGroupSpan(String table, String column) throws Exception {
+    final Configuration conf = new Configuration();
+    final Path output = new Path(getDfsTestTmpSchemaLocation(), table);
+    final FileSystem fs = output.getFileSystem(conf);
+    double min = Double.MAX_VALUE;
+    double max = -Double.MAX_VALUE;
+    double spans = 0;
+    int rowGroups = 0;
+    for (FileStatus file : fs.listStatus(output)) {
+      if (!file.getPath().getName().endsWith(".parquet")) {
+        continue;
+      }
+      final ParquetMetadata footer = ParquetFileReader.readFooter(conf, file, ParquetMetadataConverter.NO_FILTER);
+      for (BlockMetaData block : footer.getBlocks()) {
+        for (ColumnChunkMetaData chunk : block.getColumns()) {
+          if (!chunk.getPath().toDotString().equals(column)) {
+            continue;
+          }
+          final Statistics<?> statistics = chunk.getStatistics();
+          final double blockMin = ((Number) statistics.genericGetMin()).doubleValue();
+          final double blockMax = ((Number) statistics.genericGetMax()).doubleValue();
+          min = Math.min(min, blockMin);
+          max = Math.max(max, blockMax);
+          spans += blockMax - blockMin;
+          rowGroups++;
+        }
+      }
+    }
+    assertTrue("expected several row groups in " + table, rowGroups > 1);
+    return spans / rowGroups / (max - min);
+  }
+
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.dremio.service.namespace.dataset.proto.ColumnStatistics;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
+import com.google.common.collect.ImmutableList;
+
+public class TestTableStatistics {
+
+  private static final TableStatistics STATISTICS = new TableStatistics(new DatasetStatistics()
+      .setRecordCount(100L)
+      .setColumnsList(ImmutableList.of(
+          new ColumnStatistics()
+              .setName("A")
+              .setNonNullCount(80L)
+              .setNdv(20L)
+              .setMinValue(0d)
+              .setMaxValue(100d)
+              // half of the values are below 10.
+              .setHistogramBoundsList(ImmutableList.of(0d, 10d, 100d)),
+          new ColumnStatistics()
+              .setName("b")
+              .setNonNullCount(100L)
+              .setMinValue(0d)
+              .setMaxValue(10d),
+          new ColumnStatistics()
+              .setName("c")
+              .setNonNullCount(100L))));
+
+  @Test
+  public void nullsAndDistinctValues() {
+    assertEquals(0.2, STATISTICS.getNullFraction("a"), 0.0001);
+    assertEquals(20, STATISTICS.getDistinctCount("a"), 0);
+    assertNull(STATISTICS.getDistinctCount("b"));
+    assertNull(STATISTICS.getNullFraction("d"));
+  }
+
+  @Test
+  public void fractionBelowFromHistogram() {
+    assertEquals(0, STATISTICS.getFractionBelow("a", -1), 0);
+    assertEquals(0.25, STATISTICS.getFractionBelow("a", 5), 0.0001);
+    assertEquals(0.75, STATISTICS.getFractionBelow("a", 55), 0.0001);
+    assertEquals(1, STATISTICS.getFractionBelow("a", 1000), 0);
+  }
+
+  @Test
+  public void fractionBelowFromRange() {
+    assertEquals(0.3, STATISTICS.getFractionBelow("b", 3), 0.0001);
+    assertNull(STATISTICS.getFractionBelow("c", 3));
+  }
+}
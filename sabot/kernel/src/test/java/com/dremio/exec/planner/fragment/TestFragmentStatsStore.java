@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.fragment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.dremio.exec.planner.fragment.FragmentStatsStore.FragmentStats;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.proto.UserBitShared.MajorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.proto.UserBitShared.StreamProfile;
+import com.dremio.exec.work.protector.UserResult;
+import com.google.common.collect.ImmutableMap;
+
+public class TestFragmentStatsStore {
+
+  @Test
+  public void recordLargestOperator() {
+    final FragmentStatsStore store = new FragmentStatsStore(10);
+    store.record(ImmutableMap.of(0, "a", 1, "b"), newProfile());
+
+    // operator 2 reads 100 + 50 records over the two minor fragments.
+    final FragmentStats a = store.get("a");
+    assertEquals(150, a.getRecords());
+    assertEquals(1500, a.getBytes());
+
+    // fragment 1 has no operator stats.
+    assertNull(store.get("b"));
+  }
+
+  @Test
+  public void recordCompletedQueriesOnly() {
+    final FragmentStatsStore store = new FragmentStatsStore(10);
+    final Fragment fragment = Mockito.mock(Fragment.class);
+
+    final AttemptObserver failed = store.newRecorder();
+    failed.planParallelized(newPlanningSet(fragment));
+    failed.attemptCompletion(new UserResult(null, null, QueryState.FAILED, newProfile(), null));
+    assertNull(store.get("a"));
+
+    final AttemptObserver completed = store.newRecorder();
+    completed.planParallelized(newPlanningSet(fragment));
+    completed.attemptCompletion(new UserResult(null, null, QueryState.COMPLETED, newProfile(), null));
+    assertEquals(150, store.get("a").getRecords());
+  }
+
+  @Test
+  public void measuredCostReplacesEstimate() {
+    final Stats stats = new Stats();
+    stats.addCost(10);
+    assertEquals(10, stats.getMaxCost(), 0);
+    stats.setMeasuredCost(1000000);
+    assertEquals(1000000, stats.getMaxCost(), 0);
+  }
+
+  private static PlanningSet newPlanningSet(Fragment fragment) {
+    final PlanningSet planningSet = new PlanningSet();
+    planningSet.get(fragment).setSignature("a");
+    return planningSet;
+  }
+
+  private static QueryProfile newProfile() {
+    return QueryProfile.newBuilder()
+        .addFragmentProfile(MajorFragmentProfile.newBuilder()
+            .setMajorFragmentId(0)
+            .addMinorFragmentProfile(MinorFragmentProfile.newBuilder()
+                .addOperatorProfile(newOperator(1, 10))
+                .addOperatorProfile(newOperator(2, 100)))
+            .addMinorFragmentProfile(MinorFragmentProfile.newBuilder()
+                .addOperatorProfile(newOperator(1, 20))
+                .addOperatorProfile(newOperator(2, 50))))
+        .addFragmentProfile(MajorFragmentProfile.newBuilder()
+            .setMajorFragmentId(1)
+            .addMinorFragmentProfile(MinorFragmentProfile.newBuilder()))
+        .build();
+  }
+
+  private static OperatorProfile newOperator(int operatorId, long records) {
+    return OperatorProfile.newBuilder()
+        .setOperatorId(operatorId)
+        .addInputProfile(StreamProfile.newBuilder().setRecords(records).setSize(records * 10))
+        .build();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.logical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.common.util.TestTools;
+import com.dremio.sabot.rpc.user.QueryDataBatch;
+
+public class TestTableSample extends PlanTestBase {
+  // 12 files of 10 rows.
+  private static final String TABLE = "dfs.`" + TestTools.getWorkingPath() + "/src/test/resources/multilevel/parquet`";
+
+  @Test
+  public void sampleAllSplits() throws Exception {
+    testBuilder()
+        .sqlQuery("select count(o_custkey) as cnt from %s tablesample system(100)", TABLE)
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(120L)
+        .go();
+  }
+
+  @Test
+  public void emptySampleReadsOneSplit() throws Exception {
+    testBuilder()
+        .sqlQuery("select count(o_custkey) as cnt from %s tablesample system(0)", TABLE)
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(10L)
+        .go();
+  }
+
+  @Test
+  public void repeatableSample() throws Exception {
+    final String sql = String.format("select o_orderkey from %s tablesample system(50) repeatable(42)", TABLE);
+    final int count = countRows(sql);
+    assertTrue(count > 0 && count <= 120 && count % 10 == 0);
+    assertEquals(count, countRows(sql));
+  }
+
+  @Test
+  public void sampleOfJoinRejected() throws Exception {
+    errorMsgTestHelper(String.format("select * from (select a.o_orderkey from %s a join %s b "
+        + "on a.o_orderkey = b.o_orderkey) tablesample system(50)", TABLE, TABLE),
+        "TABLESAMPLE SYSTEM is only supported on datasets reading a single table.");
+  }
+
+  private int countRows(String sql) throws Exception {
+    final List<QueryDataBatch> results = testSqlWithResults(sql);
+    try {
+      int count = 0;
+      for (QueryDataBatch batch : results) {
+        count += batch.getHeader().getRowCount();
+      }
+      return count;
+    } finally {
+      for (QueryDataBatch batch : results) {
+        batch.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.calcite.avatica.util.Quoting;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.parser.SqlParser;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.parser.SqlAnalyzeTable;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.ColumnStatistics;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
+import com.dremio.service.users.SystemUser;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+/**
+ * Runs ANALYZE TABLE and checks the statistics it saves and the estimates the planner derives from them.
+ */
+public class TestAnalyzeTable extends PlanTestBase {
+
+  private static final String NATION = "cp.`tpch/nation.parquet`";
+
+  @BeforeClass
+  public static void analyze() throws Exception {
+    // nation has 25 nations, numbered from 0 to 24, 5 per region.
+    try (AutoCloseable ac = withOption(PlannerSettings.STATISTICS_HISTOGRAM_BUCKETS, 5)) {
+      test("ANALYZE TABLE " + NATION + " COMPUTE STATISTICS");
+    }
+  }
+
+  @Test
+  public void parse() throws Exception {
+    final SqlParser.Config config = new ParserConfig(Quoting.BACK_TICK, 128);
+    final SqlNode node = SqlParser.create("ANALYZE TABLE a.b COMPUTE STATISTICS", config).parseStmt();
+    assertTrue(node instanceof SqlAnalyzeTable);
+    assertEquals(ImmutableList.of("a", "b"), ((SqlAnalyzeTable) node).getTable().names);
+
+    // analyze, compute and statistics remain valid identifiers.
+    SqlParser.create("SELECT analyze, compute, statistics FROM analyze.statistics", config).parseStmt();
+  }
+
+  @Test
+  public void savedStatistics() throws Exception {
+    final DatasetStatistics statistics = getSabotContext().getNamespaceService(SystemUser.SYSTEM_USERNAME)
+        .getDatasetStatistics(new NamespaceKey(Arrays.asList("cp", "tpch/nation.parquet")));
+    assertNotNull(statistics);
+    assertEquals(25, (long) statistics.getRecordCount());
+
+    final Map<String, ColumnStatistics> columns = Maps.newHashMap();
+    for (ColumnStatistics column : statistics.getColumnsList()) {
+      columns.put(column.getName(), column);
+    }
+
+    final ColumnStatistics nationKey = columns.get("n_nationkey");
+    assertEquals(25, (long) nationKey.getNonNullCount());
+    assertEquals(25, nationKey.getNdv(), 1);
+    assertEquals(0, nationKey.getMinValue(), 0);
+    assertEquals(24, nationKey.getMaxValue(), 0);
+    // the last value of each bucket of 5 nations.
+    assertEquals(ImmutableList.of(0d, 4d, 9d, 14d, 19d, 24d), nationKey.getHistogramBoundsList());
+
+    final ColumnStatistics regionKey = columns.get("n_regionkey");
+    assertEquals(5, (long) regionKey.getNdv());
+    assertEquals(ImmutableList.of(0d, 0d, 1d, 2d, 3d, 4d), regionKey.getHistogramBoundsList());
+
+    final ColumnStatistics name = columns.get("n_name");
+    assertEquals(25, (long) name.getNonNullCount());
+    assertNotNull(name.getNdv());
+    assertNull(name.getMinValue());
+    assertNull(name.getHistogramBoundsList());
+  }
+
+  @Test
+  public void selectivity() throws Exception {
+    try (AutoCloseable ac = withOption(PlannerSettings.USE_STATISTICS, true)) {
+      // 2 buckets of 5 nations, and a fifth of the third one.
+      testPlanMatchingPatterns("select n_name from " + NATION + " where n_nationkey < 10",
+          new String[] { "Filter\\(condition=\\[<\\(\\$\\d, 10\\)\\]\\) : rowType = .*: rowcount = 11\\.0," });
+
+      // a region out of 5.
+      testPlanMatchingPatterns("select n_name from " + NATION + " where n_regionkey = 2",
+          new String[] { "Filter\\(condition=\\[=\\(\\$\\d, 2\\)\\]\\) : rowType = .*: rowcount = 5\\.0," });
+    }
+
+    // the statistics are not used by default.
+    testPlanMatchingPatterns("select n_name from " + NATION + " where n_regionkey = 2",
+        new String[] { "Filter" }, "rowcount = 5\\.0,");
+  }
+
+  @Test
+  public void distinctRowCount() throws Exception {
+    try (AutoCloseable ac = withOption(PlannerSettings.USE_STATISTICS, true)) {
+      testPlanMatchingPatterns("select n_regionkey, count(*) from " + NATION + " group by n_regionkey",
+          new String[] { "HashAgg\\(group=\\[\\{0\\}\\].* : rowType = .*: rowcount = 5\\.0," });
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.calcite.plan.Convention;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptSchema;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.logical.LogicalTableScan;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rel.type.RelDataTypeSystem;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeFactoryImpl;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.tools.RelBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.planner.logical.DremioRelFactories;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class TestMaterializationSignature {
+
+  private RelOptCluster cluster;
+  private RelBuilder builder;
+  private RelDataTypeFactory typeFactory;
+
+  @Before
+  public void setup() {
+    typeFactory = new SqlTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
+    cluster = RelOptCluster.create(new VolcanoPlanner(), new RexBuilder(typeFactory));
+    builder = DremioRelFactories.LOGICAL_BUILDER.create(cluster, mock(RelOptSchema.class));
+  }
+
+  @Test
+  public void tablesAreCaseInsensitive() {
+    final MaterializationSignature signature = MaterializationSignature.of(scan(ImmutableList.of("S", "T"), "a"));
+    assertEquals(ImmutableSet.of(ImmutableList.of("s", "t")), signature.getTables());
+  }
+
+  @Test
+  public void acceptsMaterializationProvidingReadColumns() {
+    // select a from s.t where b > 0
+    final RelNode query = builder.push(scan(ImmutableList.of("s", "t"), "a", "b", "c"))
+        .filter(builder.call(SqlStdOperatorTable.GREATER_THAN, builder.field("b"), builder.literal(0)))
+        .project(builder.field("a"))
+        .build();
+    final MaterializationSignature signature = MaterializationSignature.of(query);
+
+    assertTrue(signature.accepts(MaterializationSignature.of(scan(ImmutableList.of("s", "t"), "a", "b"))));
+    assertFalse(signature.accepts(MaterializationSignature.of(scan(ImmutableList.of("s", "t"), "a", "c"))));
+  }
+
+  @Test
+  public void rejectsMaterializationOfOtherTables() {
+    final MaterializationSignature signature = MaterializationSignature.of(scan(ImmutableList.of("s", "t"), "a"));
+
+    assertFalse(signature.accepts(MaterializationSignature.of(scan(ImmutableList.of("s", "u"), "a"))));
+
+    // a join of t and u cannot replace a scan of t alone.
+    final RelNode join = builder.push(scan(ImmutableList.of("s", "t"), "a"))
+        .push(scan(ImmutableList.of("s", "u"), "b"))
+        .join(JoinRelType.INNER,
+            builder.call(SqlStdOperatorTable.EQUALS, builder.field(2, 0, "a"), builder.field(2, 1, "b")))
+        .build();
+    assertFalse(signature.accepts(MaterializationSignature.of(join)));
+    assertTrue(MaterializationSignature.of(join).accepts(MaterializationSignature.of(scan(ImmutableList.of("s", "u"), "b"))));
+  }
+
+  private RelNode scan(List<String> path, String... columns) {
+    final RelDataTypeFactory.FieldInfoBuilder rowType = typeFactory.builder();
+    for (String column : columns) {
+      rowType.add(column, SqlTypeName.INTEGER);
+    }
+    final RelOptTable table = mock(RelOptTable.class);
+    when(table.getQualifiedName()).thenReturn(path);
+    when(table.getRowType()).thenReturn(rowType.build());
+    return new LogicalTableScan(cluster, cluster.traitSetOf(Convention.NONE), table);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.sql;
+
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dremio.BaseTestQuery;
+import com.dremio.exec.planner.physical.PlannerSettings;
+
+/**
+ * Checks that queries sent repeatedly return the right results when their plans are cached.
+ */
+public class TestPlanCache extends BaseTestQuery {
+
+  @BeforeClass
+  public static void enablePlanCache() throws Exception {
+    test("ALTER SESSION SET `%s` = true", PlannerSettings.QUERY_PLAN_CACHE.getOptionName());
+  }
+
+  @AfterClass
+  public static void disablePlanCache() throws Exception {
+    test("ALTER SESSION SET `%s` = false", PlannerSettings.QUERY_PLAN_CACHE.getOptionName());
+  }
+
+  @Test
+  public void repeatedQuery() throws Exception {
+    final String query = "select r_name from cp.`tpch/region.parquet` where r_regionkey = 2";
+    for (int i = 0; i < 3; i++) {
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .baselineColumns("r_name")
+          .baselineValues("ASIA")
+          .go();
+    }
+  }
+
+  @Test
+  public void sameQueryDifferentFormatting() throws Exception {
+    testBuilder()
+        .sqlQuery("select r_name from cp.`tpch/region.parquet` where r_regionkey = 3")
+        .unOrdered()
+        .baselineColumns("r_name")
+        .baselineValues("EUROPE")
+        .go();
+
+    testBuilder()
+        .sqlQuery("SELECT r_name\n  FROM cp.`tpch/region.parquet`\n  WHERE r_regionkey = 3")
+        .unOrdered()
+        .baselineColumns("r_name")
+        .baselineValues("EUROPE")
+        .go();
+  }
+
+  @Test
+  public void differentLiterals() throws Exception {
+    testBuilder()
+        .sqlQuery("select r_name from cp.`tpch/region.parquet` where r_regionkey = 0")
+        .unOrdered()
+        .baselineColumns("r_name")
+        .baselineValues("AFRICA")
+        .go();
+
+    testBuilder()
+        .sqlQuery("select r_name from cp.`tpch/region.parquet` where r_regionkey = 1")
+        .unOrdered()
+        .baselineColumns("r_name")
+        .baselineValues("AMERICA")
+        .go();
+  }
+
+  @Test
+  public void contextFunctionNotCached() throws Exception {
+    // now() is reduced to the start time of the query when planning.
+    final String query = "select now() as t from (values(1))";
+    final String first = getResultString(testSqlWithResults(query), ",", false);
+    Thread.sleep(10);
+    final String second = getResultString(testSqlWithResults(query), ",", false);
+    assertNotEquals(first, second);
+  }
+
+  @Test
+  public void differentOptions() throws Exception {
+    final String query = "select count(*) as cnt from cp.`tpch/nation.parquet`";
+    testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(25L)
+        .go();
+
+    try {
+      test("ALTER SESSION SET `%s` = false", PlannerSettings.HASHAGG.getOptionName());
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .baselineColumns("cnt")
+          .baselineValues(25L)
+          .go();
+    } finally {
+      test("ALTER SESSION SET `%s` = true", PlannerSettings.HASHAGG.getOptionName());
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.ischema;
+
+import static com.dremio.exec.store.ischema.InfoSchemaConstants.SCHS_COL_SCHEMA_NAME;
+import static com.dremio.exec.store.ischema.InfoSchemaConstants.SHRD_COL_TABLE_NAME;
+import static com.dremio.exec.store.ischema.InfoSchemaConstants.SHRD_COL_TABLE_SCHEMA;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.dremio.exec.store.ischema.InfoSchemaFilter.ConstantExprNode;
+import com.dremio.exec.store.ischema.InfoSchemaFilter.FieldExprNode;
+import com.dremio.exec.store.ischema.InfoSchemaFilter.FunctionExprNode;
+import com.dremio.test.DremioTest;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for {@link InfoSchemaFilter#getRequiredValues(String...)}.
+ */
+public class TestInfoSchemaFilterRequiredValues extends DremioTest {
+
+  private static FunctionExprNode function(String name, ExprNode... args) {
+    return new FunctionExprNode(name, ImmutableList.copyOf(args));
+  }
+
+  private static FunctionExprNode equal(String field, String value) {
+    return function("equal", new FieldExprNode(field), new ConstantExprNode(value));
+  }
+
+  private static FunctionExprNode like(String field, String pattern, String escape) {
+    return function("like", new FieldExprNode(field), new ConstantExprNode(pattern), new ConstantExprNode(escape));
+  }
+
+  @Test
+  public void equality() {
+    final InfoSchemaFilter filter = new InfoSchemaFilter(equal(SHRD_COL_TABLE_SCHEMA, "dfs.tmp"));
+    assertEquals(ImmutableSet.of("dfs.tmp"), filter.getRequiredValues(SHRD_COL_TABLE_SCHEMA));
+    assertNull(filter.getRequiredValues(SHRD_COL_TABLE_NAME));
+  }
+
+  @Test
+  public void likeWithoutWildcards() {
+    final InfoSchemaFilter filter = new InfoSchemaFilter(like(SHRD_COL_TABLE_NAME, "my\\_table", "\\"));
+    assertEquals(ImmutableSet.of("my_table"), filter.getRequiredValues(SHRD_COL_TABLE_NAME));
+  }
+
+  @Test
+  public void likeWithWildcards() {
+    assertNull(new InfoSchemaFilter(like(SHRD_COL_TABLE_NAME, "my_table", "\\")).getRequiredValues(SHRD_COL_TABLE_NAME));
+    assertNull(new InfoSchemaFilter(like(SHRD_COL_TABLE_NAME, "my%", "\\")).getRequiredValues(SHRD_COL_TABLE_NAME));
+  }
+
+  @Test
+  public void andIntersects() {
+    final InfoSchemaFilter filter = new InfoSchemaFilter(function("booleanand",
+        function("in", new FieldExprNode(SHRD_COL_TABLE_NAME), new ConstantExprNode("a"), new ConstantExprNode("b")),
+        equal(SHRD_COL_TABLE_NAME, "b"),
+        equal(SHRD_COL_TABLE_SCHEMA, "sys")));
+    assertEquals(ImmutableSet.of("b"), filter.getRequiredValues(SHRD_COL_TABLE_NAME));
+    assertEquals(ImmutableSet.of("sys"), filter.getRequiredValues(SHRD_COL_TABLE_SCHEMA));
+  }
+
+  @Test
+  public void orRequiresAllArgs() {
+    final InfoSchemaFilter restricted = new InfoSchemaFilter(function("booleanor",
+        equal(SHRD_COL_TABLE_SCHEMA, "a"), equal(SCHS_COL_SCHEMA_NAME, "b")));
+    assertEquals(ImmutableSet.of("a", "b"), restricted.getRequiredValues(SHRD_COL_TABLE_SCHEMA, SCHS_COL_SCHEMA_NAME));
+    assertNull(restricted.getRequiredValues(SHRD_COL_TABLE_SCHEMA));
+
+    final InfoSchemaFilter unrestricted = new InfoSchemaFilter(function("booleanor",
+        equal(SHRD_COL_TABLE_SCHEMA, "a"), equal(SHRD_COL_TABLE_NAME, "t")));
+    assertNull(unrestricted.getRequiredValues(SHRD_COL_TABLE_SCHEMA));
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type.Repetition;
+import org.junit.Test;
+
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.BaseTestWithAllocator;
+
+/**
+ * Checks which batches {@link ColumnarParquetWriter} writes a column at a time.
+ */
+public class TestColumnarParquetWriter extends BaseTestWithAllocator {
+
+  @Test
+  public void testFlatColumns() throws Exception {
+    // the columns of the lineitem projection TestParquetWriter writes to several files.
+    try (VectorContainer container = new VectorContainer(allocator)) {
+      container.addOrGet(CompleteType.BIGINT.toField("l_orderkey"));
+      container.addOrGet(CompleteType.INT.toField("l_partkey"));
+      container.addOrGet(CompleteType.DOUBLE.toField("l_quantity"));
+      container.addOrGet(CompleteType.DATE.toField("l_shipdate"));
+      container.addOrGet(CompleteType.VARCHAR.toField("l_comment"));
+      container.buildSchema();
+
+      final MessageType schema = new MessageType("root",
+          new PrimitiveType(Repetition.OPTIONAL, PrimitiveTypeName.INT64, "l_orderkey"),
+          new PrimitiveType(Repetition.OPTIONAL, PrimitiveTypeName.INT32, "l_partkey"),
+          new PrimitiveType(Repetition.OPTIONAL, PrimitiveTypeName.DOUBLE, "l_quantity"),
+          new PrimitiveType(Repetition.OPTIONAL, PrimitiveTypeName.INT32, "l_shipdate", OriginalType.DATE),
+          new PrimitiveType(Repetition.OPTIONAL, PrimitiveTypeName.BINARY, "l_comment", OriginalType.UTF8));
+
+      assertNotNull(ColumnarParquetWriter.of(container, schema));
+    }
+  }
+
+  @Test
+  public void testRepeatedColumn() throws Exception {
+    try (VectorContainer container = new VectorContainer(allocator)) {
+      container.addOrGet(CompleteType.BIGINT.toField("a"));
+      container.buildSchema();
+
+      final MessageType schema = new MessageType("root",
+          new PrimitiveType(Repetition.REPEATED, PrimitiveTypeName.INT64, "a"));
+
+      assertNull(ColumnarParquetWriter.of(container, schema));
+    }
+  }
+
+  @Test
+  public void testUnknownColumn() throws Exception {
+    try (VectorContainer container = new VectorContainer(allocator)) {
+      container.addOrGet(CompleteType.BIGINT.toField("a"));
+      container.addOrGet(CompleteType.BIGINT.toField("b"));
+      container.buildSchema();
+
+      final MessageType schema = new MessageType("root",
+          new PrimitiveType(Repetition.OPTIONAL, PrimitiveTypeName.INT64, "a"));
+
+      assertNull(ColumnarParquetWriter.of(container, schema));
+    }
+  }
+}
@@ -21,12 +21,17 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+
 import org.junit.Ignore;
 import org.junit.Test;
 
 import com.dremio.BaseTestQuery;
 import com.dremio.common.exceptions.UserRemoteException;
 import com.dremio.common.util.FileUtils;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType;
 import com.dremio.exec.store.easy.text.compliant.CompliantTextRecordReader;
 
@@ -167,4 +172,31 @@ public class TestNewTextReader extends BaseTestQuery {
         .build()
         .run();
   }
+
+  @Test
+  public void testAsyncRead() throws Exception {
+    // several read blocks worth of lines, with quoted delimiters.
+    final File dataDir = new File(getTempDir("async-text-read"));
+    dataDir.mkdirs();
+    final int lines = 200000;
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(dataDir, "data.csv")))) {
+      for (int i = 0; i < lines; i++) {
+        writer.write(String.format("%d,\"text, with comma %d\"\n", i, i));
+      }
+    }
+
+    try {
+      test("ALTER SESSION SET `%s` = true", ExecConstants.TEXT_ASYNC_READ.getOptionName());
+      test("ALTER SESSION SET `%s` = 1", ExecConstants.TEXT_ASYNC_READ_BLOCKS.getOptionName());
+      testBuilder()
+          .sqlQuery("select count(*) as cnt, sum(cast(columns[0] as bigint)) as total from dfs_test.`%s`", dataDir.getAbsolutePath())
+          .unOrdered()
+          .baselineColumns("cnt", "total")
+          .baselineValues((long) lines, (long) lines * (lines - 1) / 2)
+          .go();
+    } finally {
+      resetSessionOption(ExecConstants.TEXT_ASYNC_READ);
+      resetSessionOption(ExecConstants.TEXT_ASYNC_READ_BLOCKS);
+    }
+  }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.work.batch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Properties;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Test;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.ExecTest;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.work.ExternalIdHelper;
+import com.dremio.sabot.exec.rpc.AckSender;
+import com.dremio.sabot.op.receiver.CreditBasedRawBatchBuffer;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+
+import io.netty.buffer.ArrowBuf;
+
+public class TestCreditBasedBuffer extends ExecTest {
+
+  @Test
+  public void acksWithheldUntilConsumed() throws Exception {
+    SharedResource resource = mock(SharedResource.class);
+    QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
+    FragmentHandle handle = FragmentHandle.newBuilder().setMajorFragmentId(0).setMinorFragmentId(0).setQueryId(queryId).build();
+
+    // 2 senders, 1KB of credit each.
+    Properties properties = new Properties();
+    properties.put(ExecConstants.INCOMING_BUFFER_CREDIT_BYTES, "2048");
+    SabotConfig config = SabotConfig.create(properties);
+
+    AckSender sender0 = mock(AckSender.class);
+    AckSender sender1 = mock(AckSender.class);
+
+    try (CreditBasedRawBatchBuffer buffer = new CreditBasedRawBatchBuffer(resource, config, handle, allocator, 2, 0)) {
+      RawFragmentBatch first = newBatch(0, sender0);
+      RawFragmentBatch second = newBatch(0, sender0);
+      RawFragmentBatch third = newBatch(0, sender0);
+      RawFragmentBatch other = newBatch(1, sender1);
+      buffer.enqueue(first);
+      buffer.enqueue(second);
+      buffer.enqueue(third);
+      buffer.enqueue(other);
+      // the buffer holds its own reference on the bodies.
+      first.close();
+      second.close();
+      third.close();
+      other.close();
+
+      // sender 0 used its credit with its first batch, sender 1 still has credit.
+      assertTrue(first.isAckSent());
+      assertFalse(second.isAckSent());
+      assertFalse(third.isAckSent());
+      assertTrue(other.isAckSent());
+      verify(sender0, times(1)).sendOk();
+      verify(sender1, times(1)).sendOk();
+
+      // consuming a batch returns its credit to the sender.
+      buffer.getNext().close();
+      assertTrue(second.isAckSent());
+      assertFalse(third.isAckSent());
+
+      buffer.getNext().close();
+      assertTrue(third.isAckSent());
+      verify(sender0, times(3)).sendOk();
+
+      buffer.getNext().close();
+      buffer.getNext().close();
+      assertNull(buffer.getNext());
+    }
+  }
+
+  @Test
+  public void creditCappedByAllocatorHeadroom() throws Exception {
+    SharedResource resource = mock(SharedResource.class);
+    QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
+    FragmentHandle handle = FragmentHandle.newBuilder().setMajorFragmentId(0).setMinorFragmentId(0).setQueryId(queryId).build();
+
+    // 2 senders, 1MB of credit configured, but the receiving fragment can only allocate 2KB.
+    Properties properties = new Properties();
+    properties.put(ExecConstants.INCOMING_BUFFER_CREDIT_BYTES, "1048576");
+    SabotConfig config = SabotConfig.create(properties);
+
+    AckSender sender0 = mock(AckSender.class);
+
+    try (BufferAllocator fragmentAllocator = allocator.newChildAllocator("fragment", 0, 2048);
+         CreditBasedRawBatchBuffer buffer = new CreditBasedRawBatchBuffer(resource, config, handle, fragmentAllocator, 2, 0)) {
+      RawFragmentBatch first = newBatch(0, sender0);
+      RawFragmentBatch second = newBatch(0, sender0);
+      buffer.enqueue(first);
+      buffer.enqueue(second);
+      first.close();
+      second.close();
+
+      // each sender gets half of the headroom, used by the first batch.
+      assertTrue(first.isAckSent());
+      assertFalse(second.isAckSent());
+
+      buffer.getNext().close();
+      assertTrue(second.isAckSent());
+      buffer.getNext().close();
+      assertNull(buffer.getNext());
+    }
+  }
+
+  private RawFragmentBatch newBatch(int sendingMinorFragmentId, AckSender ackSender) {
+    ArrowBuf buffer = allocator.buffer(1024);
+    buffer.writerIndex(1024);
+    FragmentRecordBatch header = FragmentRecordBatch.newBuilder()
+        .setSendingMinorFragmentId(sendingMinorFragmentId)
+        .build();
+    return new RawFragmentBatch(header, buffer, ackSender);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.UserBitShared.FragmentState;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
+import com.dremio.exec.proto.UserBitShared.StreamProfile;
+import com.dremio.exec.work.foreman.FragmentData;
+import com.google.common.collect.Maps;
+
+/**
+ * Tests for the statuses of running fragments sent as deltas.
+ */
+public class TestFragmentStatusDelta {
+
+  private static final FragmentHandle HANDLE = FragmentHandle.newBuilder()
+      .setMajorFragmentId(1)
+      .setMinorFragmentId(2)
+      .build();
+  private static final NodeEndpoint ENDPOINT = NodeEndpoint.newBuilder()
+      .setAddress("localhost")
+      .build();
+
+  private static OperatorProfile operator(int id, long records) {
+    return OperatorProfile.newBuilder()
+        .setOperatorId(id)
+        .addInputProfile(StreamProfile.newBuilder().setRecords(records).setBatches(1))
+        .build();
+  }
+
+  private static FragmentStatus status(long memory, OperatorProfile... operators) {
+    final MinorFragmentProfile.Builder profile = MinorFragmentProfile.newBuilder()
+        .setState(FragmentState.RUNNING)
+        .setMinorFragmentId(HANDLE.getMinorFragmentId())
+        .setEndpoint(ENDPOINT)
+        .setMemoryUsed(memory);
+    for (OperatorProfile operator : operators) {
+      profile.addOperatorProfile(operator);
+    }
+    return FragmentStatus.newBuilder()
+        .setHandle(HANDLE)
+        .setProfile(profile)
+        .build();
+  }
+
+  @Test
+  public void deltaOnlyHoldsChangedOperators() {
+    final Map<Integer, OperatorProfile> reported = Maps.newHashMap();
+    reported.put(0, operator(0, 10));
+    reported.put(1, operator(1, 20));
+
+    final FragmentStatus delta = FragmentStatusThread.getDelta(reported,
+        status(100, operator(0, 10), operator(1, 30), operator(2, 5)));
+
+    assertTrue(delta.getDelta());
+    assertEquals(100, delta.getProfile().getMemoryUsed());
+    assertEquals(2, delta.getProfile().getOperatorProfileCount());
+    assertEquals(operator(1, 30), delta.getProfile().getOperatorProfile(0));
+    assertEquals(operator(2, 5), delta.getProfile().getOperatorProfile(1));
+  }
+
+  @Test
+  public void applyDeltaToFullStatus() {
+    final FragmentData data = new FragmentData(HANDLE, ENDPOINT);
+    data.setStatus(status(100, operator(0, 10), operator(1, 20)));
+
+    final Map<Integer, OperatorProfile> reported = Maps.newHashMap();
+    reported.put(0, operator(0, 10));
+    reported.put(1, operator(1, 20));
+    data.setStatus(FragmentStatusThread.getDelta(reported,
+        status(200, operator(0, 10), operator(1, 40), operator(2, 5))));
+
+    final MinorFragmentProfile profile = data.getProfile();
+    assertEquals(FragmentState.RUNNING, profile.getState());
+    assertEquals(200, profile.getMemoryUsed());
+    assertEquals(3, profile.getOperatorProfileCount());
+    assertEquals(operator(0, 10), profile.getOperatorProfile(0));
+    assertEquals(operator(1, 40), profile.getOperatorProfile(1));
+    assertEquals(operator(2, 5), profile.getOperatorProfile(2));
+  }
+
+  @Test
+  public void reportingIntervalGrowsWithRunningTime() {
+    assertEquals(5000, FragmentStatusThread.getReportingInterval(0));
+    assertEquals(5000, FragmentStatusThread.getReportingInterval(30 * 1000));
+    assertEquals(30 * 1000, FragmentStatusThread.getReportingInterval(300 * 1000));
+    assertEquals(60 * 1000, FragmentStatusThread.getReportingInterval(3600 * 1000));
+  }
+}
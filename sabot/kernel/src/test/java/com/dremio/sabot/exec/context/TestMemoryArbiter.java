@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Test;
+
+import com.dremio.exec.ExecTest;
+
+import io.netty.buffer.ArrowBuf;
+
+public class TestMemoryArbiter extends ExecTest {
+
+  @Test
+  public void grantFreeMemory() throws Exception {
+    try (BufferAllocator query = allocator.newChildAllocator("query", 0, 1024);
+         BufferAllocator a = query.newChildAllocator("a", 0, 300);
+         BufferAllocator b = query.newChildAllocator("b", 0, 300)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(query);
+      try (MemoryArbiter.Grant grantA = arbiter.register("a", a, spiller(a));
+           MemoryArbiter.Grant grantB = arbiter.register("b", b, spiller(b))) {
+        assertTrue(grantA.request(200));
+        assertEquals(500, a.getLimit());
+        assertEquals(300, b.getLimit());
+        assertEquals(200, grantA.getGrantedBytes());
+        assertEquals(0, grantB.getYieldedBytes());
+      }
+    }
+  }
+
+  @Test
+  public void grantedMemoryNotGrantedTwice() throws Exception {
+    try (BufferAllocator query = allocator.newChildAllocator("query", 0, 1024);
+         BufferAllocator a = query.newChildAllocator("a", 0, 300);
+         BufferAllocator b = query.newChildAllocator("b", 0, 300);
+         BufferAllocator other = query.newChildAllocator("other", 0, 1024);
+         ArrowBuf bufOther = other.buffer(512);
+         ArrowBuf bufA = a.buffer(256)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(query);
+      try (MemoryArbiter.Grant grantA = arbiter.register("a", a, spiller(a));
+           MemoryArbiter.Grant grantB = arbiter.register("b", b, spiller(b))) {
+        // 256 bytes are free in the query.
+        assertTrue(grantA.request(200));
+        assertEquals(500, a.getLimit());
+
+        // only 56 of them weren't granted to a, the rest is taken from what a doesn't use.
+        assertTrue(grantB.request(200));
+        assertEquals(500, b.getLimit());
+        assertEquals(356, a.getLimit());
+        assertEquals(144, grantA.getYieldedBytes());
+      }
+    }
+  }
+
+  @Test
+  public void takeIdleMemory() throws Exception {
+    try (BufferAllocator query = allocator.newChildAllocator("query", 0, 1024);
+         BufferAllocator a = query.newChildAllocator("a", 0, 300);
+         BufferAllocator b = query.newChildAllocator("b", 0, 300);
+         BufferAllocator other = query.newChildAllocator("other", 0, 1024);
+         ArrowBuf bufOther = other.buffer(1024)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(query);
+      try (MemoryArbiter.Grant grantA = arbiter.register("a", a, spiller(a));
+           MemoryArbiter.Grant grantB = arbiter.register("b", b, spiller(b))) {
+        // no memory left in the query, b uses nothing and keeps a quarter of its initial limit.
+        assertTrue(grantA.request(200));
+        assertEquals(500, a.getLimit());
+        assertEquals(100, b.getLimit());
+        assertEquals(200, grantB.getYieldedBytes());
+        assertFalse(grantB.isSpillRequested());
+
+        // b can take it back.
+        assertTrue(grantB.request(200));
+        assertEquals(300, b.getLimit());
+        assertEquals(300, a.getLimit());
+      }
+    }
+  }
+
+  @Test
+  public void spillCheaperOperator() throws Exception {
+    try (BufferAllocator query = allocator.newChildAllocator("query", 0, 1024);
+         BufferAllocator a = query.newChildAllocator("a", 0, 300);
+         BufferAllocator b = query.newChildAllocator("b", 0, 300);
+         BufferAllocator other = query.newChildAllocator("other", 0, 1024);
+         ArrowBuf bufOther = other.buffer(512);
+         ArrowBuf bufOther2 = other.buffer(128);
+         ArrowBuf bufA = a.buffer(256)) {
+      final ArrowBuf bufB = b.buffer(128);
+      final MemoryArbiter arbiter = new MemoryArbiter(query);
+      try (MemoryArbiter.Grant grantA = arbiter.register("a", a, spiller(a));
+           MemoryArbiter.Grant grantB = arbiter.register("b", b, spiller(b))) {
+        // b holds less data than a, so it is cheaper to spill it. a spills this time, the memory isn't free yet.
+        assertFalse(grantA.request(200));
+        assertEquals(300, a.getLimit());
+        assertTrue(grantB.isSpillRequested());
+        assertEquals(1, grantB.getSpillRequests());
+
+        // b only has 97 idle bytes, 103 are owed.
+        assertEquals(300, b.getLimit());
+
+        // once b spilled, the memory it released goes to a.
+        bufB.release();
+        grantB.spilled();
+        assertFalse(grantB.isSpillRequested());
+        assertEquals(197, b.getLimit());
+        assertEquals(103, grantB.getYieldedBytes());
+        assertEquals(403, a.getLimit());
+      }
+    }
+  }
+
+  @Test
+  public void spillRequester() throws Exception {
+    try (BufferAllocator query = allocator.newChildAllocator("query", 0, 1024);
+         BufferAllocator a = query.newChildAllocator("a", 0, 300);
+         BufferAllocator b = query.newChildAllocator("b", 0, 300);
+         BufferAllocator other = query.newChildAllocator("other", 0, 1024);
+         ArrowBuf bufOther = other.buffer(512);
+         ArrowBuf bufOther2 = other.buffer(128);
+         ArrowBuf bufA = a.buffer(128);
+         ArrowBuf bufB = b.buffer(256)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(query);
+      try (MemoryArbiter.Grant grantA = arbiter.register("a", a, spiller(a));
+           MemoryArbiter.Grant grantB = arbiter.register("b", b, spiller(b))) {
+        // a holds less data than b, spilling a is the cheapest.
+        assertFalse(grantA.request(200));
+        assertEquals(300, a.getLimit());
+        assertEquals(300, b.getLimit());
+        assertFalse(grantB.isSpillRequested());
+
+        // never beyond the limit of the query.
+        assertFalse(grantA.request(2048));
+      }
+    }
+  }
+
+  @Test
+  public void doneConsumingNotAskedToSpill() throws Exception {
+    try (BufferAllocator query = allocator.newChildAllocator("query", 0, 1024);
+         BufferAllocator a = query.newChildAllocator("a", 0, 300);
+         BufferAllocator b = query.newChildAllocator("b", 0, 300);
+         BufferAllocator other = query.newChildAllocator("other", 0, 1024);
+         ArrowBuf bufOther = other.buffer(512);
+         ArrowBuf bufOther2 = other.buffer(128);
+         ArrowBuf bufA = a.buffer(256);
+         ArrowBuf bufB = b.buffer(128)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(query);
+      try (MemoryArbiter.Grant grantA = arbiter.register("a", a, spiller(a));
+           MemoryArbiter.Grant grantB = arbiter.register("b", b, spiller(b))) {
+        // b is cheaper to spill, but it is done consuming its input.
+        grantB.doneConsuming();
+        assertFalse(grantA.request(200));
+        assertFalse(grantB.isSpillRequested());
+        assertEquals(0, grantB.getSpillRequests());
+      }
+    }
+  }
+
+  private static MemoryArbiter.Spiller spiller(final BufferAllocator allocator) {
+    return new MemoryArbiter.Spiller() {
+      @Override
+      public long getSpillCost() {
+        return allocator.getAllocatedMemory();
+      }
+    };
+  }
+}
@@ -18,12 +18,14 @@ package com.dremio.sabot.project;
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
 import java.util.Collections;
 
 import org.junit.Test;
 
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.Project;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures.Table;
@@ -31,6 +33,7 @@ import com.dremio.sabot.op.project.ProjectOperator;
 import com.google.common.collect.ImmutableList;
 
 import io.airlift.tpch.GenerationDefinition.TpchTable;
+import io.airlift.tpch.TpchGenerator;
 
 public class TestProject extends BaseTestOperator {
 
@@ -61,4 +64,33 @@ public class TestProject extends BaseTestOperator {
     validateSingle(conf, ProjectOperator.class, TpchTable.REGION, 0.1, expected);
 
   }
+
+  @Test
+  public void projectSharedSubexpressions() throws Exception {
+    Project conf = new Project(Arrays.asList(
+        n("upper(r_name)", "a"),
+        n("concat(upper(r_name), '!')", "b"),
+        n("case when r_regionkey > 2 then upper(r_name) else lower(r_name) end", "c"),
+        n("case when r_regionkey > 3 then lower(r_name) else r_name end", "d")
+        ), null);
+    final Table expected = t(
+        th("a", "b", "c", "d"),
+        tr("AFRICA", "AFRICA!", "africa", "AFRICA"),
+        tr("AMERICA", "AMERICA!", "america", "AMERICA"),
+        tr("ASIA", "ASIA!", "asia", "ASIA"),
+        tr("EUROPE", "EUROPE!", "EUROPE", "EUROPE"),
+        tr("MIDDLE EAST", "MIDDLE EAST!", "MIDDLE EAST", "middle east")
+        );
+
+    try (AutoCloseable cse = with(ExecConstants.ENABLE_PROJECT_CSE, true);
+         AutoCloseable cost = with(ExecConstants.PROJECT_CSE_MIN_COST, 1)) {
+      // upper(r_name) is evaluated for every record by a and b, lower(r_name) only appears in CASE branches.
+      try (TpchGenerator generator = TpchGenerator.singleGenerator(TpchTable.REGION, 0.1, getTestAllocator());
+           ProjectOperator op = newOperator(ProjectOperator.class, conf, 4095)) {
+        op.setup(generator.getOutput());
+        assertEquals(1, op.getSharedExpressionCount());
+      }
+      validateSingle(conf, ProjectOperator.class, TpchTable.REGION, 0.1, expected);
+    }
+  }
 }
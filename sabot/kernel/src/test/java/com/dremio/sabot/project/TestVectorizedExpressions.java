@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.project;
+
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.config.Filter;
+import com.dremio.exec.physical.config.Project;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.op.filter.FilterOperator;
+import com.dremio.sabot.op.project.ProjectOperator;
+import com.google.common.collect.Lists;
+
+/**
+ * Checks that vectorized expression evaluation is used and produces the same results as generated code.
+ */
+public class TestVectorizedExpressions extends BaseTestOperator {
+
+  private void validateBoth(Project project, Table input, Table output) throws Exception {
+    validateSingle(project, ProjectOperator.class, input, output);
+    try (AutoCloseable c = with(ExecConstants.ENABLE_VECTORIZED_EXPRESSIONS, true)) {
+      // all the expressions of the tests are supported, so none should fall back to generated code.
+      try (Generator generator = input.toGenerator(getTestAllocator())) {
+        final ProjectOperator op = newOperator(ProjectOperator.class, project, DEFAULT_BATCH);
+        op.setup(generator.getOutput());
+        assertEquals(project.getExprs().size(), op.getVectorizedExpressionCount());
+      }
+      validateSingle(project, ProjectOperator.class, input, output);
+    }
+  }
+
+  private void validateBoth(Filter filter, Table input, Table output) throws Exception {
+    validateSingle(filter, FilterOperator.class, input, output);
+    try (AutoCloseable c = with(ExecConstants.ENABLE_VECTORIZED_EXPRESSIONS, true)) {
+      try (Generator generator = input.toGenerator(getTestAllocator())) {
+        final FilterOperator op = newOperator(FilterOperator.class, filter, DEFAULT_BATCH);
+        op.setup(generator.getOutput());
+        assertTrue(op.isVectorized());
+      }
+      validateSingle(filter, FilterOperator.class, input, output);
+    }
+  }
+
+  @Test
+  public void arithmeticAndCase() throws Exception {
+    final Project project = new Project(Arrays.asList(
+        n("c0 + c1", "sum"),
+        n("c0 * 2", "twice"),
+        n("case when c0 < 10 then c1 else c0 end", "pick")), null);
+
+    final Table input = t(
+        th("c0", "c1"),
+        tr(35, 1),
+        tr(8, 2),
+        tr(NULL_INT, 3),
+        tr(22, NULL_INT)
+        );
+
+    final Table output = t(
+        th("sum", "twice", "pick"),
+        tr(36, 70, 35),
+        tr(10, 16, 2),
+        tr(NULL_INT, NULL_INT, NULL_INT),
+        tr(NULL_INT, 44, 22)
+        );
+
+    validateBoth(project, input, output);
+  }
+
+  @Test
+  public void castAndNullChecks() throws Exception {
+    final Project project = new Project(Arrays.asList(
+        n("castBIGINT(c0) - c1", "diff"),
+        n("isnull(c0)", "missing")), null);
+
+    final Table input = t(
+        th("c0", "c1"),
+        tr(5, 2L),
+        tr(NULL_INT, 3L),
+        tr(7, NULL_BIGINT)
+        );
+
+    final Table output = t(
+        th("diff", "missing"),
+        tr(3L, false),
+        tr(NULL_BIGINT, true),
+        tr(NULL_BIGINT, false)
+        );
+
+    validateBoth(project, input, output);
+  }
+
+  @Test
+  public void threeValuedLogicFilter() throws Exception {
+    final Filter filter = new Filter(null, toExpr("c0 < 10 or isnull(c1)"), 1f);
+
+    final Table input = t(
+        th("c0", "c1"),
+        tr(35, 1),
+        tr(8, 2),
+        tr(NULL_INT, NULL_INT),
+        tr(22, NULL_INT),
+        tr(NULL_INT, 5)
+        );
+
+    final Table output = t(
+        th("c0", "c1"),
+        tr(8, 2),
+        tr(NULL_INT, NULL_INT),
+        tr(22, NULL_INT)
+        );
+
+    validateBoth(filter, input, output);
+  }
+
+  @Test
+  public void filterAcrossBitmapBytes() throws Exception {
+    final Filter filter = new Filter(null, toExpr("c0 > 4 and c0 <> 13"), 1f);
+
+    final List<DataRow> inputRows = Lists.newArrayList();
+    final List<DataRow> outputRows = Lists.newArrayList();
+    for (int i = 0; i < 21; i++) {
+      final boolean isNull = i % 7 == 0;
+      inputRows.add(isNull ? tr(NULL_INT) : tr(i));
+      if (!isNull && i > 4 && i != 13) {
+        outputRows.add(tr(i));
+      }
+    }
+
+    validateBoth(filter,
+        t(th("c0"), inputRows.toArray(new DataRow[inputRows.size()])),
+        t(th("c0"), outputRows.toArray(new DataRow[outputRows.size()])));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.dremio.exec.ExecTest;
+import com.dremio.exec.proto.CoordExecRPC.FragmentStatus;
+import com.dremio.exec.proto.CoordExecRPC.FragmentStatusBatch;
+import com.dremio.exec.proto.CoordExecRPC.RpcType;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.rpc.Response;
+import com.dremio.exec.rpc.ResponseSender;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.service.BindingCreator;
+import com.dremio.service.DirectProvider;
+import com.dremio.services.fabric.api.FabricProtocol;
+import com.dremio.services.fabric.api.FabricService;
+
+/**
+ * Tests for the messages handled by {@link CoordExecService}.
+ */
+public class TestCoordExecService extends ExecTest {
+
+  @Test
+  public void failingStatusUpdateInBatch() throws Exception {
+    final FabricService fabricService = mock(FabricService.class);
+    final ExecToCoordHandler execToCoord = mock(ExecToCoordHandler.class);
+    final FragmentStatus first = newStatus(0);
+    final FragmentStatus failing = newStatus(1);
+    final FragmentStatus last = newStatus(2);
+    doThrow(new RpcException("unknown query")).when(execToCoord).fragmentStatusUpdate(failing);
+
+    try (CoordExecService service = new CoordExecService(DEFAULT_SABOT_CONFIG, allocator, mock(BindingCreator.class),
+        DirectProvider.wrap(fabricService), DirectProvider.wrap(mock(CoordToExecHandler.class)),
+        DirectProvider.wrap(execToCoord))) {
+      service.start();
+      final ArgumentCaptor<FabricProtocol> protocol = ArgumentCaptor.forClass(FabricProtocol.class);
+      verify(fabricService).registerProtocol(protocol.capture());
+
+      final ResponseSender sender = mock(ResponseSender.class);
+      final FragmentStatusBatch batch = FragmentStatusBatch.newBuilder()
+          .addStatus(first)
+          .addStatus(failing)
+          .addStatus(last)
+          .build();
+      protocol.getValue().handle(null, RpcType.REQ_FRAGMENT_STATUS_BATCH_VALUE, batch.toByteString(), null, sender);
+
+      // the updates following the failing one are handled, and the batch is acknowledged.
+      verify(execToCoord).fragmentStatusUpdate(first);
+      verify(execToCoord).fragmentStatusUpdate(failing);
+      verify(execToCoord).fragmentStatusUpdate(last);
+      final ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+      verify(sender).send(response.capture());
+      assertEquals(RpcType.ACK, response.getValue().rpcType);
+    }
+  }
+
+  private static FragmentStatus newStatus(int minorFragmentId) {
+    return FragmentStatus.newBuilder()
+        .setHandle(FragmentHandle.newBuilder().setMajorFragmentId(0).setMinorFragmentId(minorFragmentId))
+        .build();
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.dremio.sabot.op.sort.external.LoserTree;
+import com.google.common.base.Stopwatch;
+
+public class TestLoserTree {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TestLoserTree.class);
+
+  @Test
+  public void mergeRandom() {
+    final Random r = new Random(47);
+    for (int k : new int[]{1, 2, 3, 5, 8, 13, 64, 100, 1024}) {
+      final int[][] streams = new int[k][];
+      for (int s = 0; s < k; s++) {
+        streams[s] = new int[r.nextInt(50)];
+        for (int i = 0; i < streams[s].length; i++) {
+          streams[s][i] = r.nextInt(100);
+        }
+        Arrays.sort(streams[s]);
+      }
+      merge(streams);
+    }
+  }
+
+  @Test
+  public void mergeEmpty() {
+    assertEquals(0, merge(new int[][]{{}, {}, {}}).length);
+  }
+
+  @Test
+  public void mergeStable() {
+    final int[][] streams = new int[][]{{1, 1, 2}, {1, 2}, {0, 1}};
+    final int[] order = mergeOrder(streams);
+    // equal values come out in stream order.
+    assertTrue(Arrays.equals(new int[]{2, 0, 0, 1, 2, 0, 1}, order));
+  }
+
+  @Test
+  public void comparisonsPerValue() {
+    for (int k = 2; k <= 1024; k *= 2) {
+      final Random r = new Random(k);
+      final int[][] streams = new int[k][];
+      for (int s = 0; s < k; s++) {
+        streams[s] = new int[100];
+        for (int i = 0; i < streams[s].length; i++) {
+          streams[s][i] = r.nextInt();
+        }
+        Arrays.sort(streams[s]);
+      }
+      final Streams merge = new Streams(streams);
+      final LoserTree tree = new LoserTree(k, merge);
+      tree.init();
+      final int initComparisons = merge.comparisons;
+      int count = 0;
+      while (!tree.isEmpty()) {
+        merge.advance(tree);
+        count++;
+      }
+      final int log2 = 31 - Integer.numberOfLeadingZeros(k);
+      assertEquals(k - 1, initComparisons);
+      assertTrue(merge.comparisons - initComparisons <= count * log2);
+    }
+  }
+
+  /**
+   * Compares the time taken to merge k streams with a loser tree and with a priority queue, for k from 2 to 1024.
+   */
+  @Test
+  public void benchmark() {
+    final int values = 1 << 20;
+    for (int k = 2; k <= 1024; k *= 2) {
+      final Random r = new Random(k);
+      final int[][] streams = new int[k][];
+      for (int s = 0; s < k; s++) {
+        streams[s] = new int[values / k];
+        for (int i = 0; i < streams[s].length; i++) {
+          streams[s][i] = r.nextInt();
+        }
+        Arrays.sort(streams[s]);
+      }
+
+      final Stopwatch treeWatch = Stopwatch.createStarted();
+      final Streams merge = new Streams(streams);
+      final LoserTree tree = new LoserTree(k, merge);
+      tree.init();
+      while (!tree.isEmpty()) {
+        merge.advance(tree);
+      }
+      treeWatch.stop();
+
+      final Stopwatch queueWatch = Stopwatch.createStarted();
+      final Streams queueMerge = new Streams(streams);
+      final PriorityQueue<Integer> queue = new PriorityQueue<>(k, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer o1, Integer o2) {
+          return queueMerge.compareStreams(o1, o2);
+        }
+      });
+      for (int s = 0; s < k; s++) {
+        if (streams[s].length > 0) {
+          queue.add(s);
+        }
+      }
+      while (!queue.isEmpty()) {
+        final int s = queue.poll();
+        if (++queueMerge.positions[s] < streams[s].length) {
+          queue.add(s);
+        }
+      }
+      queueWatch.stop();
+
+      logger.info("k={}: loser tree {} ms, {} comparisons; priority queue {} ms, {} comparisons", k,
+          treeWatch.elapsed(TimeUnit.MILLISECONDS), merge.comparisons,
+          queueWatch.elapsed(TimeUnit.MILLISECONDS), queueMerge.comparisons);
+    }
+  }
+
+  private static int[] merge(int[][] streams) {
+    final int[] expected = new int[total(streams)];
+    int p = 0;
+    for (int[] stream : streams) {
+      System.arraycopy(stream, 0, expected, p, stream.length);
+      p += stream.length;
+    }
+    Arrays.sort(expected);
+
+    final Streams merge = new Streams(streams);
+    final int[] merged = new int[expected.length];
+    final LoserTree tree = new LoserTree(streams.length, merge);
+    for (int s = 0; s < streams.length; s++) {
+      if (streams[s].length == 0) {
+        tree.markExhausted(s);
+      }
+    }
+    tree.init();
+    int i = 0;
+    while (!tree.isEmpty()) {
+      merged[i++] = merge.head(tree.peek());
+      merge.advance(tree);
+    }
+    assertEquals(expected.length, i);
+    assertTrue(Arrays.equals(expected, merged));
+    return merged;
+  }
+
+  private static int[] mergeOrder(int[][] streams) {
+    final Streams merge = new Streams(streams);
+    final int[] order = new int[total(streams)];
+    final LoserTree tree = new LoserTree(streams.length, merge);
+    tree.init();
+    int i = 0;
+    while (!tree.isEmpty()) {
+      order[i++] = tree.peek();
+      merge.advance(tree);
+    }
+    return order;
+  }
+
+  private static int total(int[][] streams) {
+    int total = 0;
+    for (int[] stream : streams) {
+      total += stream.length;
+    }
+    return total;
+  }
+
+  private static class Streams implements LoserTree.StreamComparator {
+    private final int[][] streams;
+    private final int[] positions;
+    private int comparisons;
+
+    Streams(int[][] streams) {
+      this.streams = streams;
+      this.positions = new int[streams.length];
+    }
+
+    int head(int stream) {
+      return streams[stream][positions[stream]];
+    }
+
+    void advance(LoserTree tree) {
+      final int stream = tree.peek();
+      if (++positions[stream] < streams[stream].length) {
+        tree.advanced();
+      } else {
+        tree.exhausted();
+      }
+    }
+
+    @Override
+    public int compareStreams(int leftStream, int rightStream) {
+      comparisons++;
+      return Integer.compare(head(leftStream), head(rightStream));
+    }
+  }
+}
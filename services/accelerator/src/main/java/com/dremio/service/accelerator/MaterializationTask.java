@@ -155,6 +155,12 @@ public abstract class MaterializationTask extends AsyncTask {
     if (incremental) {
       return new IncrementalMaterializationTask(acceleratorStorageName, materializationStore, jobsService,
         namespaceService, catalogService, layout, executorService, acceleration, accelerationStoragePlugin);
+    }
+
+    final Optional<DatasetConfig> partitioned = PartitionMaterializationTask.getPartitionedDataset(layout, acceleration, namespaceService);
+    if (partitioned.isPresent()) {
+      return new PartitionMaterializationTask(acceleratorStorageName, materializationStore, jobsService,
+        namespaceService, catalogService, layout, executorService, acceleration, accelerationStoragePlugin, partitioned.get());
     } else {
       return new BasicMaterializationTask(acceleratorStorageName, materializationStore, jobsService, namespaceService,
         catalogService, layout, executorService, acceleration, accelerationStoragePlugin);
@@ -177,6 +183,21 @@ public abstract class MaterializationTask extends AsyncTask {
     return catalogService;
   }
 
+  protected NamespaceService getNamespaceService() {
+    return namespaceService;
+  }
+
+  /**
+   * Returns the location of the given materialization path on the acceleration store.
+   */
+  protected Path getStorePath(final List<String> path) {
+    return new Path(accelerationStoreLocation, StringUtils.join(FluentIterable.from(path).skip(1), "/"));
+  }
+
+  protected FileSystemWrapper getFileSystem() {
+    return dfs;
+  }
+
   protected Layout getLayout() {
     return layout;
   }
@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.accelerator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.common.utils.SqlUtils;
+import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.service.accelerator.proto.Acceleration;
+import com.dremio.service.accelerator.proto.DimensionGranularity;
+import com.dremio.service.accelerator.proto.JobDetails;
+import com.dremio.service.accelerator.proto.Layout;
+import com.dremio.service.accelerator.proto.LayoutDimensionField;
+import com.dremio.service.accelerator.proto.LayoutType;
+import com.dremio.service.accelerator.proto.Materialization;
+import com.dremio.service.accelerator.proto.MaterializationId;
+import com.dremio.service.accelerator.proto.MaterializationMetrics;
+import com.dremio.service.accelerator.proto.MaterializationState;
+import com.dremio.service.accelerator.proto.MaterializationUpdate;
+import com.dremio.service.accelerator.proto.MaterializedLayout;
+import com.dremio.service.accelerator.proto.PartitionState;
+import com.dremio.service.accelerator.store.MaterializationStore;
+import com.dremio.service.jobs.Job;
+import com.dremio.service.jobs.JobsService;
+import com.dremio.service.namespace.DatasetSplitId;
+import com.dremio.service.namespace.NamespaceException;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.dataset.proto.ViewFieldType;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+/**
+ * Materialization task for layouts of partitioned physical datasets, which only refreshes the partitions of the dataset
+ * that were added or changed since the last refresh.
+ *
+ * The partitions of the dataset are found from its splits and compared with the ones the materialization consumed (see
+ * {@link SourcePartitions}). Each refresh writes the partitions it refreshes to a new directory of the materialization,
+ * and deletes the directories holding changed or removed partitions, whose other partitions are refreshed again. When
+ * the dataset only gets new partitions, a refresh only reads those.
+ */
+public class PartitionMaterializationTask extends MaterializationTask {
+  private static final Logger logger = LoggerFactory.getLogger(PartitionMaterializationTask.class);
+
+  // types of partition values that can be compared with a literal.
+  private static final Set<String> FILTERABLE_TYPES = ImmutableSet.of(
+      SqlTypeName.VARCHAR.getName(), SqlTypeName.CHAR.getName(), SqlTypeName.BIGINT.getName(),
+      SqlTypeName.INTEGER.getName(), SqlTypeName.SMALLINT.getName(), SqlTypeName.TINYINT.getName(),
+      SqlTypeName.BOOLEAN.getName());
+
+  private final DatasetConfig dataset;
+
+  private long startTime;
+  private long timeStamp;
+  private boolean fullRefresh;
+  private SourcePartitions partitions;
+  private SourcePartitions.Refresh refresh;
+
+  public PartitionMaterializationTask(final String acceleratorStorageName, MaterializationStore materializationStore,
+                                      JobsService jobsService, NamespaceService namespaceService,
+                                      CatalogService catalogService, Layout layout, ExecutorService executorService,
+                                      Acceleration acceleration, final FileSystemPlugin accelerationStoragePlugin,
+                                      DatasetConfig dataset) {
+    super(acceleratorStorageName, materializationStore, jobsService, namespaceService, catalogService, layout, executorService, acceleration, accelerationStoragePlugin);
+    this.dataset = dataset;
+  }
+
+  /**
+   * Returns the dataset of the layout if it can be refreshed by partition: the layout accelerates a physical dataset with
+   * partition columns, and keeps some of them as they are.
+   */
+  static Optional<DatasetConfig> getPartitionedDataset(final Layout layout, final Acceleration acceleration,
+                                                       final NamespaceService namespaceService) {
+    final DatasetConfig dataset;
+    try {
+      dataset = namespaceService.getDataset(new NamespaceKey(acceleration.getContext().getDataset().getFullPathList()));
+    } catch (NamespaceException e) {
+      logger.debug("Unable to find dataset of layout {}", layout.getId().getId(), e);
+      return Optional.absent();
+    }
+
+    if (dataset.getType() == DatasetType.VIRTUAL_DATASET || getPartitionColumns(layout, dataset).isEmpty()) {
+      return Optional.absent();
+    }
+    return Optional.of(dataset);
+  }
+
+  /**
+   * Returns the partition columns of the dataset that the layout keeps as they are and that can be filtered on.
+   */
+  static Set<String> getPartitionColumns(final Layout layout, final DatasetConfig dataset) {
+    if (dataset.getReadDefinition() == null || layout.getLayoutSchema() == null) {
+      return ImmutableSet.of();
+    }
+
+    final Map<String, ViewFieldType> fields = Maps.newHashMap();
+    for (ViewFieldType field : AccelerationUtils.selfOrEmpty(layout.getLayoutSchema().getFieldList())) {
+      fields.put(field.getName().toLowerCase(), field);
+    }
+    final Map<String, LayoutDimensionField> dimensions = Maps.newHashMap();
+    final List<LayoutDimensionField> dimensionFields = layout.getDetails() == null
+        ? ImmutableList.<LayoutDimensionField>of() : layout.getDetails().getDimensionFieldList();
+    for (LayoutDimensionField dimension : AccelerationUtils.selfOrEmpty(dimensionFields)) {
+      dimensions.put(dimension.getName().toLowerCase(), dimension);
+    }
+
+    final ImmutableSet.Builder<String> columns = ImmutableSet.builder();
+    for (String column : AccelerationUtils.selfOrEmpty(dataset.getReadDefinition().getPartitionColumnsList())) {
+      final ViewFieldType field = fields.get(column.toLowerCase());
+      if (field == null || !FILTERABLE_TYPES.contains(field.getType())) {
+        continue;
+      }
+      if (layout.getLayoutType() == LayoutType.AGGREGATION) {
+        // rows of an aggregation only belong to a partition if they are grouped by the partition column.
+        final LayoutDimensionField dimension = dimensions.get(column.toLowerCase());
+        if (dimension == null || (dimension.getGranularity() != DimensionGranularity.NORMAL
+            && SqlTypeName.TIMESTAMP.getName().equals(field.getType()))) {
+          continue;
+        }
+      }
+      columns.add(column);
+    }
+    return columns.build();
+  }
+
+  @Override
+  public void doRun() {
+    startTime = System.currentTimeMillis();
+    final Optional<Materialization> previous = getPrevious();
+
+    final Set<String> columns = getPartitionColumns(getLayout(), dataset);
+    partitions = SourcePartitions.of(getSplits(), columns);
+    final List<PartitionState> consumed = previous.isPresent()
+        ? AccelerationUtils.selfOrEmpty(previous.get().getConsumedPartitionList())
+        : ImmutableList.<PartitionState>of();
+    refresh = partitions.diff(consumed);
+
+    logger.info("layout {}: {} partitions, {} new, {} changed, {} removed, {} to refresh, {} directories to replace",
+        getLayout().getId().getId(), partitions.size(), refresh.getAdded(), refresh.getChanged(), refresh.getRemoved(),
+        refresh.getRefreshed().size(), refresh.getReplacedDirectories().size());
+
+    if (previous.isPresent() && refresh.isEmpty()) {
+      // nothing changed, record the run and move on.
+      final Materialization materialization = previous.get();
+      materialization.setUpdatesList(FluentIterable.from(AccelerationUtils.selfOrEmpty(materialization.getUpdatesList()))
+          .append(newUpdate(null, 0))
+          .toList());
+      save(materialization);
+      if (getNext() != null) {
+        getExecutorService().submit(getNext());
+      }
+      return;
+    }
+
+    if (previous.isPresent() && refresh.isDeleteOnly()) {
+      // partitions were only removed, along with the other partitions of their directories: there is nothing to write.
+      final Materialization materialization = previous.get();
+      deleteReplacedDirectories(materialization);
+      materialization
+          // no partition is written.
+          .setConsumedPartitionList(refresh.getConsumed(null))
+          .setUpdatesList(FluentIterable.from(AccelerationUtils.selfOrEmpty(materialization.getUpdatesList()))
+              .append(newUpdate(null, 0))
+              .toList());
+      save(materialization);
+      refreshMetadata(materialization);
+      if (getNext() != null) {
+        getExecutorService().submit(getNext());
+      }
+      return;
+    }
+
+    super.doRun();
+  }
+
+  @Override
+  protected String getCtasSql(List<String> source, MaterializationId id, Materialization materialization) {
+    timeStamp = System.currentTimeMillis();
+
+    final StringBuilder viewSql = new StringBuilder()
+        .append("SELECT * FROM ")
+        .append(SqlUtils.quotedCompound(source));
+    final Optional<String> condition = refresh.getCondition();
+    if (condition.isPresent()) {
+      viewSql.append(" WHERE ").append(condition.get());
+    }
+
+    final List<String> ctasDest = ImmutableList.of(
+        getAcceleratorStorageName(),
+        String.format("%s/%s/%s", getLayout().getId().getId(), id.getId(), timeStamp)
+        );
+
+    final String ctasSql = getCTAS(ctasDest, viewSql.toString());
+    logger.info(ctasSql);
+
+    final List<String> destination = ImmutableList.of(
+        getAcceleratorStorageName(),
+        getLayout().getId().getId(),
+        id.getId());
+
+    materialization.setPathList(destination);
+    logger.info("Materialization path: {}", destination);
+    return ctasSql;
+  }
+
+  @Override
+  protected void handleJobComplete(final Materialization materialization, final AtomicReference<Job> jobRef) {
+    final AsyncTask handler = new AsyncTask() {
+      @Override
+      protected void doRun() {
+        final long outputRecords = jobRef.get().getJobAttempt().getStats().getOutputRecords();
+        materialization
+            .setUpdateId(timeStamp)
+            .setConsumedPartitionList(refresh.getConsumed(Long.toString(timeStamp)))
+            .setUpdatesList(FluentIterable.from(AccelerationUtils.selfOrEmpty(materialization.getUpdatesList()))
+                .append(newUpdate(jobRef.get(), outputRecords))
+                .toList());
+        save(materialization);
+
+        // make the new directory visible before dropping the data of the replaced partitions, so that queries never
+        // miss them, then drop the replaced directories from the metadata.
+        if (fullRefresh) {
+          PartitionMaterializationTask.this.createMetadata(materialization);
+        } else {
+          PartitionMaterializationTask.this.refreshMetadata(materialization);
+        }
+        if (deleteReplacedDirectories(materialization)) {
+          PartitionMaterializationTask.this.refreshMetadata(materialization);
+        }
+
+        if (getNext() != null) {
+          getExecutorService().submit(getNext());
+        }
+      }
+    };
+    getExecutorService().execute(handler);
+  }
+
+  /**
+   * Deletes the directories of the materialization holding changed or removed partitions.
+   *
+   * @return whether any directory was deleted.
+   */
+  private boolean deleteReplacedDirectories(final Materialization materialization) {
+    boolean deleted = false;
+    for (String directory : refresh.getReplacedDirectories()) {
+      final Path path = new Path(getStorePath(materialization.getPathList()), directory);
+      try {
+        deleted |= getFileSystem().delete(path, true);
+      } catch (IOException e) {
+        logger.warn("Unable to delete replaced directory {} of materialization {}", path,
+            materialization.getId().getId(), e);
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Reuses the last materialization of the layout if it was refreshed by partition, creates a new one otherwise.
+   */
+  @Override
+  protected Materialization getMaterialization() {
+    final Optional<Materialization> previous = getPrevious();
+    if (previous.isPresent()) {
+      logger.info("partition refresh of materialization {} for layout {}", previous.get().getId().getId(),
+          getLayout().getId().getId());
+      fullRefresh = false;
+      return previous.get();
+    }
+
+    logger.info("full partition refresh for layout {}", getLayout().getId());
+    fullRefresh = true;
+    return new Materialization()
+      // unique materialization id
+      .setId(newRandomId())
+      // owning layout id
+      .setLayoutId(getLayout().getId())
+      // initialize job
+      .setJob(new JobDetails())
+      // initialize metrics
+      .setMetrics(new MaterializationMetrics())
+      // set version
+      .setLayoutVersion(getLayout().getVersion())
+      // initialize updates
+      .setUpdatesList(ImmutableList.<MaterializationUpdate>of());
+  }
+
+  private Optional<Materialization> getPrevious() {
+    final Optional<MaterializedLayout> materializedLayout = getMaterializationStore().get(getLayout().getId());
+    Materialization latest = null;
+    for (Materialization materialization : AccelerationUtils.selfOrEmpty(AccelerationUtils.getAllMaterializations(materializedLayout))) {
+      if (materialization.getState() == MaterializationState.DONE
+          && (latest == null || getJobEnd(latest) < getJobEnd(materialization))) {
+        latest = materialization;
+      }
+    }
+    if (latest == null
+        || AccelerationUtils.selfOrEmpty(latest.getConsumedPartitionList()).isEmpty()
+        || !Objects.equal(latest.getLayoutVersion(), getLayout().getVersion())) {
+      return Optional.absent();
+    }
+    return Optional.of(latest);
+  }
+
+  private static long getJobEnd(Materialization materialization) {
+    final JobDetails job = materialization.getJob();
+    return job == null || job.getJobEnd() == null ? 0 : job.getJobEnd();
+  }
+
+  private Iterable<DatasetSplit> getSplits() {
+    return Iterables.transform(getNamespaceService().findSplits(DatasetSplitId.getSplitsRange(dataset)),
+        new Function<Map.Entry<DatasetSplitId, DatasetSplit>, DatasetSplit>() {
+          @Override
+          public DatasetSplit apply(Map.Entry<DatasetSplitId, DatasetSplit> input) {
+            return input.getValue();
+          }
+        });
+  }
+
+  private MaterializationUpdate newUpdate(Job job, long recordsWritten) {
+    final long duration = System.currentTimeMillis() - startTime;
+    logger.info("layout {}: refreshed {} out of {} partitions ({} bytes), removed {}, wrote {} records in {} ms",
+        getLayout().getId().getId(), refresh.getRefreshed().size(), partitions.size(), refresh.getBytes(),
+        refresh.getRemoved(), recordsWritten, duration);
+    return new MaterializationUpdate()
+        .setJobId(job == null ? null : job.getJobId())
+        .setTimestamp(job == null ? startTime : timeStamp)
+        .setPartitionsTotal(partitions.size())
+        .setPartitionsRefreshed(refresh.getRefreshed().size())
+        .setPartitionsRemoved(refresh.getRemoved())
+        .setSourceBytesRefreshed(refresh.getBytes())
+        .setRecordsWritten(recordsWritten)
+        .setDurationMillis(duration);
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.accelerator;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dremio.common.utils.SqlUtils;
+import com.dremio.service.accelerator.proto.PartitionState;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
+import com.dremio.service.namespace.dataset.proto.PartitionValueType;
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Partitions of a physical dataset, as found in its splits, and what changed since a materialization last consumed them.
+ *
+ * A partition is identified by the values of the given partition columns, written as the sql predicate selecting it.
+ * Its fingerprint is a hash of its splits, so that a partition whose files were added, removed or rewritten is seen as
+ * changed.
+ */
+final class SourcePartitions {
+
+  private final Map<String, Partition> partitions;
+
+  private SourcePartitions(Map<String, Partition> partitions) {
+    this.partitions = partitions;
+  }
+
+  /**
+   * @param splits splits of the dataset.
+   * @param columns partition columns identifying a partition.
+   */
+  public static SourcePartitions of(Iterable<DatasetSplit> splits, Set<String> columns) {
+    final Map<String, Partition> partitions = Maps.newTreeMap();
+    for (DatasetSplit split : splits) {
+      final Map<String, PartitionValue> values = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
+      for (PartitionValue value : AccelerationUtils.selfOrEmpty(split.getPartitionValuesList())) {
+        if (value.getType() != PartitionValueType.INVISIBLE && columns.contains(value.getColumn())) {
+          values.put(value.getColumn(), value);
+        }
+      }
+
+      final List<String> conditions = Lists.newArrayList();
+      boolean filterable = true;
+      for (String column : ImmutableSortedSet.copyOf(String.CASE_INSENSITIVE_ORDER, columns)) {
+        final PartitionValue value = values.get(column);
+        final Optional<String> condition = toCondition(column, value);
+        if (condition.isPresent()) {
+          conditions.add(condition.get());
+        } else {
+          filterable = false;
+          conditions.add(SqlUtils.quoteIdentifier(column) + " ~ " + describe(value));
+        }
+      }
+      final String key = Joiner.on(" AND ").join(conditions);
+
+      Partition partition = partitions.get(key);
+      if (partition == null) {
+        partition = new Partition(key, filterable);
+        partitions.put(key, partition);
+      }
+      partition.add(split);
+    }
+    return new SourcePartitions(partitions);
+  }
+
+  public int size() {
+    return partitions.size();
+  }
+
+  public Collection<Partition> getPartitions() {
+    return partitions.values();
+  }
+
+  /**
+   * Compare the partitions with the ones a materialization consumed.
+   *
+   * New and changed partitions are refreshed. As the data of a materialization can only be replaced a directory at a
+   * time, unchanged partitions sharing a directory with a changed or removed partition are refreshed as well, and the
+   * directory is replaced. If a partition to refresh cannot be selected with a predicate, all partitions are refreshed.
+   *
+   * @param consumed partitions consumed by the materialization, empty if it was never built.
+   */
+  public Refresh diff(List<PartitionState> consumed) {
+    final Map<String, PartitionState> previous = Maps.newHashMap();
+    for (PartitionState state : consumed) {
+      previous.put(state.getKey(), state);
+    }
+
+    // directories holding changed or removed partitions.
+    final Set<String> replaced = Sets.newTreeSet();
+    int added = 0;
+    int changed = 0;
+    for (Partition partition : partitions.values()) {
+      final PartitionState state = previous.get(partition.getKey());
+      if (state == null) {
+        added++;
+      } else if (state.getFingerprint() == null || state.getFingerprint() != partition.getFingerprint()) {
+        changed++;
+        replaced.add(state.getDirectory());
+      }
+    }
+    int removed = 0;
+    for (PartitionState state : consumed) {
+      if (!partitions.containsKey(state.getKey())) {
+        removed++;
+        replaced.add(state.getDirectory());
+      }
+    }
+
+    final List<Partition> refreshed = Lists.newArrayList();
+    final List<PartitionState> kept = Lists.newArrayList();
+    boolean filterable = true;
+    for (Partition partition : partitions.values()) {
+      final PartitionState state = previous.get(partition.getKey());
+      if (state == null || replaced.contains(state.getDirectory())) {
+        refreshed.add(partition);
+        filterable &= partition.isFilterable();
+      } else {
+        kept.add(state);
+      }
+    }
+
+    if (consumed.isEmpty() || !filterable) {
+      // refresh everything, replacing all the directories.
+      for (PartitionState state : consumed) {
+        replaced.add(state.getDirectory());
+      }
+      return new Refresh(ImmutableList.copyOf(partitions.values()), ImmutableList.<PartitionState>of(), replaced,
+          added, changed, removed, true);
+    }
+    return new Refresh(refreshed, kept, replaced, added, changed, removed, kept.isEmpty());
+  }
+
+  private static Optional<String> toCondition(String column, PartitionValue value) {
+    final String identifier = SqlUtils.quoteIdentifier(column);
+    if (value == null) {
+      return Optional.of(identifier + " IS NULL");
+    }
+    if (value.getStringValue() != null) {
+      return Optional.of(identifier + " = " + SqlUtils.stringLiteral(value.getStringValue()));
+    }
+    if (value.getLongValue() != null) {
+      return Optional.of(identifier + " = " + value.getLongValue());
+    }
+    if (value.getIntValue() != null) {
+      return Optional.of(identifier + " = " + value.getIntValue());
+    }
+    if (value.getBitValue() != null) {
+      return Optional.of(identifier + " = " + (value.getBitValue() ? "TRUE" : "FALSE"));
+    }
+    if (value.getBinaryValue() != null || value.getDoubleValue() != null || value.getFloatValue() != null) {
+      // no exact literal to compare with.
+      return Optional.absent();
+    }
+    return Optional.of(identifier + " IS NULL");
+  }
+
+  // a value with no exact sql literal, only used to tell partitions apart.
+  private static String describe(PartitionValue value) {
+    if (value.getBinaryValue() != null) {
+      return BaseEncoding.base16().encode(value.getBinaryValue().toByteArray());
+    }
+    return String.valueOf(value.getDoubleValue() != null ? value.getDoubleValue() : value.getFloatValue());
+  }
+
+  /**
+   * A partition of the dataset.
+   */
+  public static final class Partition {
+    private final String key;
+    private final boolean filterable;
+    private long fingerprint;
+    private long bytes;
+
+    private Partition(String key, boolean filterable) {
+      this.key = key;
+      this.filterable = filterable;
+    }
+
+    private void add(DatasetSplit split) {
+      final Hasher hasher = Hashing.murmur3_128().newHasher()
+          .putUnencodedChars(String.valueOf(split.getSplitKey()))
+          .putLong(split.getSize() == null ? -1 : split.getSize())
+          .putLong(split.getRowCount() == null ? -1 : split.getRowCount());
+      if (split.getExtendedProperty() != null) {
+        hasher.putBytes(split.getExtendedProperty().toByteArray());
+      }
+      // independent of the order of the splits.
+      fingerprint += hasher.hash().asLong();
+      bytes += split.getSize() == null ? 0 : split.getSize();
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * @return whether the key is a predicate selecting exactly the partition.
+     */
+    public boolean isFilterable() {
+      return filterable;
+    }
+
+    public long getFingerprint() {
+      return fingerprint;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+  }
+
+  /**
+   * Partitions to refresh, and directories of the materialization to replace.
+   */
+  public static final class Refresh {
+    private final List<Partition> refreshed;
+    private final List<PartitionState> kept;
+    private final Set<String> replacedDirectories;
+    private final int added;
+    private final int changed;
+    private final int removed;
+    private final boolean full;
+
+    private Refresh(List<Partition> refreshed, List<PartitionState> kept, Set<String> replacedDirectories,
+                    int added, int changed, int removed, boolean full) {
+      this.refreshed = refreshed;
+      this.kept = kept;
+      this.replacedDirectories = replacedDirectories;
+      this.added = added;
+      this.changed = changed;
+      this.removed = removed;
+      this.full = full;
+    }
+
+    public boolean isEmpty() {
+      return refreshed.isEmpty() && replacedDirectories.isEmpty();
+    }
+
+    /**
+     * @return whether there are directories to replace but no partition to refresh, when the only partitions of the
+     * replaced directories were removed.
+     */
+    public boolean isDeleteOnly() {
+      return !full && refreshed.isEmpty() && !replacedDirectories.isEmpty();
+    }
+
+    /**
+     * @return whether only new partitions were found.
+     */
+    public boolean isAppendOnly() {
+      return changed == 0 && removed == 0;
+    }
+
+    /**
+     * @return whether all the partitions are refreshed.
+     */
+    public boolean isFull() {
+      return full;
+    }
+
+    public List<Partition> getRefreshed() {
+      return refreshed;
+    }
+
+    public Set<String> getReplacedDirectories() {
+      return replacedDirectories;
+    }
+
+    public int getAdded() {
+      return added;
+    }
+
+    public int getChanged() {
+      return changed;
+    }
+
+    public int getRemoved() {
+      return removed;
+    }
+
+    public long getBytes() {
+      long bytes = 0;
+      for (Partition partition : refreshed) {
+        bytes += partition.getBytes();
+      }
+      return bytes;
+    }
+
+    /**
+     * @return the predicate selecting the refreshed partitions, or absent if all of them are refreshed.
+     * @throws IllegalStateException if no partition is refreshed.
+     */
+    public Optional<String> getCondition() {
+      if (full) {
+        return Optional.absent();
+      }
+      Preconditions.checkState(!refreshed.isEmpty(), "no partition to refresh");
+      final List<String> conditions = Lists.newArrayList();
+      for (Partition partition : refreshed) {
+        conditions.add("(" + partition.getKey() + ")");
+      }
+      return Optional.of(Joiner.on(" OR ").join(conditions));
+    }
+
+    /**
+     * @param directory directory the refreshed partitions are written to.
+     * @return the partitions consumed by the materialization once refreshed.
+     */
+    public List<PartitionState> getConsumed(String directory) {
+      final List<PartitionState> consumed = Lists.newArrayList(kept);
+      for (Partition partition : refreshed) {
+        consumed.add(new PartitionState()
+            .setKey(partition.getKey())
+            .setFingerprint(partition.getFingerprint())
+            .setDirectory(directory));
+      }
+      return consumed;
+    }
+  }
+}
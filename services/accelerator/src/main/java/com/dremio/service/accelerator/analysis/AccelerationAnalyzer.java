@@ -17,12 +17,14 @@ package com.dremio.service.accelerator.analysis;
 
 import static com.dremio.service.users.SystemUser.SYSTEM_USERNAME;
 
+import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.List;
 
 import javax.annotation.Nullable;
 
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelVisitor;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFamily;
 import org.apache.calcite.rel.type.RelDataTypeField;
@@ -31,6 +33,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.dremio.common.utils.SqlUtils;
+import com.dremio.exec.planner.PlannerPhase;
+import com.dremio.exec.planner.common.MoreRelOptUtil;
+import com.dremio.exec.planner.common.ScanRelBase;
 import com.dremio.service.accelerator.TypeUtils;
 import com.dremio.service.accelerator.proto.ColumnStats;
 import com.dremio.service.accelerator.proto.DatasetAnalysis;
@@ -38,12 +43,15 @@ import com.dremio.service.accelerator.proto.LayoutField;
 import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.jobs.Job;
 import com.dremio.service.jobs.JobDataFragment;
+import com.dremio.service.jobs.JobStatusListener;
 import com.dremio.service.jobs.JobsService;
 import com.dremio.service.jobs.NoOpJobStatusListener;
 import com.dremio.service.jobs.SqlQuery;
 import com.dremio.service.jobs.metadata.QueryMetadata;
+import com.dremio.service.namespace.NamespaceException;
 import com.dremio.service.namespace.NamespaceKey;
 import com.dremio.service.namespace.dataset.DatasetVersion;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
@@ -55,10 +63,18 @@ import com.google.common.collect.Multimap;
 
 /**
  * Analyzes acceleration and generates statistics.
+ *
+ * Statistics of datasets reading a single table are first computed over a sample of its splits (TABLESAMPLE SYSTEM),
+ * so that only a fraction of a large dataset is read, the counts being extrapolated to the whole dataset from the
+ * fraction of the splits the sample actually kept. If the sample is too small to be representative, they are computed
+ * again over the whole dataset. Datasets reading several tables are always analyzed in full, as sampling their tables
+ * independently would mostly drop the joined rows.
  */
 public class AccelerationAnalyzer {
   private static final Logger logger = LoggerFactory.getLogger(AccelerationAnalyzer.class);
   private static final NamespaceKey NONE_PATH = new NamespaceKey(ImmutableList.of("__none"));
+  private static final String ROW_COUNT_ALIAS = "__row_count";
+  private static final String ROW_COUNT = String.format("count(*) as %1$s%2$s%1$s", SqlUtils.QUOTE, ROW_COUNT_ALIAS);
 
   private static final Multimap<RelDataTypeFamily, StatType> DIMENSIONS = HashMultimap.create();
 
@@ -81,9 +97,22 @@ public class AccelerationAnalyzer {
   }
 
   private final JobsService jobsService;
+  private final double sampleFraction;
+  private final long minSampleRows;
 
   public AccelerationAnalyzer(final JobsService jobsService) {
+    this(jobsService, 1, 0);
+  }
+
+  /**
+   * @param sampleFraction fraction of the splits to analyze, 1 to analyze the whole dataset.
+   * @param minSampleRows minimum number of rows of a sample to use its statistics.
+   */
+  public AccelerationAnalyzer(final JobsService jobsService, final double sampleFraction, final long minSampleRows) {
     this.jobsService = Preconditions.checkNotNull(jobsService, "job service is required");
+    Preconditions.checkArgument(sampleFraction >= 0 && sampleFraction <= 1, "sample fraction must be in [0, 1]");
+    this.sampleFraction = sampleFraction;
+    this.minSampleRows = minSampleRows;
   }
 
   public AccelerationAnalysis analyze(final NamespaceKey path) {
@@ -120,27 +149,49 @@ public class AccelerationAnalyzer {
     final String pathString = path.getSchemaPath();
 
     final String measures = Joiner.on(", ").join(statColumns);
-    final String sql = String.format("select %s from %s", measures, pathString);
 
-    final SqlQuery query = new SqlQuery(sql, SYSTEM_USERNAME);
-
-    final Job job = jobsService.submitJob(query, QueryType.UI_INTERNAL_PREVIEW, NONE_PATH, DatasetVersion.NONE,
-        new NoOpJobStatusListener() {
-          @Override
-          public void jobFailed(final Exception e) {
-            logger.warn("query analysis failed for {}", query, e);
-          }
-        });
-
-    // trunc blocks until job completion
-    final JobDataFragment data = job.getData().truncate(1);
+    JobDataFragment data = null;
+    long sampleRows = 0;
+    long datasetRows = 0;
+    if (sampleFraction < 1 && MoreRelOptUtil.countTableScans(plan) == 1) {
+      final String percentage = BigDecimal.valueOf(sampleFraction).movePointRight(2).stripTrailingZeros().toPlainString();
+      final String sql = String.format("select %s, %s from %s tablesample system(%s)", ROW_COUNT, measures, pathString,
+          percentage);
+      try {
+        final SampledSplits sampledSplits = new SampledSplits(sql);
+        data = computeStats(sql, sampledSplits);
+        final Object rows = data.extractValue(ROW_COUNT_ALIAS, 0);
+        sampleRows = rows == null ? 0 : Long.valueOf(rows.toString());
+        final double splitRatio = sampledSplits.getSplitRatio();
+        if (splitRatio <= 0 || splitRatio >= 1) {
+          // nothing was pruned, the sample is the whole dataset.
+          datasetRows = sampleRows;
+        } else if (sampleRows < minSampleRows) {
+          logger.debug("sample of {} has {} rows, analyzing the whole dataset", pathString, sampleRows);
+          data = null;
+        } else {
+          // extrapolated from the fraction of the splits the sample actually kept, not from the fraction asked for.
+          datasetRows = Math.round(sampleRows / splitRatio);
+        }
+      } catch (final RuntimeException e) {
+        logger.warn("sampled analysis failed for {}, analyzing the whole dataset", pathString, e);
+        data = null;
+      }
+    }
+    if (data == null) {
+      final String sql = String.format("select %s from %s", measures, pathString);
+      data = computeStats(sql, new FailureLogger(sql));
+    }
+    final JobDataFragment stats = data;
+    final long statsSampleRows = sampleRows;
+    final long statsDatasetRows = datasetRows;
 
     final List<ColumnStats> columns = FluentIterable.from(fields)
         .transform(new Function<RelDataTypeField, ColumnStats>() {
           @Nullable
           @Override
           public ColumnStats apply(@Nullable final RelDataTypeField input) {
-            return buildColumn(data, input);
+            return buildColumn(stats, input, statsSampleRows, statsDatasetRows);
           }
         })
         .toList();
@@ -151,6 +202,66 @@ public class AccelerationAnalyzer {
     return new AccelerationAnalysis(datasetAnalysis, plan);
   }
 
+  private JobDataFragment computeStats(final String sql, final JobStatusListener listener) {
+    final SqlQuery query = new SqlQuery(sql, SYSTEM_USERNAME);
+
+    final Job job = jobsService.submitJob(query, QueryType.UI_INTERNAL_PREVIEW, NONE_PATH, DatasetVersion.NONE,
+        listener);
+
+    // trunc blocks until job completion
+    return job.getData().truncate(1);
+  }
+
+  /**
+   * Logs the failures of a statistics query.
+   */
+  private static class FailureLogger extends NoOpJobStatusListener {
+    private final String sql;
+
+    FailureLogger(final String sql) {
+      this.sql = sql;
+    }
+
+    @Override
+    public void jobFailed(final Exception e) {
+      logger.warn("query analysis failed for {}", sql, e);
+    }
+  }
+
+  /**
+   * Collects the fraction of the splits of the dataset a sampled statistics query read, from the scan of its plan.
+   * Scans whose splits were not sampled, or which are not split based, read the whole dataset.
+   */
+  private static final class SampledSplits extends FailureLogger {
+    private volatile double splitRatio = 1;
+
+    SampledSplits(final String sql) {
+      super(sql);
+    }
+
+    @Override
+    public void planRelTansform(final PlannerPhase phase, final RelNode before, final RelNode after,
+        final long millisTaken) {
+      new RelVisitor() {
+        @Override
+        public void visit(final RelNode node, final int ordinal, final RelNode parent) {
+          if (node instanceof ScanRelBase && ((ScanRelBase) node).getTableMetadata() != null) {
+            try {
+              splitRatio = ((ScanRelBase) node).getTableMetadata().getSplitRatio();
+            } catch (final NamespaceException e) {
+              logger.debug("could not read the split ratio of {}", node, e);
+            }
+          }
+          super.visit(node, ordinal, parent);
+        }
+      }.go(after);
+    }
+
+    double getSplitRatio() {
+      return splitRatio;
+    }
+  }
+
   public RelNode getPlan(final NamespaceKey path) {
     final String pathString = path.getSchemaPath();
     final String sql = String.format("explain plan for select * from %s", pathString);
@@ -193,11 +304,18 @@ public class AccelerationAnalyzer {
         });
   }
 
-  protected ColumnStats buildColumn(final JobDataFragment data, final RelDataTypeField field) {
+  /**
+   * @param sampleRows number of rows the statistics were computed over.
+   * @param datasetRows expected number of rows of the dataset, the counts of a sample being extrapolated to it.
+   */
+  protected ColumnStats buildColumn(final JobDataFragment data, final RelDataTypeField field, final long sampleRows,
+      final long datasetRows) {
     final Iterable<StatColumn> stats = getStatColumnsPerField(field);
     final LayoutField layoutField = TypeUtils.fromCalciteField(field);
     final ColumnStats column = new ColumnStats()
         .setField(layoutField);
+    final boolean sampled = sampleRows > 0 && datasetRows > sampleRows;
+    final Object sampleCount = sampled ? new StatColumn(StatType.COUNT, field).toValue(data) : null;
 
     if (TypeUtils.isBoolean(layoutField)) {
       column.setCardinality(2L);
@@ -210,10 +328,17 @@ public class AccelerationAnalyzer {
       }
       switch (stat.getType()) {
         case COUNT:
-          column.setCount(Long.valueOf(value.toString()));
+          column.setCount(sampled ? scale(Long.valueOf(value.toString()), sampleRows, datasetRows)
+              : Long.valueOf(value.toString()));
           break;
         case COUNT_DISTINCT:
-          column.setCardinality(Long.valueOf(value.toString()));
+          if (sampled && sampleCount != null) {
+            final long count = Long.valueOf(sampleCount.toString());
+            column.setCardinality(estimateDistinctCount(Long.valueOf(value.toString()), count,
+                scale(count, sampleRows, datasetRows)));
+          } else {
+            column.setCardinality(Long.valueOf(value.toString()));
+          }
           break;
         case AVG:
           column.setAverageValue(Double.valueOf(value.toString()));
@@ -240,6 +365,46 @@ public class AccelerationAnalyzer {
     return column;
   }
 
+  private static long scale(final long count, final long sampleRows, final long datasetRows) {
+    return Math.round((double) count * datasetRows / sampleRows);
+  }
+
+  /**
+   * Estimate the number of distinct values of a column from the number of distinct values of a sample. Values are
+   * assumed to be drawn uniformly from the distinct values of the column, so that a sample of n values out of D
+   * distinct ones holds D * (1 - (1 - 1/D)^n) of them on average, which is solved for D.
+   *
+   * @param sampleDistinct number of distinct values in the sample.
+   * @param sampleCount number of non null values in the sample.
+   * @param count number of non null values in the dataset.
+   */
+  @VisibleForTesting
+  static long estimateDistinctCount(final long sampleDistinct, final long sampleCount, final long count) {
+    if (sampleDistinct <= 0 || sampleCount <= 0 || sampleCount >= count) {
+      return sampleDistinct;
+    }
+    if (sampleDistinct >= sampleCount || expectedDistinctCount(count, sampleCount) <= sampleDistinct) {
+      // as many distinct values as values, likely a key.
+      return count;
+    }
+
+    double low = sampleDistinct;
+    double high = count;
+    while (high - low > 0.5) {
+      final double middle = (low + high) / 2;
+      if (expectedDistinctCount(middle, sampleCount) < sampleDistinct) {
+        low = middle;
+      } else {
+        high = middle;
+      }
+    }
+    return Math.round((low + high) / 2);
+  }
+
+  private static double expectedDistinctCount(final double distinct, final long sampleCount) {
+    return -distinct * Math.expm1(sampleCount * Math.log1p(-1 / distinct));
+  }
+
 
   // helper structs
 
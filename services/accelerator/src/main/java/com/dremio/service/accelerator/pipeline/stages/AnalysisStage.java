@@ -22,8 +22,10 @@ import org.apache.calcite.rel.RelNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.planner.acceleration.KryoLogicalPlanSerializers;
 import com.dremio.exec.planner.acceleration.LogicalPlanSerializer;
+import com.dremio.exec.server.options.OptionManager;
 import com.dremio.exec.store.Views;
 import com.dremio.exec.util.ViewFieldsHelper;
 import com.dremio.service.accelerator.analysis.AccelerationAnalysis;
@@ -66,7 +68,10 @@ public class AnalysisStage implements Stage {
     final DatasetConfig config = acceleration.getContext().getDataset();
     final NamespaceKey path = new NamespaceKey(config.getFullPathList());
 
-    final AccelerationAnalyzer analyzer = new AccelerationAnalyzer(context.getJobsService());
+    final OptionManager options = context.getOptionManager();
+    final AccelerationAnalyzer analyzer = new AccelerationAnalyzer(context.getJobsService(),
+        options.getOption(ExecConstants.ACCELERATION_ANALYSIS_SAMPLE_FRACTION),
+        options.getOption(ExecConstants.ACCELERATION_ANALYSIS_SAMPLE_MIN_ROWS));
     final AccelerationContext accelerationContext = acceleration.getContext();
     final AccelerationAnalysis analysis = analyzer.analyze(path);
 
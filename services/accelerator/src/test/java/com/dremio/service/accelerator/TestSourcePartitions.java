@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.accelerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.dremio.service.accelerator.proto.PartitionState;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
+import com.dremio.service.namespace.dataset.proto.PartitionValueType;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class TestSourcePartitions {
+
+  private static final Set<String> COLUMNS = ImmutableSet.of("dir0");
+
+  @Test
+  public void firstRefreshIsFull() {
+    final SourcePartitions partitions = SourcePartitions.of(ImmutableList.of(
+        split("f1", 10, "2016"), split("f2", 20, "2017")), COLUMNS);
+    final SourcePartitions.Refresh refresh = partitions.diff(ImmutableList.<PartitionState>of());
+
+    assertEquals(2, partitions.size());
+    assertTrue(refresh.isFull());
+    assertEquals(2, refresh.getRefreshed().size());
+    assertEquals(30, refresh.getBytes());
+    assertFalse(refresh.getCondition().isPresent());
+  }
+
+  @Test
+  public void appendOnlyRefreshesNewPartitions() {
+    final List<PartitionState> consumed = SourcePartitions.of(ImmutableList.of(split("f1", 10, "2016")), COLUMNS)
+        .diff(ImmutableList.<PartitionState>of())
+        .getConsumed("1");
+
+    final SourcePartitions.Refresh refresh = SourcePartitions.of(ImmutableList.of(
+        split("f1", 10, "2016"), split("f2", 20, "2017")), COLUMNS).diff(consumed);
+
+    assertTrue(refresh.isAppendOnly());
+    assertFalse(refresh.isFull());
+    assertTrue(refresh.getReplacedDirectories().isEmpty());
+    assertEquals(Optional.of("(dir0 = '2017')"), refresh.getCondition());
+    assertEquals(2, refresh.getConsumed("2").size());
+  }
+
+  @Test
+  public void unchangedPartitionsAreNotRefreshed() {
+    final List<PartitionState> consumed = SourcePartitions.of(ImmutableList.of(split("f1", 10, "2016")), COLUMNS)
+        .diff(ImmutableList.<PartitionState>of())
+        .getConsumed("1");
+
+    final SourcePartitions.Refresh refresh = SourcePartitions.of(ImmutableList.of(split("f1", 10, "2016")), COLUMNS)
+        .diff(consumed);
+    assertTrue(refresh.isEmpty());
+  }
+
+  @Test
+  public void changedPartitionReplacesItsDirectory() {
+    // 2016 and 2017 were written to directory 1, 2018 to directory 2.
+    final List<PartitionState> consumed = ImmutableList.<PartitionState>builder()
+        .addAll(SourcePartitions.of(ImmutableList.of(split("f1", 10, "2016"), split("f2", 10, "2017")), COLUMNS)
+            .diff(ImmutableList.<PartitionState>of())
+            .getConsumed("1"))
+        .addAll(SourcePartitions.of(ImmutableList.of(split("f3", 10, "2018")), COLUMNS)
+            .diff(ImmutableList.<PartitionState>of())
+            .getConsumed("2"))
+        .build();
+
+    // a file is added to 2016.
+    final SourcePartitions.Refresh refresh = SourcePartitions.of(ImmutableList.of(
+        split("f1", 10, "2016"), split("f4", 5, "2016"), split("f2", 10, "2017"), split("f3", 10, "2018")), COLUMNS)
+        .diff(consumed);
+
+    assertFalse(refresh.isAppendOnly());
+    assertEquals(1, refresh.getChanged());
+    assertEquals(ImmutableSet.of("1"), refresh.getReplacedDirectories());
+    assertEquals(Optional.of("(dir0 = '2016') OR (dir0 = '2017')"), refresh.getCondition());
+    assertEquals(3, refresh.getConsumed("3").size());
+  }
+
+  @Test
+  public void removedPartitionReplacesItsDirectory() {
+    final List<PartitionState> consumed = SourcePartitions.of(ImmutableList.of(
+        split("f1", 10, "2016"), split("f2", 10, "2017")), COLUMNS)
+        .diff(ImmutableList.<PartitionState>of())
+        .getConsumed("1");
+
+    final SourcePartitions.Refresh refresh = SourcePartitions.of(ImmutableList.of(split("f2", 10, "2017")), COLUMNS)
+        .diff(consumed);
+
+    assertEquals(1, refresh.getRemoved());
+    assertEquals(ImmutableSet.of("1"), refresh.getReplacedDirectories());
+    assertEquals(Optional.of("(dir0 = '2017')"), refresh.getCondition());
+    assertFalse(refresh.isDeleteOnly());
+  }
+
+  @Test
+  public void removedPartitionAloneInItsDirectory() {
+    // 2016 was written to directory 1, 2017 to directory 2.
+    final List<PartitionState> consumed = ImmutableList.<PartitionState>builder()
+        .addAll(SourcePartitions.of(ImmutableList.of(split("f1", 10, "2016")), COLUMNS)
+            .diff(ImmutableList.<PartitionState>of())
+            .getConsumed("1"))
+        .addAll(SourcePartitions.of(ImmutableList.of(split("f2", 10, "2017")), COLUMNS)
+            .diff(ImmutableList.<PartitionState>of())
+            .getConsumed("2"))
+        .build();
+
+    final SourcePartitions.Refresh refresh = SourcePartitions.of(ImmutableList.of(split("f2", 10, "2017")), COLUMNS)
+        .diff(consumed);
+
+    // the directory is deleted, nothing is written.
+    assertEquals(1, refresh.getRemoved());
+    assertEquals(ImmutableSet.of("1"), refresh.getReplacedDirectories());
+    assertFalse(refresh.isEmpty());
+    assertTrue(refresh.isDeleteOnly());
+    assertTrue(refresh.getRefreshed().isEmpty());
+    assertEquals(0, refresh.getBytes());
+
+    final List<PartitionState> remaining = refresh.getConsumed(null);
+    assertEquals(1, remaining.size());
+    assertEquals("2", remaining.get(0).getDirectory());
+  }
+
+  @Test
+  public void missingValueIsNull() {
+    final SourcePartitions partitions = SourcePartitions.of(ImmutableList.of(
+        new DatasetSplit().setSplitKey("f1").setSize(10L)), COLUMNS);
+    assertEquals("dir0 IS NULL", partitions.getPartitions().iterator().next().getKey());
+  }
+
+  private static DatasetSplit split(String key, long size, String dir0) {
+    return new DatasetSplit()
+        .setSplitKey(key)
+        .setSize(size)
+        .setRowCount(size)
+        .setPartitionValuesList(ImmutableList.of(new PartitionValue()
+            .setColumn("dir0")
+            .setType(PartitionValueType.IMPLICIT)
+            .setStringValue(dir0)));
+  }
+}
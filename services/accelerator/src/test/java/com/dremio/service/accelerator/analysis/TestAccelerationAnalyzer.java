@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.accelerator.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for the extrapolation of the distinct counts of a sample in {@link AccelerationAnalyzer}
+ */
+public class TestAccelerationAnalyzer {
+
+  @Test
+  public void fewValuesNotScaled() {
+    // every value of the column is in the sample.
+    assertEquals(5, AccelerationAnalyzer.estimateDistinctCount(5, 10000, 100000));
+  }
+
+  @Test
+  public void keyScaledToDataset() {
+    assertEquals(100000, AccelerationAnalyzer.estimateDistinctCount(10000, 10000, 100000));
+    // ndv is approximate, and may count more distinct values than sampled ones.
+    assertEquals(100000, AccelerationAnalyzer.estimateDistinctCount(10100, 10000, 100000));
+  }
+
+  @Test
+  public void repeatedValuesScaled() {
+    // half of the sampled values are distinct when the sample holds 1.59 values per distinct value.
+    final long estimate = AccelerationAnalyzer.estimateDistinctCount(5000, 10000, 100000);
+    assertTrue(String.valueOf(estimate), estimate > 6200 && estimate < 6350);
+  }
+
+  @Test
+  public void wholeDatasetNotScaled() {
+    assertEquals(5000, AccelerationAnalyzer.estimateDistinctCount(5000, 10000, 10000));
+    assertEquals(0, AccelerationAnalyzer.estimateDistinctCount(0, 10000, 100000));
+  }
+}
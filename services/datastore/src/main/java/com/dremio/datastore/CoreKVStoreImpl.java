@@ -17,6 +17,8 @@ package com.dremio.datastore;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
@@ -33,6 +35,8 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
   private final Serializer<KEY> keySerializer;
   private final Serializer<VALUE> valueSerializer;
   private final VersionExtractor<VALUE> versionExtractor;
+  // changes with every write, starting at a random value so that it also changes when the master restarts.
+  private final AtomicLong generation = new AtomicLong(new Random().nextLong());
   private final Function<KVStoreTuple<KEY>, byte[]> keyToBytes = new Function<KVStoreTuple<KEY>, byte[]>() {
     @Override
     public byte[] apply(KVStoreTuple<KEY> input) {
@@ -65,6 +69,14 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
     return new KVStoreTuple<>(valueSerializer, versionExtractor);
   }
 
+  /**
+   * Get the generation of the store, which changes once a write to the store completes. Remote stores caching
+   * values compare generations to find out if their entries are still current.
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
   @Override
   public KVStoreTuple<VALUE> get(KVStoreTuple<KEY> key) {
     return newValue().setSerializedBytes(rawStore.get(key.getSerializedBytes()));
@@ -79,12 +91,20 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
 
   @Override
   public void put(KVStoreTuple<KEY> key, KVStoreTuple<VALUE> value) {
-    rawStore.put(key.getSerializedBytes(), value.getSerializedBytes());
+    try {
+      rawStore.put(key.getSerializedBytes(), value.getSerializedBytes());
+    } finally {
+      generation.incrementAndGet();
+    }
   }
 
   @Override
   public boolean checkAndPut(KVStoreTuple<KEY> key, KVStoreTuple<VALUE> oldValue, KVStoreTuple<VALUE> newValue) {
-    return rawStore.checkAndPut(key.getSerializedBytes(), oldValue.isNull()? null : oldValue.getSerializedBytes(), newValue.getSerializedBytes());
+    try {
+      return rawStore.checkAndPut(key.getSerializedBytes(), oldValue.isNull()? null : oldValue.getSerializedBytes(), newValue.getSerializedBytes());
+    } finally {
+      generation.incrementAndGet();
+    }
   }
 
   @Override
@@ -94,12 +114,20 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
 
   @Override
   public void delete(KVStoreTuple<KEY> key) {
-    rawStore.delete(key.getSerializedBytes());
+    try {
+      rawStore.delete(key.getSerializedBytes());
+    } finally {
+      generation.incrementAndGet();
+    }
   }
 
   @Override
   public boolean checkAndDelete(KVStoreTuple<KEY> key, KVStoreTuple<VALUE> value) {
-    return rawStore.checkAndDelete(key.getSerializedBytes(), value.getSerializedBytes());
+    try {
+      return rawStore.checkAndDelete(key.getSerializedBytes(), value.getSerializedBytes());
+    } finally {
+      generation.incrementAndGet();
+    }
   }
 
   @Override
@@ -126,7 +154,11 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
 
   @Override
   public void delete(KVStoreTuple<KEY> key, long previousVersion) {
-    rawStore.delete(key.getSerializedBytes(), previousVersion);
+    try {
+      rawStore.delete(key.getSerializedBytes(), previousVersion);
+    } finally {
+      generation.incrementAndGet();
+    }
   }
 
   final class CoreKVStoreEntry implements Map.Entry<KVStoreTuple<KEY>, KVStoreTuple<VALUE>> {
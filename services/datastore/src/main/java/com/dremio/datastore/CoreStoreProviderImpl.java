@@ -86,6 +86,8 @@ public class CoreStoreProviderImpl implements CoreStoreProviderRpcService {
 
   private final ConcurrentMap<String, StoreWithId> idToStore = new ConcurrentHashMap<>();
 
+  private final ConcurrentMap<String, CoreKVStoreImpl<Object, Object>> nameToCoreStore = new ConcurrentHashMap<>();
+
   private final ConcurrentMap<byte[], ColumnFamilyHandle> handles = new ConcurrentHashMap<>();
 
   private final boolean timed;
@@ -196,6 +198,16 @@ public class CoreStoreProviderImpl implements CoreStoreProviderRpcService {
     throw new DatastoreException("Invalid store id " + storeId);
   }
 
+  @Override
+  public long getGeneration(String storeId) {
+    final CoreKVStoreImpl<Object, Object> coreStore = nameToCoreStore.get(storeId);
+    if (coreStore != null) {
+      return coreStore.getGeneration();
+    }
+
+    throw new DatastoreException("Invalid store id " + storeId);
+  }
+
   @Override
   public String getOrCreateStore(StoreBuilderConfig config) {
     return checkedGet(config).id;
@@ -330,7 +342,8 @@ public class CoreStoreProviderImpl implements CoreStoreProviderRpcService {
 
     final ByteStore rawStore = byteManager.getStore(builderConfig.name);
 
-    final CoreKVStore<Object, Object> coreKVStore = new CoreKVStoreImpl<>(rawStore, builderConfig.keySerializer, builderConfig.valueSerializer, builderConfig.versionExtractor);
+    final CoreKVStoreImpl<Object, Object> coreKVStore = new CoreKVStoreImpl<>(rawStore, builderConfig.keySerializer, builderConfig.valueSerializer, builderConfig.versionExtractor);
+    nameToCoreStore.put(builderConfig.name, coreKVStore);
     if (!disableOCC && builderConfig.hasVersionExtractor()) {
       return new OCCStore<>(coreKVStore, !validateOCC);
     } else {
@@ -36,4 +36,12 @@ public interface CoreStoreProviderRpcService extends CoreStoreProvider, Service
    */
   String getOrCreateStore(StoreBuilderConfig config);
 
+  /**
+   * Get the generation of a store, which changes with every write to the store.
+   * @param storeId store id
+   * @return generation
+   * @throws IllegalArgumentException on invalid store id
+   */
+  long getGeneration(String storeId);
+
 }
@@ -19,12 +19,17 @@ import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
 import com.dremio.datastore.IndexedStore.FindByCondition;
 import com.dremio.datastore.KVStore.FindByRange;
 import com.dremio.datastore.RemoteDataStoreProtobuf.CheckAndDeleteRequest;
@@ -39,6 +44,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.FindRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.FindResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
@@ -49,6 +56,7 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.SearchRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.SearchResponse;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.exec.rpc.RpcException;
+import com.dremio.metrics.Metrics;
 import com.dremio.services.fabric.simple.ReceivedResponseMessage;
 import com.google.common.base.Preconditions;
 import com.google.protobuf.ByteString;
@@ -56,10 +64,19 @@ import com.google.protobuf.ByteString;
 /**
  * Raw interfaces over wire, does not use any types.
  * Upper levels should use tuple to avoid paying cost of double serialization..
+ *
+ * Single key gets of a store made while another one is in flight are sent together in the next request.
  */
 public class DatastoreRpcClient {
 
+  private static final String METRIC_PREFIX = "kvstore.remote";
+  // maximum number of single key gets sent in one request.
+  private static final int MAX_GET_BATCH_SIZE = 256;
+
   private final DatastoreRpcService rpcService;
+  private final ConcurrentMap<String, GetBatcher> getBatchers = new ConcurrentHashMap<>();
+  private final Counter rpcs = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "rpcs"));
+  private final Counter batchedGets = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "batched_gets"));
 
   public DatastoreRpcClient(DatastoreRpcService rpcService) {
     this.rpcService = rpcService;
@@ -77,6 +94,7 @@ public class DatastoreRpcClient {
       builder.setDocumentConverterClass(config.getDocumentConverterClassName());
     }
     try {
+      rpcs.inc();
       ReceivedResponseMessage<GetStoreResponse> response = rpcService.getGetStoreEndpoint().send(builder.build());
       return response.getBody().getStoreId();
     } catch (RpcException e) {
@@ -85,20 +103,22 @@ public class DatastoreRpcClient {
   }
 
   public ByteString get(String storeId, ByteString key) throws RpcException {
-    final GetRequest.Builder builder = GetRequest.newBuilder();
-    builder.setStoreId(storeId);
-    builder.addKeys(key);
-    ReceivedResponseMessage<GetResponse> response = rpcService.getGetEndpoint().send(builder.build());
-    if (response.getBody().getValuesCount() > 0) {
-      return response.getBody().getValues(0);
+    GetBatcher batcher = getBatchers.get(storeId);
+    if (batcher == null) {
+      final GetBatcher newBatcher = new GetBatcher(storeId);
+      batcher = getBatchers.putIfAbsent(storeId, newBatcher);
+      if (batcher == null) {
+        batcher = newBatcher;
+      }
     }
-    return null;
+    return batcher.get(key);
   }
 
   public List<ByteString> get(String storeId, List<ByteString> keys) throws RpcException {
     final GetRequest.Builder builder = GetRequest.newBuilder();
     builder.setStoreId(storeId);
     builder.addAllKeys(keys);
+    rpcs.inc();
     ReceivedResponseMessage<GetResponse> response = rpcService.getGetEndpoint().send(builder.build());
     return response.getBody().getValuesList();
   }
@@ -107,6 +127,7 @@ public class DatastoreRpcClient {
     final ContainsRequest.Builder builder = ContainsRequest.newBuilder();
     builder.setStoreId(storeId);
     builder.setKey(key);
+    rpcs.inc();
     ReceivedResponseMessage<ContainsResponse> response = rpcService.getContainsEndpoint().send(builder.build());
     return response.getBody().getContains();
   }
@@ -118,6 +139,7 @@ public class DatastoreRpcClient {
     builder.setEnd(findByRange.getEnd());
     builder.setIncludeStart(findByRange.isStartInclusive());
     builder.setIncludeEnd(findByRange.isEndInclusive());
+    rpcs.inc();
     ReceivedResponseMessage<FindResponse> response = rpcService.getFindEndpoint().send(builder.build());
     return toIterator(response.getBody().getKeysList(), response.getBody().getValuesList());
   }
@@ -125,6 +147,7 @@ public class DatastoreRpcClient {
   public Iterable<Map.Entry<ByteString, ByteString>>find(String storeId) throws RpcException {
     final FindRequest.Builder builder = FindRequest.newBuilder();
     builder.setStoreId(storeId);
+    rpcs.inc();
     ReceivedResponseMessage<FindResponse> response = rpcService.getFindEndpoint().send(builder.build());
     return toIterator(response.getBody().getKeysList(), response.getBody().getValuesList());
   }
@@ -134,6 +157,7 @@ public class DatastoreRpcClient {
     builder.setStoreId(storeId);
     builder.setKey(key);
     builder.setValue(value);
+    rpcs.inc();
     ReceivedResponseMessage<PutResponse> response = rpcService.getPutEndpoint().send(builder.build());
     if (response.getBody().hasConcurrentModificationError()) {
       throw new ConcurrentModificationException(response.getBody().getConcurrentModificationError());
@@ -152,6 +176,7 @@ public class DatastoreRpcClient {
       builder.setOldValue(oldValue);
     }
     builder.setNewValue(newValue);
+    rpcs.inc();
     ReceivedResponseMessage<CheckAndPutResponse> response  = rpcService.getCheckAndPutEndpoint().send(builder.build());
     return new ImmutablePair<>(response.getBody().getInserted(), response.getBody().hasVersion()? response.getBody().getVersion() : null);
   }
@@ -160,6 +185,7 @@ public class DatastoreRpcClient {
     final DeleteRequest.Builder builder = DeleteRequest.newBuilder();
     builder.setStoreId(storeId);
     builder.setKey(key);
+    rpcs.inc();
     rpcService.getDeleteEndpoint().send(builder.build());
   }
 
@@ -168,6 +194,7 @@ public class DatastoreRpcClient {
     builder.setStoreId(storeId);
     builder.setKey(key);
     builder.setPreviousVersion(previousVersion);
+    rpcs.inc();
     ReceivedResponseMessage<DeleteResponse> response = rpcService.getDeleteEndpoint().send(builder.build());
     if (response.getBody().hasConcurrentModificationError()) {
       throw new ConcurrentModificationException(response.getBody().getConcurrentModificationError());
@@ -179,6 +206,7 @@ public class DatastoreRpcClient {
     builder.setStoreId(storeId);
     builder.setKey(key);
     builder.setValue(value);
+    rpcs.inc();
     ReceivedResponseMessage<CheckAndDeleteResponse> response  = rpcService.getCheckAndDeleteEndpoint().send(builder.build());
     return response.getBody().getDeleted();
   }
@@ -193,6 +221,7 @@ public class DatastoreRpcClient {
     builder.setOffset(findByCondition.getOffset());
     builder.setPageSize(findByCondition.getPageSize());
     builder.setQuery(findByCondition.getCondition());
+    rpcs.inc();
     ReceivedResponseMessage<SearchResponse> response  = rpcService.getSearchEndpoint().send(builder.build());
     return toIterator(response.getBody().getKeyList(), response.getBody().getValueList());
   }
@@ -203,10 +232,19 @@ public class DatastoreRpcClient {
     for (SearchQuery condition: conditions) {
       builder.addQueries(condition);
     }
+    rpcs.inc();
     ReceivedResponseMessage<GetCountsResponse> response  = rpcService.getGetCountsEndpoint().send(builder.build());
     return response.getBody().getCountsList();
   }
 
+  public List<Long> getGenerations(List<String> storeIds) throws RpcException {
+    final GetGenerationsRequest.Builder builder = GetGenerationsRequest.newBuilder();
+    builder.addAllStoreIds(storeIds);
+    rpcs.inc();
+    ReceivedResponseMessage<GetGenerationsResponse> response = rpcService.getGetGenerationsEndpoint().send(builder.build());
+    return response.getBody().getGenerationsList();
+  }
+
   private Iterable<Map.Entry<ByteString, ByteString>> toIterator(List<ByteString> keys, List<ByteString> values) {
     Preconditions.checkState(keys.size() == values.size());
     final List<Map.Entry<ByteString, ByteString>> entries = new ArrayList<>(keys.size());
@@ -215,4 +253,108 @@ public class DatastoreRpcClient {
     }
     return entries;
   }
+
+  /**
+   * A single key get waiting to be sent.
+   */
+  private static final class PendingGet {
+    private final ByteString key;
+    private boolean done;
+    private ByteString value;
+    private RpcException exception;
+
+    private PendingGet(ByteString key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * Sends the single key gets of a store. A get made while no other is in flight is sent at once, the gets made while
+   * one is in flight wait for it and are sent together by one of them.
+   */
+  private final class GetBatcher {
+    private final String storeId;
+    // guarded by this
+    private final List<PendingGet> pending = new ArrayList<>();
+    private boolean inFlight;
+
+    private GetBatcher(String storeId) {
+      this.storeId = storeId;
+    }
+
+    private ByteString get(ByteString key) throws RpcException {
+      final PendingGet get = new PendingGet(key);
+      final List<PendingGet> batch = new ArrayList<>();
+      synchronized (this) {
+        pending.add(get);
+        while (inFlight && !get.done) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            pending.remove(get);
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while waiting to get from store id: " + storeId, e);
+          }
+        }
+        if (get.done) {
+          return getValue(get);
+        }
+
+        // send the pending gets, this one first.
+        inFlight = true;
+        pending.remove(get);
+        batch.add(get);
+        final Iterator<PendingGet> iterator = pending.iterator();
+        while (iterator.hasNext() && batch.size() < MAX_GET_BATCH_SIZE) {
+          batch.add(iterator.next());
+          iterator.remove();
+        }
+      }
+
+      List<ByteString> values = null;
+      RpcException exception = null;
+      try {
+        values = send(batch);
+      } catch (RpcException e) {
+        exception = e;
+      } finally {
+        synchronized (this) {
+          for (int i = 0; i < batch.size(); i++) {
+            final PendingGet batched = batch.get(i);
+            if (values != null && i < values.size()) {
+              batched.value = values.get(i);
+            } else if (values == null) {
+              batched.exception = exception != null ? exception
+                  : new RpcException("Failed to get from store id: " + storeId);
+            }
+            batched.done = true;
+          }
+          inFlight = false;
+          notifyAll();
+        }
+      }
+      return getValue(get);
+    }
+
+    private List<ByteString> send(List<PendingGet> batch) throws RpcException {
+      final GetRequest.Builder builder = GetRequest.newBuilder();
+      builder.setStoreId(storeId);
+      for (PendingGet get : batch) {
+        builder.addKeys(get.key);
+      }
+      if (batch.size() > 1) {
+        batchedGets.inc(batch.size() - 1);
+      }
+      rpcs.inc();
+      ReceivedResponseMessage<GetResponse> response = rpcService.getGetEndpoint().send(builder.build());
+      return response.getBody().getValuesList();
+    }
+
+    private ByteString getValue(PendingGet get) throws RpcException {
+      if (get.exception != null) {
+        throw get.exception;
+      }
+      return get.value;
+    }
+  }
 }
@@ -29,6 +29,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.FindRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.FindResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
@@ -66,6 +68,7 @@ public class DatastoreRpcService {
   private final SendEndpoint<CheckAndPutRequest, CheckAndPutResponse> checkAndPutEndpoint;
   private final SendEndpoint<CheckAndDeleteRequest, CheckAndDeleteResponse> checkAndDeleteEndpoint;
   private final SendEndpoint<GetStoreRequest, GetStoreResponse> getStoreEndpoint;
+  private final SendEndpoint<GetGenerationsRequest, GetGenerationsResponse> getGenerationsEndpoint;
 
   public DatastoreRpcService(String masterHostName, int  masterPort,
                              FabricService fabricService, BufferAllocator allocator,
@@ -155,6 +158,14 @@ public class DatastoreRpcService {
         }
       });
 
+    final SendEndpointCreator<GetGenerationsRequest, GetGenerationsResponse>  getGenerationsEndpointCreator  = builder.register(typeId++,
+      new AbstractReceiveHandler<GetGenerationsRequest, GetGenerationsResponse>(GetGenerationsRequest.getDefaultInstance(), GetGenerationsResponse.getDefaultInstance()) {
+        @Override
+        public SentResponseMessage<GetGenerationsResponse> handle(GetGenerationsRequest request, ArrowBuf dBody) throws RpcException {
+          return new SentResponseMessage<>(handler.getGenerations(request));
+        }
+      });
+
     builder.register(fabricService);
 
     getEndpoint = getEndpointCreator.getEndpoint(master.getAddress(), masterPort);
@@ -167,6 +178,7 @@ public class DatastoreRpcService {
     deleteEndpoint = deleteEndpointCreator.getEndpoint(master.getAddress(), masterPort);
     checkAndDeleteEndpoint = checkAndDeleteEndpointCreator.getEndpoint(master.getAddress(), masterPort);
     getStoreEndpoint = getStoreEndpointCreator.getEndpoint(master.getAddress(), masterPort);
+    getGenerationsEndpoint = getGenerationsEndpointCreator.getEndpoint(master.getAddress(), masterPort);
   }
 
   public NodeEndpoint getMaster() {
@@ -213,4 +225,8 @@ public class DatastoreRpcService {
     return getStoreEndpoint;
   }
 
+  public SendEndpoint<GetGenerationsRequest, GetGenerationsResponse> getGetGenerationsEndpoint() {
+    return getGenerationsEndpoint;
+  }
+
 }
@@ -27,6 +27,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.FindRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.FindResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
@@ -86,4 +88,8 @@ public class DefaultDataStoreRpcHandler {
   public GetStoreResponse getStore(GetStoreRequest request) {
     throw new UnsupportedOperationException("Remote datastore operations are not supported on this host " + hostName);
   }
+
+  public GetGenerationsResponse getGenerations(GetGenerationsRequest request) {
+    throw new UnsupportedOperationException("Remote datastore operations are not supported on this host " + hostName);
+  }
 }
@@ -33,6 +33,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.FindRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.FindResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetCountsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetGenerationsResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
@@ -213,4 +215,13 @@ public class LocalDataStoreRpcHandler extends DefaultDataStoreRpcHandler {
     String storeId = coreStoreProvider.getOrCreateStore(config);
     return GetStoreResponse.newBuilder().setStoreId(storeId).build();
   }
+
+  @Override
+  public GetGenerationsResponse getGenerations(GetGenerationsRequest request) {
+    final GetGenerationsResponse.Builder builder = GetGenerationsResponse.newBuilder();
+    for (String storeId : request.getStoreIdsList()) {
+      builder.addGenerations(coreStoreProvider.getGeneration(storeId));
+    }
+    return builder.build();
+  }
 }
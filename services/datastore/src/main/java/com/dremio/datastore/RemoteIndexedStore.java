@@ -36,6 +36,10 @@ public class RemoteIndexedStore<K, V> extends RemoteKVStore<K, V> implements Ind
     super(client, storeId, config);
   }
 
+  RemoteIndexedStore(DatastoreRpcClient client, String storeId, StoreBuilderConfig config, RemoteStoreCache cache) {
+    super(client, storeId, config, cache);
+  }
+
   @Override
   public Iterable<Entry<K, V>> find(FindByCondition find) {
     try {
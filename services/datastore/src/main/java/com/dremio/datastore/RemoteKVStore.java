@@ -20,6 +20,7 @@ import static java.lang.String.format;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 
@@ -33,6 +34,7 @@ import com.google.protobuf.ByteString;
 
 /**
  * Remote KV Store. Caches store id received from master.
+ * Values read are cached when the store is given a {@link RemoteStoreCache}.
  */
 public class RemoteKVStore <K, V> implements KVStore<K, V> {
 
@@ -42,12 +44,21 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
   private final Serializer<K> keySerializer;
   private final Serializer<V> valueSerializer;
   private final VersionExtractor<V> versionExtractor;
+  private final RemoteStoreCache cache;
 
-  @SuppressWarnings("unchecked")
   public RemoteKVStore(DatastoreRpcClient client, String storeId, StoreBuilderConfig config) {
+    this(client, storeId, config, null);
+  }
+
+  /**
+   * @param cache cache of the values read, or null to read every value from the master.
+   */
+  @SuppressWarnings("unchecked")
+  RemoteKVStore(DatastoreRpcClient client, String storeId, StoreBuilderConfig config, RemoteStoreCache cache) {
     this.client = client;
     this.storeId = storeId;
     this.config = config;
+    this.cache = cache;
 
     try {
       Constructor<?> constructor = Class.forName(config.getKeySerializerClassName()).getDeclaredConstructor();
@@ -81,12 +92,16 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
   @Override
   public V get(K key) {
     try {
-      ByteString value = client.get(storeId, ByteString.copyFrom(keySerializer.serialize(key)));
-      if (value != null && !value.isEmpty()) {
-        return valueSerializer.deserialize(value.toByteArray());
-      } else {
-        return null;
+      final ByteString keyBytes = ByteString.copyFrom(keySerializer.serialize(key));
+      ByteString value = cache != null ? cache.get(keyBytes) : null;
+      if (value == null) {
+        final long epoch = cache != null ? cache.getEpoch() : 0;
+        value = client.get(storeId, keyBytes);
+        if (cache != null) {
+          cache.put(keyBytes, value != null ? value : ByteString.EMPTY, epoch);
+        }
       }
+      return toValue(value);
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to get from store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
     }
@@ -120,15 +135,43 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
         keyLists.add(ByteString.copyFrom(keySerializer.serialize(key)));
       }
 
-      return Lists.transform(client.get(storeId, keyLists), new Function<ByteString, V>() {
-        @Override
-        public V apply(ByteString input) {
-          if (input.isEmpty()) {
-            return null;
+      if (cache == null) {
+        return Lists.transform(client.get(storeId, keyLists), new Function<ByteString, V>() {
+          @Override
+          public V apply(ByteString input) {
+            return toValue(input);
           }
-          return valueSerializer.deserialize(input.toByteArray());
+        });
+      }
+
+      // read the values which are not cached in one request.
+      final List<ByteString> values = new ArrayList<>(keyLists.size());
+      final List<Integer> missing = new ArrayList<>();
+      for (int i = 0; i < keyLists.size(); i++) {
+        final ByteString value = cache.get(keyLists.get(i));
+        if (value == null) {
+          missing.add(i);
         }
-      });
+        values.add(value);
+      }
+      if (!missing.isEmpty()) {
+        final long epoch = cache.getEpoch();
+        final List<ByteString> missingKeys = new ArrayList<>(missing.size());
+        for (int i : missing) {
+          missingKeys.add(keyLists.get(i));
+        }
+        final List<ByteString> missingValues = client.get(storeId, missingKeys);
+        for (int i = 0; i < missing.size(); i++) {
+          values.set(missing.get(i), missingValues.get(i));
+          cache.put(missingKeys.get(i), missingValues.get(i), epoch);
+        }
+      }
+
+      final List<V> result = new ArrayList<>(values.size());
+      for (ByteString value : values) {
+        result.add(toValue(value));
+      }
+      return result;
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to get mutiple values from store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
     }
@@ -136,21 +179,25 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
 
   @Override
   public void put(K key, V value) {
+    final ByteString keyBytes = ByteString.copyFrom(keySerializer.serialize(key));
     try {
-      Long version = client.put(storeId, ByteString.copyFrom(keySerializer.serialize(key)), ByteString.copyFrom(valueSerializer.serialize(value)));
+      Long version = client.put(storeId, keyBytes, ByteString.copyFrom(valueSerializer.serialize(value)));
       if (versionExtractor != null) {
         versionExtractor.setVersion(value, version);
       }
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to put in store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
+    } finally {
+      invalidate(keyBytes);
     }
   }
 
   @Override
   public boolean checkAndPut(K key, V oldValue, V newValue) {
+    final ByteString keyBytes = ByteString.copyFrom(keySerializer.serialize(key));
     try {
       Pair<Boolean, Long> response = client.checkAndPut(storeId,
-        ByteString.copyFrom(keySerializer.serialize(key)),
+        keyBytes,
         oldValue == null? null : ByteString.copyFrom(valueSerializer.serialize(oldValue)),
         ByteString.copyFrom(valueSerializer.serialize(newValue)));
 
@@ -160,13 +207,20 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
       return response.getLeft();
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to checkAndPut in store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
+    } finally {
+      invalidate(keyBytes);
     }
   }
 
   @Override
   public boolean contains(K key) {
     try {
-      return client.contains(storeId, ByteString.copyFrom(keySerializer.serialize(key)));
+      final ByteString keyBytes = ByteString.copyFrom(keySerializer.serialize(key));
+      final ByteString value = cache != null ? cache.get(keyBytes) : null;
+      if (value != null) {
+        return !value.isEmpty();
+      }
+      return client.contains(storeId, keyBytes);
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to check contains for store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
     }
@@ -174,21 +228,27 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
 
   @Override
   public void delete(K key) {
+    final ByteString keyBytes = ByteString.copyFrom(keySerializer.serialize(key));
     try {
-      client.delete(storeId, ByteString.copyFrom(keySerializer.serialize(key)));
+      client.delete(storeId, keyBytes);
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to delete from store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
+    } finally {
+      invalidate(keyBytes);
     }
   }
 
   @Override
   public boolean checkAndDelete(K key, V value) {
+    final ByteString keyBytes = ByteString.copyFrom(keySerializer.serialize(key));
     try {
       return client.checkAndDelete(storeId,
-        ByteString.copyFrom(keySerializer.serialize(key)),
+        keyBytes,
         ByteString.copyFrom(valueSerializer.serialize(value)));
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to checkAndDelete from store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
+    } finally {
+      invalidate(keyBytes);
     }
   }
 
@@ -227,10 +287,26 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
 
   @Override
   public void delete(K key, long previousVersion) {
+    final ByteString keyBytes = ByteString.copyFrom(keySerializer.serialize(key));
     try {
-      client.delete(storeId, ByteString.copyFrom(keySerializer.serialize(key)), previousVersion);
+      client.delete(storeId, keyBytes, previousVersion);
     } catch (RpcException e) {
       throw new DatastoreException(format("Failed to delete previous version from store id: %s, config: %s", getStoreId(), getConfig().toString()), e);
+    } finally {
+      invalidate(keyBytes);
+    }
+  }
+
+  private V toValue(ByteString value) {
+    if (value == null || value.isEmpty()) {
+      return null;
+    }
+    return valueSerializer.deserialize(value.toByteArray());
+  }
+
+  private void invalidate(ByteString key) {
+    if (cache != null) {
+      cache.invalidate(key);
     }
   }
 }
@@ -15,22 +15,48 @@
  */
 package com.dremio.datastore;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Provider;
 
 import org.apache.arrow.memory.BufferAllocator;
 
 import com.dremio.common.scanner.persistence.ScanResult;
+import com.dremio.exec.rpc.NamedThreadFactory;
 import com.dremio.exec.rpc.RpcException;
 import com.dremio.services.fabric.api.FabricService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Remote kvstore provider.
+ *
+ * The values read from the stores named by {@link #CACHED_STORES_OPTION} are cached, the caches being validated
+ * against the generations of the stores on the master every {@link #CACHE_REFRESH_OPTION} milliseconds.
  */
 public class RemoteKVStoreProvider implements KVStoreProvider {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RemoteKVStoreProvider.class);
+
+  public static final String CACHED_STORES_OPTION = "dremio.kv.remote.cache.stores";
+  public static final String CACHE_REFRESH_OPTION = "dremio.kv.remote.cache.refresh_ms";
+  public static final String CACHE_SIZE_OPTION = "dremio.kv.remote.cache.max_entries";
+
+  private final Set<String> cachedStores = ImmutableSet.copyOf(
+      Splitter.on(',').trimResults().omitEmptyStrings().split(System.getProperty(CACHED_STORES_OPTION, "")));
+  private final long cacheRefreshMillis = Long.getLong(CACHE_REFRESH_OPTION, 1000);
+  private final long cacheSize = Long.getLong(CACHE_SIZE_OPTION, 10_000);
+  private final ConcurrentMap<String, RemoteStoreCache> caches = new ConcurrentHashMap<>();
+  private ScheduledExecutorService cacheRefresher;
   private DatastoreRpcClient rpcClient;
   private final Provider<FabricService> fabricService;
   private final BufferAllocator allocator;
@@ -79,11 +105,49 @@ public class RemoteKVStoreProvider implements KVStoreProvider {
       }
     });
 
+    if (!caches.isEmpty()) {
+      cacheRefresher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("kvstore-cache-refresh-"));
+      cacheRefresher.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          refreshCaches();
+        }
+      }, 0, cacheRefreshMillis, TimeUnit.MILLISECONDS);
+    }
+
     logger.info("RemoteKVStoreProvider is up");
   }
 
+  /**
+   * Validate the store caches against the generations of the stores on the master. The caches are dropped if the
+   * master can't be reached.
+   */
+  @VisibleForTesting
+  void refreshCaches() {
+    final List<RemoteStoreCache> toRefresh = new ArrayList<>(caches.values());
+    final List<String> storeIds = new ArrayList<>(toRefresh.size());
+    for (RemoteStoreCache cache : toRefresh) {
+      storeIds.add(cache.getStoreId());
+    }
+
+    try {
+      final List<Long> generations = rpcClient.getGenerations(storeIds);
+      for (int i = 0; i < toRefresh.size(); i++) {
+        toRefresh.get(i).validate(generations.get(i));
+      }
+    } catch (Exception e) {
+      logger.warn("Failed to get the generations of stores {}, dropping their caches", storeIds, e);
+      for (RemoteStoreCache cache : toRefresh) {
+        cache.invalidateAll();
+      }
+    }
+  }
+
   @Override
   public void close() throws Exception {
+    if (cacheRefresher != null) {
+      cacheRefresher.shutdownNow();
+    }
     logger.info("Stopped RemoteKVStoreProvider");
   }
 
@@ -121,13 +185,25 @@ public class RemoteKVStoreProvider implements KVStoreProvider {
 
     @Override
     public KVStore<K, V> build() {
-      return new RemoteKVStore<>(rpcClient, rpcClient.buildStore(config), config);
+      final String storeId = rpcClient.buildStore(config);
+      return new RemoteKVStore<>(rpcClient, storeId, config, newCache(storeId));
     }
 
     @Override
     public IndexedStore<K, V> buildIndexed(Class<? extends DocumentConverter<K, V>> documentConverterClass) {
       config.setDocumentConverterClassName(documentConverterClass.getName());
-      return new RemoteIndexedStore<>(rpcClient, rpcClient.buildStore(config), config);
+      final String storeId = rpcClient.buildStore(config);
+      return new RemoteIndexedStore<>(rpcClient, storeId, config, newCache(storeId));
+    }
+
+    private RemoteStoreCache newCache(String storeId) {
+      if (!cachedStores.contains(config.getName())) {
+        return null;
+      }
+      // entries are served for a few refresh intervals after the last validation, in case a refresh is late.
+      final RemoteStoreCache cache = new RemoteStoreCache(storeId, cacheSize, 3 * cacheRefreshMillis);
+      final RemoteStoreCache existing = caches.putIfAbsent(storeId, cache);
+      return existing != null ? existing : cache;
     }
   }
 
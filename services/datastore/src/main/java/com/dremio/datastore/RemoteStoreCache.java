@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.datastore;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.metrics.Metrics;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.ByteString;
+
+/**
+ * Cache of the values a remote kvstore read from the master, so that read-mostly stores don't make a round trip
+ * per lookup.
+ *
+ * The cache is validated against the generation of the store on the master, which changes with every write to the
+ * store: when the generation changes, all entries are dropped. Entries are only served while the last validation is
+ * recent, so a node which can't reach the master reads through. Values are cached as serialized, an empty value
+ * standing for a missing key.
+ *
+ * To not cache a value read before a write it raced with, a value is only cached if no invalidation happened since
+ * its read started, as told by {@link #getEpoch()}.
+ */
+class RemoteStoreCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RemoteStoreCache.class);
+
+  private static final String METRIC_PREFIX = "kvstore.remote.cache";
+
+  private final String storeId;
+  private final long maxStalenessNanos;
+  private final Ticker ticker;
+  private final Cache<ByteString, ByteString> entries;
+  private final Counter hits = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+  private final Counter misses = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+  private final Counter invalidations = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "invalidations"));
+
+  // guarded by this
+  private long epoch;
+  private boolean validated;
+  private long generation;
+  private long validatedAt;
+
+  /**
+   * @param maxEntries number of values to keep.
+   * @param maxStalenessMillis how long entries are served after the last validation.
+   */
+  RemoteStoreCache(String storeId, long maxEntries, long maxStalenessMillis) {
+    this(storeId, maxEntries, maxStalenessMillis, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  RemoteStoreCache(String storeId, long maxEntries, long maxStalenessMillis, Ticker ticker) {
+    this.storeId = storeId;
+    this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+    this.ticker = ticker;
+    this.entries = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+  }
+
+  String getStoreId() {
+    return storeId;
+  }
+
+  /**
+   * Get the epoch of the cache, to pass to {@link #put(ByteString, ByteString, long)} once the value is read.
+   */
+  synchronized long getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * Get the cached value of a key.
+   *
+   * @return the serialized value, empty if the key is missing from the store, or null if the value is not cached.
+   */
+  ByteString get(ByteString key) {
+    final ByteString value = isCurrent() ? entries.getIfPresent(key) : null;
+    if (value == null) {
+      misses.inc();
+    } else {
+      hits.inc();
+    }
+    return value;
+  }
+
+  /**
+   * Cache the value of a key read from the master.
+   *
+   * @param value the serialized value, empty if the key is missing from the store.
+   * @param readEpoch the epoch of the cache when the read started.
+   */
+  synchronized void put(ByteString key, ByteString value, long readEpoch) {
+    if (readEpoch == epoch && isCurrent()) {
+      entries.put(key, value);
+    }
+  }
+
+  /**
+   * Drop the value of a key, after writing it.
+   */
+  synchronized void invalidate(ByteString key) {
+    epoch++;
+    entries.invalidate(key);
+  }
+
+  /**
+   * Drop all values, and stop serving entries until the next validation.
+   */
+  synchronized void invalidateAll() {
+    epoch++;
+    validated = false;
+    entries.invalidateAll();
+    invalidations.inc();
+  }
+
+  /**
+   * Validate the cache against the current generation of the store on the master.
+   */
+  synchronized void validate(long currentGeneration) {
+    if (!validated || generation != currentGeneration) {
+      if (validated) {
+        logger.debug("Store {} changed, dropping {} cached values", storeId, entries.size());
+      }
+      invalidateAll();
+      generation = currentGeneration;
+      validated = true;
+    }
+    validatedAt = ticker.read();
+  }
+
+  private synchronized boolean isCurrent() {
+    return validated && ticker.read() - validatedAt <= maxStalenessNanos;
+  }
+
+  @VisibleForTesting
+  long size() {
+    return entries.size();
+  }
+}
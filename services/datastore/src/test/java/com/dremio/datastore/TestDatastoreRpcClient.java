@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.datastore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.services.fabric.simple.ReceivedResponseMessage;
+import com.dremio.services.fabric.simple.SendEndpoint;
+import com.google.protobuf.ByteString;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Tests for the batching of the single key gets of {@link DatastoreRpcClient}
+ */
+public class TestDatastoreRpcClient {
+
+  private static final String STORE_ID = "store";
+
+  private final FakeGetEndpoint endpoint = new FakeGetEndpoint();
+  private final List<Thread> threads = new ArrayList<>();
+  private DatastoreRpcClient client;
+
+  @Before
+  public void setup() {
+    final DatastoreRpcService rpcService = mock(DatastoreRpcService.class);
+    when(rpcService.getGetEndpoint()).thenReturn(endpoint);
+    client = new DatastoreRpcClient(rpcService);
+  }
+
+  @After
+  public void cleanup() throws InterruptedException {
+    endpoint.release.countDown();
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+  }
+
+  @Test
+  public void testSingleGet() throws Exception {
+    endpoint.release.countDown();
+    assertEquals(value("a"), client.get(STORE_ID, key("a")));
+    assertEquals(1, endpoint.requests.size());
+  }
+
+  @Test
+  public void testGetsBatchedWhileInFlight() throws Exception {
+    final FutureTask<ByteString> first = get("first");
+    endpoint.entered.await();
+
+    final List<FutureTask<ByteString>> gets = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      gets.add(get("key" + i));
+    }
+    awaitWaiting();
+    endpoint.release.countDown();
+
+    // each get is answered with the value of its own key.
+    assertEquals(value("first"), first.get(10, TimeUnit.SECONDS));
+    for (int i = 0; i < gets.size(); i++) {
+      assertEquals(value("key" + i), gets.get(i).get(10, TimeUnit.SECONDS));
+    }
+    assertEquals(2, endpoint.requests.size());
+    assertEquals(10, endpoint.requests.get(1).size());
+  }
+
+  @Test
+  public void testBatchSizeCapped() throws Exception {
+    final FutureTask<ByteString> first = get("first");
+    endpoint.entered.await();
+
+    final int count = 300;
+    final List<FutureTask<ByteString>> gets = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      gets.add(get("key" + i));
+    }
+    awaitWaiting();
+    endpoint.release.countDown();
+
+    assertEquals(value("first"), first.get(10, TimeUnit.SECONDS));
+    for (int i = 0; i < count; i++) {
+      assertEquals(value("key" + i), gets.get(i).get(10, TimeUnit.SECONDS));
+    }
+
+    int sent = 0;
+    for (List<ByteString> request : endpoint.requests.subList(1, endpoint.requests.size())) {
+      assertTrue(request.size() <= 256);
+      sent += request.size();
+    }
+    assertEquals(count, sent);
+    assertEquals(3, endpoint.requests.size());
+  }
+
+  @Test
+  public void testFailurePropagatedToBatch() throws Exception {
+    final FutureTask<ByteString> first = get("first");
+    endpoint.entered.await();
+
+    final List<FutureTask<ByteString>> gets = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      gets.add(get("key" + i));
+    }
+    awaitWaiting();
+    endpoint.failing = true;
+    endpoint.release.countDown();
+
+    assertEquals(value("first"), first.get(10, TimeUnit.SECONDS));
+    for (FutureTask<ByteString> get : gets) {
+      try {
+        get.get(10, TimeUnit.SECONDS);
+        fail("get of a failed batch should fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof RpcException);
+        assertEquals(FakeGetEndpoint.FAILURE, e.getCause().getMessage());
+      }
+    }
+
+    // the failure doesn't stick to the store.
+    endpoint.failing = false;
+    assertEquals(value("after"), client.get(STORE_ID, key("after")));
+  }
+
+  @Test
+  public void testInterruptedGet() throws Exception {
+    final FutureTask<ByteString> first = get("first");
+    endpoint.entered.await();
+
+    final FutureTask<ByteString> interrupted = get("interrupted");
+    final FutureTask<ByteString> other = get("other");
+    awaitWaiting();
+
+    threads.get(1).interrupt();
+    try {
+      interrupted.get(10, TimeUnit.SECONDS);
+      fail("interrupted get should fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RpcException);
+    }
+    endpoint.release.countDown();
+
+    assertEquals(value("first"), first.get(10, TimeUnit.SECONDS));
+    assertEquals(value("other"), other.get(10, TimeUnit.SECONDS));
+
+    // the interrupted get is not sent.
+    for (List<ByteString> request : endpoint.requests) {
+      assertFalse(request.contains(key("interrupted")));
+    }
+    assertEquals(Collections.singletonList(key("other")), endpoint.requests.get(1));
+  }
+
+  private FutureTask<ByteString> get(final String key) {
+    final FutureTask<ByteString> task = new FutureTask<>(new Callable<ByteString>() {
+      @Override
+      public ByteString call() throws Exception {
+        return client.get(STORE_ID, key(key));
+      }
+    });
+    final Thread thread = new Thread(task, "get-" + key);
+    threads.add(thread);
+    thread.start();
+    return task;
+  }
+
+  /**
+   * Wait until all the gets but the first one wait for the get in flight.
+   */
+  private void awaitWaiting() throws InterruptedException {
+    for (Thread thread : threads.subList(1, threads.size())) {
+      while (thread.getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+    }
+  }
+
+  private static ByteString key(String key) {
+    return ByteString.copyFromUtf8(key);
+  }
+
+  private static ByteString value(String key) {
+    return ByteString.copyFromUtf8(key + "-value");
+  }
+
+  /**
+   * Answers gets with a value derived from each key, blocking the first request until released.
+   */
+  private static final class FakeGetEndpoint implements SendEndpoint<GetRequest, GetResponse> {
+    private static final String FAILURE = "failed get";
+
+    private final List<List<ByteString>> requests = Collections.synchronizedList(new ArrayList<List<ByteString>>());
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean failing;
+
+    @Override
+    public ReceivedResponseMessage<GetResponse> send(GetRequest message, ArrowBuf... bufs) throws RpcException {
+      requests.add(message.getKeysList());
+      if (failing) {
+        throw new RpcException(FAILURE);
+      }
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RpcException(e);
+      }
+
+      final GetResponse.Builder response = GetResponse.newBuilder();
+      for (ByteString key : message.getKeysList()) {
+        response.addValues(value(key.toStringUtf8()));
+      }
+      return new ReceivedResponseMessage<>(response.build(), null);
+    }
+  }
+}
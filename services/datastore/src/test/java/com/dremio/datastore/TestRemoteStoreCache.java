@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.datastore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.protobuf.ByteString;
+
+/**
+ * Tests for {@link RemoteStoreCache}
+ */
+public class TestRemoteStoreCache {
+
+  private static final ByteString KEY = ByteString.copyFromUtf8("key");
+  private static final ByteString VALUE = ByteString.copyFromUtf8("value");
+
+  private final FakeTicker ticker = new FakeTicker();
+  private RemoteStoreCache cache;
+
+  @Before
+  public void setup() {
+    cache = new RemoteStoreCache("store", 100, 1000, ticker);
+  }
+
+  @Test
+  public void testNotServedBeforeValidation() {
+    cache.put(KEY, VALUE, cache.getEpoch());
+    assertNull(cache.get(KEY));
+
+    cache.validate(1);
+    cache.put(KEY, VALUE, cache.getEpoch());
+    assertEquals(VALUE, cache.get(KEY));
+  }
+
+  @Test
+  public void testMissingKey() {
+    cache.validate(1);
+    cache.put(KEY, ByteString.EMPTY, cache.getEpoch());
+    assertEquals(ByteString.EMPTY, cache.get(KEY));
+  }
+
+  @Test
+  public void testGenerationChange() {
+    cache.validate(1);
+    cache.put(KEY, VALUE, cache.getEpoch());
+
+    cache.validate(1);
+    assertEquals(VALUE, cache.get(KEY));
+
+    cache.validate(2);
+    assertNull(cache.get(KEY));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testReadRacingInvalidation() {
+    cache.validate(1);
+
+    // a write completes while the value is read
+    final long epoch = cache.getEpoch();
+    cache.invalidate(KEY);
+    cache.put(KEY, VALUE, epoch);
+    assertNull(cache.get(KEY));
+
+    // or the store changes on the master
+    final long epoch2 = cache.getEpoch();
+    cache.validate(2);
+    cache.put(KEY, VALUE, epoch2);
+    assertNull(cache.get(KEY));
+  }
+
+  @Test
+  public void testStale() {
+    cache.validate(1);
+    cache.put(KEY, VALUE, cache.getEpoch());
+
+    ticker.advance(500);
+    assertEquals(VALUE, cache.get(KEY));
+
+    // not validated for too long
+    ticker.advance(1000);
+    assertNull(cache.get(KEY));
+
+    cache.validate(1);
+    assertEquals(VALUE, cache.get(KEY));
+  }
+
+  @Test
+  public void testInvalidateAll() {
+    cache.validate(1);
+    cache.put(KEY, VALUE, cache.getEpoch());
+
+    cache.invalidateAll();
+    cache.put(KEY, VALUE, cache.getEpoch());
+    assertNull(cache.get(KEY));
+
+    // served again once validated, even if the generation is the same
+    cache.validate(1);
+    cache.put(KEY, VALUE, cache.getEpoch());
+    assertEquals(VALUE, cache.get(KEY));
+  }
+
+  private static final class FakeTicker extends Ticker {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    private void advance(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+}
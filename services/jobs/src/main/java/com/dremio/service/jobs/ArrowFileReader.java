@@ -21,7 +21,10 @@ import static com.dremio.exec.store.easy.arrow.ArrowFormatPlugin.MAGIC_STRING_LE
 import static com.dremio.service.jobs.RecordBatchHolder.newRecordBatchHolder;
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -57,10 +60,14 @@ import com.dremio.exec.store.easy.arrow.ArrowFileFormat;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
 import com.dremio.exec.store.easy.arrow.ArrowRecordBatchSummary;
 import com.dremio.sabot.op.sort.external.RecordBatchData;
+import com.dremio.service.jobs.JobResultsPageCache.PageKey;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
+import io.netty.buffer.ArrowBuf;
+import io.netty.buffer.ByteBufInputStream;
+
 /**
  * Reader which takes a file and reads the record batches.
  */
@@ -71,17 +78,34 @@ class ArrowFileReader implements AutoCloseable {
   private final Path basePath;
   private final ArrowFileMetadata metadata;
   private final BufferAllocator allocator;
+  private final JobResultsPageCache pageCache;
+  private final String jobId;
 
   private FSDataInputStream inputStream;
+  private int lastBatchIndex = -1;
 
   ArrowFileReader(final FileSystem dfs, Path basePath, final ArrowFileMetadata metadata, final BufferAllocator allocator) {
+    this(dfs, basePath, metadata, allocator, null, null);
+  }
+
+  /**
+   * Reader looking up the serialized batches in the given cache before reading them from the file, and caching the
+   * ones it reads.
+   */
+  ArrowFileReader(final FileSystem dfs, Path basePath, final ArrowFileMetadata metadata, final BufferAllocator allocator,
+      final JobResultsPageCache pageCache, final String jobId) {
     this.dfs = dfs;
     this.basePath = basePath;
     this.metadata = metadata;
     this.allocator = allocator;
+    this.pageCache = pageCache;
+    this.jobId = jobId;
   }
 
   private void openFile() throws IOException {
+    if (inputStream != null) {
+      return;
+    }
     final Path path = new Path(basePath, metadata.getPath());
     inputStream = dfs.open(path);
 
@@ -137,8 +161,6 @@ class ArrowFileReader implements AutoCloseable {
         "Invalid start index (%s) and limit (%s) combination. Record count in file (%s)",
         start, limit, metadata.getRecordCount());
 
-    openFile();
-
     final VectorAccessibleSerializable vectorAccessibleSerializable = new VectorAccessibleSerializable(allocator);
     final List<RecordBatchHolder> batches = Lists.newArrayList();
     final ArrowFileFooter footer = metadata.getFooter();
@@ -163,9 +185,8 @@ class ArrowFileReader implements AutoCloseable {
 
       final long currentBatchCount = batchSummary.getRecordCount();
 
-      // Seek to the place where the batch starts and read
-      inputStream.seek(batchSummary.getOffset());
-      vectorAccessibleSerializable.readFromStream(inputStream);
+      readBatch(batchIndex, batchSummary, vectorAccessibleSerializable);
+      lastBatchIndex = batchIndex;
       final VectorContainer vectorContainer = vectorAccessibleSerializable.get();
 
       // Find the start and end indices within the batch.
@@ -201,6 +222,85 @@ class ArrowFileReader implements AutoCloseable {
     return batches;
   }
 
+  /**
+   * @return index of the last batch read by {@link #read(long, long)}, -1 if none was read.
+   */
+  int getLastBatchIndex() {
+    return lastBatchIndex;
+  }
+
+  /**
+   * Load the given batches in the page cache, if they are not already there.
+   * @param fromBatchIndex index of the first batch to load
+   * @param count maximum number of non empty batches to load
+   */
+  void prefetch(final int fromBatchIndex, final int count) throws IOException {
+    Preconditions.checkState(pageCache != null, "Prefetching requires a page cache");
+    final List<ArrowRecordBatchSummary> batchList = metadata.getFooter().getBatchList();
+    final int numBatches = batchList == null ? 0 : batchList.size();
+    int loaded = 0;
+    for (int batchIndex = fromBatchIndex; batchIndex < numBatches && loaded < count; batchIndex++) {
+      final ArrowRecordBatchSummary batchSummary = batchList.get(batchIndex);
+      if (batchSummary.getRecordCount() == 0) {
+        continue;
+      }
+      loaded++;
+
+      final PageKey key = newPageKey(batchIndex);
+      if (pageCache.contains(key)) {
+        continue;
+      }
+      pageCache.put(key, readBatchBytes(batchSummary));
+    }
+  }
+
+  /**
+   * Read a batch, from the page cache if it's there.
+   */
+  private void readBatch(final int batchIndex, final ArrowRecordBatchSummary batchSummary,
+      final VectorAccessibleSerializable serializable) throws IOException {
+    if (pageCache == null) {
+      // Seek to the place where the batch starts and read
+      openFile();
+      inputStream.seek(batchSummary.getOffset());
+      serializable.readFromStream(inputStream);
+      return;
+    }
+
+    final PageKey key = newPageKey(batchIndex);
+    final ArrowBuf page = pageCache.get(key);
+    if (page != null) {
+      try {
+        // read from a slice as the page might be read concurrently.
+        serializable.readFromStream(new ByteBufInputStream(page.slice(0, page.writerIndex())));
+      } finally {
+        page.release();
+      }
+      return;
+    }
+
+    // the length of a batch isn't recorded, capture the bytes read while decoding it.
+    openFile();
+    inputStream.seek(batchSummary.getOffset());
+    final CapturingInputStream capturing = new CapturingInputStream(inputStream);
+    serializable.readFromStream(capturing);
+    pageCache.put(key, capturing.getCaptured());
+  }
+
+  private byte[] readBatchBytes(final ArrowRecordBatchSummary batchSummary) throws IOException {
+    final VectorAccessibleSerializable serializable = new VectorAccessibleSerializable(allocator);
+    openFile();
+    inputStream.seek(batchSummary.getOffset());
+    final CapturingInputStream capturing = new CapturingInputStream(inputStream);
+    serializable.readFromStream(capturing);
+    serializable.get().clear();
+    return capturing.getCaptured();
+  }
+
+  private PageKey newPageKey(int batchIndex) {
+    return new PageKey(jobId, metadata.getPath(), batchIndex);
+  }
+
   @Override
   public void close() throws IOException {
     if (inputStream != null) {
@@ -208,6 +308,54 @@ class ArrowFileReader implements AutoCloseable {
     }
   }
 
+  /**
+   * Keeps a copy of the bytes read from the underlying stream.
+   */
+  private static final class CapturingInputStream extends FilterInputStream {
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+    private CapturingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b != -1) {
+        captured.write(b);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if (read > 0) {
+        captured.write(b, off, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      // skipped bytes must be captured too.
+      long skipped = 0;
+      while (skipped < n && read() != -1) {
+        skipped++;
+      }
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private byte[] getCaptured() {
+      return captured.toByteArray();
+    }
+  }
+
   /**
    * Helper method to convert the protobuf message into a bean class. Currently it ignores converting the row type.
    * Add the support for row type conversion in future if needed.
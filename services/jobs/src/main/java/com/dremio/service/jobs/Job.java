@@ -101,7 +101,12 @@ public class Job {
   }
 
   public boolean hasResults() {
-    return (resultsStore == null)? false:resultsStore.jobOutputDirectoryExists(jobId);
+    if (resultsStore == null) {
+      return false;
+    }
+    // results reused from a previous job are stored with that job.
+    final JobId resultsFromJob = getJobAttempt().getInfo().getResultsFromJob();
+    return resultsStore.jobOutputDirectoryExists(resultsFromJob != null ? resultsFromJob : jobId);
   }
 
   @Override
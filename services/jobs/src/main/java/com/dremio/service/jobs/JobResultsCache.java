@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.exec.server.options.OptionValue;
+import com.dremio.metrics.Metrics;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.ParentDatasetInfo;
+import com.dremio.service.jobs.metadata.QueryMetadata;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.NamespaceUtils;
+import com.dremio.service.namespace.dataset.proto.ParentDataset;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Index of the results of completed jobs, so that a query submitted again by the same user over datasets that didn't
+ * change since is answered with the results already stored instead of running again.
+ *
+ * Entries are looked up by normalized sql text, user, context, preview mode and the options set to a non default
+ * value, as options such as store.format or the leaf limits change the results of a query. An entry is only used if
+ * the versions of the datasets the job read, including the parents of the views it read, are still the same, so
+ * refreshing the metadata of a dataset or editing a view makes the entries depending on it stale. Entries whose results
+ * were deleted are dropped as well.
+ */
+class JobResultsCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JobResultsCache.class);
+
+  private static final String METRIC_PREFIX = "jobs.results.cache";
+
+  private final Cache<Key, Entry> entries;
+  private final Counter hits = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+  private final Counter misses = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+  private final Counter stale = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "stale"));
+
+  JobResultsCache(long maximumSize, long ttlSeconds) {
+    this.entries = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * Get the job whose results can be reused for the given query.
+   *
+   * @return the job, or null if there is none or if the datasets it read changed since.
+   */
+  Entry get(Key key, NamespaceService namespace, JobResultsStore resultsStore) {
+    final Entry entry = entries.getIfPresent(key);
+    if (entry == null) {
+      misses.inc();
+      return null;
+    }
+
+    if (!entry.datasetVersions.equals(NamespaceUtils.getDatasetVersions(namespace, entry.datasetVersions.keySet()))
+        || !resultsStore.jobOutputDirectoryExists(entry.jobId)) {
+      logger.debug("Dropping stale results of job {}", entry.jobId.getId());
+      entries.invalidate(key);
+      stale.inc();
+      misses.inc();
+      return null;
+    }
+
+    hits.inc();
+    return entry;
+  }
+
+  /**
+   * Index the results of a completed job.
+   *
+   * @param metadata metadata collected when planning the job, handed to the listeners of the jobs reusing its results.
+   * @return true if the results were indexed. Jobs that didn't read any dataset, read datasets that can't be found in
+   * the namespace, or called functions whose value changes from one query to the other, such as now() in a view they
+   * read, are not.
+   */
+  boolean put(Key key, JobInfo jobInfo, QueryMetadata metadata, NamespaceService namespace) {
+    final List<List<String>> paths = getDatasetPaths(jobInfo);
+    if (metadata == null || metadata.isDynamic() || paths.isEmpty()) {
+      return false;
+    }
+    final Map<List<String>, Long> versions = NamespaceUtils.getDatasetVersions(namespace, paths);
+    if (versions == null) {
+      return false;
+    }
+    entries.put(key, new Entry(jobInfo.getJobId(), metadata, versions));
+    return true;
+  }
+
+  @VisibleForTesting
+  long size() {
+    return entries.size();
+  }
+
+  /**
+   * Create the key for a query.
+   *
+   * @param preview whether the query is run with limits on the records read, as previews are.
+   * @param options the options set to a non default value the query runs with.
+   */
+  static Key newKey(SqlQuery query, boolean preview, Iterable<OptionValue> options) {
+    return new Key(normalize(query.getSql()), query.getUsername(), query.getContext(), preview, options);
+  }
+
+  /**
+   * Collapse the whitespace outside of literals and quoted identifiers, so that formatting differences don't matter.
+   */
+  @VisibleForTesting
+  static String normalize(String sql) {
+    final StringBuilder sb = new StringBuilder(sql.length());
+    char quote = 0;
+    boolean pendingSpace = false;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (quote != 0) {
+        sb.append(c);
+        if (c == quote) {
+          quote = 0;
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        pendingSpace = sb.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        sb.append(' ');
+        pendingSpace = false;
+      }
+      if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  private static List<List<String>> getDatasetPaths(JobInfo jobInfo) {
+    final ImmutableList.Builder<List<String>> paths = ImmutableList.builder();
+    if (jobInfo.getParentsList() != null) {
+      for (ParentDatasetInfo parent : jobInfo.getParentsList()) {
+        paths.add(ImmutableList.copyOf(parent.getDatasetPathList()));
+      }
+    }
+    if (jobInfo.getGrandParentsList() != null) {
+      for (ParentDataset grandParent : jobInfo.getGrandParentsList()) {
+        paths.add(ImmutableList.copyOf(grandParent.getDatasetPathList()));
+      }
+    }
+    return paths.build();
+  }
+
+  /**
+   * Identifies a query.
+   */
+  static final class Key {
+    private final String sql;
+    private final String user;
+    private final List<String> context;
+    private final boolean preview;
+    private final Set<OptionValue> options;
+
+    private Key(String sql, String user, List<String> context, boolean preview, Iterable<OptionValue> options) {
+      this.sql = sql;
+      this.user = user;
+      this.context = context == null ? ImmutableList.<String>of() : ImmutableList.copyOf(context);
+      this.preview = preview;
+      this.options = ImmutableSet.copyOf(options);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(sql, user, context, preview, options);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      return preview == that.preview
+          && Objects.equal(sql, that.sql)
+          && Objects.equal(user, that.user)
+          && Objects.equal(context, that.context)
+          && Objects.equal(options, that.options);
+    }
+  }
+
+  /**
+   * A completed job with the versions of the datasets it read.
+   */
+  static final class Entry {
+    private final JobId jobId;
+    private final QueryMetadata metadata;
+    private final Map<List<String>, Long> datasetVersions;
+
+    private Entry(JobId jobId, QueryMetadata metadata, Map<List<String>, Long> datasetVersions) {
+      this.jobId = jobId;
+      this.metadata = metadata;
+      this.datasetVersions = datasetVersions;
+    }
+
+    JobId getJobId() {
+      return jobId;
+    }
+
+    QueryMetadata getMetadata() {
+      return metadata;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import com.dremio.exec.record.VectorAccessible;
+
+/**
+ * Listener receiving the results of a job as they are produced, instead of having them stored.
+ */
+public interface JobResultsListener {
+
+  /**
+   * Called for each batch of results, in order, on a thread handling rpc messages: it must not block. The batch is
+   * only valid for the duration of the call.
+   *
+   * The batch is only acknowledged to the executor sending it when {@code consumed} is run, and the executor stops
+   * sending once a few batches are not acknowledged, which is how a slow consumer applies backpressure.
+   *
+   * @param batch batch of results
+   * @param consumed to run once the consumer has taken the batch, whether or not the call failed
+   * @throws Exception if the batch couldn't be consumed
+   */
+  void dataArrived(VectorAccessible batch, Runnable consumed) throws Exception;
+}
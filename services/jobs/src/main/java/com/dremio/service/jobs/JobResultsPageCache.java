@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.metrics.Metrics;
+import com.google.common.base.Objects;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Bounded cache of the serialized record batches of job results, kept off heap and accounted in its own allocator,
+ * so that paging through the results of a job doesn't read the same batches from the results store again.
+ *
+ * Batches are cached in their serialized form and decoded for every request, as the decoded batches are owned and
+ * released by the callers. Least recently used batches are evicted first.
+ */
+class JobResultsPageCache implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JobResultsPageCache.class);
+
+  private static final String METRIC_PREFIX = "jobs.results.page_cache";
+
+  private final BufferAllocator allocator;
+  private final long maxBytes;
+  private final LinkedHashMap<PageKey, ArrowBuf> pages = new LinkedHashMap<>(16, 0.75f, true);
+  private final Counter hits = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+  private final Counter misses = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+  private final Counter evictions = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "evictions"));
+
+  private long currentBytes;
+
+  JobResultsPageCache(BufferAllocator parent, long maxBytes) {
+    this.allocator = parent.newChildAllocator("job-results-page-cache", 0, maxBytes);
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Get a cached batch.
+   *
+   * @return the serialized batch, that the caller must release, or null if the batch is not cached.
+   */
+  ArrowBuf get(PageKey key) {
+    synchronized (pages) {
+      final ArrowBuf page = pages.get(key);
+      if (page == null) {
+        misses.inc();
+        return null;
+      }
+      hits.inc();
+      page.retain();
+      return page;
+    }
+  }
+
+  boolean contains(PageKey key) {
+    synchronized (pages) {
+      return pages.containsKey(key);
+    }
+  }
+
+  /**
+   * Cache a serialized batch, evicting the least recently used batches if needed. Batches that don't fit in the
+   * cache are ignored.
+   */
+  void put(PageKey key, byte[] data) {
+    if (data.length == 0 || data.length > maxBytes) {
+      return;
+    }
+
+    synchronized (pages) {
+      if (pages.containsKey(key)) {
+        return;
+      }
+      evict(maxBytes - data.length);
+
+      final ArrowBuf page;
+      try {
+        page = allocator.buffer(data.length);
+      } catch (OutOfMemoryException e) {
+        logger.debug("Not enough memory to cache batch {}", key, e);
+        return;
+      }
+      page.setBytes(0, data);
+      page.writerIndex(data.length);
+      pages.put(key, page);
+      currentBytes += page.capacity();
+    }
+  }
+
+  /**
+   * Drop all the cached batches of the given job.
+   */
+  void invalidate(String jobId) {
+    synchronized (pages) {
+      final Iterator<Map.Entry<PageKey, ArrowBuf>> iterator = pages.entrySet().iterator();
+      while (iterator.hasNext()) {
+        final Map.Entry<PageKey, ArrowBuf> entry = iterator.next();
+        if (entry.getKey().jobId.equals(jobId)) {
+          currentBytes -= entry.getValue().capacity();
+          entry.getValue().release();
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  long getCurrentBytes() {
+    synchronized (pages) {
+      return currentBytes;
+    }
+  }
+
+  private void evict(long targetBytes) {
+    final Iterator<ArrowBuf> iterator = pages.values().iterator();
+    while (currentBytes > targetBytes && iterator.hasNext()) {
+      final ArrowBuf page = iterator.next();
+      currentBytes -= page.capacity();
+      // readers holding the page keep it alive until they are done with it.
+      page.release();
+      iterator.remove();
+      evictions.inc();
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (pages) {
+      evict(-1);
+    }
+    allocator.close();
+  }
+
+  /**
+   * Identifies a batch in the results of a job.
+   */
+  static final class PageKey {
+    private final String jobId;
+    private final String path;
+    private final int batchIndex;
+
+    PageKey(String jobId, String path, int batchIndex) {
+      this.jobId = jobId;
+      this.path = path;
+      this.batchIndex = batchIndex;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(jobId, path, batchIndex);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof PageKey)) {
+        return false;
+      }
+      final PageKey that = (PageKey) obj;
+      return batchIndex == that.batchIndex && jobId.equals(that.jobId) && path.equals(that.path);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s/%s#%d", jobId, path, batchIndex);
+    }
+  }
+}
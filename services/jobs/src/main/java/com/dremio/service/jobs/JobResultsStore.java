@@ -19,7 +19,10 @@ import static com.dremio.common.perf.Timer.time;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.BufferAllocator;
@@ -30,6 +33,7 @@ import com.dremio.common.exceptions.UserException;
 import com.dremio.common.perf.Timer.TimedBlock;
 import com.dremio.common.utils.PathUtils;
 import com.dremio.datastore.IndexedStore;
+import com.dremio.exec.rpc.NamedThreadFactory;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
 import com.dremio.exec.util.ImpersonationUtil;
@@ -39,6 +43,7 @@ import com.dremio.service.job.proto.JobInfo;
 import com.dremio.service.job.proto.JobResult;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -60,15 +65,43 @@ public class JobResultsStore implements Service {
   private final BufferAllocator allocator;
   private final LoadingCache<JobId, JobDataImpl> jobResults;
   private final IndexedStore<JobId, JobResult> store;
+  private final JobResultsPageCache pageCache;
+  private final int prefetchBatches;
+  private final ExecutorService prefetchExecutor;
+  // record index following the last range read for each job, to detect sequential scrolling.
+  private final Cache<JobId, Integer> lastReadEnds;
 
   public JobResultsStore(final FileSystemPlugin plugin, final IndexedStore<JobId, JobResult> store,
       final BufferAllocator allocator) throws IOException {
+    this(plugin, store, allocator, 0, 0);
+  }
+
+  /**
+   * @param pageCacheSize maximum size in bytes of the batches cached to serve the results of jobs, 0 to disable caching
+   * @param prefetchBatches number of batches to load in the cache ahead of sequential reads, 0 to disable prefetching
+   */
+  public JobResultsStore(final FileSystemPlugin plugin, final IndexedStore<JobId, JobResult> store,
+      final BufferAllocator allocator, final long pageCacheSize, final int prefetchBatches) throws IOException {
     this.storageName = plugin.getStorageName();
     this.dfs = plugin.getFS(ImpersonationUtil.getProcessUserName());
     this.jobStoreLocation = new Path(plugin.getConfig().getPath());
     this.dfs.mkdirs(jobStoreLocation);
     this.store = store;
     this.allocator = allocator;
+    this.pageCache = pageCacheSize > 0 ? new JobResultsPageCache(allocator, pageCacheSize) : null;
+    this.prefetchBatches = pageCache != null ? prefetchBatches : 0;
+    if (this.prefetchBatches > 0) {
+      // prefetching is best effort: drop requests when it can't keep up.
+      this.prefetchExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(16), new NamedThreadFactory("job-results-prefetch-"),
+          new ThreadPoolExecutor.DiscardPolicy());
+    } else {
+      this.prefetchExecutor = null;
+    }
+    this.lastReadEnds = CacheBuilder.newBuilder()
+        .maximumSize(100)
+        .expireAfterAccess(15, TimeUnit.MINUTES)
+        .build();
 
     this.jobResults = CacheBuilder.newBuilder()
         .maximumSize(100)
@@ -99,6 +132,10 @@ public class JobResultsStore implements Service {
 
   public boolean cleanup(JobId jobId) {
     final Path jobOutputDir = getJobOutputDir(jobId);
+    if (pageCache != null) {
+      pageCache.invalidate(jobId.getId());
+    }
+    lastReadEnds.invalidate(jobId);
     try {
       dfs.delete(jobOutputDir, true);
       logger.info("Deleted job output directory : " + jobOutputDir);
@@ -124,6 +161,21 @@ public class JobResultsStore implements Service {
     }
   }
 
+  /**
+   * Get the size in bytes of the results stored by a job.
+   *
+   * @return the size, or -1 if it can't be read.
+   */
+  public long getJobResultsSize(JobId jobId) {
+    final Path jobOutputDir = getJobOutputDir(jobId);
+    try {
+      return dfs.getContentSummary(jobOutputDir).getLength();
+    } catch (IOException e) {
+      logger.debug("Could not read the size of job output directory : " + jobOutputDir, e);
+      return -1;
+    }
+  }
+
   void cacheNewJob(JobId jobId, JobDataImpl data){
     // put this in cache so that others who want it, won't try to read it before it is done running.
     jobResults.put(jobId, data);
@@ -133,14 +185,25 @@ public class JobResultsStore implements Service {
     return jobResult.getAttemptsList().get(jobResult.getAttemptsList().size() - 1).getInfo();
   }
 
+  /**
+   * Get the job whose stored results are the results of the given job: a job answered with the results of a previous
+   * job reads them from where that job stored them.
+   */
+  private static JobId getResultsJobId(JobId jobId, JobResult jobResult) {
+    final JobId resultsFromJob = getLastAttempt(jobResult).getResultsFromJob();
+    return resultsFromJob != null ? resultsFromJob : jobId;
+  }
+
   public String getJobResultsTableName(JobId jobId) {
     return String.format("TABLE(%s(type => 'arrow'))",
         PathUtils.constructFullPath(ImmutableList.of(storageName, jobId.getId())));
   }
 
   public RecordBatches loadJobData(JobId jobId, JobResult job, int offset, int limit){
+    final int requestedOffset = offset;
     try (TimedBlock b = time("getJobResult")) {
-      final Path jobOutputDir = getJobOutputDir(jobId);
+      final JobId resultsJobId = getResultsJobId(jobId, job);
+      final Path jobOutputDir = getJobOutputDir(resultsJobId);
       if (!dfs.isDirectory(jobOutputDir)) {
         throw UserException.dataReadError()
             .message("Job '%s' output doesn't exist", jobId.getId())
@@ -180,12 +243,13 @@ public class JobResultsStore implements Service {
       if (resultFilesToRead.isEmpty()) {
         // when the query returns no results at all or the requested range is invalid, return an empty record batch
         // for metadata purposes.
-        try (ArrowFileReader fileReader = new ArrowFileReader(dfs, jobOutputDir, resultMetadata.get(0), allocator)) {
+        try (ArrowFileReader fileReader = newReader(resultsJobId, jobOutputDir, resultMetadata.get(0))) {
           batchHolders.addAll(fileReader.read(0, 0));
         }
       } else {
         runningFileRecordCount = 0;
         int remaining = limit;
+        int lastBatchIndex = -1;
         for(ArrowFileMetadata file : resultFilesToRead) {
 
           // Find the starting record index in file
@@ -195,13 +259,20 @@ public class JobResultsStore implements Service {
           // Min of remaining records in file or remaining records in total to read.
           final long fileLimit = Math.min(file.getRecordCount() - fileOffset, remaining);
 
-          try (ArrowFileReader fileReader = new ArrowFileReader(dfs, jobOutputDir, file, allocator)) {
+          try (ArrowFileReader fileReader = newReader(resultsJobId, jobOutputDir, file)) {
             batchHolders.addAll(fileReader.read(fileOffset, fileLimit));
             remaining -= fileLimit;
+            lastBatchIndex = fileReader.getLastBatchIndex();
           }
 
           runningFileRecordCount += file.getRecordCount();
         }
+
+        final Integer lastReadEnd = lastReadEnds.getIfPresent(jobId);
+        lastReadEnds.put(jobId, requestedOffset + limit);
+        if (lastReadEnd != null && lastReadEnd == requestedOffset && lastBatchIndex >= 0) {
+          prefetch(resultsJobId, jobOutputDir, resultFilesToRead.get(resultFilesToRead.size() - 1), lastBatchIndex + 1);
+        }
       }
 
       return new RecordBatches(batchHolders);
@@ -212,6 +283,36 @@ public class JobResultsStore implements Service {
     }
   }
 
+  private ArrowFileReader newReader(JobId jobId, Path jobOutputDir, ArrowFileMetadata file) {
+    return new ArrowFileReader(dfs, jobOutputDir, file, allocator, pageCache, jobId.getId());
+  }
+
+  /**
+   * Load the batches following the ones just read in the page cache, in the background, so that the next page of a
+   * client scrolling through the results is served from memory.
+   */
+  private void prefetch(final JobId jobId, final Path jobOutputDir, final ArrowFileMetadata file,
+      final int fromBatchIndex) {
+    if (prefetchExecutor == null) {
+      return;
+    }
+    prefetchExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try (ArrowFileReader fileReader = newReader(jobId, jobOutputDir, file)) {
+          fileReader.prefetch(fromBatchIndex, prefetchBatches);
+        } catch (Exception e) {
+          logger.debug("Failed to prefetch results of job {}", jobId.getId(), e);
+        }
+      }
+    });
+  }
+
+  @VisibleForTesting
+  long getPageCacheSize() {
+    return pageCache == null ? 0 : pageCache.getCurrentBytes();
+  }
+
   public JobDataImpl get(JobId jobId) {
     try{
       return jobResults.get(jobId);
@@ -241,7 +342,7 @@ public class JobResultsStore implements Service {
 
     @Override
     public String getJobResultsTable() {
-      return getJobResultsTableName(jobId);
+      return getJobResultsTableName(getResultsJobId(jobId, store.get(jobId)));
     }
   }
 
@@ -258,5 +359,13 @@ public class JobResultsStore implements Service {
 
 
     jobResults.invalidateAll();
+
+    if (prefetchExecutor != null) {
+      prefetchExecutor.shutdownNow();
+      prefetchExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    if (pageCache != null) {
+      pageCache.close();
+    }
   }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.common.utils.ProtostuffUtil;
+import com.dremio.datastore.IndexedStore;
+import com.dremio.datastore.KVStore;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.rpc.NamedThreadFactory;
+import com.dremio.exec.work.AttemptId;
+import com.dremio.metrics.Metrics;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobResult;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Write-behind of the states of running jobs and of their profiles to the job stores.
+ *
+ * The states a job goes through while it runs are kept until the next flush, only the last one being written, so
+ * a job is re-indexed once per flush interval instead of once per state. The final state of a job is written at once,
+ * replacing its pending state. Profiles are written by the flushes, out of the path of the queries, and served from
+ * the journal until then.
+ */
+class JobStateJournal implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JobStateJournal.class);
+
+  private static final String METRIC_PREFIX = "jobs.journal";
+
+  private final IndexedStore<JobId, JobResult> store;
+  private final KVStore<AttemptId, QueryProfile> profileStore;
+  private final long flushIntervalMillis;
+  private final ConcurrentMap<JobId, JobResult> pendingJobs = new ConcurrentHashMap<>();
+  // attempt ids are compared by their string form.
+  private final ConcurrentMap<String, PendingProfile> pendingProfiles = new ConcurrentHashMap<>();
+  // orders the writes of a job by flushes with its final write.
+  private final Striped<Lock> jobLocks = Striped.lock(64);
+  private final ScheduledExecutorService flusher;
+  private final Counter coalesced = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "coalesced"));
+  private final Counter flushed = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "flushed"));
+
+  /**
+   * @param flushIntervalMillis time between flushes, 0 to write states and profiles as they are journaled.
+   */
+  JobStateJournal(IndexedStore<JobId, JobResult> store, KVStore<AttemptId, QueryProfile> profileStore,
+      long flushIntervalMillis) {
+    this.store = store;
+    this.profileStore = profileStore;
+    this.flushIntervalMillis = flushIntervalMillis;
+    if (flushIntervalMillis > 0) {
+      this.flusher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("job-state-flush-"));
+      flusher.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          flush();
+        }
+      }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      this.flusher = null;
+    }
+  }
+
+  /**
+   * Journal an intermediate state of a job, to be written by the next flush unless a later state replaces it.
+   */
+  void update(JobId jobId, JobResult jobResult) {
+    if (flushIntervalMillis == 0) {
+      store.put(jobId, jobResult);
+      return;
+    }
+    // the job keeps changing while its state waits for the flush.
+    if (pendingJobs.put(jobId, ProtostuffUtil.copy(jobResult)) != null) {
+      coalesced.inc();
+    }
+  }
+
+  /**
+   * Write the final state of a job, dropping its pending state.
+   */
+  void persist(JobId jobId, JobResult jobResult) {
+    final Lock lock = jobLocks.get(jobId);
+    lock.lock();
+    try {
+      pendingJobs.remove(jobId);
+      store.put(jobId, jobResult);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Journal the profile of a job attempt, to be written by the next flush.
+   */
+  void putProfile(AttemptId attemptId, QueryProfile profile) {
+    if (flushIntervalMillis == 0) {
+      profileStore.put(attemptId, profile);
+      return;
+    }
+    pendingProfiles.put(attemptId.toString(), new PendingProfile(attemptId, profile));
+  }
+
+  /**
+   * Get the profile of a job attempt, journaled or written.
+   */
+  QueryProfile getProfile(AttemptId attemptId) {
+    final PendingProfile pending = pendingProfiles.get(attemptId.toString());
+    return pending != null ? pending.profile : profileStore.get(attemptId);
+  }
+
+  /**
+   * Write the pending states and profiles.
+   */
+  @VisibleForTesting
+  void flush() {
+    for (JobId jobId : pendingJobs.keySet()) {
+      final Lock lock = jobLocks.get(jobId);
+      lock.lock();
+      try {
+        final JobResult jobResult = pendingJobs.remove(jobId);
+        if (jobResult != null) {
+          store.put(jobId, jobResult);
+          flushed.inc();
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Failed to write the state of job {}", jobId.getId(), e);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    for (Map.Entry<String, PendingProfile> entry : pendingProfiles.entrySet()) {
+      try {
+        profileStore.put(entry.getValue().attemptId, entry.getValue().profile);
+        // a newer profile of the attempt is written by the next flush.
+        pendingProfiles.remove(entry.getKey(), entry.getValue());
+      } catch (RuntimeException e) {
+        logger.warn("Failed to write the profile of attempt {}", entry.getKey(), e);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (flusher != null) {
+      flusher.shutdown();
+      flusher.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    flush();
+  }
+
+  private static final class PendingProfile {
+    private final AttemptId attemptId;
+    private final QueryProfile profile;
+
+    private PendingProfile(AttemptId attemptId, QueryProfile profile) {
+      this.attemptId = attemptId;
+      this.profile = profile;
+    }
+  }
+}
@@ -73,6 +73,16 @@ public interface JobsService extends Service {
    */
   Job submitDownloadJob(final SqlQuery query, String downloadId, String fileName);
 
+  /**
+   * Submit a job whose results are handed to the given listener as they are produced, instead of being stored.
+   * @param query sql query.
+   * @param queryType type of query.
+   * @param statusListener listener notified of the job state changes, including completion.
+   * @param resultsListener listener receiving the results.
+   * @return Job associated with sql query.
+   */
+  Job submitStreamingJob(SqlQuery query, QueryType queryType, JobStatusListener statusListener, JobResultsListener resultsListener);
+
   /**
    * Get job information.
    * @param jobId job id.
@@ -132,6 +142,16 @@ public interface JobsService extends Service {
    */
   int getJobsCountForDataset(final NamespaceKey datasetPath, final DatasetVersion datasetVersion);
 
+  /**
+   * Get the job which stored a sample of a physical dataset to run previews of the dataset over, taking the sample
+   * first if there is no current one.
+   *
+   * @param datasetPath path of the physical dataset.
+   * @param username user reading the sample.
+   * @return the completed job, or null if samples are disabled or the dataset can't be sampled.
+   */
+  Job getPreviewSample(NamespaceKey datasetPath, String username);
+
   /**
    * Get list of jobs run for a given path.
    * @param datasetPath Path of Dataset
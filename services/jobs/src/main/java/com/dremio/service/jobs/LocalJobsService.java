@@ -40,6 +40,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -54,6 +56,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.annotation.Nullable;
 import javax.inject.Provider;
@@ -114,6 +119,7 @@ import com.dremio.exec.proto.UserProtos.SubmissionSource;
 import com.dremio.exec.proto.beans.NodeEndpoint;
 import com.dremio.exec.proto.helper.QueryIdHelper;
 import com.dremio.exec.record.RecordBatchLoader;
+import com.dremio.exec.rpc.Acks;
 import com.dremio.exec.rpc.RpcException;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.serialization.InstanceSerializer;
@@ -154,9 +160,12 @@ import com.dremio.service.job.proto.ParentDatasetInfo;
 import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.jobs.metadata.QueryMetadata;
 import com.dremio.service.jobs.metadata.RootSchemaFinder;
+import com.dremio.service.namespace.NamespaceException;
 import com.dremio.service.namespace.NamespaceKey;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.DatasetVersion;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
 import com.dremio.service.namespace.dataset.proto.FieldOrigin;
 import com.dremio.service.namespace.dataset.proto.Origin;
 import com.dremio.service.namespace.dataset.proto.ParentDataset;
@@ -176,6 +185,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.protobuf.InvalidProtocolBufferException;
 
+import io.netty.buffer.ByteBuf;
 import io.protostuff.LinkedBuffer;
 import io.protostuff.ProtobufIOUtil;
 
@@ -189,6 +199,7 @@ public class LocalJobsService implements JobsService {
 
   public static final String JOBS_NAME = "jobs";
   public static final String PROFILES_NAME = "profiles";
+  private static final int PREVIEW_SAMPLE_JOBS_TO_SEARCH = 25;
   public static final Set<QueryType> UI_QUERY_TYPES = ImmutableSet.of(UI_PREVIEW, UI_INTERNAL_PREVIEW, UI_RUN, UI_INTERNAL_RUN, UI_INITIAL_PREVIEW);
 
   // Sort by descending order of start time. (recently submitted jobs come on top)
@@ -211,10 +222,13 @@ public class LocalJobsService implements JobsService {
   private NamespaceService namespaceService;
   private IndexedStore<JobId, JobResult> store;
   private KVStore<AttemptId, QueryProfile> profileStore;
+  private JobStateJournal journal;
   private NodeEndpoint identity;
   private String storageName;
 
   private JobResultsStore jobResultsStore;
+  private JobResultsCache resultsCache;
+  private PreviewSampleStore previewSamples;
 
   public LocalJobsService(
       final BindingCreator bindingCreator,
@@ -264,11 +278,20 @@ public class LocalJobsService implements JobsService {
     this.identity = toStuff(contextProvider.get().getEndpoint());
     this.store = kvStoreProvider.get().getStore(JobsStoreCreator.class);
     this.profileStore = kvStoreProvider.get().getStore(JobsProfileCreator.class);
+    this.journal = new JobStateJournal(store, profileStore,
+        contextProvider.get().getOptionManager().getOption(ExecConstants.JOBS_STATE_FLUSH_INTERVAL));
     this.namespaceService = contextProvider.get().getNamespaceService(SystemUser.SYSTEM_USERNAME);
 
     FileSystemPlugin fileSystemPlugin = fileSystemPluginProvider.get();
     this.storageName = fileSystemPlugin.getStorageName();
-    this.jobResultsStore = new JobResultsStore(fileSystemPlugin, store, allocator);
+    this.jobResultsStore = new JobResultsStore(fileSystemPlugin, store, allocator,
+        contextProvider.get().getOptionManager().getOption(ExecConstants.RESULTS_PAGE_CACHE_SIZE),
+        (int) contextProvider.get().getOptionManager().getOption(ExecConstants.RESULTS_PREFETCH_BATCHES));
+    this.resultsCache = new JobResultsCache(
+        contextProvider.get().getOptionManager().getOption(ExecConstants.RESULTS_CACHE_MAX_ENTRIES),
+        contextProvider.get().getOptionManager().getOption(ExecConstants.RESULTS_CACHE_TTL_SECONDS));
+    this.previewSamples = new PreviewSampleStore(
+        contextProvider.get().getOptionManager().getOption(ExecConstants.PREVIEW_SAMPLES_SIZE), jobResultsStore);
 
     // register to listen to query lifecycle
     bindingCreator.replace(QueryObserverFactory.class, new JobsObserverFactory());
@@ -324,7 +347,7 @@ public class LocalJobsService implements JobsService {
   @Override
   public void close() throws Exception {
     logger.info("Stopping JobsService");
-    AutoCloseables.close(jobResultsStore, allocator);
+    AutoCloseables.close(journal, jobResultsStore, allocator);
     logger.info("Stopped JobsService");
   }
 
@@ -356,7 +379,8 @@ public class LocalJobsService implements JobsService {
   }
 
   private Job startJob(final SqlQuery query, QueryType queryType, String downloadId, String fileName, List<String> datasetPath,
-                       String version, final List<String> exclusions, JobStatusListener statusListener, MaterializationSummary MaterializationSummary) {
+                       String version, final List<String> exclusions, JobStatusListener statusListener, MaterializationSummary MaterializationSummary,
+                       JobResultsListener resultsListener) {
     final ExternalId externalId = ExternalIdHelper.generateExternalId();
     final JobId jobId = getExternalIdAsJobId(externalId);
     final JobInfo jobInfo = new JobInfo(jobId, query.getSql(), version, queryType)
@@ -376,6 +400,19 @@ public class LocalJobsService implements JobsService {
       jobInfo.setMaterializationFor(MaterializationSummary);
     }
 
+    final boolean enableLeafLimits = queryType == UI_PREVIEW || queryType == UI_INTERNAL_PREVIEW || queryType == UI_INITIAL_PREVIEW;
+    final JobResultsCache.Key resultsCacheKey =
+        getResultsCacheKey(query, queryType, downloadId, MaterializationSummary, resultsListener, enableLeafLimits);
+    if (resultsCacheKey != null) {
+      final JobResultsCache.Entry cached = resultsCache.get(resultsCacheKey, namespaceService, jobResultsStore);
+      if (cached != null) {
+        final Job job = reuseResults(jobInfo, cached, statusListener);
+        if (job != null) {
+          return job;
+        }
+      }
+    }
+
     final JobAttempt jobAttempt = new JobAttempt()
             .setInfo(jobInfo)
             .setEndpoint(identity)
@@ -383,7 +420,7 @@ public class LocalJobsService implements JobsService {
             .setDetails(new JobDetails());
     final Job job = new Job(jobInfo.getJobId(), jobAttempt);
 
-    final QueryListener jobObserver = new QueryListener(job, statusListener);
+    final QueryListener jobObserver = new QueryListener(job, statusListener, resultsListener, resultsCacheKey);
 
     final WorkloadClass workloadClass;
 
@@ -434,16 +471,17 @@ public class LocalJobsService implements JobsService {
         .build();
     }
 
-    final boolean enableLeafLimits = queryType == UI_PREVIEW || queryType == UI_INTERNAL_PREVIEW || queryType == UI_INITIAL_PREVIEW;
-    // for UI queries, we should allow reattempts even if data has been returned from query
-    final boolean failIfNonEmptySent = !UI_QUERY_TYPES.contains(queryType);
+    // for UI queries, we should allow reattempts even if data has been returned from query. Streamed results can't be
+    // taken back though.
+    final boolean streamResults = resultsListener != null;
+    final boolean failIfNonEmptySent = streamResults || !UI_QUERY_TYPES.contains(queryType);
     final boolean internalSingleThreaded = queryType == UI_INITIAL_PREVIEW;
     final String queryResultsStorePath = String.format("%s.%s", storageName, SqlUtils.quoteIdentifier(jobId.getId()));
     final boolean enablePartitionPruning = queryType != QueryType.ACCELERATOR_EXPLAIN;
 
     final LocalExecutionConfig config = new LocalExecutionConfig(enableLeafLimits, enableLeafLimits ? 10L : 0L,
         failIfNonEmptySent, query.getUsername(),
-        query.getContext(), true, internalSingleThreaded, queryResultsStorePath, exclusions, enablePartitionPruning);
+        query.getContext(), !streamResults, internalSingleThreaded, queryResultsStorePath, exclusions, enablePartitionPruning);
 
     Preconditions.checkArgument(store.checkAndPut(job.getJobId(), null, toJobResult(job)), "Job had a duplicate jobId. " + job);
     runningJobs.put(jobId, jobObserver);
@@ -453,6 +491,80 @@ public class LocalJobsService implements JobsService {
     return job;
   }
 
+  /**
+   * Get the key to look up the results of a previous job running the same query in the results cache.
+   *
+   * @return the key, or null if the results of the query can't be reused.
+   */
+  private JobResultsCache.Key getResultsCacheKey(SqlQuery query, QueryType queryType, String downloadId,
+      MaterializationSummary materializationSummary, JobResultsListener resultsListener, boolean preview) {
+    if (!contextProvider.get().getOptionManager().getOption(ExecConstants.RESULTS_CACHE_ENABLED)) {
+      return null;
+    }
+
+    switch (queryType) {
+    case ACCELERATOR_CREATE:
+    case ACCELERATOR_DROP:
+    case ACCELERATOR_EXPLAIN:
+    case PREPARE_INTERNAL:
+      return null;
+    default:
+      break;
+    }
+
+    // downloads and materializations write their own output, streamed results are not stored.
+    if (downloadId != null || materializationSummary != null || resultsListener != null) {
+      return null;
+    }
+    return JobResultsCache.newKey(query, preview, contextProvider.get().getOptionManager().getNonDefaultOptions());
+  }
+
+  /**
+   * Complete a new job with the results of a previous job running the same query, without running it.
+   *
+   * @return the job, or null if the previous job can't be found anymore.
+   */
+  private Job reuseResults(JobInfo jobInfo, JobResultsCache.Entry cached, JobStatusListener statusListener) {
+    final JobResult previous = store.get(cached.getJobId());
+    if (previous == null) {
+      return null;
+    }
+    final JobAttempt previousAttempt = previous.getAttemptsList().get(previous.getAttemptsList().size() - 1);
+    if (previousAttempt.getState() != JobState.COMPLETED) {
+      return null;
+    }
+
+    final JobInfo previousInfo = previousAttempt.getInfo();
+    jobInfo
+        .setResultsFromJob(cached.getJobId())
+        .setDescription(format("Results from job %s", cached.getJobId().getId()))
+        .setRequestType(previousInfo.getRequestType())
+        .setParentsList(previousInfo.getParentsList())
+        .setGrandParentsList(previousInfo.getGrandParentsList())
+        .setFieldOriginsList(previousInfo.getFieldOriginsList())
+        .setJoinsList(previousInfo.getJoinsList())
+        .setResultMetadataList(previousInfo.getResultMetadataList())
+        .setFinishTime(System.currentTimeMillis());
+
+    final JobAttempt jobAttempt = new JobAttempt()
+        .setInfo(jobInfo)
+        .setEndpoint(identity)
+        .setState(JobState.COMPLETED)
+        .setStats(previousAttempt.getStats())
+        .setDetails(new JobDetails());
+    final Job job = new Job(jobInfo.getJobId(), jobAttempt);
+
+    Preconditions.checkArgument(store.checkAndPut(job.getJobId(), null, toJobResult(job)), "Job had a duplicate jobId. " + job);
+    // the results are read from where the previous job stored them.
+    job.setData(jobResultsStore.get(job.getJobId()));
+    logger.debug("Job {} reuses the results of job {}", job.getJobId().getId(), cached.getJobId().getId());
+
+    statusListener.jobSubmitted(job.getJobId());
+    statusListener.metadataCollected(cached.getMetadata());
+    statusListener.jobCompleted();
+    return job;
+  }
+
   public static JobId getExternalIdAsJobId(ExternalId id){
     return new JobId(new UUID(id.getPart1(), id.getPart2()).toString());
   }
@@ -478,7 +590,8 @@ public class LocalJobsService implements JobsService {
         version == null ? "UNKNOWN" : version.getVersion(),
         exclusions,
         statusListener,
-        materializationSummary);
+        materializationSummary,
+        null);
     logger.debug(format("Submitted new %s job: %s for %s",
         queryType, job.getJobId().getId(), datasetPath + (version == null ? "" : "/" + version)));
     return job;
@@ -492,18 +605,28 @@ public class LocalJobsService implements JobsService {
 
   @Override
   public Job submitExternalJob(final SqlQuery query, QueryType type) {
-    final Job job = startJob(query, type, null, null, Arrays.asList("UNKNOWN"), "UNKNOWN", ImmutableList.<String>of(), JobStatusListener.NONE, null);
+    final Job job = startJob(query, type, null, null, Arrays.asList("UNKNOWN"), "UNKNOWN", ImmutableList.<String>of(), JobStatusListener.NONE, null, null);
     logger.debug("Submitted new job for sql %s" + job.getJobId().getId(), query);
     return job;
   }
 
   @Override
   public Job submitDownloadJob(final SqlQuery query, String downloadId, String fileName) {
-    final Job job = startJob(query, UI_EXPORT, downloadId, fileName, Arrays.asList("UNKNOWN"), "UNKNOWN", ImmutableList.<String>of(), JobStatusListener.NONE, null);
+    final Job job = startJob(query, UI_EXPORT, downloadId, fileName, Arrays.asList("UNKNOWN"), "UNKNOWN", ImmutableList.<String>of(), JobStatusListener.NONE, null, null);
     logger.debug("Submitted new download job for sql %s" + job.getJobId().getId(), query);
     return job;
   }
 
+  @Override
+  public Job submitStreamingJob(final SqlQuery query, QueryType queryType, JobStatusListener statusListener,
+                                JobResultsListener resultsListener) {
+    Preconditions.checkNotNull(resultsListener, "resultsListener cannot be null");
+    final Job job = startJob(query, queryType, null, null, Arrays.asList("UNKNOWN"), "UNKNOWN", ImmutableList.<String>of(), statusListener, null,
+        resultsListener);
+    logger.debug("Submitted new streaming {} job {}", queryType, job.getJobId().getId());
+    return job;
+  }
+
   @Override
   public Job getJob(JobId jobId) {
     QueryListener listener = runningJobs.get(jobId);
@@ -533,6 +656,75 @@ public class LocalJobsService implements JobsService {
     return jobResultsStore.get(jobId).truncate(limit);
   }
 
+  @Override
+  public Job getPreviewSample(NamespaceKey datasetPath, String username) {
+    if (!contextProvider.get().getOptionManager().getOption(ExecConstants.PREVIEW_SAMPLES_ENABLED)) {
+      return null;
+    }
+
+    final DatasetConfig config;
+    try {
+      config = namespaceService.getDataset(datasetPath);
+    } catch (NamespaceException e) {
+      logger.debug("Dataset {} not found in namespace", datasetPath, e);
+      return null;
+    }
+    // the samples of views would go stale when the datasets they read change.
+    if (config == null || config.getType() == DatasetType.VIRTUAL_DATASET) {
+      return null;
+    }
+
+    final PreviewSampleStore.Key key = PreviewSampleStore.newKey(datasetPath, username);
+    final JobId sampleJobId = previewSamples.get(key, config);
+    if (sampleJobId != null) {
+      final Job job = getJob(sampleJobId);
+      if (job != null) {
+        return job;
+      }
+    }
+
+    // samples are the results of jobs, so they are still there after a restart.
+    final String sql = PreviewSampleStore.getSampleSql(datasetPath);
+    Job job = findPreviewSample(datasetPath, sql, username, PreviewSampleStore.getRefreshTime(config));
+    if (job == null) {
+      job = submitJob(new SqlQuery(sql, username), UI_INTERNAL_PREVIEW, datasetPath, null, JobStatusListener.NONE);
+      try {
+        // waits for the job to complete.
+        job.getData().loadIfNecessary();
+      } catch (RuntimeException e) {
+        logger.debug("Failed to sample dataset {}", datasetPath, e);
+        return null;
+      }
+      if (job.getJobAttempt().getState() != JobState.COMPLETED) {
+        return null;
+      }
+    }
+
+    return previewSamples.put(key, job.getJobId(), config) ? job : null;
+  }
+
+  /**
+   * Find a completed job which sampled the dataset since its metadata was last refreshed.
+   */
+  private Job findPreviewSample(NamespaceKey datasetPath, String sql, String username, long refreshTime) {
+    for (Job job : getJobsForDataset(datasetPath, null, PREVIEW_SAMPLE_JOBS_TO_SEARCH)) {
+      final JobInfo info = job.getJobAttempt().getInfo();
+      if (info.getStartTime() < refreshTime) {
+        // jobs are sorted by descending start time.
+        return null;
+      }
+      if (info.getQueryType() == UI_INTERNAL_PREVIEW
+          && sql.equals(info.getSql())
+          && username.equals(info.getUser())
+          && info.getResultsFromJob() == null
+          && job.getJobAttempt().getState() == JobState.COMPLETED
+          && job.hasResults()) {
+        return job;
+      }
+    }
+    return null;
+  }
+
   @VisibleForTesting
   public JobResultsStore getjobResultsStore() {
     return jobResultsStore;
@@ -793,14 +985,28 @@ public class LocalJobsService implements JobsService {
 
     @Override
     public byte[] convert(QueryProfile profile) {
-      return profile.toByteArray();
+      // profiles are mostly repeated operator and minor fragment entries, they compress well.
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+        profile.writeTo(out);
+      } catch (IOException e) {
+        throw Throwables.propagate(e);
+      }
+      return bytes.toByteArray();
     }
 
     @Override
     public QueryProfile revert(byte[] profile) {
       try {
+        // profiles stored before they were compressed are read as is: no protobuf message starts with the gzip magic
+        // number, 0x1f being a tag with an invalid wire type.
+        if (profile.length >= 2 && (profile[0] & 0xff) == 0x1f && (profile[1] & 0xff) == 0x8b) {
+          try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(profile))) {
+            return QueryProfile.PARSER.parseFrom(in);
+          }
+        }
         return QueryProfile.PARSER.parseFrom(profile);
-      } catch (InvalidProtocolBufferException e) {
+      } catch (IOException e) {
         throw Throwables.propagate(e);
       }
     }
@@ -889,6 +1095,8 @@ public class LocalJobsService implements JobsService {
     private final ExternalId externalId;
     private final UserResponseHandler responseHandler;
     private final JobStatusListener statusListener;
+    private final JobResultsListener resultsListener;
+    private final JobResultsCache.Key resultsCacheKey;
     private final boolean isInternal;
     private final ExternalListenerManager listeners = new ExternalListenerManager();
     private final CountDownLatch completionLatch = new CountDownLatch(1);
@@ -901,16 +1109,25 @@ public class LocalJobsService implements JobsService {
       externalId = getJobIdAsExternalId(job.getJobId());
       this.responseHandler = Preconditions.checkNotNull(connection, "handler cannot be null");
       this.statusListener = null;
+      this.resultsListener = null;
+      this.resultsCacheKey = null;
       isInternal = false;
 
       setupJobData();
     }
 
-    private QueryListener(Job job, JobStatusListener statusListener) {
+    /**
+     * @param resultsCacheKey key under which the results of the job are indexed when it completes, null if they can't
+     *                        be reused.
+     */
+    private QueryListener(Job job, JobStatusListener statusListener, JobResultsListener resultsListener,
+        JobResultsCache.Key resultsCacheKey) {
       this.job = job;
       externalId = getJobIdAsExternalId(job.getJobId());
       this.responseHandler = null;
       this.statusListener = Preconditions.checkNotNull(statusListener, "statusListener cannot be null");
+      this.resultsListener = resultsListener;
+      this.resultsCacheKey = resultsCacheKey;
       isInternal = true;
 
       setupJobData();
@@ -921,7 +1138,8 @@ public class LocalJobsService implements JobsService {
     }
 
     private void setupJobData() {
-      final JobLoader jobLoader = isInternal ?
+      // streamed results aren't stored, so they can't be loaded later on.
+      final JobLoader jobLoader = isInternal && resultsListener == null ?
           new InternalJobLoader(exception, completionLatch, job.getJobId(), jobResultsStore, store) : new ExternalJobLoader(completionLatch, exception);
       final JobDataImpl result = new JobDataImpl(jobLoader, job.getJobId());
       job.setData(result);
@@ -950,7 +1168,9 @@ public class LocalJobsService implements JobsService {
 
       job.getJobAttempt().setAttemptId(AttemptIdUtils.toString(attemptId));
 
-      if (isInternal) {
+      if (resultsListener != null) {
+        attemptObserver = new StreamingJobResultListener(attemptId, job, allocator, statusListener, resultsListener);
+      } else if (isInternal) {
         attemptObserver = new JobResultListener(attemptId, job, allocator, statusListener);
       } else {
         attemptObserver = new ExternalJobResultListener(attemptId, responseHandler, job, allocator);
@@ -965,7 +1185,7 @@ public class LocalJobsService implements JobsService {
       final QueryProfile profile = userResult.getProfile();
       final UserException ex = userResult.getException();
       try {
-        addAttemptToJob(job, state, profile);
+        addAttemptToJob(job, state, profile, true);
       } catch (IOException e) {
         exception.addException(e);
       }
@@ -987,6 +1207,10 @@ public class LocalJobsService implements JobsService {
         try {
           switch (state) {
             case COMPLETED:
+              if (resultsCacheKey != null && !exception.hasException()) {
+                resultsCache.put(resultsCacheKey, job.getJobAttempt().getInfo(), attemptObserver.getMetadata(),
+                    namespaceService);
+              }
               this.statusListener.jobCompleted();
               break;
 
@@ -1120,6 +1344,75 @@ public class LocalJobsService implements JobsService {
     }
   }
 
+  /**
+   * A query observer for jobs streaming their results. Hands the data to the results listener as it arrives.
+   */
+  private final class StreamingJobResultListener extends JobResultListener {
+
+    private final JobResultsListener resultsListener;
+    private final BufferAllocator allocator;
+
+    StreamingJobResultListener(AttemptId attemptId, Job job, BufferAllocator allocator, JobStatusListener statusListener,
+        JobResultsListener resultsListener) {
+      super(attemptId, job, allocator, statusListener);
+      this.allocator = allocator;
+      this.resultsListener = resultsListener;
+    }
+
+    @Override
+    public void execDataArrived(RpcOutcomeListener<Ack> outcomeListener, QueryWritableBatch result) {
+      // the batch is acknowledged once the results listener has taken it, not once it is copied.
+      final ConsumedAck ack = new ConsumedAck(outcomeListener);
+      try (QueryDataBatch dataBatch = LocalUserUtil.acquireData(allocator, ack, result);
+          RecordBatchLoader loader = new RecordBatchLoader(allocator)) {
+        loader.load(dataBatch.getHeader().getDef(), dataBatch.getData());
+        resultsListener.dataArrived(loader, ack);
+      } catch (Exception ex) {
+        addException(ex);
+        ack.failed(new RpcException(ex));
+      }
+    }
+  }
+
+  /**
+   * Acknowledges a batch of results when it is consumed rather than when its buffers are released, failures being
+   * reported at once. Only the first outcome is reported.
+   */
+  private static final class ConsumedAck implements RpcOutcomeListener<Ack>, Runnable {
+    private final RpcOutcomeListener<Ack> delegate;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private ConsumedAck(RpcOutcomeListener<Ack> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void run() {
+      if (completed.compareAndSet(false, true)) {
+        delegate.success(Acks.OK, null);
+      }
+    }
+
+    @Override
+    public void success(Ack value, ByteBuf buffer) {
+      // the buffers of the batch are released, the batch is acknowledged once consumed.
+    }
+
+    @Override
+    public void failed(RpcException ex) {
+      if (completed.compareAndSet(false, true)) {
+        delegate.failed(ex);
+      }
+    }
+
+    @Override
+    public void interrupted(InterruptedException e) {
+      if (completed.compareAndSet(false, true)) {
+        delegate.interrupted(e);
+      }
+    }
+  }
+
   @VisibleForTesting
   Iterable<Job> getAllJobs(){
     FindByCondition condition = new FindByCondition();
@@ -1145,6 +1438,8 @@ public class LocalJobsService implements JobsService {
     private final JobStatusListener statusListener;
     private final QueryMetadata.Builder builder;
 
+    private volatile QueryMetadata metadata;
+
     JobResultListener(AttemptId attemptId, Job job, BufferAllocator allocator,
         JobStatusListener statusListener) {
       Preconditions.checkNotNull(jobResultsStore);
@@ -1160,6 +1455,14 @@ public class LocalJobsService implements JobsService {
       return exception.getException();
     }
 
+    void addException(Exception ex) {
+      exception.addException(ex);
+    }
+
+    QueryMetadata getMetadata() {
+      return metadata;
+    }
+
     @Override
     public void queryStarted(UserRequest query, String user) {
 
@@ -1175,6 +1478,11 @@ public class LocalJobsService implements JobsService {
       builder.addRowType(rowType).addParsedSql(node);
     }
 
+    @Override
+    public void planConvertedToRel(RelNode converted, long millisTaken) {
+      builder.addConvertedPlan(converted);
+    }
+
     @Override
     public void planSerializable(RelNode converted) {
       builder.addSerializablePlan(converted);
@@ -1241,7 +1549,7 @@ public class LocalJobsService implements JobsService {
 
     private void finalizeMetadata(){
       try {
-        QueryMetadata metadata = builder.build();
+        metadata = builder.build();
         Optional<List<ParentDatasetInfo>> parents = metadata.getParents();
         JobInfo jobInfo = job.getJobAttempt().getInfo();
         if (parents.isPresent()) {
@@ -1259,7 +1567,7 @@ public class LocalJobsService implements JobsService {
         if (grandParents.isPresent()) {
           jobInfo.setGrandParentsList(grandParents.get());
         }
-        storeJob(job);
+        journal.update(jobId, toJobResult(job));
         statusListener.metadataCollected(metadata);
       }catch(Exception ex){
         exception.addException(ex);
@@ -1288,7 +1596,7 @@ public class LocalJobsService implements JobsService {
     public void attemptCompletion(UserResult result) {
       try {
         final QueryState queryState = result.getState();
-        addAttemptToJob(job, queryState, result.getProfile());
+        addAttemptToJob(job, queryState, result.getProfile(), false);
       } catch (IOException e) {
         exception.addException(e);
       }
@@ -1326,7 +1634,10 @@ public class LocalJobsService implements JobsService {
     }
   }
 
-  private void addAttemptToJob(Job job, QueryState state, QueryProfile profile) throws IOException {
+  /**
+   * @param isFinal whether this is the final state of the job, written at once. Other states are journaled.
+   */
+  private void addAttemptToJob(Job job, QueryState state, QueryProfile profile, boolean isFinal) throws IOException {
 
       job.getJobAttempt().setState(queryStatusToJobStatus(state));
       final JobInfo jobInfo = job.getJobAttempt().getInfo();
@@ -1339,9 +1650,13 @@ public class LocalJobsService implements JobsService {
       job.getJobAttempt().setStats(profileParser.getJobStats());
       job.getJobAttempt().setDetails(profileParser.getJobDetails());
 
-      storeJob(job);
+      if (isFinal) {
+        journal.persist(job.getJobId(), toJobResult(job));
+      } else {
+        journal.update(job.getJobId(), toJobResult(job));
+      }
 
-      profileStore.put(AttemptIdUtils.fromString(job.getJobAttempt().getAttemptId()), profile);
+      journal.putProfile(AttemptIdUtils.fromString(job.getJobAttempt().getAttemptId()), profile);
   }
 
   private boolean jobIsDone(JobAttempt config){
@@ -1362,12 +1677,12 @@ public class LocalJobsService implements JobsService {
     Job job = getJob(jobId);
     final AttemptId attemptId = new AttemptId(getJobIdAsExternalId(jobId), attempt);
     if(jobIsDone(job.getJobAttempt())){
-      return profileStore.get(attemptId);
+      return journal.getProfile(attemptId);
     }
 
     // Check if the profile for given attempt already exists. Even if the job is not done, it is possible that
     // profile exists for previous attempts
-    final QueryProfile queryProfile = profileStore.get(attemptId);
+    final QueryProfile queryProfile = journal.getProfile(attemptId);
     if (queryProfile != null) {
       return queryProfile;
     }
@@ -1445,13 +1760,28 @@ public class LocalJobsService implements JobsService {
       long jobResultsMaxAgeInMillis = (maxAgeInDays* ONE_DAY_IN_MILLIS) + maxAgeInMillis;
       long cutOffTime = System.currentTimeMillis() - jobResultsMaxAgeInMillis;
 
+      // jobs which reused the results of a previous job read them from where that job stored them, so keep these
+      // results as long as a job reading them is not older than the cut off time.
+      final Set<JobId> referencedJobs = new HashSet<>();
+      final FindByCondition recentJobs = new FindByCondition()
+          .setCondition(
+              SearchQueryUtils.newRangeLong(END_TIME.getIndexFieldName(), cutOffTime, Long.MAX_VALUE, true, true));
+      for (Map.Entry<JobId, JobResult> entry : store.find(recentJobs)) {
+        JobResult jobResult = entry.getValue();
+        JobInfo jobInfo = jobResult.getAttemptsList().get(jobResult.getAttemptsList().size() - 1).getInfo();
+        if (jobInfo != null && jobInfo.getResultsFromJob() != null) {
+          referencedJobs.add(jobInfo.getResultsFromJob());
+        }
+      }
+
       //iterate through the results and remove directories if they are older
       for (Map.Entry<JobId, JobResult> entry : store.find()) {
         JobId jobId = entry.getKey();
         JobResult jobResult = entry.getValue();
         JobInfo jobInfo = jobResult.getAttemptsList().get(jobResult.getAttemptsList().size() - 1).getInfo();
         if (jobInfo != null // TODO: skip cleanup for now, but maybe delete instead (for unknown finish time)?
-            && jobInfo.getFinishTime() < cutOffTime) {
+            && jobInfo.getFinishTime() < cutOffTime
+            && !referencedJobs.contains(jobId)) {
           jobResultsStore.cleanup(jobId);
         }
       }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import java.util.List;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.common.utils.SqlUtils;
+import com.dremio.metrics.Metrics;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Index of the samples of physical datasets stored to run previews over, so that previewing a chain of
+ * transformations of a dataset reads the source once.
+ *
+ * A sample is the stored results of a preview job reading the whole dataset, so it holds the records a preview of
+ * the dataset reads under the leaf limits. A sample is only used while the version of the dataset is the one it was
+ * taken at: refreshing the metadata of the dataset makes it stale. The samples are kept within a budget of disk
+ * space, the least recently used ones having their results deleted first.
+ */
+class PreviewSampleStore {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PreviewSampleStore.class);
+
+  private static final String METRIC_PREFIX = "jobs.preview_samples";
+
+  private final Cache<Key, Entry> entries;
+  private final long maximumBytes;
+  private final JobResultsStore resultsStore;
+  private final Counter hits = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+  private final Counter misses = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+  private final Counter evictions = Metrics.getInstance().counter(MetricRegistry.name(METRIC_PREFIX, "evictions"));
+
+  /**
+   * @param maximumBytes disk space the stored samples can use.
+   */
+  PreviewSampleStore(long maximumBytes, final JobResultsStore resultsStore) {
+    this.maximumBytes = maximumBytes;
+    this.resultsStore = resultsStore;
+    // a single segment, for the budget and the recency of use to be global rather than per segment.
+    this.entries = CacheBuilder.newBuilder()
+        .concurrencyLevel(1)
+        .maximumWeight(maximumBytes)
+        .weigher(new Weigher<Key, Entry>() {
+          @Override
+          public int weigh(Key key, Entry value) {
+            return (int) Math.min(Integer.MAX_VALUE, value.bytes);
+          }
+        })
+        .removalListener(new RemovalListener<Key, Entry>() {
+          @Override
+          public void onRemoval(RemovalNotification<Key, Entry> notification) {
+            // a replaced sample keeps its results, they are deleted with the results of other old jobs.
+            if (notification.getCause() == RemovalCause.REPLACED) {
+              return;
+            }
+            if (notification.wasEvicted()) {
+              evictions.inc();
+            }
+            logger.debug("Deleting preview sample of {} stored by job {}", notification.getKey().path,
+                notification.getValue().jobId.getId());
+            resultsStore.cleanup(notification.getValue().jobId);
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Get the job which stored the sample of a dataset.
+   *
+   * @param config the current configuration of the dataset.
+   * @return the job, or null if there is no sample of the dataset or if the dataset changed since it was taken.
+   */
+  JobId get(Key key, DatasetConfig config) {
+    final Entry entry = entries.getIfPresent(key);
+    if (entry == null) {
+      misses.inc();
+      return null;
+    }
+
+    if (!Objects.equal(entry.datasetVersion, config.getVersion())
+        || !resultsStore.jobOutputDirectoryExists(entry.jobId)) {
+      logger.debug("Dropping stale preview sample of {} stored by job {}", key.path, entry.jobId.getId());
+      entries.invalidate(key);
+      misses.inc();
+      return null;
+    }
+
+    hits.inc();
+    return entry.jobId;
+  }
+
+  /**
+   * Index the sample of a dataset stored by a completed job.
+   *
+   * @param config the configuration of the dataset the sample was taken at.
+   * @return true if the sample was indexed. Samples larger than the budget are not.
+   */
+  boolean put(Key key, JobId jobId, DatasetConfig config) {
+    final long bytes = resultsStore.getJobResultsSize(jobId);
+    if (bytes < 0 || bytes > maximumBytes) {
+      return false;
+    }
+    entries.put(key, new Entry(jobId, config.getVersion(), bytes));
+    return true;
+  }
+
+  @VisibleForTesting
+  long size() {
+    return entries.size();
+  }
+
+  /**
+   * Get the time since which a sample of the dataset is current: the last time its metadata was refreshed.
+   */
+  static long getRefreshTime(DatasetConfig config) {
+    if (config.getReadDefinition() != null && config.getReadDefinition().getLastRefreshDate() != null) {
+      return config.getReadDefinition().getLastRefreshDate();
+    }
+    return config.getCreatedAt() != null ? config.getCreatedAt() : 0;
+  }
+
+  /**
+   * Get the sql which samples a dataset.
+   */
+  static String getSampleSql(NamespaceKey path) {
+    return "SELECT * FROM " + SqlUtils.quotedCompound(path.getPathComponents());
+  }
+
+  static Key newKey(NamespaceKey path, String user) {
+    return new Key(path.getPathComponents(), user);
+  }
+
+  /**
+   * Identifies the sample of a dataset read by a user.
+   */
+  static final class Key {
+    private final List<String> path;
+    private final String user;
+
+    private Key(List<String> path, String user) {
+      this.path = ImmutableList.copyOf(path);
+      this.user = user;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(path, user);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      return Objects.equal(path, that.path) && Objects.equal(user, that.user);
+    }
+  }
+
+  /**
+   * A job which stored a sample, with the version of the dataset it was taken at and the size of its results.
+   */
+  private static final class Entry {
+    private final JobId jobId;
+    private final Long datasetVersion;
+    private final long bytes;
+
+    private Entry(JobId jobId, Long datasetVersion, long bytes) {
+      this.jobId = jobId;
+      this.datasetVersion = datasetVersion;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -35,6 +35,7 @@ import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.tools.ValidationException;
 
 import com.dremio.common.utils.PathUtils;
+import com.dremio.exec.planner.common.MoreRelOptUtil;
 import com.dremio.exec.planner.fragment.PlanningSet;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerUtil;
 import com.dremio.exec.record.BatchSchema;
@@ -81,6 +82,7 @@ public class QueryMetadata {
   private final Optional<PlanningSet> planningSet;
   private final Optional<RelNode> serializableLogicalPlan;
   private final BatchSchema batchSchema;
+  private final boolean dynamic;
 
   public QueryMetadata(List<SqlIdentifier> ancestors,
                        List<FieldOrigin> fieldOrigins, List<JoinInfo> joins, List<ParentDatasetInfo> parents,
@@ -88,6 +90,16 @@ public class QueryMetadata {
                        List<ParentDataset> grandParents, final RelOptCost cost, final PlanningSet planningSet,
                        final RelNode serializableLogicalPlan,
                        BatchSchema batchSchema) {
+    this(ancestors, fieldOrigins, joins, parents, sqlNode, rowType, grandParents, cost, planningSet,
+        serializableLogicalPlan, batchSchema, false);
+  }
+
+  public QueryMetadata(List<SqlIdentifier> ancestors,
+                       List<FieldOrigin> fieldOrigins, List<JoinInfo> joins, List<ParentDatasetInfo> parents,
+                       SqlNode sqlNode, RelDataType rowType,
+                       List<ParentDataset> grandParents, final RelOptCost cost, final PlanningSet planningSet,
+                       final RelNode serializableLogicalPlan,
+                       BatchSchema batchSchema, boolean dynamic) {
     this.rowType = rowType;
 
     this.ancestors = Optional.fromNullable(ancestors);
@@ -100,6 +112,7 @@ public class QueryMetadata {
     this.planningSet = Optional.fromNullable(planningSet);
     this.serializableLogicalPlan = Optional.fromNullable(serializableLogicalPlan);
     this.batchSchema = batchSchema;
+    this.dynamic = dynamic;
   }
 
   public Optional<List<String>> getReferredTables() {
@@ -162,6 +175,14 @@ public class QueryMetadata {
     return planningSet;
   }
 
+  /**
+   * Returns whether the query, with its views expanded, calls functions whose value changes from one query to the
+   * other, such as now() or random().
+   */
+  public boolean isDynamic() {
+    return dynamic;
+  }
+
   /**
    * Create a builder for QueryMetadata.
    * @param namespace A namespace service. If provided, ParentDatasetInfo will be extracted, otherwise it won't.
@@ -187,6 +208,7 @@ public class QueryMetadata {
     private PlanningSet planningSet;
     private RelNode serializablePlan;
     private BatchSchema batchSchema;
+    private boolean dynamic;
 
     Builder(NamespaceService namespace){
       this.namespace = namespace;
@@ -227,6 +249,14 @@ public class QueryMetadata {
       return this;
     }
 
+    /**
+     * Adds the plan converted from the query, with its views expanded.
+     */
+    public Builder addConvertedPlan(final RelNode converted) {
+      this.dynamic = MoreRelOptUtil.DynamicCallFinder.hasDynamicCall(converted);
+      return this;
+    }
+
     /**
      * Sets parallelized query plan.
      */
@@ -287,7 +317,8 @@ public class QueryMetadata {
         cost, // query cost past logical
         planningSet,
         serializablePlan,
-        batchSchema
+        batchSchema,
+        dynamic
       );
     }
 
@@ -17,6 +17,7 @@ package com.dremio.service.jobs;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -308,6 +309,63 @@ public class TestArrowFileReader {
     }
   }
 
+  @Test
+  public void readingMultiBatchFileThroughPageCache() throws Exception {
+    List<VectorContainer> containers = Lists.newArrayList();
+    try (JobResultsPageCache pageCache = new JobResultsPageCache(ALLOCATOR, 1024 * 1024)) {
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+
+      Path basePath = new Path(dateGenFolder.getRoot().getPath());
+      ArrowFileMetadata metadata = writeArrowFile(containers.toArray(new VectorContainer[3]));
+      try(ArrowFileReader reader =
+              new ArrowFileReader(FileSystem.get(FS_CONF), basePath, metadata, ALLOCATOR, pageCache, "job")) {
+        // first batch is read from the file and cached, the next one is prefetched.
+        List<RecordBatchHolder> batchHolders = reader.read(0, 5);
+        assertEquals(0, reader.getLastBatchIndex());
+        releaseBatches(batchHolders);
+        reader.prefetch(reader.getLastBatchIndex() + 1, 1);
+        assertTrue(pageCache.contains(new JobResultsPageCache.PageKey("job", metadata.getPath(), 0)));
+        assertTrue(pageCache.contains(new JobResultsPageCache.PageKey("job", metadata.getPath(), 1)));
+        assertFalse(pageCache.contains(new JobResultsPageCache.PageKey("job", metadata.getPath(), 2)));
+      }
+
+      // cached batches decode to the same values.
+      try(ArrowFileReader reader =
+              new ArrowFileReader(FileSystem.get(FS_CONF), basePath, metadata, ALLOCATOR, pageCache, "job")) {
+        List<RecordBatchHolder> batchHolders = reader.read(2, 11);
+        assertEquals(3, batchHolders.size());
+
+        verifyBatchHolder(batchHolders.get(0), 2, 5);
+        VectorContainer batchContainer = batchHolders.get(0).getData().getContainer();
+        assertEquals(TEST_BIT_VALUES.subList(2, 5), getBitValues(batchContainer, 2, 5));
+        assertEquals(TEST_VARCHAR_VALUES.subList(2, 5), getVarCharValues(batchContainer, 2, 5));
+
+        verifyBatchHolder(batchHolders.get(1), 0, 5);
+        batchContainer = batchHolders.get(1).getData().getContainer();
+        assertEquals(TEST_BIT_VALUES, getBitValues(batchContainer, 0, 5));
+        assertEquals(TEST_VARCHAR_VALUES, getVarCharValues(batchContainer, 0, 5));
+
+        verifyBatchHolder(batchHolders.get(2), 0, 3);
+        batchContainer = batchHolders.get(2).getData().getContainer();
+        assertEquals(TEST_BIT_VALUES.subList(0, 3), getBitValues(batchContainer, 0, 3));
+        assertEquals(TEST_VARCHAR_VALUES.subList(0, 3), getVarCharValues(batchContainer, 0, 3));
+
+        releaseBatches(batchHolders);
+      }
+
+      pageCache.invalidate("job");
+      assertEquals(0, pageCache.getCurrentBytes());
+    } finally {
+      for(VectorContainer container : containers) {
+        if (container != null) {
+          container.clear();
+        }
+      }
+    }
+  }
+
   @Test
   public void writeAndReadEmptyListVectors() throws Exception {
     try (final VectorContainer batchData = createBatch(1, testEmptyListVector())) {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.dremio.datastore.IndexedStore;
+import com.dremio.datastore.KVStore;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.work.AttemptId;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobResult;
+import com.dremio.service.job.proto.JobState;
+
+/**
+ * Tests for {@link JobStateJournal}
+ */
+public class TestJobStateJournal {
+
+  // long enough for the flushes to only happen when the tests ask for them.
+  private static final long FLUSH_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+  private final JobId jobId = new JobId("job");
+
+  private IndexedStore<JobId, JobResult> store;
+  private KVStore<AttemptId, QueryProfile> profileStore;
+  private JobStateJournal journal;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() {
+    store = mock(IndexedStore.class);
+    profileStore = mock(KVStore.class);
+    journal = new JobStateJournal(store, profileStore, FLUSH_INTERVAL);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    journal.close();
+  }
+
+  @Test
+  public void testUpdatesCoalesced() {
+    journal.update(jobId, result(JobState.STARTING));
+    journal.update(jobId, result(JobState.RUNNING));
+    journal.update(jobId, result(JobState.RUNNING));
+    verify(store, never()).put(any(JobId.class), any(JobResult.class));
+
+    journal.flush();
+    final ArgumentCaptor<JobResult> written = ArgumentCaptor.forClass(JobResult.class);
+    verify(store, times(1)).put(eq(jobId), written.capture());
+    assertEquals(JobState.RUNNING, written.getValue().getAttemptsList().get(0).getState());
+
+    // nothing left to write.
+    journal.flush();
+    verify(store, times(1)).put(any(JobId.class), any(JobResult.class));
+  }
+
+  @Test
+  public void testUpdateCopiesState() {
+    final JobResult result = result(JobState.RUNNING);
+    journal.update(jobId, result);
+    // the job keeps changing after its state is journaled.
+    result.getAttemptsList().get(0).setState(JobState.COMPLETED);
+
+    journal.flush();
+    final ArgumentCaptor<JobResult> written = ArgumentCaptor.forClass(JobResult.class);
+    verify(store).put(eq(jobId), written.capture());
+    assertEquals(JobState.RUNNING, written.getValue().getAttemptsList().get(0).getState());
+  }
+
+  @Test
+  public void testPersistDropsPendingState() {
+    journal.update(jobId, result(JobState.RUNNING));
+    final JobResult completed = result(JobState.COMPLETED);
+    journal.persist(jobId, completed);
+    verify(store, times(1)).put(jobId, completed);
+
+    // a later flush doesn't overwrite the final state with the intermediate one.
+    journal.flush();
+    verify(store, times(1)).put(any(JobId.class), any(JobResult.class));
+  }
+
+  @Test
+  public void testProfileServedUntilFlushed() {
+    final AttemptId attemptId = new AttemptId();
+    final QueryProfile profile = QueryProfile.getDefaultInstance();
+
+    journal.putProfile(attemptId, profile);
+    verify(profileStore, never()).put(any(AttemptId.class), any(QueryProfile.class));
+    assertSame(profile, journal.getProfile(attemptId));
+    verify(profileStore, never()).get(any(AttemptId.class));
+
+    journal.flush();
+    verify(profileStore, times(1)).put(attemptId, profile);
+
+    // once written, the profile is read from the store.
+    when(profileStore.get(attemptId)).thenReturn(profile);
+    assertSame(profile, journal.getProfile(attemptId));
+    verify(profileStore, times(1)).get(attemptId);
+  }
+
+  @Test
+  public void testWriteThroughWithoutInterval() throws Exception {
+    journal.close();
+    journal = new JobStateJournal(store, profileStore, 0);
+
+    final JobResult running = result(JobState.RUNNING);
+    journal.update(jobId, running);
+    verify(store, times(1)).put(jobId, running);
+
+    final AttemptId attemptId = new AttemptId();
+    final QueryProfile profile = QueryProfile.getDefaultInstance();
+    journal.putProfile(attemptId, profile);
+    verify(profileStore, times(1)).put(attemptId, profile);
+  }
+
+  @Test
+  public void testCloseFlushes() throws Exception {
+    journal.update(jobId, result(JobState.RUNNING));
+    journal.close();
+    verify(store, times(1)).put(eq(jobId), any(JobResult.class));
+  }
+
+  private static JobResult result(JobState state) {
+    return new JobResult().setAttemptsList(Collections.singletonList(new JobAttempt().setState(state)));
+  }
+}
@@ -23,6 +23,7 @@ import com.dremio.datastore.KVStore.FindByRange;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
 import com.dremio.service.namespace.proto.NameSpaceContainer;
 import com.dremio.service.namespace.proto.NameSpaceContainer.Type;
 import com.dremio.service.namespace.source.proto.SourceConfig;
@@ -62,6 +63,16 @@ public interface NamespaceService {
 
   void addOrUpdateHome(NamespaceKey homePath, HomeConfig homeConfig) throws NamespaceException;
 
+  /**
+   * Replace the column statistics of the dataset at the given path. They are kept until the dataset is deleted, and
+   * only returned while the split version of the dataset is the one they were computed from.
+   *
+   * @param datasetPath  path of the dataset
+   * @param statistics  the new statistics
+   * @throws NamespaceException  if a namespace or a dataset cannot be found for the given key
+   */
+  void setDatasetStatistics(NamespaceKey datasetPath, DatasetStatistics statistics) throws NamespaceException;
+
   //// GET
   boolean exists(NamespaceKey key, Type type);
 
@@ -77,6 +88,15 @@ public interface NamespaceService {
    */
   DatasetConfig getDataset(NamespaceKey datasetPath) throws NamespaceException;
 
+  /**
+   * Returns the column statistics of the dataset at the given path.
+   *
+   * @param datasetPath  path of the dataset
+   * @return the statistics, or null if they were never computed or the splits of the dataset changed since
+   * @throws NamespaceException  if a namespace or a dataset cannot be found for the given key
+   */
+  DatasetStatistics getDatasetStatistics(NamespaceKey datasetPath) throws NamespaceException;
+
   /**
    * Get multiple entities of given type
    * @param lookupKeys namespace keys
@@ -46,15 +46,18 @@ import javax.inject.Inject;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.datastore.IndexedStore;
 import com.dremio.datastore.IndexedStore.FindByCondition;
+import com.dremio.datastore.KVStore;
 import com.dremio.datastore.KVStore.FindByRange;
 import com.dremio.datastore.KVStoreProvider;
 import com.dremio.datastore.PassThroughSerializer;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.StoreBuildingFactory;
 import com.dremio.datastore.StoreCreationFunction;
+import com.dremio.datastore.StringSerializer;
 import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
 import com.dremio.service.namespace.dataset.proto.DatasetType;
 import com.dremio.service.namespace.dataset.proto.PhysicalDataset;
 import com.dremio.service.namespace.proto.NameSpaceContainer;
@@ -81,6 +84,7 @@ public class NamespaceServiceImpl implements NamespaceService {
 
   public static final String DAC_NAMESPACE = "dac-namespace";
   public static final String DATASET_SPLITS = "metadata-dataset-splits";
+  public static final String DATASET_STATISTICS = "metadata-dataset-statistics";
 
   public static final Function<NamespaceKey, byte[]> NAMESPACE_KEY_TO_BINARY_KEY = new Function<NamespaceKey, byte[]>() {
     @Nullable
@@ -92,6 +96,7 @@ public class NamespaceServiceImpl implements NamespaceService {
 
   private final IndexedStore<byte[], NameSpaceContainer> namespace;
   private final IndexedStore<DatasetSplitId, DatasetSplit> splitsStore;
+  private final KVStore<String, DatasetStatistics> statisticsStore;
 
   /**
    * Factory for {@code NamespaceServiceImpl}
@@ -114,6 +119,7 @@ public class NamespaceServiceImpl implements NamespaceService {
   public NamespaceServiceImpl(final KVStoreProvider kvStoreProvider) {
     this.namespace = kvStoreProvider.getStore(NamespaceStoreCreator.class);
     this.splitsStore = kvStoreProvider.getStore(DatasetSplitCreator.class);
+    this.statisticsStore = kvStoreProvider.getStore(DatasetStatisticsCreator.class);
   }
 
   /**
@@ -148,6 +154,21 @@ public class NamespaceServiceImpl implements NamespaceService {
     }
   }
 
+  /**
+   * KVStore creator for dataset statistics, keyed by dataset id.
+   */
+  public static class DatasetStatisticsCreator implements StoreCreationFunction<KVStore<String, DatasetStatistics>> {
+
+    @Override
+    public KVStore<String, DatasetStatistics> build(StoreBuildingFactory factory) {
+      return factory.<String, DatasetStatistics>newStore()
+        .name(DATASET_STATISTICS)
+        .keySerializer(StringSerializer.class)
+        .valueSerializer(DatasetStatisticsSerializer.class)
+        .build();
+    }
+  }
+
   /**
    * Helper method which creates a new entity or update the existing entity with given entity
    *
@@ -421,6 +442,23 @@ public class NamespaceServiceImpl implements NamespaceService {
     return getEntity(datasetPath, DATASET).getDataset();
   }
 
+  @Override
+  public DatasetStatistics getDatasetStatistics(NamespaceKey datasetPath) throws NamespaceException {
+    final DatasetConfig dataset = getDataset(datasetPath);
+    final DatasetStatistics statistics = statisticsStore.get(dataset.getId().getId());
+    final Long splitVersion = dataset.getReadDefinition() == null ? null : dataset.getReadDefinition().getSplitVersion();
+    if (statistics == null || !Objects.equals(statistics.getSplitVersion(), splitVersion)) {
+      // the metadata of the dataset was refreshed with different splits since.
+      return null;
+    }
+    return statistics;
+  }
+
+  @Override
+  public void setDatasetStatistics(NamespaceKey datasetPath, DatasetStatistics statistics) throws NamespaceException {
+    statisticsStore.put(getDataset(datasetPath).getId().getId(), statistics);
+  }
+
   @Override
   public FolderConfig getFolder(NamespaceKey folderPath) throws NamespaceException {
     return getEntity(folderPath, FOLDER).getFolder();
@@ -605,6 +643,7 @@ public class NamespaceServiceImpl implements NamespaceService {
         break;
       case DATASET:
         namespace.delete(childKey.getKey(), child.getDataset().getVersion());
+        statisticsStore.delete(child.getDataset().getId().getId());
         break;
       default:
         // Only leaf level or intermediate namespace container types are expected here.
@@ -640,6 +679,7 @@ public class NamespaceServiceImpl implements NamespaceService {
   @Override
   public void deleteDataset(final NamespaceKey datasetPath, long version) throws NamespaceException {
     NameSpaceContainer container = deleteEntity(datasetPath, DATASET, version);
+    statisticsStore.delete(container.getDataset().getId().getId());
     if (container.getDataset().getType() == PHYSICAL_DATASET_SOURCE_FOLDER) {
       // create a folder so that any existing datasets under the folder are now visible
       addOrUpdateFolder(datasetPath,
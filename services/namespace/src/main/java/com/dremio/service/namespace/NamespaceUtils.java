@@ -20,18 +20,27 @@ import static com.dremio.service.namespace.proto.NameSpaceContainer.Type.HOME;
 import static com.dremio.service.namespace.proto.NameSpaceContainer.Type.SOURCE;
 import static com.dremio.service.namespace.proto.NameSpaceContainer.Type.SPACE;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.dataset.proto.ParentDataset;
 import com.dremio.service.namespace.proto.EntityId;
 import com.dremio.service.namespace.proto.NameSpaceContainer;
 import com.dremio.service.namespace.proto.NameSpaceContainer.Type;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 
 /**
  * Utility methods for namespace service.
  */
 public final class NamespaceUtils {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NamespaceUtils.class);
 
   static boolean isListable(final NameSpaceContainer.Type t) {
     return (t == HOME || t == SPACE || t == FOLDER || t == SOURCE);
@@ -96,6 +105,45 @@ public final class NamespaceUtils {
     }
   }
 
+  /**
+   * Get the versions of the given datasets and of the datasets they depend on, the parents of views included, to find
+   * out later whether any of them changed.
+   *
+   * @return the versions by dataset path, or null if one of the datasets is not in the namespace.
+   */
+  public static Map<List<String>, Long> getDatasetVersions(NamespaceService namespace,
+                                                           Collection<List<String>> paths) {
+    final Map<List<String>, Long> versions = Maps.newHashMap();
+    final Deque<List<String>> toVisit = new ArrayDeque<>(paths);
+    while (!toVisit.isEmpty()) {
+      final List<String> path = toVisit.pop();
+      if (versions.containsKey(path)) {
+        continue;
+      }
+
+      final DatasetConfig config;
+      try {
+        config = namespace.getDataset(new NamespaceKey(path));
+      } catch (NamespaceException e) {
+        logger.debug("Dataset {} not found in namespace", path, e);
+        return null;
+      }
+      if (config == null) {
+        return null;
+      }
+      versions.put(path, config.getVersion());
+
+      if (config.getType() == DatasetType.VIRTUAL_DATASET
+          && config.getVirtualDataset() != null
+          && config.getVirtualDataset().getParentsList() != null) {
+        for (ParentDataset parent : config.getVirtualDataset().getParentsList()) {
+          toVisit.push(ImmutableList.copyOf(parent.getDatasetPathList()));
+        }
+      }
+    }
+    return versions;
+  }
+
   static<T> List<T> skipLast(List<T> entitiesOnPath) {
     Preconditions.checkArgument(entitiesOnPath.size() >= 1);
     return entitiesOnPath.subList(0, entitiesOnPath.size() - 1);
@@ -19,6 +19,8 @@ import static com.dremio.service.namespace.dataset.proto.DatasetType.PHYSICAL_DA
 import static com.dremio.service.namespace.dataset.proto.DatasetType.PHYSICAL_DATASET_SOURCE_FOLDER;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -46,6 +48,7 @@ import com.dremio.service.namespace.dataset.DatasetVersion;
 import com.dremio.service.namespace.dataset.proto.Affinity;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.DatasetStatistics;
 import com.dremio.service.namespace.dataset.proto.DatasetType;
 import com.dremio.service.namespace.dataset.proto.PartitionValue;
 import com.dremio.service.namespace.dataset.proto.PartitionValueType;
@@ -835,4 +838,46 @@ public class TestNamespaceService {
     }
   }
 
+  @Test
+  public void testDatasetStatisticsStaleAfterSplitsChange() throws Exception {
+    try (final KVStoreProvider kvstore = new LocalKVStoreProvider(DremioTest.CLASSPATH_SCAN_RESULT, null, true, false)) {
+      kvstore.start();
+      final NamespaceService ns = new NamespaceServiceImpl(kvstore);
+
+      final DatasetConfig datasetConfig = new DatasetConfig()
+        .setType(PHYSICAL_DATASET)
+        .setId(new EntityId().setId(UUID.randomUUID().toString()))
+        .setName("testDatasetStatistics")
+        .setFullPathList(Lists.newArrayList("test", "testDatasetStatistics"))
+        .setOwner("dremio")
+        .setReadDefinition(new ReadDefinition().setSplitVersion(0L));
+      final NamespaceKey key = new NamespaceKey(datasetConfig.getFullPathList());
+
+      final List<DatasetSplit> splits = Lists.newArrayList();
+      for (int i = 0; i < 2; i++) {
+        splits.add(new DatasetSplit()
+          .setRowCount((long) i)
+          .setVersion(0L)
+          .setSize((long) i)
+          .setSplitKey(String.valueOf(i))
+          .setSplitVersion(0L));
+      }
+
+      addSource(ns, "test");
+      ns.addOrUpdateDataset(key, datasetConfig, splits);
+      ns.setDatasetStatistics(key, new DatasetStatistics()
+        .setRecordCount(1L)
+        .setSplitVersion(datasetConfig.getReadDefinition().getSplitVersion()));
+      assertNotNull(ns.getDatasetStatistics(key));
+
+      // refreshing the metadata with the same splits keeps the statistics
+      ns.addOrUpdateDataset(key, datasetConfig, splits);
+      assertNotNull(ns.getDatasetStatistics(key));
+
+      // they are stale once the splits changed
+      splits.get(0).setRowCount(10L);
+      ns.addOrUpdateDataset(key, datasetConfig, splits);
+      assertNull(ns.getDatasetStatistics(key));
+    }
+  }
 }